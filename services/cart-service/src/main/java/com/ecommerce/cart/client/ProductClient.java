@@ -4,6 +4,10 @@ import com.ecommerce.cart.model.Product;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 /**
  * Product Service Feign 客戶端
@@ -18,4 +22,10 @@ public interface ProductClient {
      */
     @GetMapping("/{id}")
     Product getProductById(@PathVariable("id") Long id);
+    
+    /**
+     * 依多個商品ID批量查詢（不增加瀏覽數），不存在的商品不會出現在結果中
+     */
+    @PostMapping("/batch")
+    List<Product> getProductsByIds(@RequestBody List<Long> ids);
 }
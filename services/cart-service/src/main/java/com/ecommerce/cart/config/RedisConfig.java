@@ -1,14 +1,25 @@
 package com.ecommerce.cart.config;
 
+import com.ecommerce.cart.repository.CartExpiryPolicy;
+import com.ecommerce.cart.repository.codec.BinaryCartItemCodec;
+import com.ecommerce.cart.repository.codec.CartItemCodec;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
+import com.ecommerce.cart.repository.codec.JsonCartItemCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Redis 配置類
  */
@@ -35,6 +46,52 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * 購物車 Hash 專用模板，項目值以位元組讀寫，由 CartItemCodecs 編解碼
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> cartRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * 購物車項目編碼：cart.storage.codec 決定寫入格式（binary / json），讀取兩種格式都支援
+     */
+    @Bean
+    public CartItemCodecs cartItemCodecs(ObjectMapper objectMapper,
+                                         @Value("${cart.storage.codec:binary}") String codec) {
+        CartItemCodec binary = new BinaryCartItemCodec();
+        CartItemCodec json = new JsonCartItemCodec(objectMapper);
+        CartItemCodec writer = JsonCartItemCodec.NAME.equals(codec) ? json : binary;
+        return new CartItemCodecs(writer, List.of(binary, json));
+    }
+
+    /**
+     * 購物車過期策略：依購物車價值與活躍度分級的 TTL，每個刷新間隔最多刷新一次
+     */
+    @Bean
+    public CartExpiryPolicy cartExpiryPolicy(
+            @Value("${cart.expiry.refresh-interval-minutes:60}") long refreshIntervalMinutes,
+            @Value("${cart.expiry.base-ttl-days:7}") long baseTtlDays,
+            @Value("${cart.expiry.engaged-touches:3}") int engagedTouches,
+            @Value("${cart.expiry.engaged-ttl-days:14}") long engagedTtlDays,
+            @Value("${cart.expiry.high-value-threshold:3000}") BigDecimal highValueThreshold,
+            @Value("${cart.expiry.high-value-ttl-days:30}") long highValueTtlDays) {
+        return new CartExpiryPolicy(Duration.ofMinutes(refreshIntervalMinutes),
+                Duration.ofDays(baseTtlDays),
+                engagedTouches,
+                Duration.ofDays(engagedTtlDays),
+                highValueThreshold,
+                Duration.ofDays(highValueTtlDays));
+    }
+
     /**
      * ObjectMapper 配置
      */
@@ -4,11 +4,19 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+import com.ecommerce.cart.dto.AddCartItemRequest;
+import com.ecommerce.cart.dto.BatchCartRequest;
+import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.dto.CartSummaryResponse;
+import com.ecommerce.cart.dto.MergeGuestCartRequest;
+import com.ecommerce.cart.dto.UpdateCartItemRequest;
+import com.ecommerce.cart.service.CartService;
 
 import java.util.Map;
 import java.util.HashMap;
-import java.util.List;
-import java.util.ArrayList;
 
 /**
  * 購物車控制器
@@ -16,8 +24,11 @@ import java.util.ArrayList;
 @RestController
 @RequestMapping("/api/v1/carts")
 @Tag(name = "Cart", description = "購物車管理 API")
+@RequiredArgsConstructor
 public class CartController {
 
+    private final CartService cartService;
+
     @Operation(summary = "健康檢查")
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
@@ -29,58 +40,67 @@ public class CartController {
 
     @Operation(summary = "獲取用戶購物車")
     @GetMapping("/{userId}")
-    public ResponseEntity<Map<String, Object>> getCart(@PathVariable("userId") Long userId) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("userId", userId);
-        response.put("items", new ArrayList<>());
-        response.put("totalItems", 0);
-        response.put("totalPrice", 0.0);
-        response.put("itemCount", 0);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CartResponse> getCart(@PathVariable("userId") Long userId) {
+        return ResponseEntity.ok(cartService.getCart(userId));
+    }
+
+    @Operation(summary = "獲取購物車彙總", description = "只回傳項目數、總數量與總價，不讀取購物車項目")
+    @GetMapping("/{userId}/summary")
+    public ResponseEntity<CartSummaryResponse> getCartSummary(@PathVariable("userId") Long userId) {
+        return ResponseEntity.ok(cartService.getCartSummary(userId));
     }
 
     @Operation(summary = "添加商品到購物車")
     @PostMapping("/{userId}/items")
-    public ResponseEntity<Map<String, Object>> addToCart(
+    public ResponseEntity<CartResponse> addToCart(
             @PathVariable("userId") Long userId,
-            @RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("userId", userId);
-        response.put("message", "商品已添加到購物車");
-        response.put("productId", request.get("productId"));
-        response.put("quantity", request.get("quantity"));
-        return ResponseEntity.ok(response);
+            @Valid @RequestBody AddCartItemRequest request) {
+        return ResponseEntity.ok(cartService.addToCart(userId, request));
+    }
+
+    @Operation(summary = "重新驗證購物車", description = "以目前的商品資訊更新購物車內的價格、名稱與圖片")
+    @PostMapping("/{userId}/revalidate")
+    public ResponseEntity<CartResponse> revalidateCart(@PathVariable("userId") Long userId) {
+        return ResponseEntity.ok(cartService.revalidateCart(userId));
+    }
+
+    @Operation(summary = "批量購物車操作", description = "依序套用多個加入、設定數量、移除操作，回傳更新後的購物車")
+    @PostMapping("/{userId}/items/batch")
+    public ResponseEntity<CartResponse> applyBatch(
+            @PathVariable("userId") Long userId,
+            @Valid @RequestBody BatchCartRequest request) {
+        return ResponseEntity.ok(cartService.applyBatch(userId, request));
+    }
+
+    @Operation(summary = "合併訪客購物車", description = "登入後把訪客購物車併入用戶購物車並刪除訪客購物車")
+    @PostMapping("/{userId}/merge")
+    public ResponseEntity<CartResponse> mergeGuestCart(
+            @PathVariable("userId") Long userId,
+            @Valid @RequestBody MergeGuestCartRequest request) {
+        return ResponseEntity.ok(cartService.mergeGuestCart(userId, request));
     }
 
     @Operation(summary = "更新購物車項目數量")
     @PutMapping("/{userId}/items/{productId}")
-    public ResponseEntity<Map<String, Object>> updateCartItem(
+    public ResponseEntity<CartResponse> updateCartItem(
             @PathVariable("userId") Long userId,
             @PathVariable("productId") Long productId,
-            @RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("userId", userId);
-        response.put("productId", productId);
-        response.put("message", "商品數量已更新");
-        response.put("quantity", request.get("quantity"));
-        return ResponseEntity.ok(response);
+            @Valid @RequestBody UpdateCartItemRequest request) {
+        return ResponseEntity.ok(cartService.updateCartItem(userId, productId, request));
     }
 
     @Operation(summary = "從購物車移除商品")
     @DeleteMapping("/{userId}/items/{productId}")
-    public ResponseEntity<Map<String, Object>> removeFromCart(
+    public ResponseEntity<CartResponse> removeFromCart(
             @PathVariable("userId") Long userId,
             @PathVariable("productId") Long productId) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("userId", userId);
-        response.put("productId", productId);
-        response.put("message", "商品已從購物車移除");
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(cartService.removeFromCart(userId, productId));
     }
 
     @Operation(summary = "清空購物車")
     @DeleteMapping("/{userId}")
     public ResponseEntity<Map<String, String>> clearCart(@PathVariable("userId") Long userId) {
+        cartService.clearCart(userId);
         Map<String, String> response = new HashMap<>();
         response.put("userId", userId.toString());
         response.put("message", "購物車已清空");
@@ -92,7 +112,7 @@ public class CartController {
     public ResponseEntity<Map<String, Object>> getCartItemCount(@PathVariable("userId") Long userId) {
         Map<String, Object> response = new HashMap<>();
         response.put("userId", userId);
-        response.put("count", 0);
+        response.put("count", cartService.getCartItemCount(userId));
         return ResponseEntity.ok(response);
     }
 }
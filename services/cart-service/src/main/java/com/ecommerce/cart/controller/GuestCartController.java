@@ -0,0 +1,77 @@
+package com.ecommerce.cart.controller;
+
+import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+
+import com.ecommerce.cart.dto.AddCartItemRequest;
+import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.dto.GuestCartIds;
+import com.ecommerce.cart.dto.UpdateCartItemRequest;
+import com.ecommerce.cart.service.CartService;
+
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * 訪客購物車控制器
+ *
+ * 未登入的訪客以會話ID識別購物車，登入後透過 POST /api/v1/carts/{userId}/merge 合併到用戶購物車
+ */
+@Validated
+@RestController
+@RequestMapping("/api/v1/guest-carts")
+@Tag(name = "Guest Cart", description = "訪客購物車 API")
+@RequiredArgsConstructor
+public class GuestCartController {
+
+    private final CartService cartService;
+
+    @Operation(summary = "獲取訪客購物車")
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<CartResponse> getGuestCart(
+            @PathVariable("sessionId") @Pattern(regexp = GuestCartIds.SESSION_ID_PATTERN) String sessionId) {
+        return ResponseEntity.ok(cartService.getGuestCart(sessionId));
+    }
+
+    @Operation(summary = "添加商品到訪客購物車")
+    @PostMapping("/{sessionId}/items")
+    public ResponseEntity<CartResponse> addToGuestCart(
+            @PathVariable("sessionId") @Pattern(regexp = GuestCartIds.SESSION_ID_PATTERN) String sessionId,
+            @Valid @RequestBody AddCartItemRequest request) {
+        return ResponseEntity.ok(cartService.addToGuestCart(sessionId, request));
+    }
+
+    @Operation(summary = "更新訪客購物車項目數量")
+    @PutMapping("/{sessionId}/items/{productId}")
+    public ResponseEntity<CartResponse> updateGuestCartItem(
+            @PathVariable("sessionId") @Pattern(regexp = GuestCartIds.SESSION_ID_PATTERN) String sessionId,
+            @PathVariable("productId") Long productId,
+            @Valid @RequestBody UpdateCartItemRequest request) {
+        return ResponseEntity.ok(cartService.updateGuestCartItem(sessionId, productId, request));
+    }
+
+    @Operation(summary = "從訪客購物車移除商品")
+    @DeleteMapping("/{sessionId}/items/{productId}")
+    public ResponseEntity<CartResponse> removeFromGuestCart(
+            @PathVariable("sessionId") @Pattern(regexp = GuestCartIds.SESSION_ID_PATTERN) String sessionId,
+            @PathVariable("productId") Long productId) {
+        return ResponseEntity.ok(cartService.removeFromGuestCart(sessionId, productId));
+    }
+
+    @Operation(summary = "清空訪客購物車")
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Map<String, String>> clearGuestCart(
+            @PathVariable("sessionId") @Pattern(regexp = GuestCartIds.SESSION_ID_PATTERN) String sessionId) {
+        cartService.clearGuestCart(sessionId);
+        Map<String, String> response = new HashMap<>();
+        response.put("sessionId", sessionId);
+        response.put("message", "購物車已清空");
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.cart.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * 批量購物車操作請求 DTO
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "批量購物車操作請求")
+public class BatchCartRequest {
+    
+    @Schema(description = "依序套用的操作")
+    @NotEmpty(message = "操作不能為空")
+    @Size(max = 100, message = "單次最多 100 個操作")
+    @Valid
+    private List<Operation> operations;
+    
+    @Schema(description = "ADD 的商品不存在或無法購買時略過該操作而不拒絕整批，略過的商品ID見回應的 skippedProductIds",
+            example = "false")
+    private boolean skipUnavailable;
+    
+    /**
+     * 單一購物車操作
+     */
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "購物車操作")
+    public static class Operation {
+        
+        @Schema(description = "操作類型：ADD 累加數量、SET 設定數量、REMOVE 移除", example = "ADD")
+        @NotNull(message = "操作類型不能為空")
+        private OperationType type;
+        
+        @Schema(description = "商品ID", example = "1")
+        @NotNull(message = "商品ID不能為空")
+        private Long productId;
+        
+        @Schema(description = "商品數量（ADD、SET 必填）", example = "2")
+        private Integer quantity;
+        
+        @AssertTrue(message = "ADD 與 SET 的商品數量必須大於0")
+        @Schema(hidden = true)
+        public boolean isQuantityValid() {
+            return type == OperationType.REMOVE || (quantity != null && quantity > 0);
+        }
+    }
+    
+    public enum OperationType {
+        ADD, SET, REMOVE
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.cart.dto;
 
 import com.ecommerce.cart.model.CartItem;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.Builder;
@@ -34,4 +35,8 @@ public class CartResponse {
     
     @Schema(description = "購物車項目數量（不同商品種類數）", example = "3")
     private Integer itemCount;
+
+    @Schema(description = "批量操作中因商品不存在或無法購買而略過的商品ID（僅 skipUnavailable 時出現）")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Long> skippedProductIds;
 }
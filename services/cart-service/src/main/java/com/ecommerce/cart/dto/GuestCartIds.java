@@ -0,0 +1,15 @@
+package com.ecommerce.cart.dto;
+
+/**
+ * 訪客購物車會話ID的格式限制
+ */
+public final class GuestCartIds {
+
+    /**
+     * 會話ID只允許英數字、底線與連字號，避免組出非預期的 Redis Key
+     */
+    public static final String SESSION_ID_PATTERN = "[A-Za-z0-9_-]{8,64}";
+
+    private GuestCartIds() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.cart.dto;
+
+import com.ecommerce.cart.model.GuestMergePolicy;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * 合併訪客購物車請求 DTO
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "合併訪客購物車請求")
+public class MergeGuestCartRequest {
+    
+    @Schema(description = "訪客會話ID", example = "3f9c2a7e-51b4-4c1d-9e0a-6d2b8f41c7aa")
+    @NotBlank(message = "訪客會話ID不能為空")
+    @Pattern(regexp = GuestCartIds.SESSION_ID_PATTERN, message = "訪客會話ID格式錯誤")
+    private String sessionId;
+    
+    @Schema(description = "同一商品的數量衝突策略，預設 SUM", example = "SUM")
+    private GuestMergePolicy policy;
+}
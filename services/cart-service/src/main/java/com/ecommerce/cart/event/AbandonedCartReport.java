@@ -0,0 +1,60 @@
+package com.ecommerce.cart.event;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 棄置購物車分析報告，每次完整掃描後發佈到 cart.abandoned.report
+ *
+ * 熱門商品以 Space-Saving 演算法計數，carts 可能高估，最多高估 cartsError
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AbandonedCartReport {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    // 閒置超過這麼多小時的購物車視為棄置
+    private long abandonedAfterHours;
+
+    private long cartsScanned;
+    private long abandonedCarts;
+    private BigDecimal abandonedValue;
+
+    // 棄置購物車中最常出現的商品，依購物車數排序
+    private List<ProductStat> topProducts;
+    // 棄置購物車依總價分組
+    private List<Bucket> valueHistogram;
+    // 所有購物車依閒置時間分組
+    private List<Bucket> ageBuckets;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProductStat {
+        private Long productId;
+        private long carts;
+        private long cartsError;
+        private long quantity;
+        private BigDecimal value;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Bucket {
+        private String label;
+        private long carts;
+        private BigDecimal value;
+    }
+}
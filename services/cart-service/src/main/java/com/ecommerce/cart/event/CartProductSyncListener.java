@@ -0,0 +1,34 @@
+package com.ecommerce.cart.event;
+
+import com.ecommerce.cart.service.CartProductSyncService;
+import com.ecommerce.events.ProductEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 把商品變更同步到購物車中的商品快照
+ *
+ * 與本機快取失效不同，所有實例共用同一個消費者群組，每個事件只由一個實例處理。
+ * 熱門商品可能在大量購物車中，單一事件處理時間較長，因此每次只拉取少量事件並放寬 poll 間隔
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartProductSyncListener {
+
+    private final CartProductSyncService cartProductSyncService;
+
+    @KafkaListener(topics = "product.updated",
+                   groupId = "cart-product-sync",
+                   properties = {"max.poll.records=10", "max.poll.interval.ms=900000"})
+    public void handleProductEvent(ProductEvent event) {
+        if (event.getProductId() == null) {
+            log.warn("忽略沒有商品ID的商品事件: {}", event);
+            return;
+        }
+
+        cartProductSyncService.sync(event);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.cart.event;
+
+import com.ecommerce.cart.service.ProductSummaryCache;
+import com.ecommerce.events.ProductEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 依商品變更事件失效本機的商品摘要快取
+ *
+ * 每個實例使用獨立的消費者群組並只處理啟動後的新事件
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSummaryCacheUpdater {
+
+    private final ProductSummaryCache productSummaryCache;
+
+    @KafkaListener(topics = "product.updated",
+                   groupId = "cart-product-cache-#{T(java.util.UUID).randomUUID()}",
+                   properties = "auto.offset.reset=latest")
+    public void handleProductEvent(ProductEvent event) {
+        if (event.getProductId() == null) {
+            log.warn("忽略沒有商品ID的商品事件: {}", event);
+            return;
+        }
+
+        productSummaryCache.evict(event);
+        log.debug("商品摘要快取已失效: eventType={}, productId={}", event.getEventType(), event.getProductId());
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.cart.model;
+
+/**
+ * 訪客購物車合併到用戶購物車時，同一商品的數量衝突策略
+ */
+public enum GuestMergePolicy {
+
+    /**
+     * 兩邊數量相加
+     */
+    SUM,
+
+    /**
+     * 取較大的數量
+     */
+    MAX,
+
+    /**
+     * 保留用戶購物車的數量
+     */
+    USER,
+
+    /**
+     * 採用訪客購物車的數量
+     */
+    GUEST
+}
@@ -0,0 +1,211 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 購物車分析用的 keyspace 掃描、檢查點與執行鎖
+ *
+ * - SCAN 以腳本執行，可以從檢查點的 cursor 繼續（RedisTemplate 的 scan 只能從頭開始）
+ * - 只處理 cart:用戶ID；product-carts: 與 guest-cart: 不符合比對模式，其他 cart: 開頭的 key 以正規表示式濾掉
+ * - 購物車內容以 HSCAN 分段讀取，大購物車也不會一次回傳整個 Hash
+ *
+ * 檢查點 Key: cart-analytics:abandoned（Hash：cursor、state、lastCompletedAt）
+ * 執行鎖 Key: cart-analytics:abandoned:lock，同一時間只有一個實例掃描，只有持有鎖的實例可以寫入檢查點
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class CartAnalyticsRepository {
+
+    private static final String CART_KEY_PATTERN = "cart:*";
+    private static final Pattern CART_KEY = Pattern.compile("cart:(\\d+)");
+    private static final String CHECKPOINT_KEY = "cart-analytics:abandoned";
+    private static final String LOCK_KEY = "cart-analytics:abandoned:lock";
+    private static final String CURSOR_FIELD = "cursor";
+    private static final String STATE_FIELD = "state";
+    private static final String LAST_COMPLETED_FIELD = "lastCompletedAt";
+    private static final String RESERVED_FIELD_PREFIX = "#";
+    private static final String EXPIRY_STATE = "#expiry";
+    private static final int HSCAN_COUNT = 100;
+
+    private final RedisTemplate<String, byte[]> cartRedisTemplate;
+    private final CartItemCodecs codecs;
+
+    /**
+     * 從 cursor 繼續掃描一段，回傳下一個 cursor（"0" 表示掃描完成）與這段中的用戶購物車
+     */
+    public ScanPage scanCarts(String cursor, int count) {
+        List<?> reply = cartRedisTemplate.execute(CartScripts.SCAN_CARTS, List.of(),
+                bytes(cursor), bytes(CART_KEY_PATTERN), bytes(Integer.toString(count)));
+        if (reply == null || reply.size() < 2) {
+            throw new IllegalStateException("SCAN 回傳格式錯誤");
+        }
+        List<Long> userIds = new ArrayList<>();
+        for (Object key : (List<?>) reply.get(1)) {
+            Matcher matcher = CART_KEY.matcher(new String((byte[]) key, StandardCharsets.UTF_8));
+            if (matcher.matches()) {
+                userIds.add(Long.valueOf(matcher.group(1)));
+            }
+        }
+        return new ScanPage(new String((byte[]) reply.get(0), StandardCharsets.UTF_8), userIds);
+    }
+
+    /**
+     * 以 HSCAN 讀取購物車項目與最後活動時間；購物車已不存在時項目為空
+     *
+     * 最後活動時間取 #expiry 記錄的刷新時間（只有用戶的變更會刷新），舊購物車沒有時取項目中最新的 updatedAt
+     */
+    public CartContents readCart(Long userId) {
+        List<CartItem> items = new ArrayList<>();
+        LocalDateTime touchedAt = null;
+        ScanOptions options = ScanOptions.scanOptions().count(HSCAN_COUNT).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor =
+                     cartRedisTemplate.opsForHash().scan(CartRepository.getCartKey(userId), options)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                String field = entry.getKey().toString();
+                byte[] data = (byte[]) entry.getValue();
+                if (EXPIRY_STATE.equals(field)) {
+                    touchedAt = parseTouchedAt(data);
+                } else if (!field.startsWith(RESERVED_FIELD_PREFIX)) {
+                    decode(userId, data, items);
+                }
+            }
+        }
+
+        LocalDateTime lastActivity = touchedAt;
+        if (lastActivity == null) {
+            for (CartItem item : items) {
+                if (item.getUpdatedAt() != null && (lastActivity == null || item.getUpdatedAt().isAfter(lastActivity))) {
+                    lastActivity = item.getUpdatedAt();
+                }
+            }
+        }
+        return new CartContents(items, lastActivity);
+    }
+
+    /**
+     * 讀取檢查點；沒有時回傳 cursor 與 state 皆為 null 的檢查點
+     */
+    public Checkpoint loadCheckpoint() {
+        List<Object> values = cartRedisTemplate.opsForHash().multiGet(CHECKPOINT_KEY,
+                List.of(CURSOR_FIELD, STATE_FIELD, LAST_COMPLETED_FIELD));
+        String cursor = values.get(0) != null ? new String((byte[]) values.get(0), StandardCharsets.UTF_8) : null;
+        Instant lastCompletedAt = values.get(2) != null
+                ? Instant.ofEpochSecond(Long.parseLong(new String((byte[]) values.get(2), StandardCharsets.UTF_8)))
+                : null;
+        return new Checkpoint(cursor, (byte[]) values.get(1), lastCompletedAt);
+    }
+
+    /**
+     * 記錄掃描進度與目前的彙總狀態並延長執行鎖；鎖已被其他實例取得時不寫入並回傳 false
+     */
+    public boolean saveCheckpoint(String owner, Duration lockTtl, String cursor, byte[] state) {
+        return writeCheckpoint(owner, lockTtl, bytes(CURSOR_FIELD), bytes(cursor), bytes(STATE_FIELD), state);
+    }
+
+    /**
+     * 報告已發佈：清除進度並記錄完成時間；鎖已被其他實例取得時不寫入並回傳 false
+     */
+    public boolean completeCheckpoint(String owner, Duration lockTtl, Instant completedAt) {
+        return writeCheckpoint(owner, lockTtl,
+                bytes(CURSOR_FIELD), new byte[0],
+                bytes(STATE_FIELD), new byte[0],
+                bytes(LAST_COMPLETED_FIELD), bytes(Long.toString(completedAt.getEpochSecond())));
+    }
+
+    private boolean writeCheckpoint(String owner, Duration lockTtl, byte[]... fields) {
+        Object[] args = new Object[fields.length + 2];
+        args[0] = bytes(owner);
+        args[1] = bytes(Long.toString(lockTtl.toMillis()));
+        System.arraycopy(fields, 0, args, 2, fields.length);
+        Long written = cartRedisTemplate.execute(CartScripts.ANALYTICS_CHECKPOINT, List.of(LOCK_KEY, CHECKPOINT_KEY),
+                args);
+        return written != null && written > 0;
+    }
+
+    public boolean tryLock(String owner, Duration ttl) {
+        return Boolean.TRUE.equals(cartRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, bytes(owner), ttl));
+    }
+
+    /**
+     * 延長執行鎖；鎖已過期被其他實例取得時回傳 false
+     */
+    public boolean renewLock(String owner, Duration ttl) {
+        Long renewed = cartRedisTemplate.execute(CartScripts.ANALYTICS_LOCK, List.of(LOCK_KEY),
+                bytes(owner), bytes(Long.toString(ttl.toMillis())));
+        return renewed != null && renewed > 0;
+    }
+
+    public void unlock(String owner) {
+        cartRedisTemplate.execute(CartScripts.ANALYTICS_LOCK, List.of(LOCK_KEY), bytes(owner), bytes("0"));
+    }
+
+    private void decode(Long userId, byte[] data, List<CartItem> items) {
+        try {
+            items.add(codecs.decode(userId, data));
+        } catch (IllegalArgumentException e) {
+            log.warn("略過無法解碼的購物車項目: userId={}", userId);
+        }
+    }
+
+    private static LocalDateTime parseTouchedAt(byte[] state) {
+        // '上次刷新 TTL 的 epoch 秒,已套用的 TTL,活躍次數'（見 cart-common.lua 的 touch）
+        String value = new String(state, StandardCharsets.UTF_8);
+        int end = value.indexOf(',');
+        try {
+            long epochSecond = Long.parseLong(end >= 0 ? value.substring(0, end) : value);
+            return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param cursor  下一個 SCAN cursor，"0" 表示掃描完成
+     * @param userIds 這段中的用戶購物車
+     */
+    public record ScanPage(String cursor, List<Long> userIds) {
+
+        public boolean finished() {
+            return "0".equals(cursor);
+        }
+    }
+
+    /**
+     * @param items        購物車項目
+     * @param lastActivity 最後活動時間，無法判斷時為 null
+     */
+    public record CartContents(List<CartItem> items, LocalDateTime lastActivity) {
+    }
+
+    /**
+     * @param cursor          未完成掃描的 cursor，沒有進行中的掃描時為 null
+     * @param state           未完成掃描的彙總狀態
+     * @param lastCompletedAt 上次完成的時間，從未完成時為 null
+     */
+    public record Checkpoint(String cursor, byte[] state, Instant lastCompletedAt) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.cart.repository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * 購物車過期策略，由變更購物車的腳本套用（見 cart-common.lua 的 touch）
+ *
+ * - 每個購物車在 refreshInterval 內最多送一次 EXPIRE，上次刷新時間記在購物車的 #expiry 欄位
+ * - 總價達到 highValueThreshold 的購物車使用 highValueTtl
+ * - 在 engagedTouches 個不同的刷新間隔內有寫入的購物車視為活躍，使用 engagedTtl
+ * - 其餘購物車使用 baseTtl
+ *
+ * 因為刷新有間隔，實際剩餘時間介於 TTL 減去 refreshInterval 與 TTL 之間
+ */
+public record CartExpiryPolicy(Duration refreshInterval,
+                               Duration baseTtl,
+                               int engagedTouches,
+                               Duration engagedTtl,
+                               BigDecimal highValueThreshold,
+                               Duration highValueTtl) {
+
+    /**
+     * 所有購物車使用同一個 TTL，刷新間隔不超過 TTL（訪客購物車用）
+     */
+    public CartExpiryPolicy fixed(Duration ttl) {
+        Duration interval = refreshInterval.compareTo(ttl) < 0 ? refreshInterval : ttl;
+        return new CartExpiryPolicy(interval, ttl, engagedTouches, ttl, highValueThreshold, ttl);
+    }
+
+    /**
+     * 腳本參數：'刷新間隔,基本 TTL,活躍次數門檻,活躍 TTL,高價值門檻(分),高價值 TTL'，時間單位為秒
+     */
+    String toArgument() {
+        return refreshInterval.toSeconds() + ","
+                + baseTtl.toSeconds() + ","
+                + Math.max(engagedTouches, 1) + ","
+                + engagedTtl.toSeconds() + ","
+                + CartSummary.toMinor(highValueThreshold) + ","
+                + highValueTtl.toSeconds();
+    }
+}
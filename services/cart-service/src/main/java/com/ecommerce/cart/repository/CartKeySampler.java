@@ -0,0 +1,82 @@
+package com.ecommerce.cart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 以 RANDOMKEY 抽樣估計購物車 key 的數量與記憶體用量
+ *
+ * 一次管線取得 DBSIZE 與 sampleSize 個隨機 key，再以一個唯讀腳本讀取其中購物車的項目數與 MEMORY USAGE；
+ * 抽樣可重複，命中比例乘上 DBSIZE 即為估計數量，不需要掃描整個 keyspace
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartKeySampler {
+
+    private static final Pattern CART_KEY = Pattern.compile("cart:\\d+");
+    private static final Pattern GUEST_CART_KEY = Pattern.compile("guest-cart:.+");
+
+    private final RedisTemplate<String, byte[]> cartRedisTemplate;
+
+    public Sample sample(int sampleSize) {
+        List<Object> replies = cartRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.serverCommands().dbSize();
+            for (int i = 0; i < sampleSize; i++) {
+                connection.keyCommands().randomKey();
+            }
+            return null;
+        });
+        long keyspaceSize = replies.isEmpty() || replies.get(0) == null ? 0 : (Long) replies.get(0);
+
+        List<String> keys = new ArrayList<>();
+        List<Boolean> guests = new ArrayList<>();
+        for (Object reply : replies.subList(Math.min(1, replies.size()), replies.size())) {
+            if (reply == null) {
+                continue;
+            }
+            String key = new String((byte[]) reply, StandardCharsets.UTF_8);
+            boolean guest = GUEST_CART_KEY.matcher(key).matches();
+            if (guest || CART_KEY.matcher(key).matches()) {
+                keys.add(key);
+                guests.add(guest);
+            }
+        }
+
+        List<SampledCart> carts = new ArrayList<>(keys.size());
+        if (!keys.isEmpty()) {
+            List<?> stats = cartRedisTemplate.execute(CartScripts.SAMPLE_CARTS, keys);
+            for (int i = 0; stats != null && i < keys.size(); i++) {
+                long itemCount = (Long) stats.get(2 * i);
+                if (itemCount > 0) {
+                    carts.add(new SampledCart(guests.get(i), (int) itemCount, (Long) stats.get(2 * i + 1)));
+                }
+            }
+        }
+        return new Sample(keyspaceSize, sampleSize, carts);
+    }
+
+    /**
+     * 一次抽樣的結果
+     *
+     * @param keyspaceSize 抽樣時的 DBSIZE
+     * @param sampleSize   抽取的隨機 key 數
+     * @param carts        其中仍存在的購物車
+     */
+    public record Sample(long keyspaceSize, int sampleSize, List<SampledCart> carts) {
+    }
+
+    /**
+     * @param guest       是否為訪客購物車
+     * @param itemCount   商品種類數
+     * @param memoryBytes MEMORY USAGE 回報的位元組數
+     */
+    public record SampledCart(boolean guest, int itemCount, long memoryBytes) {
+    }
+}
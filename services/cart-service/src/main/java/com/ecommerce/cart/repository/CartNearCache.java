@@ -0,0 +1,299 @@
+package com.ecommerce.cart.repository;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 購物車 Hash 的本機近端快取，以 Redis 的 client-side caching（RESP3 key 追蹤）維持一致
+ *
+ * - 未命中時經由開啟 CLIENT TRACKING 的專用連線讀取，Redis 記住這個連線讀過的 key，
+ *   key 被任何實例修改或過期時推送 invalidate 訊息，收到後移除本機項目
+ * - 讀取進行中若收到失效訊息，讀取結果不寫入快取，避免舊資料覆蓋失效
+ * - 本實例的寫入在回應前直接移除本機項目，不等待推送，維持讀到自己的寫入
+ * - 連線中斷時追蹤狀態會遺失，清空快取並改為直接讀取 Redis，重新連線後再開啟追蹤
+ *
+ * cart.near-cache.enabled 為 false（預設）時不建立連線，所有讀取直接交給呼叫端
+ */
+@Slf4j
+@Repository
+public class CartNearCache implements DisposableBean {
+
+    private static final String INVALIDATE = "invalidate";
+    // 開啟追蹤失敗後重試的間隔
+    private static final long RETRY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final RedisProperties redisProperties;
+    private final boolean enabled;
+    private final Map<String, Map<Object, Object>> cache;
+    // 讀取中的 key 與讀取的識別，失效時移除，讀取完成時仍是自己的識別才寫入快取
+    private final Map<String, Object> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock trackingLock = new ReentrantLock();
+
+    private RedisClient client;
+    private StatefulRedisConnection<byte[], byte[]> connection;
+    private volatile boolean tracking;
+    private long nextAttemptNanos = System.nanoTime();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter bypassCounter;
+    private final Counter invalidationCounter;
+
+    public CartNearCache(RedisProperties redisProperties,
+                         MeterRegistry meterRegistry,
+                         @Value("${cart.near-cache.enabled:false}") boolean enabled,
+                         @Value("${cart.near-cache.max-size:10000}") int maxSize) {
+        this.redisProperties = redisProperties;
+        this.enabled = enabled;
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<Object, Object>> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        this.hitCounter = requests(meterRegistry, "hit");
+        this.missCounter = requests(meterRegistry, "miss");
+        this.bypassCounter = requests(meterRegistry, "bypass");
+        this.invalidationCounter = Counter.builder("cart.near-cache.invalidations")
+                .description("Keys invalidated by Redis tracking messages")
+                .tag("service", "cart")
+                .register(meterRegistry);
+        Gauge.builder("cart.near-cache.size", this, CartNearCache::size)
+                .description("Number of carts held in the near cache")
+                .tag("service", "cart")
+                .register(meterRegistry);
+        Gauge.builder("cart.near-cache.hit.ratio", this, CartNearCache::hitRatio)
+                .description("Share of near cache lookups served from memory since startup")
+                .tag("service", "cart")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取得購物車 Hash 的所有欄位；快取停用或追蹤未開啟時以 fallback 直接讀取
+     */
+    public Map<Object, Object> entries(String key, Function<String, Map<Object, Object>> fallback) {
+        if (!enabled || !ensureTracking()) {
+            bypassCounter.increment();
+            return fallback.apply(key);
+        }
+
+        Map<Object, Object> cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        missCounter.increment();
+        Object token = new Object();
+        loading.put(key, token);
+        Map<Object, Object> entries;
+        try {
+            entries = read(key);
+        } catch (RuntimeException e) {
+            loading.remove(key, token);
+            log.warn("近端快取讀取購物車失敗，改為直接讀取: key={}", key, e);
+            return fallback.apply(key);
+        }
+        synchronized (cache) {
+            if (loading.remove(key, token) && tracking) {
+                cache.put(key, entries);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 已在快取中的購物車，不讀取 Redis；未命中時回傳 null
+     */
+    public Map<Object, Object> getIfPresent(String key) {
+        if (!enabled || !tracking) {
+            return null;
+        }
+        Map<Object, Object> cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            hitCounter.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * 本實例修改購物車後移除本機項目
+     */
+    public void invalidate(String key) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (cache) {
+            loading.remove(key);
+            cache.remove(key);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (connection != null) {
+            connection.close();
+        }
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    double hitRatio() {
+        double lookups = hitCounter.count() + missCounter.count();
+        return lookups > 0 ? hitCounter.count() / lookups : 0;
+    }
+
+    Map<Object, Object> read(String key) {
+        Map<byte[], byte[]> values = connection.sync().hgetall(key.getBytes(StandardCharsets.UTF_8));
+        Map<Object, Object> entries = new LinkedHashMap<>(values.size() * 2);
+        values.forEach((field, value) -> entries.put(new String(field, StandardCharsets.UTF_8), value));
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * 連線並開啟 key 追蹤；同一時間只有一個執行緒嘗試，失敗後每隔 RETRY_INTERVAL 再試，其他請求直接讀取 Redis
+     */
+    private boolean ensureTracking() {
+        if (tracking) {
+            return true;
+        }
+        if (!trackingLock.tryLock()) {
+            return false;
+        }
+        try {
+            long now = System.nanoTime();
+            if (tracking || now - nextAttemptNanos < 0) {
+                return tracking;
+            }
+            nextAttemptNanos = now + RETRY_INTERVAL_NANOS;
+            if (connection == null) {
+                connect();
+            }
+            connection.sync().clientTracking(TrackingArgs.Builder.enabled());
+            clear();
+            tracking = true;
+            log.info("購物車近端快取已開啟 Redis key 追蹤");
+        } catch (RuntimeException e) {
+            log.warn("購物車近端快取無法開啟 Redis key 追蹤，暫時直接讀取 Redis", e);
+        } finally {
+            trackingLock.unlock();
+        }
+        return tracking;
+    }
+
+    private void connect() {
+        RedisURI.Builder uri = RedisURI.builder()
+                .withHost(redisProperties.getHost())
+                .withPort(redisProperties.getPort())
+                .withDatabase(redisProperties.getDatabase())
+                .withSsl(redisProperties.getSsl().isEnabled());
+        if (redisProperties.getTimeout() != null) {
+            uri.withTimeout(redisProperties.getTimeout());
+        }
+        if (redisProperties.getPassword() != null) {
+            if (redisProperties.getUsername() != null) {
+                uri.withAuthentication(redisProperties.getUsername(), redisProperties.getPassword());
+            } else {
+                uri.withPassword(redisProperties.getPassword().toCharArray());
+            }
+        }
+
+        RedisClient redisClient = RedisClient.create(uri.build());
+        // 失效訊息以 RESP3 推送在同一個連線上
+        redisClient.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+        redisClient.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+                // 重新連線後的新連線沒有追蹤狀態，中斷期間的失效訊息也已遺失
+                tracking = false;
+                clear();
+            }
+        });
+        StatefulRedisConnection<byte[], byte[]> redisConnection;
+        try {
+            redisConnection = redisClient.connect(ByteArrayCodec.INSTANCE);
+        } catch (RuntimeException e) {
+            redisClient.shutdown();
+            throw e;
+        }
+        redisConnection.addListener(this::onPushMessage);
+        client = redisClient;
+        connection = redisConnection;
+    }
+
+    private void onPushMessage(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        if (content.size() > 1 && content.get(1) instanceof List<?> keys) {
+            synchronized (cache) {
+                for (Object key : keys) {
+                    loading.remove(key.toString());
+                    cache.remove(key.toString());
+                }
+            }
+            invalidationCounter.increment(keys.size());
+        } else {
+            // 沒有 key 表示 FLUSHDB / FLUSHALL
+            clear();
+            invalidationCounter.increment();
+        }
+    }
+
+    private void clear() {
+        synchronized (cache) {
+            loading.clear();
+            cache.clear();
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cart.near-cache.requests")
+                .description("Cart reads through the near cache")
+                .tag("service", "cart")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
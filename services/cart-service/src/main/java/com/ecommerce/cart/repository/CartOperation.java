@@ -0,0 +1,30 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.model.CartItem;
+
+/**
+ * 批量購物車操作中的單一操作
+ *
+ * @param type      操作類型
+ * @param productId 商品ID
+ * @param quantity  ADD 為增加數量，SET 為設定的數量，REMOVE 不使用
+ * @param item      ADD 時商品不在購物車中要寫入的新項目
+ */
+public record CartOperation(Type type, Long productId, int quantity, CartItem item) {
+
+    public enum Type {
+        ADD, SET, REMOVE
+    }
+
+    public static CartOperation add(CartItem item) {
+        return new CartOperation(Type.ADD, item.getProductId(), item.getQuantity(), item);
+    }
+
+    public static CartOperation set(Long productId, int quantity) {
+        return new CartOperation(Type.SET, productId, quantity, null);
+    }
+
+    public static CartOperation remove(Long productId) {
+        return new CartOperation(Type.REMOVE, productId, 0, null);
+    }
+}
@@ -0,0 +1,184 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 商品 → 購物車的反向索引
+ *
+ * Key 格式: product-carts:productId
+ * Value: Set，成員為含有該商品的用戶ID
+ *
+ * 加入、移除、清空購物車的腳本同步維護索引；購物車過期不會通知索引，
+ * 殘留的成員在同步商品資訊時發現購物車已無該商品再移除
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class CartProductIndex {
+
+    private static final String INDEX_KEY_PREFIX = "product-carts:";
+    // 比對後覆寫失敗（項目同時被修改）時重新讀取再試的次數
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final RedisTemplate<String, byte[]> cartRedisTemplate;
+    private final CartItemCodecs codecs;
+
+    /**
+     * 生成商品反向索引 Redis Key
+     */
+    static String indexKey(String productId) {
+        return INDEX_KEY_PREFIX + productId;
+    }
+
+    /**
+     * 含有該商品的購物車數（包含尚未清理的殘留成員）
+     */
+    public long countCarts(Long productId) {
+        Long size = cartRedisTemplate.opsForSet().size(indexKey(productId.toString()));
+        return size != null ? size : 0;
+    }
+
+    /**
+     * 以 SSCAN 分批取出含有該商品的用戶ID；索引在掃描期間變動時同一用戶可能出現多次
+     */
+    public void forEachBatch(Long productId, int batchSize, Consumer<List<Long>> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().count(batchSize).build();
+        try (Cursor<byte[]> cursor = cartRedisTemplate.opsForSet().scan(indexKey(productId.toString()), options)) {
+            List<Long> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                batch.add(Long.valueOf(new String(cursor.next(), StandardCharsets.UTF_8)));
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+        }
+    }
+
+    /**
+     * 以 refresher 更新這批購物車中的商品項目，refresher 回傳 null 表示不需變更
+     *
+     * 一次管線讀取所有項目、一次管線比對後覆寫（同步調整彙總）；已不含該商品的購物車從索引移除
+     */
+    public RefreshResult refresh(Long productId, List<Long> userIds, UnaryOperator<CartItem> refresher) {
+        byte[] field = bytes(productId.toString());
+        int updated = 0;
+        int unchanged = 0;
+        int stale = 0;
+
+        List<Long> pending = userIds;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            List<Object> values = readItems(pending, field);
+
+            List<Long> targets = new ArrayList<>();
+            List<byte[]> replacements = new ArrayList<>();
+            List<byte[]> staleMembers = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                Long userId = pending.get(i);
+                byte[] data = (byte[]) values.get(i);
+                if (data == null) {
+                    staleMembers.add(bytes(userId.toString()));
+                    continue;
+                }
+                CartItem refreshed = refresh(userId, data, refresher);
+                if (refreshed == null) {
+                    unchanged++;
+                    continue;
+                }
+                targets.add(userId);
+                replacements.add(data);
+                replacements.add(codecs.encode(refreshed));
+            }
+            if (!staleMembers.isEmpty()) {
+                cartRedisTemplate.opsForSet().remove(indexKey(productId.toString()), staleMembers.toArray());
+                stale += staleMembers.size();
+            }
+
+            List<Long> conflicts = new ArrayList<>();
+            List<Object> replaced = replaceItems(targets, field, replacements);
+            for (int i = 0; i < targets.size(); i++) {
+                if (replaced.get(i) instanceof Long count && count > 0) {
+                    updated++;
+                } else {
+                    conflicts.add(targets.get(i));
+                }
+            }
+            pending = conflicts;
+        }
+        return new RefreshResult(updated, unchanged, stale, pending.size());
+    }
+
+    private List<Object> readItems(List<Long> userIds, byte[] field) {
+        return cartRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long userId : userIds) {
+                connection.hashCommands().hGet(bytes(CartRepository.getCartKey(userId)), field);
+            }
+            return null;
+        });
+    }
+
+    private List<Object> replaceItems(List<Long> userIds, byte[] field, List<byte[]> replacements) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        byte[] script = bytes(CartScripts.REPLACE_ITEMS.getScriptAsString());
+        String sha = CartScripts.REPLACE_ITEMS.getSha1();
+        List<Object> results = cartRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // 管線中無法處理 NOSCRIPT 後重送，先在同一管線載入腳本
+            connection.scriptingCommands().scriptLoad(script);
+            for (int i = 0; i < userIds.size(); i++) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1,
+                        bytes(CartRepository.getCartKey(userIds.get(i))), field,
+                        replacements.get(2 * i), replacements.get(2 * i + 1));
+            }
+            return null;
+        });
+        return results.subList(1, results.size());
+    }
+
+    private CartItem refresh(Long userId, byte[] data, UnaryOperator<CartItem> refresher) {
+        try {
+            return refresher.apply(codecs.decode(userId, data));
+        } catch (IllegalArgumentException e) {
+            log.error("反序列化購物車項目失敗: userId={}", userId, e);
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 一批購物車的更新結果
+     *
+     * @param updated   已改寫的購物車數
+     * @param unchanged 項目已是最新的購物車數
+     * @param stale     已不含該商品、從索引移除的購物車數
+     * @param conflicts 重試後仍因同時修改而未改寫的購物車數
+     */
+    public record RefreshResult(int updated, int unchanged, int stale, int conflicts) {
+
+        public int carts() {
+            return updated + unchanged + stale + conflicts;
+        }
+    }
+}
@@ -1,85 +1,241 @@
 package com.ecommerce.cart.repository;
 
 import com.ecommerce.cart.model.CartItem;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.ecommerce.cart.model.GuestMergePolicy;
+import com.ecommerce.cart.repository.codec.BinaryCartItemCodec;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
  * 購物車 Redis 存儲層
- * 
+ *
  * 使用 Redis Hash 存儲用戶購物車數據
  * Key 格式: cart:userId
  * Field: productId
- * Value: CartItem JSON
+ * Value: 以 cart.storage.codec 編碼的 CartItem（預設二進位，舊的 JSON 資料在讀取時逐步改寫）
+ * 保留欄位 #count、#quantity、#price：項目數、總數量、總價（分），由腳本隨每次變更維護
+ * 保留欄位 #indexed：購物車內的商品已登記到反向索引（見 CartProductIndex）
+ * 保留欄位 #expiry：上次刷新 TTL 的時間、套用的 TTL 與活躍次數（見 CartExpiryPolicy）
+ *
+ * 訪客購物車 Key 格式: guest-cart:sessionId，結構相同但不登記反向索引，TTL 較短（cart.guest.ttl-hours）
+ *
+ * 加入、改數量、移除以 Lua 腳本在一次往返內完成（見 CartScripts）
+ * 讀取整個購物車時經過近端快取（見 CartNearCache），本類別的每個寫入都會移除對應的快取項目
  */
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class CartRepository {
 
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> cartRedisTemplate;
+    private final CartItemCodecs codecs;
+    private final CartNearCache cartNearCache;
+    // 預先編碼的過期策略腳本參數
+    private final byte[] cartExpiry;
+    private final byte[] guestCartExpiry;
+
+    public CartRepository(RedisTemplate<String, byte[]> cartRedisTemplate,
+                          CartItemCodecs codecs,
+                          CartNearCache cartNearCache,
+                          CartExpiryPolicy cartExpiryPolicy,
+                          @Value("${cart.guest.ttl-hours:48}") long guestTtlHours) {
+        this.cartRedisTemplate = cartRedisTemplate;
+        this.codecs = codecs;
+        this.cartNearCache = cartNearCache;
+        this.cartExpiry = bytes(cartExpiryPolicy.toArgument());
+        this.guestCartExpiry = bytes(cartExpiryPolicy.fixed(Duration.ofHours(guestTtlHours)).toArgument());
+    }
 
     private static final String CART_KEY_PREFIX = "cart:";
-    private static final Duration CART_EXPIRATION = Duration.ofDays(30); // 購物車數據保存30天
+    private static final String GUEST_CART_KEY_PREFIX = "guest-cart:";
+    private static final String RESERVED_FIELD_PREFIX = "#";
+    private static final String SUMMARY_COUNT = "#count";
+    private static final String SUMMARY_QUANTITY = "#quantity";
+    private static final String SUMMARY_PRICE = "#price";
+    private static final String INDEXED_FLAG = "#indexed";
+    // 與 CartItem 的 @JsonFormat 一致，腳本改寫舊的 JSON 項目時寫入 updatedAt 字串
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
      * 生成購物車 Redis Key
      */
-    private String getCartKey(Long userId) {
+    static String getCartKey(Long userId) {
         return CART_KEY_PREFIX + userId;
     }
 
+    /**
+     * 生成訪客購物車 Redis Key
+     */
+    static String getGuestCartKey(String sessionId) {
+        return GUEST_CART_KEY_PREFIX + sessionId;
+    }
+
     /**
      * 添加或更新購物車項目
      */
     public void saveCartItem(CartItem cartItem) {
-        try {
-            String cartKey = getCartKey(cartItem.getUserId());
-            String productKey = cartItem.getProductId().toString();
-            String cartItemJson = objectMapper.writeValueAsString(cartItem);
-
-            redisTemplate.opsForHash().put(cartKey, productKey, cartItemJson);
-            redisTemplate.expire(cartKey, CART_EXPIRATION);
-
-            log.debug("購物車項目已保存: userId={}, productId={}",
-                    cartItem.getUserId(), cartItem.getProductId());
-        } catch (JsonProcessingException e) {
-            log.error("序列化購物車項目失敗", e);
-            throw new RuntimeException("保存購物車項目失敗", e);
+        cartRedisTemplate.execute(CartScripts.PUT_ITEM, keys(cartItem.getUserId(), cartItem.getProductId()),
+                bytes(cartItem.getProductId().toString()),
+                codecs.encode(cartItem),
+                cartExpiry,
+                bytes(cartItem.getUserId().toString()));
+        cartNearCache.invalidate(getCartKey(cartItem.getUserId()));
+
+        log.debug("購物車項目已保存: userId={}, productId={}",
+                cartItem.getUserId(), cartItem.getProductId());
+    }
+
+    /**
+     * 加入商品；已在購物車時累加數量（保留原本的商品快照），否則寫入新項目
+     */
+    public CartSnapshot addItem(CartItem cartItem) {
+        return addItem(cartItem.getUserId(), keys(cartItem.getUserId(), cartItem.getProductId()), cartItem,
+                cartExpiry, bytes(cartItem.getUserId().toString()));
+    }
+
+    /**
+     * 設定商品數量；商品不在購物車時 found 為 false
+     */
+    public CartSnapshot updateQuantity(Long userId, Long productId, int quantity) {
+        return updateQuantity(userId, getCartKey(userId), productId, quantity, cartExpiry);
+    }
+
+    /**
+     * 移除商品；商品不在購物車時 found 為 false
+     */
+    public CartSnapshot removeItem(Long userId, Long productId) {
+        return removeItem(userId, keys(userId, productId), productId, cartExpiry, bytes(userId.toString()));
+    }
+
+    /**
+     * 依序套用多個操作，一次往返完成並回傳更新後的購物車；SET 與 REMOVE 的商品不在購物車時略過
+     */
+    public CartSnapshot applyBatch(Long userId, List<CartOperation> operations) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> keys = new ArrayList<>(operations.size() + 1);
+        keys.add(getCartKey(userId));
+        List<byte[]> args = new ArrayList<>(operations.size() * 4 + 4);
+        args.add(bytes(TIMESTAMP_FORMAT.format(now)));
+        args.add(bytes(Long.toString(BinaryCartItemCodec.epochSecondOf(now))));
+        args.add(cartExpiry);
+        args.add(bytes(userId.toString()));
+        for (CartOperation operation : operations) {
+            keys.add(CartProductIndex.indexKey(operation.productId().toString()));
+            args.add(bytes(operation.type().name()));
+            args.add(bytes(operation.productId().toString()));
+            args.add(bytes(Integer.toString(operation.quantity())));
+            args.add(operation.item() != null ? codecs.encode(operation.item()) : new byte[0]);
         }
+
+        List<?> reply = cartRedisTemplate.execute(CartScripts.BATCH, keys, args.toArray());
+        cartNearCache.invalidate(keys.get(0));
+        log.debug("批量購物車操作完成: userId={}, operations={}, applied={}",
+                userId, operations.size(), reply != null && !reply.isEmpty() ? toLong(reply.get(0)) : 0);
+        return snapshot(userId, reply);
     }
 
     /**
-     * 獲取用戶的所有購物車項目
+     * 獲取用戶的所有購物車項目；讀到舊編碼的項目時順便改寫為目前的編碼
      */
     public List<CartItem> findByUserId(Long userId) {
-        String cartKey = getCartKey(userId);
-        List<Object> cartItemJsonList = redisTemplate.opsForHash().values(cartKey);
+        return findCart(userId).items();
+    }
 
-        List<CartItem> cartItems = new ArrayList<>();
-        for (Object cartItemJson : cartItemJsonList) {
-            try {
-                CartItem cartItem = objectMapper.readValue(
-                        cartItemJson.toString(), CartItem.class);
-                cartItems.add(cartItem);
-            } catch (JsonProcessingException e) {
-                log.error("反序列化購物車項目失敗: {}", cartItemJson, e);
+    /**
+     * 一次讀取購物車項目與彙總欄位；舊購物車沒有彙總欄位時從項目計算
+     */
+    public CartSnapshot findCart(Long userId) {
+        return findCart(userId, getCartKey(userId), true);
+    }
+
+    private CartSnapshot findCart(Long userId, String cartKey, boolean indexed) {
+        Map<Object, Object> entries = cartNearCache.entries(cartKey,
+                key -> cartRedisTemplate.opsForHash().entries(key));
+
+        List<CartItem> cartItems = new ArrayList<>(entries.size());
+        List<byte[]> migrations = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (isReserved(entry.getKey())) {
+                continue;
+            }
+            byte[] data = (byte[]) entry.getValue();
+            CartItem cartItem = decode(userId, data);
+            if (cartItem == null) {
+                continue;
             }
+            cartItems.add(cartItem);
+            if (codecs.needsMigration(data)) {
+                migrations.add(bytes(entry.getKey().toString()));
+                migrations.add(data);
+                migrations.add(codecs.encode(cartItem));
+            }
+        }
+        migrate(cartKey, migrations);
+        if (indexed && !cartItems.isEmpty() && !entries.containsKey(INDEXED_FLAG)) {
+            index(userId, cartItems);
         }
 
-        log.debug("獲取用戶購物車: userId={}, items={}", userId, cartItems.size());
-        return cartItems;
+        CartSummary summary = entries.containsKey(SUMMARY_COUNT) ? toSummary(entries) : CartSummary.of(cartItems);
+        log.debug("獲取購物車: key={}, items={}", cartKey, cartItems.size());
+        return new CartSnapshot(true, cartItems, summary);
+    }
+
+    /**
+     * 以 refresher 更新購物車項目（例如商品價格、名稱），refresher 回傳 null 表示不需變更
+     *
+     * 以比對後覆寫寫回並同步調整彙總，讀取後被其他請求修改的項目略過；回傳實際更新的項目數
+     */
+    public int refreshItems(Long userId, UnaryOperator<CartItem> refresher) {
+        Map<Object, Object> entries = cartRedisTemplate.opsForHash().entries(getCartKey(userId));
+
+        List<byte[]> replacements = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (isReserved(entry.getKey())) {
+                continue;
+            }
+            byte[] data = (byte[]) entry.getValue();
+            CartItem cartItem = decode(userId, data);
+            CartItem refreshed = cartItem != null ? refresher.apply(cartItem) : null;
+            if (refreshed != null) {
+                replacements.add(bytes(entry.getKey().toString()));
+                replacements.add(data);
+                replacements.add(codecs.encode(refreshed));
+            }
+        }
+        if (replacements.isEmpty()) {
+            return 0;
+        }
+
+        Long replaced = cartRedisTemplate.execute(CartScripts.REPLACE_ITEMS, List.of(getCartKey(userId)),
+                replacements.toArray());
+        cartNearCache.invalidate(getCartKey(userId));
+        log.debug("購物車項目已更新: userId={}, items={}", userId, replaced);
+        return replaced != null ? replaced.intValue() : 0;
+    }
+
+    /**
+     * 讀取購物車彙總，不解碼項目；購物車已在近端快取時直接取快取中的彙總欄位
+     */
+    public CartSummary getSummary(Long userId) {
+        Map<Object, Object> cached = cartNearCache.getIfPresent(getCartKey(userId));
+        if (cached != null && cached.containsKey(SUMMARY_COUNT)) {
+            return toSummary(cached);
+        }
+        return execute(CartScripts.SUMMARY, userId, List.of(getCartKey(userId))).summary();
     }
 
     /**
@@ -88,27 +244,16 @@ public class CartRepository {
     public CartItem findByUserIdAndProductId(Long userId, Long productId) {
         String cartKey = getCartKey(userId);
         String productKey = productId.toString();
-        String cartItemJson = (String) redisTemplate.opsForHash().get(cartKey, productKey);
-
-        if (cartItemJson == null) {
-            return null;
-        }
+        byte[] data = (byte[]) cartRedisTemplate.opsForHash().get(cartKey, productKey);
 
-        try {
-            return objectMapper.readValue(cartItemJson, CartItem.class);
-        } catch (JsonProcessingException e) {
-            log.error("反序列化購物車項目失敗: productId={}", productId, e);
-            return null;
-        }
+        return data != null ? decode(userId, data) : null;
     }
 
     /**
      * 刪除購物車項目
      */
     public void deleteCartItem(Long userId, Long productId) {
-        String cartKey = getCartKey(userId);
-        String productKey = productId.toString();
-        redisTemplate.opsForHash().delete(cartKey, productKey);
+        removeItem(userId, productId);
 
         log.debug("購物車項目已刪除: userId={}, productId={}", userId, productId);
     }
@@ -117,8 +262,11 @@ public class CartRepository {
      * 清空用戶購物車
      */
     public void clearCart(Long userId) {
-        String cartKey = getCartKey(userId);
-        redisTemplate.delete(cartKey);
+        List<String> keys = new ArrayList<>();
+        keys.add(getCartKey(userId));
+        getProductIds(userId).forEach(productId -> keys.add(CartProductIndex.indexKey(productId)));
+        cartRedisTemplate.execute(CartScripts.CLEAR_CART, keys, bytes(userId.toString()));
+        cartNearCache.invalidate(getCartKey(userId));
 
         log.debug("用戶購物車已清空: userId={}", userId);
     }
@@ -127,8 +275,7 @@ public class CartRepository {
      * 獲取購物車商品數量
      */
     public Long getCartItemCount(Long userId) {
-        String cartKey = getCartKey(userId);
-        return redisTemplate.opsForHash().size(cartKey);
+        return (long) getSummary(userId).itemCount();
     }
 
     /**
@@ -137,7 +284,7 @@ public class CartRepository {
     public boolean existsCartItem(Long userId, Long productId) {
         String cartKey = getCartKey(userId);
         String productKey = productId.toString();
-        return redisTemplate.opsForHash().hasKey(cartKey, productKey);
+        return cartRedisTemplate.opsForHash().hasKey(cartKey, productKey);
     }
 
     /**
@@ -145,9 +292,209 @@ public class CartRepository {
      */
     public Set<String> getProductIds(Long userId) {
         String cartKey = getCartKey(userId);
-        Set<Object> keys = redisTemplate.opsForHash().keys(cartKey);
+        Set<Object> keys = cartRedisTemplate.opsForHash().keys(cartKey);
         return keys.stream()
+                .filter(key -> !isReserved(key))
                 .map(Object::toString)
                 .collect(java.util.stream.Collectors.toSet());
     }
+
+    /**
+     * 訪客購物車加入商品；已在購物車時累加數量
+     */
+    public CartSnapshot addGuestItem(String sessionId, CartItem cartItem) {
+        return addItem(null, List.of(getGuestCartKey(sessionId)), cartItem, guestCartExpiry);
+    }
+
+    /**
+     * 設定訪客購物車的商品數量；商品不在購物車時 found 為 false
+     */
+    public CartSnapshot updateGuestQuantity(String sessionId, Long productId, int quantity) {
+        return updateQuantity(null, getGuestCartKey(sessionId), productId, quantity, guestCartExpiry);
+    }
+
+    /**
+     * 從訪客購物車移除商品；商品不在購物車時 found 為 false
+     */
+    public CartSnapshot removeGuestItem(String sessionId, Long productId) {
+        return removeItem(null, List.of(getGuestCartKey(sessionId)), productId, guestCartExpiry);
+    }
+
+    /**
+     * 讀取訪客購物車
+     */
+    public CartSnapshot findGuestCart(String sessionId) {
+        return findCart(null, getGuestCartKey(sessionId), false);
+    }
+
+    /**
+     * 清空訪客購物車
+     */
+    public void clearGuestCart(String sessionId) {
+        cartRedisTemplate.delete(getGuestCartKey(sessionId));
+        cartNearCache.invalidate(getGuestCartKey(sessionId));
+
+        log.debug("訪客購物車已清空: sessionId={}", sessionId);
+    }
+
+    /**
+     * 在一次往返內把訪客購物車合併到用戶購物車並刪除訪客購物車，回傳合併後的用戶購物車
+     */
+    public CartSnapshot mergeGuestCart(String sessionId, Long userId, GuestMergePolicy policy) {
+        LocalDateTime now = LocalDateTime.now();
+        List<?> reply = cartRedisTemplate.execute(CartScripts.MERGE_GUEST,
+                List.of(getCartKey(userId), getGuestCartKey(sessionId)),
+                bytes(policy.name()),
+                bytes(TIMESTAMP_FORMAT.format(now)),
+                bytes(Long.toString(BinaryCartItemCodec.epochSecondOf(now))),
+                cartExpiry);
+        cartNearCache.invalidate(getCartKey(userId));
+        cartNearCache.invalidate(getGuestCartKey(sessionId));
+        log.debug("訪客購物車已合併: sessionId={}, userId={}, policy={}, merged={}",
+                sessionId, userId, policy, reply != null && !reply.isEmpty() ? toLong(reply.get(0)) : 0);
+        return snapshot(userId, reply);
+    }
+
+    /**
+     * member 為用戶ID，訪客購物車不傳（不登記反向索引）
+     */
+    private CartSnapshot addItem(Long userId, List<String> keys, CartItem cartItem, byte[] expiry, byte[]... member) {
+        return mutate(CartScripts.ADD_ITEM, userId, keys, concat(member,
+                bytes(cartItem.getProductId().toString()),
+                bytes(cartItem.getQuantity().toString()),
+                codecs.encode(cartItem),
+                bytes(TIMESTAMP_FORMAT.format(cartItem.getUpdatedAt())),
+                bytes(Long.toString(BinaryCartItemCodec.epochSecondOf(cartItem.getUpdatedAt()))),
+                expiry));
+    }
+
+    private CartSnapshot updateQuantity(Long userId, String cartKey, Long productId, int quantity, byte[] expiry) {
+        LocalDateTime now = LocalDateTime.now();
+        return mutate(CartScripts.SET_QUANTITY, userId, List.of(cartKey),
+                bytes(productId.toString()),
+                bytes(Integer.toString(quantity)),
+                bytes(TIMESTAMP_FORMAT.format(now)),
+                bytes(Long.toString(BinaryCartItemCodec.epochSecondOf(now))),
+                expiry);
+    }
+
+    private CartSnapshot removeItem(Long userId, List<String> keys, Long productId, byte[] expiry, byte[]... member) {
+        return mutate(CartScripts.REMOVE_ITEM, userId, keys, concat(member,
+                bytes(productId.toString()),
+                expiry));
+    }
+
+    /**
+     * 腳本參數後面接上可選的 member
+     */
+    private static byte[][] concat(byte[][] member, byte[]... args) {
+        byte[][] result = Arrays.copyOf(args, args.length + member.length);
+        System.arraycopy(member, 0, result, args.length, member.length);
+        return result;
+    }
+
+    /**
+     * 購物車 key 與商品反向索引 key
+     */
+    private List<String> keys(Long userId, Long productId) {
+        return List.of(getCartKey(userId), CartProductIndex.indexKey(productId.toString()));
+    }
+
+    /**
+     * 執行變更購物車的腳本並移除近端快取中的購物車
+     */
+    @SuppressWarnings("rawtypes")
+    private CartSnapshot mutate(RedisScript<List> script, Long userId, List<String> keys, byte[]... args) {
+        try {
+            return execute(script, userId, keys, args);
+        } finally {
+            cartNearCache.invalidate(keys.get(0));
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private CartSnapshot execute(RedisScript<List> script, Long userId, List<String> keys, byte[]... args) {
+        List<?> reply = cartRedisTemplate.execute(script, keys, (Object[]) args);
+        if (reply == null || reply.isEmpty() || toLong(reply.get(0)) == 0) {
+            return CartSnapshot.notFound();
+        }
+        return snapshot(userId, reply);
+    }
+
+    /**
+     * 解析腳本回傳的 {found, 項目數, 總數量, 總價(分), 項目...}
+     */
+    private CartSnapshot snapshot(Long userId, List<?> reply) {
+        if (reply == null || reply.size() < 4) {
+            return new CartSnapshot(true, List.of(), CartSummary.EMPTY);
+        }
+        List<CartItem> cartItems = new ArrayList<>(reply.size() - 4);
+        for (Object data : reply.subList(4, reply.size())) {
+            CartItem cartItem = decode(userId, (byte[]) data);
+            if (cartItem != null) {
+                cartItems.add(cartItem);
+            }
+        }
+        return new CartSnapshot(true, cartItems,
+                new CartSummary((int) toLong(reply.get(1)), (int) toLong(reply.get(2)), toLong(reply.get(3))));
+    }
+
+    private static CartSummary toSummary(Map<Object, Object> entries) {
+        return new CartSummary((int) toLong(entries.get(SUMMARY_COUNT)),
+                (int) toLong(entries.get(SUMMARY_QUANTITY)), toLong(entries.get(SUMMARY_PRICE)));
+    }
+
+    private static boolean isReserved(Object field) {
+        return field.toString().startsWith(RESERVED_FIELD_PREFIX);
+    }
+
+    private void migrate(String cartKey, List<byte[]> migrations) {
+        if (migrations.isEmpty()) {
+            return;
+        }
+        try {
+            Long migrated = cartRedisTemplate.execute(CartScripts.REPLACE_ITEMS, List.of(cartKey),
+                    migrations.toArray());
+            cartNearCache.invalidate(cartKey);
+            log.debug("購物車項目已改寫為 {} 編碼: key={}, items={}", codecs.writer().name(), cartKey, migrated);
+        } catch (RuntimeException e) {
+            // 遷移失敗不影響讀取，下次讀取再試
+            log.warn("購物車項目編碼遷移失敗: key={}", cartKey, e);
+        }
+    }
+
+    private void index(Long userId, List<CartItem> cartItems) {
+        List<String> keys = new ArrayList<>(cartItems.size() + 1);
+        keys.add(getCartKey(userId));
+        cartItems.forEach(item -> keys.add(CartProductIndex.indexKey(item.getProductId().toString())));
+        try {
+            cartRedisTemplate.execute(CartScripts.INDEX_CART, keys, bytes(userId.toString()));
+            cartNearCache.invalidate(keys.get(0));
+            log.debug("購物車已登記到商品反向索引: userId={}, items={}", userId, cartItems.size());
+        } catch (RuntimeException e) {
+            // 登記失敗不影響讀取，下次讀取再試
+            log.warn("購物車登記商品反向索引失敗: userId={}", userId, e);
+        }
+    }
+
+    private CartItem decode(Long userId, byte[] data) {
+        try {
+            return codecs.decode(userId, data);
+        } catch (IllegalArgumentException e) {
+            log.error("反序列化購物車項目失敗: userId={}", userId, e);
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        String text = value instanceof byte[] data ? new String(data, StandardCharsets.UTF_8) : value.toString();
+        return Long.parseLong(text);
+    }
 }
@@ -0,0 +1,82 @@
+package com.ecommerce.cart.repository;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 購物車變更的 Redis Lua 腳本
+ *
+ * 每個腳本在同一次往返內完成變更、調整彙總欄位、刷新 TTL 並回傳更新後的購物車，
+ * 伺服器端原子執行，同一商品的並發加入不會互相覆蓋，彙總也不會與項目不一致
+ */
+final class CartScripts {
+
+    private static final String SCRIPT_PATH = "scripts/cart/";
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> ADD_ITEM = load("add-item.lua");
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SET_QUANTITY = load("set-quantity.lua");
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> REMOVE_ITEM = load("remove-item.lua");
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> BATCH = load("batch.lua");
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> MERGE_GUEST = load("merge-guest.lua");
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> PUT_ITEM = load("put-item.lua");
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SUMMARY = load("summary.lua");
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SAMPLE_CARTS = load("sample-carts.lua");
+
+    static final RedisScript<Long> REPLACE_ITEMS = load("replace-items.lua", Long.class);
+
+    static final RedisScript<Long> CLEAR_CART = load("clear-cart.lua", Long.class);
+
+    static final RedisScript<Long> INDEX_CART = load("index-cart.lua", Long.class);
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SCAN_CARTS = load("scan-carts.lua");
+
+    static final RedisScript<Long> ANALYTICS_LOCK = load("analytics-lock.lua", Long.class);
+
+    static final RedisScript<Long> ANALYTICS_CHECKPOINT = load("analytics-checkpoint.lua", Long.class);
+
+    private CartScripts() {
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> load(String name) {
+        return load(name, List.class);
+    }
+
+    private static <T> RedisScript<T> load(String name, Class<T> resultType) {
+        // Redis 腳本不能 include，共用函式直接接在腳本前面
+        String source = read("cart-common.lua") + "\n" + read(name);
+        return new DefaultRedisScript<>(source, resultType);
+    }
+
+    private static String read(String name) {
+        try {
+            return StreamUtils.copyToString(new ClassPathResource(SCRIPT_PATH + name).getInputStream(),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法載入購物車腳本: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.model.CartItem;
+
+import java.util.List;
+
+/**
+ * 購物車內容與彙總，讀取購物車與腳本變更的結果
+ *
+ * @param found   目標商品是否在購物車中（加入與讀取時恆為 true）
+ * @param items   購物車項目
+ * @param summary 購物車彙總
+ */
+public record CartSnapshot(boolean found, List<CartItem> items, CartSummary summary) {
+
+    public static CartSnapshot notFound() {
+        return new CartSnapshot(false, List.of(), CartSummary.EMPTY);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.model.CartItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * 購物車彙總，由腳本隨每次變更維護在購物車 Hash 的保留欄位中
+ *
+ * @param itemCount       商品種類數
+ * @param totalQuantity   商品總數量
+ * @param totalPriceMinor 總價，以分為單位
+ */
+public record CartSummary(int itemCount, int totalQuantity, long totalPriceMinor) {
+
+    private static final int PRICE_SCALE = 2;
+
+    public static final CartSummary EMPTY = new CartSummary(0, 0, 0);
+
+    /**
+     * 從項目計算彙總，用於尚未寫入彙總欄位的舊購物車
+     */
+    public static CartSummary of(List<CartItem> items) {
+        int totalQuantity = 0;
+        long totalPriceMinor = 0;
+        for (CartItem item : items) {
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            long priceMinor = item.getPrice() != null ? toMinor(item.getPrice()) : 0;
+            totalQuantity += quantity;
+            totalPriceMinor += priceMinor * quantity;
+        }
+        return new CartSummary(items.size(), totalQuantity, totalPriceMinor);
+    }
+
+    /**
+     * 金額轉為以分為單位
+     */
+    static long toMinor(BigDecimal amount) {
+        return amount.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public BigDecimal totalPrice() {
+        return BigDecimal.valueOf(totalPriceMinor, PRICE_SCALE);
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.cart.repository.codec;
+
+import com.ecommerce.cart.model.CartItem;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 購物車項目的精簡二進位編碼
+ *
+ * 版本 1 的欄位依序為：
+ * <pre>
+ * version    1 byte (0x01)
+ * quantity   varint
+ * price      varint，以分為單位的定點數
+ * updatedAt  varint，epoch 秒（UTC）
+ * addedAt    varint，epoch 秒（UTC）
+ * productId  varint
+ * productName / sku / imageUrl  varint 長度 + UTF-8
+ * </pre>
+ * 數值欄位一律寫入 value + 1，0 表示 null；字串長度同理。
+ * quantity、price、updatedAt 放在最前面，Lua 腳本只需解析前三個 varint 就能改數量與計算總價（見 scripts/cart）。
+ */
+public class BinaryCartItemCodec implements CartItemCodec {
+
+    public static final String NAME = "binary";
+
+    static final byte VERSION_1 = 0x01;
+    private static final int PRICE_SCALE = 2;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(CartItem item) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION_1);
+        writeNullable(out, item.getQuantity() != null ? item.getQuantity().longValue() : null);
+        writeNullable(out, item.getPrice() != null
+                ? item.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+                : null);
+        writeNullable(out, epochSecond(item.getUpdatedAt()));
+        writeNullable(out, epochSecond(item.getAddedAt()));
+        writeNullable(out, item.getProductId());
+        writeString(out, item.getProductName());
+        writeString(out, item.getSku());
+        writeString(out, item.getImageUrl());
+        return out.toByteArray();
+    }
+
+    @Override
+    public CartItem decode(Long userId, byte[] data) {
+        if (data.length == 0 || data[0] != VERSION_1) {
+            throw new IllegalArgumentException("不支援的購物車項目版本: " + (data.length > 0 ? data[0] : "empty"));
+        }
+        Reader reader = new Reader(data, 1);
+        Long quantity = reader.readNullable();
+        Long priceMinor = reader.readNullable();
+        Long updatedAt = reader.readNullable();
+        Long addedAt = reader.readNullable();
+        return CartItem.builder()
+                .userId(userId)
+                .quantity(quantity != null ? quantity.intValue() : null)
+                .price(priceMinor != null ? BigDecimal.valueOf(priceMinor, PRICE_SCALE) : null)
+                .updatedAt(toDateTime(updatedAt))
+                .addedAt(toDateTime(addedAt))
+                .productId(reader.readNullable())
+                .productName(reader.readString())
+                .sku(reader.readString())
+                .imageUrl(reader.readString())
+                .build();
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length > 0 && data[0] == VERSION_1;
+    }
+
+    /**
+     * 腳本寫入 updatedAt 時使用的數值（epoch 秒）
+     */
+    public static long epochSecondOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static Long epochSecond(LocalDateTime time) {
+        return time != null ? epochSecondOf(time) : null;
+    }
+
+    private static LocalDateTime toDateTime(Long epochSecond) {
+        return epochSecond != null ? LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC) : null;
+    }
+
+    private static void writeNullable(ByteArrayOutputStream out, Long value) {
+        writeVarint(out, value == null ? 0 : value + 1);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("varint 不支援負數: " + value);
+        }
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        Long readNullable() {
+            long value = readVarint();
+            return value == 0 ? null : value - 1;
+        }
+
+        String readString() {
+            long length = readVarint();
+            if (length == 0) {
+                return null;
+            }
+            if (length - 1 > data.length - position) {
+                throw new IllegalArgumentException("購物車項目資料不完整: 字串長度 " + (length - 1)
+                        + " 超出剩餘的 " + (data.length - position) + " bytes");
+            }
+            int size = (int) (length - 1);
+            String value = new String(data, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("購物車項目資料不完整: varint 在位置 " + position + " 截斷");
+                }
+                byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("varint 格式錯誤");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.cart.repository.codec;
+
+import com.ecommerce.cart.model.CartItem;
+
+/**
+ * 購物車項目在 Redis Hash 中的編碼
+ *
+ * userId 由購物車 key 決定，不寫入項目本身
+ */
+public interface CartItemCodec {
+
+    /**
+     * 編碼名稱（cart.storage.codec）
+     */
+    String name();
+
+    byte[] encode(CartItem item);
+
+    CartItem decode(Long userId, byte[] data);
+
+    /**
+     * 是否為此編碼寫入的資料（依第一個位元組判斷）
+     */
+    boolean canDecode(byte[] data);
+}
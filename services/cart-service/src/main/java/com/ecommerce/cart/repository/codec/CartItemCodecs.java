@@ -0,0 +1,42 @@
+package com.ecommerce.cart.repository.codec;
+
+import com.ecommerce.cart.model.CartItem;
+
+import java.util.List;
+
+/**
+ * 依設定的編碼寫入，讀取時依資料的第一個位元組自動選擇編碼
+ *
+ * 寫入編碼以外的資料在讀取時回報 needsMigration，由 CartRepository 逐步改寫（lazy migration）
+ */
+public class CartItemCodecs {
+
+    private final CartItemCodec writer;
+    private final List<CartItemCodec> readers;
+
+    public CartItemCodecs(CartItemCodec writer, List<CartItemCodec> readers) {
+        this.writer = writer;
+        this.readers = readers;
+    }
+
+    public CartItemCodec writer() {
+        return writer;
+    }
+
+    public byte[] encode(CartItem item) {
+        return writer.encode(item);
+    }
+
+    public CartItem decode(Long userId, byte[] data) {
+        for (CartItemCodec codec : readers) {
+            if (codec.canDecode(data)) {
+                return codec.decode(userId, data);
+            }
+        }
+        throw new IllegalArgumentException("無法辨識的購物車項目編碼");
+    }
+
+    public boolean needsMigration(byte[] data) {
+        return !writer.canDecode(data);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.cart.repository.codec;
+
+import com.ecommerce.cart.model.CartItem;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+
+/**
+ * 原本的 Jackson JSON 編碼，保留用於讀取舊資料與回退
+ */
+public class JsonCartItemCodec implements CartItemCodec {
+
+    public static final String NAME = "json";
+
+    private final ObjectMapper objectMapper;
+    // 舊資料帶有 getTotalPrice() 序列化出的 totalPrice 欄位，讀取時忽略
+    private final ObjectReader reader;
+
+    public JsonCartItemCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.reader = objectMapper.readerFor(CartItem.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(CartItem item) {
+        try {
+            return objectMapper.writeValueAsBytes(item);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("序列化購物車項目失敗", e);
+        }
+    }
+
+    @Override
+    public CartItem decode(Long userId, byte[] data) {
+        try {
+            CartItem item = reader.readValue(data);
+            item.setUserId(userId);
+            return item;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("反序列化購物車項目失敗", e);
+        }
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length > 0 && data[0] == '{';
+    }
+}
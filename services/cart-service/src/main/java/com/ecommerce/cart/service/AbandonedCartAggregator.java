@@ -0,0 +1,257 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.event.AbandonedCartReport;
+import com.ecommerce.cart.event.AbandonedCartReport.Bucket;
+import com.ecommerce.cart.event.AbandonedCartReport.ProductStat;
+import com.ecommerce.cart.model.CartItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 棄置購物車的串流彙總，記憶體用量固定，與購物車數無關
+ *
+ * - 熱門商品：Space-Saving，最多追蹤 capacity 個商品；表滿時取代計數最小的商品，新商品繼承其計數作為誤差上界
+ * - 價值分布與閒置時間：固定的分組
+ *
+ * 狀態可以輸出為報告（含所有追蹤中的商品）存入檢查點，之後以 restore 接續
+ */
+class AbandonedCartAggregator {
+
+    private static final int PRICE_SCALE = 2;
+    private static final long[] AGE_LIMIT_HOURS = { 24, 72, 168, 336, 720 };
+    private static final String[] AGE_LABELS = { "<1d", "1-3d", "3-7d", "7-14d", "14-30d", "30d+" };
+    private static final String UNKNOWN_AGE = "unknown";
+
+    private final Duration abandonedAfter;
+    private final int capacity;
+    private final List<BigDecimal> valueLimits;
+    private final LocalDateTime startedAt;
+
+    private long cartsScanned;
+    private long abandonedCarts;
+    private long abandonedValueMinor;
+    private final long[] valueCarts;
+    private final long[] valueMinor;
+    private final long[] ageCarts;
+    private final long[] ageValueMinor;
+
+    private final Map<Long, ProductCounter> products = new HashMap<>();
+    private final TreeSet<ProductCounter> byCarts = new TreeSet<>(
+            Comparator.comparingLong((ProductCounter counter) -> counter.carts)
+                    .thenComparing(counter -> counter.productId));
+
+    AbandonedCartAggregator(Duration abandonedAfter, int capacity, List<BigDecimal> valueLimits,
+                            LocalDateTime startedAt) {
+        this.abandonedAfter = abandonedAfter;
+        this.capacity = capacity;
+        this.valueLimits = valueLimits;
+        this.startedAt = startedAt;
+        this.valueCarts = new long[valueLimits.size() + 1];
+        this.valueMinor = new long[valueLimits.size() + 1];
+        this.ageCarts = new long[AGE_LABELS.length + 1];
+        this.ageValueMinor = new long[AGE_LABELS.length + 1];
+    }
+
+    /**
+     * 從檢查點的報告接續；分組設定與報告不一致時回傳 null，由呼叫端重新開始
+     */
+    static AbandonedCartAggregator restore(AbandonedCartReport state, Duration abandonedAfter, int capacity,
+                                           List<BigDecimal> valueLimits) {
+        AbandonedCartAggregator aggregator = new AbandonedCartAggregator(abandonedAfter, capacity, valueLimits,
+                state.getStartedAt());
+        if (state.getAbandonedAfterHours() != abandonedAfter.toHours()
+                || !aggregator.valueLabels().equals(labels(state.getValueHistogram()))
+                || !aggregator.ageLabels().equals(labels(state.getAgeBuckets()))) {
+            return null;
+        }
+
+        aggregator.cartsScanned = state.getCartsScanned();
+        aggregator.abandonedCarts = state.getAbandonedCarts();
+        aggregator.abandonedValueMinor = toMinor(state.getAbandonedValue());
+        restoreBuckets(state.getValueHistogram(), aggregator.valueCarts, aggregator.valueMinor);
+        restoreBuckets(state.getAgeBuckets(), aggregator.ageCarts, aggregator.ageValueMinor);
+        for (ProductStat stat : state.getTopProducts()) {
+            if (aggregator.products.size() == capacity) {
+                break;
+            }
+            ProductCounter counter = new ProductCounter(stat.getProductId(), stat.getCarts(), stat.getCartsError());
+            counter.quantity = stat.getQuantity();
+            counter.valueMinor = toMinor(stat.getValue());
+            aggregator.products.put(counter.productId, counter);
+            aggregator.byCarts.add(counter);
+        }
+        return aggregator;
+    }
+
+    /**
+     * 加入一個購物車；lastActivity 為 null 時無法判斷閒置時間，不計入棄置
+     */
+    void add(List<CartItem> items, LocalDateTime lastActivity, LocalDateTime now) {
+        if (items.isEmpty()) {
+            return;
+        }
+        cartsScanned++;
+
+        long cartValueMinor = 0;
+        for (CartItem item : items) {
+            cartValueMinor += itemValueMinor(item);
+        }
+
+        int age = AGE_LABELS.length;
+        Duration idle = lastActivity != null ? Duration.between(lastActivity, now) : null;
+        if (idle != null) {
+            age = 0;
+            while (age < AGE_LIMIT_HOURS.length && idle.toHours() >= AGE_LIMIT_HOURS[age]) {
+                age++;
+            }
+        }
+        ageCarts[age]++;
+        ageValueMinor[age] += cartValueMinor;
+
+        if (idle == null || idle.compareTo(abandonedAfter) < 0) {
+            return;
+        }
+        abandonedCarts++;
+        abandonedValueMinor += cartValueMinor;
+
+        int bucket = 0;
+        while (bucket < valueLimits.size() && cartValueMinor >= toMinor(valueLimits.get(bucket))) {
+            bucket++;
+        }
+        valueCarts[bucket]++;
+        valueMinor[bucket] += cartValueMinor;
+
+        for (CartItem item : items) {
+            count(item);
+        }
+    }
+
+    /**
+     * 輸出報告；topProducts 為 0 時列出所有追蹤中的商品（檢查點用）
+     */
+    AbandonedCartReport report(int topProducts, LocalDateTime completedAt) {
+        List<ProductStat> stats = new ArrayList<>();
+        for (ProductCounter counter : byCarts.descendingSet()) {
+            if (topProducts > 0 && stats.size() == topProducts) {
+                break;
+            }
+            stats.add(ProductStat.builder()
+                    .productId(counter.productId)
+                    .carts(counter.carts)
+                    .cartsError(counter.error)
+                    .quantity(counter.quantity)
+                    .value(toAmount(counter.valueMinor))
+                    .build());
+        }
+
+        return AbandonedCartReport.builder()
+                .startedAt(startedAt)
+                .completedAt(completedAt)
+                .abandonedAfterHours(abandonedAfter.toHours())
+                .cartsScanned(cartsScanned)
+                .abandonedCarts(abandonedCarts)
+                .abandonedValue(toAmount(abandonedValueMinor))
+                .topProducts(stats)
+                .valueHistogram(buckets(valueLabels(), valueCarts, valueMinor))
+                .ageBuckets(buckets(ageLabels(), ageCarts, ageValueMinor))
+                .build();
+    }
+
+    long cartsScanned() {
+        return cartsScanned;
+    }
+
+    private void count(CartItem item) {
+        ProductCounter counter = products.get(item.getProductId());
+        if (counter != null) {
+            byCarts.remove(counter);
+        } else if (products.size() < capacity) {
+            counter = new ProductCounter(item.getProductId(), 0, 0);
+            products.put(counter.productId, counter);
+        } else {
+            // 取代計數最小的商品，繼承的計數是新商品購物車數的誤差上界
+            ProductCounter evicted = byCarts.pollFirst();
+            products.remove(evicted.productId);
+            counter = new ProductCounter(item.getProductId(), evicted.carts, evicted.carts);
+            products.put(counter.productId, counter);
+        }
+        counter.carts++;
+        counter.quantity += item.getQuantity() != null ? item.getQuantity() : 0;
+        counter.valueMinor += itemValueMinor(item);
+        byCarts.add(counter);
+    }
+
+    private List<String> valueLabels() {
+        List<String> labels = new ArrayList<>(valueLimits.size() + 1);
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal limit : valueLimits) {
+            labels.add(lower.toPlainString() + "-" + limit.toPlainString());
+            lower = limit;
+        }
+        labels.add(lower.toPlainString() + "+");
+        return labels;
+    }
+
+    private List<String> ageLabels() {
+        List<String> labels = new ArrayList<>(List.of(AGE_LABELS));
+        labels.add(UNKNOWN_AGE);
+        return labels;
+    }
+
+    private static List<Bucket> buckets(List<String> labels, long[] carts, long[] valueMinor) {
+        List<Bucket> buckets = new ArrayList<>(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            buckets.add(new Bucket(labels.get(i), carts[i], toAmount(valueMinor[i])));
+        }
+        return buckets;
+    }
+
+    private static void restoreBuckets(List<Bucket> buckets, long[] carts, long[] valueMinor) {
+        for (int i = 0; i < buckets.size(); i++) {
+            carts[i] = buckets.get(i).getCarts();
+            valueMinor[i] = toMinor(buckets.get(i).getValue());
+        }
+    }
+
+    private static List<String> labels(List<Bucket> buckets) {
+        return buckets != null ? buckets.stream().map(Bucket::getLabel).toList() : List.of();
+    }
+
+    private static long itemValueMinor(CartItem item) {
+        if (item.getPrice() == null || item.getQuantity() == null) {
+            return 0;
+        }
+        return toMinor(item.getPrice()) * item.getQuantity();
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount != null ? amount.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+    }
+
+    private static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, PRICE_SCALE);
+    }
+
+    private static final class ProductCounter {
+        private final Long productId;
+        private long carts;
+        private final long error;
+        private long quantity;
+        private long valueMinor;
+
+        private ProductCounter(Long productId, long carts, long error) {
+            this.productId = productId;
+            this.carts = carts;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.event.AbandonedCartReport;
+import com.ecommerce.cart.repository.CartAnalyticsRepository;
+import com.ecommerce.cart.repository.CartAnalyticsRepository.CartContents;
+import com.ecommerce.cart.repository.CartAnalyticsRepository.Checkpoint;
+import com.ecommerce.cart.repository.CartAnalyticsRepository.ScanPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 棄置購物車分析：以 SCAN / HSCAN 逐步掃描所有用戶購物車，彙總後發佈到 cart.abandoned.report
+ *
+ * - 每隔 check-interval-ms 檢查一次，取得執行鎖的實例才掃描
+ * - 每隔 CHECKPOINT_INTERVAL 把 cursor 與當時的彙總狀態一起存入檢查點，實例中斷後由任一實例從檢查點繼續，
+ *   檢查點之後的進度重做，不會重複計入（SCAN 本身在 rehash 時可能回傳同一個 key 兩次）；
+ *   寫入檢查點時同時確認仍持有執行鎖，鎖過期被其他實例接手後不會覆蓋對方的進度
+ * - 以 max-carts-per-second 限制讀取速度，每次只對 Redis 送出一個 SCAN 或 HSCAN
+ * - 檢查點的 cursor 為 "0" 表示掃描已完成但報告尚未發佈，下次只重送報告
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "cart.abandoned-analytics", name = "enabled", havingValue = "true",
+                       matchIfMissing = true)
+public class AbandonedCartAnalyticsJob {
+
+    static final String REPORT_TOPIC = "cart.abandoned.report";
+    private static final String SCAN_START = "0";
+    private static final String SCAN_FINISHED = "0";
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofSeconds(10);
+    private static final Duration LOCK_TTL = Duration.ofMinutes(2);
+    private static final long PUBLISH_TIMEOUT_SECONDS = 30;
+
+    private final CartAnalyticsRepository cartAnalyticsRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Duration runInterval;
+    private final Duration abandonedAfter;
+    private final int maxCartsPerSecond;
+    private final int scanCount;
+    private final int productCapacity;
+    private final int topProducts;
+    private final List<BigDecimal> valueLimits;
+
+    private final Counter cartCounter;
+
+    public AbandonedCartAnalyticsJob(CartAnalyticsRepository cartAnalyticsRepository,
+                                     KafkaTemplate<String, Object> kafkaTemplate,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${cart.abandoned-analytics.run-interval-hours:24}") long runIntervalHours,
+                                     @Value("${cart.abandoned-analytics.abandoned-after-hours:24}") long abandonedAfterHours,
+                                     @Value("${cart.abandoned-analytics.max-carts-per-second:500}") int maxCartsPerSecond,
+                                     @Value("${cart.abandoned-analytics.scan-count:200}") int scanCount,
+                                     @Value("${cart.abandoned-analytics.product-capacity:2000}") int productCapacity,
+                                     @Value("${cart.abandoned-analytics.top-products:50}") int topProducts,
+                                     @Value("${cart.abandoned-analytics.value-buckets:500,1000,3000,10000}") String valueBuckets) {
+        this.cartAnalyticsRepository = cartAnalyticsRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.runInterval = Duration.ofHours(runIntervalHours);
+        this.abandonedAfter = Duration.ofHours(abandonedAfterHours);
+        this.maxCartsPerSecond = Math.max(maxCartsPerSecond, 1);
+        this.scanCount = scanCount;
+        this.productCapacity = productCapacity;
+        this.topProducts = topProducts;
+        this.valueLimits = Arrays.stream(valueBuckets.split(","))
+                .map(String::trim)
+                .map(BigDecimal::new)
+                .sorted()
+                .toList();
+
+        this.cartCounter = Counter.builder("cart.abandoned.analytics.carts")
+                .description("Carts read by the abandoned cart analytics scan")
+                .tag("service", "cart")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${cart.abandoned-analytics.check-interval-ms:60000}",
+               fixedDelayString = "${cart.abandoned-analytics.check-interval-ms:60000}")
+    public void run() {
+        try {
+            if (!cartAnalyticsRepository.tryLock(owner, LOCK_TTL)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.warn("棄置購物車分析無法取得執行鎖", e);
+            return;
+        }
+        try {
+            runLocked();
+        } catch (RuntimeException e) {
+            log.error("棄置購物車分析中斷，下次從檢查點繼續", e);
+        } finally {
+            cartAnalyticsRepository.unlock(owner);
+        }
+    }
+
+    private void runLocked() {
+        Checkpoint checkpoint = cartAnalyticsRepository.loadCheckpoint();
+        AbandonedCartAggregator aggregator = checkpoint.cursor() != null ? restore(checkpoint.state()) : null;
+        String cursor;
+        if (aggregator != null) {
+            cursor = checkpoint.cursor();
+            log.info("棄置購物車分析從檢查點繼續: cursor={}, carts={}", cursor, aggregator.cartsScanned());
+        } else if (checkpoint.lastCompletedAt() == null
+                || Instant.now().isAfter(checkpoint.lastCompletedAt().plus(runInterval))) {
+            aggregator = new AbandonedCartAggregator(abandonedAfter, productCapacity, valueLimits,
+                    LocalDateTime.now());
+            cursor = null;
+            log.info("棄置購物車分析開始");
+        } else {
+            return;
+        }
+
+        if (!SCAN_FINISHED.equals(cursor) && !scan(aggregator, cursor != null ? cursor : SCAN_START)) {
+            return;
+        }
+        publish(aggregator.report(topProducts, LocalDateTime.now()));
+    }
+
+    /**
+     * 從 cursor 掃描到結束；失去執行鎖或被中斷時回傳 false，進度已在檢查點
+     */
+    private boolean scan(AbandonedCartAggregator aggregator, String cursor) {
+        long startTime = System.nanoTime();
+        long lastCheckpoint = startTime;
+        long carts = 0;
+        ScanPage page;
+        do {
+            page = cartAnalyticsRepository.scanCarts(cursor, scanCount);
+            for (Long userId : page.userIds()) {
+                CartContents contents = cartAnalyticsRepository.readCart(userId);
+                aggregator.add(contents.items(), contents.lastActivity(), LocalDateTime.now());
+            }
+            cartCounter.increment(page.userIds().size());
+            carts += page.userIds().size();
+            cursor = page.cursor();
+            // 檢查點與延長鎖都先確認仍持有執行鎖，鎖過期後不會覆蓋接手實例的進度
+            boolean locked;
+            if (page.finished() || System.nanoTime() - lastCheckpoint >= CHECKPOINT_INTERVAL.toNanos()) {
+                locked = cartAnalyticsRepository.saveCheckpoint(owner, LOCK_TTL, cursor,
+                        serialize(aggregator.report(0, null)));
+                lastCheckpoint = System.nanoTime();
+            } else {
+                locked = cartAnalyticsRepository.renewLock(owner, LOCK_TTL);
+            }
+            if (!locked) {
+                log.warn("棄置購物車分析失去執行鎖，停止掃描: carts={}", carts);
+                return false;
+            }
+            if (!pace(startTime, carts)) {
+                return false;
+            }
+        } while (!page.finished());
+        return true;
+    }
+
+    /**
+     * 處理速度超過 max-carts-per-second 時暫停；被中斷時回傳 false
+     */
+    private boolean pace(long startTime, long carts) {
+        long expectedNanos = carts * TimeUnit.SECONDS.toNanos(1) / maxCartsPerSecond;
+        long aheadNanos = expectedNanos - (System.nanoTime() - startTime);
+        if (aheadNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void publish(AbandonedCartReport report) {
+        try {
+            kafkaTemplate.send(REPORT_TOPIC, report.getStartedAt().toString(), report)
+                    .get(PUBLISH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // 檢查點保留完成的狀態，下次重送
+            log.error("棄置購物車報告發佈失敗，下次重送", e);
+            return;
+        }
+        if (!cartAnalyticsRepository.completeCheckpoint(owner, LOCK_TTL, Instant.now())) {
+            log.warn("棄置購物車分析失去執行鎖，報告已發佈但未記錄完成: startedAt={}", report.getStartedAt());
+            return;
+        }
+        log.info("棄置購物車分析完成: carts={}, abandoned={}, value={}",
+                report.getCartsScanned(), report.getAbandonedCarts(), report.getAbandonedValue());
+    }
+
+    private AbandonedCartAggregator restore(byte[] state) {
+        if (state == null) {
+            return null;
+        }
+        try {
+            AbandonedCartReport report = objectMapper.readValue(state, AbandonedCartReport.class);
+            AbandonedCartAggregator aggregator = AbandonedCartAggregator.restore(report, abandonedAfter,
+                    productCapacity, valueLimits);
+            if (aggregator == null) {
+                log.warn("棄置購物車分析設定已變更，捨棄檢查點重新開始");
+            }
+            return aggregator;
+        } catch (IOException e) {
+            log.warn("棄置購物車分析檢查點無法讀取，重新開始", e);
+            return null;
+        }
+    }
+
+    private byte[] serialize(AbandonedCartReport state) {
+        try {
+            return objectMapper.writeValueAsBytes(state);
+        } catch (IOException e) {
+            throw new IllegalStateException("無法序列化棄置購物車分析狀態", e);
+        }
+    }
+}
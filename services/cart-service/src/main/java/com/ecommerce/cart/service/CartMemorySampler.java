@@ -0,0 +1,113 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.repository.CartKeySampler;
+import com.ecommerce.cart.repository.CartKeySampler.Sample;
+import com.ecommerce.cart.repository.CartKeySampler.SampledCart;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 定期抽樣 Redis 中的購物車，依購物車大小分組回報估計的 key 數與記憶體用量
+ *
+ * 用來觀察過期策略（cart.expiry）對常駐記憶體的影響；每次只抽取 sample-size 個隨機 key，對 Redis 的負擔固定
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "cart.memory-sampler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CartMemorySampler {
+
+    // 依商品種類數分組，上界（含）與標籤
+    private static final int[] BUCKET_LIMITS = { 1, 5, 20, Integer.MAX_VALUE };
+    private static final String[] BUCKETS = { "1", "2-5", "6-20", "21+" };
+    private static final String[] CART_TYPES = { "user", "guest" };
+
+    private final CartKeySampler cartKeySampler;
+    private final int sampleSize;
+
+    private final Map<String, AtomicLong> keyGauges = new HashMap<>();
+    private final Map<String, AtomicLong> memoryGauges = new HashMap<>();
+
+    public CartMemorySampler(CartKeySampler cartKeySampler,
+                             MeterRegistry meterRegistry,
+                             @Value("${cart.memory-sampler.sample-size:200}") int sampleSize) {
+        this.cartKeySampler = cartKeySampler;
+        this.sampleSize = sampleSize;
+
+        for (String type : CART_TYPES) {
+            for (String bucket : BUCKETS) {
+                keyGauges.put(gaugeKey(type, bucket), gauge(meterRegistry, "cart.redis.keys",
+                        "Estimated number of cart keys by cart size", null, type, bucket));
+                memoryGauges.put(gaugeKey(type, bucket), gauge(meterRegistry, "cart.redis.memory",
+                        "Estimated memory used by cart keys by cart size", "bytes", type, bucket));
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${cart.memory-sampler.interval-ms:300000}",
+               fixedDelayString = "${cart.memory-sampler.interval-ms:300000}")
+    public void sample() {
+        Sample sample;
+        try {
+            sample = cartKeySampler.sample(sampleSize);
+        } catch (RuntimeException e) {
+            log.warn("購物車記憶體抽樣失敗", e);
+            return;
+        }
+        if (sample.sampleSize() == 0) {
+            return;
+        }
+
+        Map<String, long[]> totals = new HashMap<>();
+        for (SampledCart cart : sample.carts()) {
+            long[] total = totals.computeIfAbsent(
+                    gaugeKey(cart.guest() ? "guest" : "user", bucket(cart.itemCount())), key -> new long[2]);
+            total[0]++;
+            total[1] += cart.memoryBytes();
+        }
+
+        // 每個抽樣代表 DBSIZE / sampleSize 個 key
+        double scale = (double) sample.keyspaceSize() / sample.sampleSize();
+        for (Map.Entry<String, AtomicLong> entry : keyGauges.entrySet()) {
+            long[] total = totals.getOrDefault(entry.getKey(), new long[2]);
+            entry.getValue().set(Math.round(total[0] * scale));
+            memoryGauges.get(entry.getKey()).set(Math.round(total[1] * scale));
+        }
+        log.debug("購物車記憶體抽樣: keyspace={}, sampled={}, carts={}",
+                sample.keyspaceSize(), sample.sampleSize(), sample.carts().size());
+    }
+
+    private static String bucket(int itemCount) {
+        for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+            if (itemCount <= BUCKET_LIMITS[i]) {
+                return BUCKETS[i];
+            }
+        }
+        return BUCKETS[BUCKETS.length - 1];
+    }
+
+    private static String gaugeKey(String type, String bucket) {
+        return type + ":" + bucket;
+    }
+
+    private static AtomicLong gauge(MeterRegistry meterRegistry, String name, String description, String baseUnit,
+                                    String type, String bucket) {
+        AtomicLong value = new AtomicLong();
+        Gauge.builder(name, value, AtomicLong::get)
+                .description(description)
+                .baseUnit(baseUnit)
+                .tag("service", "cart")
+                .tag("type", type)
+                .tag("size", bucket)
+                .register(meterRegistry);
+        return value;
+    }
+}
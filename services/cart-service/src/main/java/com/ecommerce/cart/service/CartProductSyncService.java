@@ -0,0 +1,124 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.CartProductIndex;
+import com.ecommerce.cart.repository.CartProductIndex.RefreshResult;
+import com.ecommerce.events.ProductEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把商品資訊變更同步到含有該商品的購物車
+ *
+ * 透過商品反向索引只處理含有該商品的購物車，每批 batch-size 個購物車以兩次管線往返完成讀取與改寫
+ */
+@Slf4j
+@Service
+public class CartProductSyncService {
+
+    private static final String PRODUCT_DELETED = "PRODUCT_DELETED";
+
+    private final CartProductIndex cartProductIndex;
+    private final int batchSize;
+
+    private final Counter updatedCounter;
+    private final Counter unchangedCounter;
+    private final Counter staleCounter;
+    private final Counter conflictCounter;
+    private final Timer durationTimer;
+    private final Timer lagTimer;
+
+    public CartProductSyncService(CartProductIndex cartProductIndex,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${cart.product-sync.batch-size:500}") int batchSize) {
+        this.cartProductIndex = cartProductIndex;
+        this.batchSize = batchSize;
+
+        this.updatedCounter = carts(meterRegistry, "updated");
+        this.unchangedCounter = carts(meterRegistry, "unchanged");
+        this.staleCounter = carts(meterRegistry, "stale");
+        this.conflictCounter = carts(meterRegistry, "conflict");
+        this.durationTimer = Timer.builder("cart.product.sync.duration")
+                .description("Time to fan a product change out to all carts containing it")
+                .tag("service", "cart")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("cart.product.sync.lag")
+                .description("Delay between a product change and the last affected cart being updated")
+                .tag("service", "cart")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 以商品事件的名稱、價格與 SKU 改寫購物車項目；刪除事件不處理，由下單時的驗證拒絕
+     */
+    public void sync(ProductEvent event) {
+        if (PRODUCT_DELETED.equals(event.getEventType()) || event.getPrice() == null) {
+            log.debug("略過商品事件: eventType={}, productId={}", event.getEventType(), event.getProductId());
+            return;
+        }
+
+        Long productId = event.getProductId();
+        log.debug("開始同步商品資訊到購物車: productId={}, carts={}", productId, cartProductIndex.countCarts(productId));
+        long startTime = System.nanoTime();
+        RefreshResult[] total = { new RefreshResult(0, 0, 0, 0) };
+        cartProductIndex.forEachBatch(productId, batchSize, userIds -> {
+            RefreshResult result = cartProductIndex.refresh(productId, userIds, item -> apply(item, event));
+            updatedCounter.increment(result.updated());
+            unchangedCounter.increment(result.unchanged());
+            staleCounter.increment(result.stale());
+            conflictCounter.increment(result.conflicts());
+            total[0] = new RefreshResult(total[0].updated() + result.updated(),
+                    total[0].unchanged() + result.unchanged(),
+                    total[0].stale() + result.stale(),
+                    total[0].conflicts() + result.conflicts());
+        });
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (event.getTimestamp() != null) {
+            Duration lag = Duration.between(event.getTimestamp(), LocalDateTime.now());
+            lagTimer.record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+
+        RefreshResult result = total[0];
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        log.info("商品資訊已同步到購物車: productId={}, carts={}, updated={}, stale={}, conflicts={}, elapsed={}ms, rate={}/s",
+                productId, result.carts(), result.updated(), result.stale(), result.conflicts(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(result.carts() / seconds));
+    }
+
+    private static CartItem apply(CartItem item, ProductEvent event) {
+        boolean changed = !Objects.equals(item.getProductName(), event.getName())
+                || item.getPrice() == null || item.getPrice().compareTo(event.getPrice()) != 0
+                || (event.getSku() != null && !Objects.equals(item.getSku(), event.getSku()));
+        if (!changed) {
+            return null;
+        }
+        item.setProductName(event.getName());
+        item.setPrice(event.getPrice());
+        if (event.getSku() != null) {
+            item.setSku(event.getSku());
+        }
+        item.setUpdatedAt(LocalDateTime.now());
+        return item;
+    }
+
+    private static Counter carts(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cart.product.sync.carts")
+                .description("Carts visited while syncing product changes")
+                .tag("service", "cart")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,19 +1,28 @@
 package com.ecommerce.cart.service;
 
-import com.ecommerce.cart.client.ProductClient;
 import com.ecommerce.cart.dto.AddCartItemRequest;
+import com.ecommerce.cart.dto.BatchCartRequest;
 import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.dto.CartSummaryResponse;
+import com.ecommerce.cart.dto.MergeGuestCartRequest;
 import com.ecommerce.cart.dto.UpdateCartItemRequest;
 import com.ecommerce.cart.model.CartItem;
-import com.ecommerce.cart.model.Product;
+import com.ecommerce.cart.model.GuestMergePolicy;
+import com.ecommerce.cart.repository.CartSnapshot;
+import com.ecommerce.cart.repository.CartOperation;
 import com.ecommerce.cart.repository.CartRepository;
+import com.ecommerce.cart.repository.CartSummary;
+import com.ecommerce.cart.service.ProductSummaryCache.ProductSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 購物車業務服務
@@ -24,7 +33,7 @@ import java.util.List;
 public class CartService {
     
     private final CartRepository cartRepository;
-    private final ProductClient productClient;
+    private final ProductSummaryCache productSummaryCache;
     
     /**
      * 添加商品到購物車
@@ -33,39 +42,82 @@ public class CartService {
         log.info("添加商品到購物車: userId={}, productId={}, quantity={}", 
             userId, request.getProductId(), request.getQuantity());
         
-        // 1. 檢查商品是否存在並獲取商品信息
-        Product product = productClient.getProductById(request.getProductId());
+        // 1. 從本機商品摘要快取檢查商品是否存在並獲取商品信息
+        ProductSummary product = getPurchasableProduct(request.getProductId());
+        
+        // 2. 加入或累加數量，並在同一次 Redis 往返取回更新後的購物車
+        CartItem cartItem = toCartItem(userId, product, request.getQuantity(), LocalDateTime.now());
+        return toResponse(userId, cartRepository.addItem(cartItem));
+    }
+    
+    private ProductSummary getPurchasableProduct(Long productId) {
+        ProductSummary product = productSummaryCache.getProduct(productId);
         if (product == null) {
-            throw new RuntimeException("商品不存在: " + request.getProductId());
+            throw new RuntimeException("商品不存在: " + productId);
         }
+        if (!product.isPurchasable()) {
+            throw new RuntimeException("商品無法購買: " + productId);
+        }
+        return product;
+    }
+    
+    private static CartItem toCartItem(Long userId, ProductSummary product, int quantity, LocalDateTime now) {
+        return CartItem.builder()
+            .userId(userId)
+            .productId(product.productId())
+            .productName(product.name())
+            .price(product.price())
+            .imageUrl(product.imageUrl())
+            .sku(product.sku())
+            .quantity(quantity)
+            .addedAt(now)
+            .updatedAt(now)
+            .build();
+    }
+    
+    /**
+     * 批量套用購物車操作：ADD 的商品以一次批量查詢驗證，所有操作在一次 Redis 往返內完成
+     *
+     * 任一 ADD 的商品不存在或無法購買時整批拒絕，不寫入任何操作；skipUnavailable 時只略過該操作（例如恢復購物車）
+     * SET 與 REMOVE 的商品不在購物車時略過
+     */
+    public CartResponse applyBatch(Long userId, BatchCartRequest request) {
+        List<BatchCartRequest.Operation> operations = request.getOperations();
+        log.info("批量購物車操作: userId={}, operations={}", userId, operations.size());
+        
+        Map<Long, ProductSummary> products = productSummaryCache.getProducts(operations.stream()
+            .filter(operation -> operation.getType() == BatchCartRequest.OperationType.ADD)
+            .map(BatchCartRequest.Operation::getProductId)
+            .collect(Collectors.toList()));
         
-        // 2. 檢查購物車中是否已存在該商品
-        CartItem existingItem = cartRepository.findByUserIdAndProductId(userId, request.getProductId());
-        
-        if (existingItem != null) {
-            // 更新數量
-            existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-            existingItem.setUpdatedAt(LocalDateTime.now());
-            cartRepository.saveCartItem(existingItem);
-        } else {
-            // 創建新的購物車項目
-            CartItem cartItem = CartItem.builder()
-                .userId(userId)
-                .productId(product.getId())
-                .productName(product.getName())
-                .price(product.getPrice())
-                .imageUrl(product.getImageUrl())
-                .sku(product.getSku())
-                .quantity(request.getQuantity())
-                .addedAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-            
-            cartRepository.saveCartItem(cartItem);
+        LocalDateTime now = LocalDateTime.now();
+        List<CartOperation> cartOperations = new ArrayList<>(operations.size());
+        List<Long> skipped = new ArrayList<>();
+        for (BatchCartRequest.Operation operation : operations) {
+            switch (operation.getType()) {
+                case ADD -> {
+                    ProductSummary product = products.get(operation.getProductId());
+                    if (product == null || !product.isPurchasable()) {
+                        if (request.isSkipUnavailable()) {
+                            skipped.add(operation.getProductId());
+                            continue;
+                        }
+                        throw new RuntimeException((product == null ? "商品不存在: " : "商品無法購買: ")
+                            + operation.getProductId());
+                    }
+                    cartOperations.add(CartOperation.add(toCartItem(userId, product, operation.getQuantity(), now)));
+                }
+                case SET -> cartOperations.add(CartOperation.set(operation.getProductId(), operation.getQuantity()));
+                case REMOVE -> cartOperations.add(CartOperation.remove(operation.getProductId()));
+            }
+        }
+        if (!skipped.isEmpty()) {
+            log.warn("批量購物車操作略過不存在或無法購買的商品: userId={}, productIds={}", userId, skipped);
         }
         
-        // 3. 返回更新後的購物車
-        return getCart(userId);
+        CartResponse response = toResponse(userId, cartRepository.applyBatch(userId, cartOperations));
+        response.setSkippedProductIds(skipped);
+        return response;
     }
     
     /**
@@ -74,26 +126,58 @@ public class CartService {
     public CartResponse getCart(Long userId) {
         log.debug("獲取用戶購物車: userId={}", userId);
         
-        List<CartItem> cartItems = cartRepository.findByUserId(userId);
-        
-        // 計算總數量和總價
-        int totalItems = cartItems.stream()
-            .mapToInt(CartItem::getQuantity)
-            .sum();
-        
-        BigDecimal totalPrice = cartItems.stream()
-            .map(CartItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return CartResponse.builder()
+        // 總數量和總價直接取自購物車的彙總欄位
+        return toResponse(userId, cartRepository.findCart(userId));
+    }
+    
+    /**
+     * 獲取購物車彙總（不含項目），供購物車圖示等輕量請求使用
+     */
+    public CartSummaryResponse getCartSummary(Long userId) {
+        CartSummary summary = cartRepository.getSummary(userId);
+        return CartSummaryResponse.builder()
             .userId(userId)
-            .items(cartItems)
-            .totalItems(totalItems)
-            .totalPrice(totalPrice)
-            .itemCount(cartItems.size())
+            .itemCount(summary.itemCount())
+            .totalItems(summary.totalQuantity())
+            .totalPrice(summary.totalPrice())
             .build();
     }
     
+    /**
+     * 以目前的商品資訊重新驗證購物車：一次批量查詢購物車內所有商品，更新價格、名稱、SKU 與圖片
+     *
+     * 已下架或查無的商品保留在購物車中，由下單時的驗證拒絕
+     */
+    public CartResponse revalidateCart(Long userId) {
+        Map<Long, ProductSummary> products = productSummaryCache.getProducts(
+            cartRepository.getProductIds(userId).stream()
+                .map(Long::valueOf)
+                .collect(Collectors.toList()));
+        
+        int updated = cartRepository.refreshItems(userId, item -> {
+            ProductSummary product = products.get(item.getProductId());
+            if (product == null || !product.isPurchasable() || matches(item, product)) {
+                return null;
+            }
+            item.setProductName(product.name());
+            item.setPrice(product.price());
+            item.setSku(product.sku());
+            item.setImageUrl(product.imageUrl());
+            item.setUpdatedAt(LocalDateTime.now());
+            return item;
+        });
+        log.info("重新驗證購物車: userId={}, products={}, updated={}", userId, products.size(), updated);
+        
+        return getCart(userId);
+    }
+    
+    private static boolean matches(CartItem item, ProductSummary product) {
+        return Objects.equals(item.getProductName(), product.name())
+            && item.getPrice() != null && item.getPrice().compareTo(product.price()) == 0
+            && Objects.equals(item.getSku(), product.sku())
+            && Objects.equals(item.getImageUrl(), product.imageUrl());
+    }
+    
     /**
      * 更新購物車項目數量
      */
@@ -101,16 +185,12 @@ public class CartService {
         log.info("更新購物車項目: userId={}, productId={}, quantity={}", 
             userId, productId, request.getQuantity());
         
-        CartItem cartItem = cartRepository.findByUserIdAndProductId(userId, productId);
-        if (cartItem == null) {
+        CartSnapshot result = cartRepository.updateQuantity(userId, productId, request.getQuantity());
+        if (!result.found()) {
             throw new RuntimeException("購物車中不存在該商品: " + productId);
         }
         
-        cartItem.setQuantity(request.getQuantity());
-        cartItem.setUpdatedAt(LocalDateTime.now());
-        cartRepository.saveCartItem(cartItem);
-        
-        return getCart(userId);
+        return toResponse(userId, result);
     }
     
     /**
@@ -119,13 +199,92 @@ public class CartService {
     public CartResponse removeFromCart(Long userId, Long productId) {
         log.info("從購物車移除商品: userId={}, productId={}", userId, productId);
         
-        CartItem cartItem = cartRepository.findByUserIdAndProductId(userId, productId);
-        if (cartItem == null) {
+        CartSnapshot result = cartRepository.removeItem(userId, productId);
+        if (!result.found()) {
             throw new RuntimeException("購物車中不存在該商品: " + productId);
         }
         
-        cartRepository.deleteCartItem(userId, productId);
-        return getCart(userId);
+        return toResponse(userId, result);
+    }
+    
+    /**
+     * 添加商品到訪客購物車
+     */
+    public CartResponse addToGuestCart(String sessionId, AddCartItemRequest request) {
+        log.info("添加商品到訪客購物車: sessionId={}, productId={}, quantity={}",
+            sessionId, request.getProductId(), request.getQuantity());
+        
+        ProductSummary product = getPurchasableProduct(request.getProductId());
+        CartItem cartItem = toCartItem(null, product, request.getQuantity(), LocalDateTime.now());
+        return toResponse(null, cartRepository.addGuestItem(sessionId, cartItem));
+    }
+    
+    /**
+     * 獲取訪客購物車
+     */
+    public CartResponse getGuestCart(String sessionId) {
+        log.debug("獲取訪客購物車: sessionId={}", sessionId);
+        return toResponse(null, cartRepository.findGuestCart(sessionId));
+    }
+    
+    /**
+     * 更新訪客購物車項目數量
+     */
+    public CartResponse updateGuestCartItem(String sessionId, Long productId, UpdateCartItemRequest request) {
+        log.info("更新訪客購物車項目: sessionId={}, productId={}, quantity={}",
+            sessionId, productId, request.getQuantity());
+        
+        CartSnapshot result = cartRepository.updateGuestQuantity(sessionId, productId, request.getQuantity());
+        if (!result.found()) {
+            throw new RuntimeException("購物車中不存在該商品: " + productId);
+        }
+        
+        return toResponse(null, result);
+    }
+    
+    /**
+     * 從訪客購物車移除商品
+     */
+    public CartResponse removeFromGuestCart(String sessionId, Long productId) {
+        log.info("從訪客購物車移除商品: sessionId={}, productId={}", sessionId, productId);
+        
+        CartSnapshot result = cartRepository.removeGuestItem(sessionId, productId);
+        if (!result.found()) {
+            throw new RuntimeException("購物車中不存在該商品: " + productId);
+        }
+        
+        return toResponse(null, result);
+    }
+    
+    /**
+     * 清空訪客購物車
+     */
+    public void clearGuestCart(String sessionId) {
+        log.info("清空訪客購物車: sessionId={}", sessionId);
+        cartRepository.clearGuestCart(sessionId);
+    }
+    
+    /**
+     * 登入後把訪客購物車合併到用戶購物車，合併與刪除訪客購物車在一次 Redis 往返內完成
+     *
+     * 訪客購物車不存在或已合併過時直接回傳用戶購物車
+     */
+    public CartResponse mergeGuestCart(Long userId, MergeGuestCartRequest request) {
+        GuestMergePolicy policy = request.getPolicy() != null ? request.getPolicy() : GuestMergePolicy.SUM;
+        log.info("合併訪客購物車: userId={}, sessionId={}, policy={}", userId, request.getSessionId(), policy);
+        
+        return toResponse(userId, cartRepository.mergeGuestCart(request.getSessionId(), userId, policy));
+    }
+    
+    private CartResponse toResponse(Long userId, CartSnapshot result) {
+        CartSummary summary = result.summary();
+        return CartResponse.builder()
+            .userId(userId)
+            .items(result.items())
+            .totalItems(summary.totalQuantity())
+            .totalPrice(summary.totalPrice())
+            .itemCount(summary.itemCount())
+            .build();
     }
     
     /**
@@ -149,17 +308,4 @@ public class CartService {
     public boolean isCartEmpty(Long userId) {
         return cartRepository.getCartItemCount(userId) == 0;
     }
-    
-    /**
-     * 批量更新購物車商品信息
-     * 用於商品信息變更時同步更新購物車
-     */
-    public void syncProductInfo(Long productId, Product product) {
-        log.info("同步商品信息到購物車: productId={}", productId);
-        
-        // 這裡可以實現批量更新邏輯
-        // 由於 Redis 沒有直接的批量查詢，這裡先記錄日誌
-        // 實際實現時可以考慮使用 Redis Pipeline 或者 Lua 腳本
-        log.debug("商品信息同步完成: productId={}", productId);
-    }
 }
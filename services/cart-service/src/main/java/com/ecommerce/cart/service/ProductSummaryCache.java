@@ -0,0 +1,212 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.client.ProductClient;
+import com.ecommerce.cart.model.Product;
+import com.ecommerce.events.ProductEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品摘要的本機快取，加入購物車與重新驗證購物車時使用
+ *
+ * - 未命中的商品以 product-service 的批量查詢一次載入，不經過會增加瀏覽數的單筆查詢
+ * - product.updated 事件移除對應項目（事件不含圖片），下次使用時重新載入；TTL 只是漏接事件時的保底
+ * - 載入進行中若收到某商品的事件，該商品的載入結果不寫入快取，避免舊資料覆蓋事件；其他商品照常快取
+ */
+@Slf4j
+@Service
+public class ProductSummaryCache {
+
+    static final int LOAD_CHUNK_SIZE = 200;
+    static final String ACTIVE_STATUS = "ACTIVE";
+
+    private final ProductClient productClient;
+    private final Duration ttl;
+    private final Map<Long, CachedProduct> cache;
+
+    // 進行中的批量載入，用於記錄載入期間收到事件的商品；以 cache 為鎖
+    private final Set<PendingLoad> pendingLoads = new HashSet<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer loadTimer;
+
+    public ProductSummaryCache(ProductClient productClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${cart.product-cache.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${cart.product-cache.max-size:50000}") int maxSize) {
+        this.productClient = productClient;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedProduct> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        this.hitCounter = requests(meterRegistry, "hit");
+        this.missCounter = requests(meterRegistry, "miss");
+        this.loadTimer = Timer.builder("cart.product.cache.load")
+                .description("Latency of bulk product loads on cache misses")
+                .tag("service", "cart")
+                .register(meterRegistry);
+        Gauge.builder("cart.product.cache.size", this, ProductSummaryCache::size)
+                .description("Number of cached product summaries")
+                .tag("service", "cart")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取得單一商品摘要；查無時回傳 null
+     */
+    public ProductSummary getProduct(Long productId) {
+        return getProducts(List.of(productId)).get(productId);
+    }
+
+    /**
+     * 取得商品摘要，未命中的部分以批量查詢載入；查無的商品不會出現在結果中
+     */
+    public Map<Long, ProductSummary> getProducts(Collection<Long> productIds) {
+        Map<Long, ProductSummary> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        synchronized (cache) {
+            long now = System.nanoTime();
+            for (Long productId : new LinkedHashSet<>(productIds)) {
+                CachedProduct cached = cache.get(productId);
+                if (cached != null && cached.expiresAtNanos() - now > 0) {
+                    result.put(productId, cached.product());
+                } else {
+                    misses.add(productId);
+                }
+            }
+        }
+        hitCounter.increment(result.size());
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        missCounter.increment(misses.size());
+        PendingLoad pending = new PendingLoad(new HashSet<>(misses));
+        synchronized (cache) {
+            pendingLoads.add(pending);
+        }
+        List<ProductSummary> loaded;
+        try {
+            loaded = load(misses);
+        } finally {
+            synchronized (cache) {
+                pendingLoads.remove(pending);
+            }
+        }
+        synchronized (cache) {
+            long expiresAt = System.nanoTime() + ttl.toNanos();
+            for (ProductSummary product : loaded) {
+                result.put(product.productId(), product);
+                if (!pending.touched.contains(product.productId())) {
+                    cache.put(product.productId(), new CachedProduct(product, expiresAt));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 套用商品變更事件
+     */
+    public void evict(ProductEvent event) {
+        synchronized (cache) {
+            for (PendingLoad pending : pendingLoads) {
+                if (pending.productIds.contains(event.getProductId())) {
+                    pending.touched.add(event.getProductId());
+                }
+            }
+            cache.remove(event.getProductId());
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private List<ProductSummary> load(List<Long> productIds) {
+        long startTime = System.nanoTime();
+        try {
+            List<ProductSummary> products = new ArrayList<>(productIds.size());
+            for (int from = 0; from < productIds.size(); from += LOAD_CHUNK_SIZE) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + LOAD_CHUNK_SIZE, productIds.size()));
+                List<Product> response = productClient.getProductsByIds(chunk);
+                if (response == null) {
+                    throw new RuntimeException("載入商品失敗: " + chunk);
+                }
+                for (Product product : response) {
+                    if (product.getId() != null) {
+                        products.add(ProductSummary.of(product));
+                    }
+                }
+            }
+            log.debug("批量載入商品摘要: requested={}, loaded={}", productIds.size(), products.size());
+            return products;
+        } finally {
+            loadTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cart.product.cache.requests")
+                .description("Product summary cache lookups")
+                .tag("service", "cart")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 購物車所需的商品資訊
+     */
+    public record ProductSummary(Long productId, String name, BigDecimal price, String sku, String imageUrl,
+                                 String status) {
+
+        public boolean isPurchasable() {
+            return price != null && (status == null || ACTIVE_STATUS.equals(status));
+        }
+
+        static ProductSummary of(Product product) {
+            return new ProductSummary(product.getId(), product.getName(), product.getPrice(), product.getSku(),
+                    product.getImageUrl(), product.getStatus());
+        }
+    }
+
+    private record CachedProduct(ProductSummary product, long expiresAtNanos) {
+    }
+
+    /**
+     * 一次批量載入；touched 為載入期間收到事件的商品
+     */
+    private static final class PendingLoad {
+        private final Set<Long> productIds;
+        private final Set<Long> touched = new HashSet<>();
+
+        private PendingLoad(Set<Long> productIds) {
+            this.productIds = productIds;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- 加入商品：已在購物車則累加數量，否則寫入新項目並登記到商品的反向索引
+-- KEYS[1] 購物車 key  KEYS[2] 商品反向索引 key（訪客購物車不傳）
+-- ARGV[1] 商品ID  ARGV[2] 增加數量  ARGV[3] 新項目（已編碼）
+-- ARGV[4] 更新時間字串  ARGV[5] 更新時間 epoch 秒  ARGV[6] 過期策略  ARGV[7] 用戶ID（訪客購物車不傳）
+add_item(KEYS[1], KEYS[2], ARGV[1], tonumber(ARGV[2]), ARGV[3], ARGV[7], ARGV[4], tonumber(ARGV[5]))
+touch(KEYS[1], ARGV[6])
+return cart_reply(KEYS[1], 1)
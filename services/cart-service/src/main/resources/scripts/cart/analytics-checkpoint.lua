@@ -0,0 +1,15 @@
+-- 持有分析工作的執行鎖時才寫入檢查點，並同時延長鎖
+-- 鎖已過期被其他實例取得時不寫入，避免覆蓋對方的進度
+-- KEYS[1] 鎖 key  KEYS[2] 檢查點 key
+-- ARGV[1] 持有者  ARGV[2] 延長的毫秒數  ARGV[3..] 檢查點的欄位與值，值為空字串表示刪除該欄位
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+for i = 3, #ARGV, 2 do
+    if ARGV[i + 1] == '' then
+        redis.call('HDEL', KEYS[2], ARGV[i])
+    else
+        redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1])
+    end
+end
+return redis.call('PEXPIRE', KEYS[1], ARGV[2])
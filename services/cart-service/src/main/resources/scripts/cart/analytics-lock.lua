@@ -0,0 +1,10 @@
+-- 延長或釋放分析工作的執行鎖，只有持有者可以操作
+-- KEYS[1] 鎖 key
+-- ARGV[1] 持有者  ARGV[2] 延長的毫秒數，0 表示釋放
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+if ARGV[2] == '0' then
+    return redis.call('DEL', KEYS[1])
+end
+return redis.call('PEXPIRE', KEYS[1], ARGV[2])
@@ -0,0 +1,31 @@
+-- 依序套用多個購物車操作，全部在同一個腳本內完成
+-- KEYS[1] 購物車 key  KEYS[1 + i] 第 i 個操作的商品反向索引 key
+-- ARGV[1] 更新時間字串  ARGV[2] 更新時間 epoch 秒  ARGV[3] 過期策略  ARGV[4] 用戶ID
+-- 之後每個操作四個參數：類型（ADD / SET / REMOVE）、商品ID、數量、新項目（ADD 用，已編碼）
+-- SET 與 REMOVE 的商品不在購物車時略過；回傳 {套用的操作數, 項目數, 總數量, 總價(分), 項目...}
+local now_text = ARGV[1]
+local now_epoch = tonumber(ARGV[2])
+local member = ARGV[4]
+local applied = 0
+for i = 1, (#ARGV - 4) / 4 do
+    local base = 4 * i
+    local op = ARGV[base + 1]
+    local field = ARGV[base + 2]
+    local quantity = tonumber(ARGV[base + 3])
+    if op == 'ADD' then
+        add_item(KEYS[1], KEYS[1 + i], field, quantity, ARGV[base + 4], member, now_text, now_epoch)
+        applied = applied + 1
+    elseif op == 'SET' then
+        if set_item_quantity(KEYS[1], field, quantity, now_text, now_epoch) then
+            applied = applied + 1
+        end
+    elseif op == 'REMOVE' then
+        if remove_item(KEYS[1], KEYS[1 + i], field, member) then
+            applied = applied + 1
+        end
+    else
+        error('unknown cart operation: ' .. tostring(op))
+    end
+end
+touch(KEYS[1], ARGV[3])
+return cart_reply(KEYS[1], applied)
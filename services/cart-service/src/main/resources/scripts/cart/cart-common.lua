@@ -0,0 +1,233 @@
+-- 共用函式：購物車項目可能是舊的 JSON（以 '{' 開頭）或二進位版本 1（見 BinaryCartItemCodec）
+local JSON_PREFIX = 123
+local BINARY_V1 = 1
+
+-- 彙總存在同一個 Hash 的保留欄位，商品ID是數字，'#' 開頭的欄位不會與商品衝突
+local RESERVED_PREFIX = 35
+local SUMMARY_COUNT = '#count'
+local SUMMARY_QUANTITY = '#quantity'
+local SUMMARY_PRICE = '#price'
+-- 購物車的商品已全部登記到反向索引（product-carts:商品ID）
+local INDEXED_FLAG = '#indexed'
+-- 過期狀態：'上次刷新 TTL 的 epoch 秒,已套用的 TTL,活躍次數'
+local EXPIRY_STATE = '#expiry'
+
+local function read_varint(s, pos)
+    local result = 0
+    local multiplier = 1
+    while true do
+        local b = string.byte(s, pos)
+        pos = pos + 1
+        if b < 128 then
+            return result + b * multiplier, pos
+        end
+        result = result + (b - 128) * multiplier
+        multiplier = multiplier * 128
+    end
+end
+
+local function write_varint(n)
+    local bytes = {}
+    repeat
+        local b = n % 128
+        n = math.floor(n / 128)
+        if n > 0 then
+            b = b + 128
+        end
+        bytes[#bytes + 1] = string.char(b)
+    until n == 0
+    return table.concat(bytes)
+end
+
+-- 回傳項目的數量與單價（分）
+local function item_totals(value)
+    local first = string.byte(value, 1)
+    if first == JSON_PREFIX then
+        local entry = cjson.decode(value)
+        local price = 0
+        if entry['price'] ~= nil and entry['price'] ~= cjson.null then
+            price = math.floor(tonumber(entry['price']) * 100 + 0.5)
+        end
+        return tonumber(entry['quantity']) or 0, price
+    end
+    if first ~= BINARY_V1 then
+        error('unsupported cart item version: ' .. tostring(first))
+    end
+    -- 二進位欄位寫入 value + 1，0 表示 null
+    local quantity, pos = read_varint(value, 2)
+    local price = read_varint(value, pos)
+    return math.max(quantity - 1, 0), math.max(price - 1, 0)
+end
+
+-- 以 quantity_fn(舊數量) 改寫數量並更新 updatedAt，保留原本的編碼
+local function with_quantity(value, quantity_fn, now_text, now_epoch)
+    local first = string.byte(value, 1)
+    if first == JSON_PREFIX then
+        local item = cjson.decode(value)
+        item['quantity'] = quantity_fn(tonumber(item['quantity']) or 0)
+        item['updatedAt'] = now_text
+        return cjson.encode(item)
+    end
+    if first ~= BINARY_V1 then
+        error('unsupported cart item version: ' .. tostring(first))
+    end
+    local quantity, price_start = read_varint(value, 2)
+    local _, updated_start = read_varint(value, price_start)
+    local _, rest_start = read_varint(value, updated_start)
+    return string.char(BINARY_V1)
+        .. write_varint(quantity_fn(math.max(quantity - 1, 0)) + 1)
+        .. string.sub(value, price_start, updated_start - 1)
+        .. write_varint(now_epoch + 1)
+        .. string.sub(value, rest_start)
+end
+
+local function is_item_field(field)
+    return string.byte(field, 1) ~= RESERVED_PREFIX
+end
+
+local function store_summary(key, count, quantity, price)
+    if count <= 0 then
+        -- 最後一個商品移除後 Hash 清空，Redis 會刪除整個 key
+        redis.call('HDEL', key, SUMMARY_COUNT, SUMMARY_QUANTITY, SUMMARY_PRICE, INDEXED_FLAG, EXPIRY_STATE)
+        return
+    end
+    redis.call('HSET', key,
+        SUMMARY_COUNT, string.format('%d', count),
+        SUMMARY_QUANTITY, string.format('%d', quantity),
+        SUMMARY_PRICE, string.format('%d', price))
+end
+
+-- 回傳 {項目數, 總數量, 總價(分)}；尚未有彙總欄位的舊購物車從項目重新計算並寫回
+local function load_summary(key)
+    local summary = redis.call('HMGET', key, SUMMARY_COUNT, SUMMARY_QUANTITY, SUMMARY_PRICE)
+    if summary[1] then
+        return tonumber(summary[1]), tonumber(summary[2]), tonumber(summary[3])
+    end
+    local entries = redis.call('HGETALL', key)
+    local count, quantity, price = 0, 0, 0
+    for i = 1, #entries, 2 do
+        if is_item_field(entries[i]) then
+            local item_quantity, item_price = item_totals(entries[i + 1])
+            count = count + 1
+            quantity = quantity + item_quantity
+            price = price + item_price * item_quantity
+        end
+    end
+    if count > 0 then
+        store_summary(key, count, quantity, price)
+    end
+    return count, quantity, price
+end
+
+-- 寫入項目並依新舊項目的差異調整彙總；current 為 false 表示新項目
+local function put_item(key, field, current, value)
+    local count, quantity, price = load_summary(key)
+    if current then
+        local old_quantity, old_price = item_totals(current)
+        quantity = quantity - old_quantity
+        price = price - old_price * old_quantity
+    else
+        count = count + 1
+    end
+    local new_quantity, new_price = item_totals(value)
+    redis.call('HSET', key, field, value)
+    store_summary(key, count, quantity + new_quantity, price + new_price * new_quantity)
+end
+
+-- 加入商品：已在購物車則累加數量（保留原本的商品快照），否則寫入新項目並登記到反向索引
+-- 訪客購物車沒有反向索引，index_key 為 nil
+local function add_item(key, index_key, field, delta, value, member, now_text, now_epoch)
+    local current = redis.call('HGET', key, field)
+    if current then
+        value = with_quantity(current, function(quantity)
+            return quantity + delta
+        end, now_text, now_epoch)
+    elseif index_key then
+        redis.call('SADD', index_key, member)
+    end
+    put_item(key, field, current, value)
+end
+
+-- 設定商品數量；商品不在購物車時回傳 false
+local function set_item_quantity(key, field, quantity, now_text, now_epoch)
+    local current = redis.call('HGET', key, field)
+    if not current then
+        return false
+    end
+    put_item(key, field, current, with_quantity(current, function()
+        return quantity
+    end, now_text, now_epoch))
+    return true
+end
+
+-- 移除商品並從反向索引移除；商品不在購物車時回傳 false
+local function remove_item(key, index_key, field, member)
+    local current = redis.call('HGET', key, field)
+    if not current then
+        return false
+    end
+    local count, quantity, price = load_summary(key)
+    local item_quantity, item_price = item_totals(current)
+    redis.call('HDEL', key, field)
+    if index_key then
+        redis.call('SREM', index_key, member)
+    end
+    store_summary(key, count - 1, quantity - item_quantity, price - item_price * item_quantity)
+    return true
+end
+
+local function parse_numbers(text)
+    local numbers = {}
+    for n in string.gmatch(text, '%d+') do
+        numbers[#numbers + 1] = tonumber(n)
+    end
+    return numbers
+end
+
+-- 依過期策略刷新 TTL；policy 見 CartExpiryPolicy：'刷新間隔,基本 TTL,活躍次數門檻,活躍 TTL,高價值門檻(分),高價值 TTL'
+-- 每個刷新間隔最多送一次 EXPIRE，TTL 需要提高（例如購物車變成高價值）時立即刷新
+-- 活躍次數是有寫入的刷新間隔數（達門檻後不再增加）；時間取 Redis 伺服器時間，各實例共用同一個時鐘
+-- 購物車已清空（key 不存在）時不處理
+local function touch(key, policy)
+    if redis.call('EXISTS', key) == 0 then
+        return
+    end
+    local p = parse_numbers(policy)
+    local now = tonumber(redis.call('TIME')[1])
+    local touched, applied, touches = 0, 0, 0
+    local state = redis.call('HGET', key, EXPIRY_STATE)
+    if state then
+        local s = parse_numbers(state)
+        touched, applied, touches = s[1], s[2], s[3]
+    end
+    local due = now - touched >= p[1]
+    if due then
+        touches = math.min(touches + 1, p[3])
+    end
+    local _, _, price = load_summary(key)
+    local ttl = p[2]
+    if price >= p[5] then
+        ttl = p[6]
+    elseif touches >= p[3] then
+        ttl = p[4]
+    end
+    if not due and ttl <= applied then
+        return
+    end
+    redis.call('EXPIRE', key, ttl)
+    redis.call('HSET', key, EXPIRY_STATE, string.format('%d,%d,%d', now, ttl, touches))
+end
+
+-- 回傳 {found, 項目數, 總數量, 總價(分), 項目...}，總計直接取彙總欄位
+-- 與變更在同一個腳本內完成，呼叫端不需要再讀一次購物車
+local function cart_reply(key, found)
+    local count, quantity, price = load_summary(key)
+    local reply = { found, count, quantity, price }
+    local entries = redis.call('HGETALL', key)
+    for i = 1, #entries, 2 do
+        if is_item_field(entries[i]) then
+            reply[#reply + 1] = entries[i + 1]
+        end
+    end
+    return reply
+end
@@ -0,0 +1,7 @@
+-- 清空購物車並從各商品的反向索引移除
+-- KEYS[1] 購物車 key  KEYS[2..] 購物車內各商品的反向索引 key
+-- ARGV[1] 用戶ID
+for i = 2, #KEYS do
+    redis.call('SREM', KEYS[i], ARGV[1])
+end
+return redis.call('DEL', KEYS[1])
@@ -0,0 +1,11 @@
+-- 把購物車內的商品登記到反向索引，用於反向索引建立前就存在的購物車
+-- KEYS[1] 購物車 key  KEYS[2..] 購物車內各商品的反向索引 key
+-- ARGV[1] 用戶ID
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+for i = 2, #KEYS do
+    redis.call('SADD', KEYS[i], ARGV[1])
+end
+redis.call('HSET', KEYS[1], INDEXED_FLAG, '1')
+return #KEYS - 1
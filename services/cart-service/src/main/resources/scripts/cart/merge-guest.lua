@@ -0,0 +1,37 @@
+-- 把訪客購物車合併到用戶購物車並刪除訪客購物車
+-- KEYS[1] 用戶購物車 key  KEYS[2] 訪客購物車 key
+-- ARGV[1] 數量衝突策略：SUM 相加、MAX 取較大、USER 保留用戶數量、GUEST 採用訪客數量
+-- ARGV[2] 更新時間字串  ARGV[3] 更新時間 epoch 秒  ARGV[4] 用戶購物車的過期策略
+-- 合併進來的商品在下次讀取購物車時登記到反向索引（清除 #indexed）
+-- 回傳 {合併的商品數, 項目數, 總數量, 總價(分), 項目...}
+local policy = ARGV[1]
+local entries = redis.call('HGETALL', KEYS[2])
+local merged = 0
+for i = 1, #entries, 2 do
+    local field = entries[i]
+    if is_item_field(field) then
+        local guest_value = entries[i + 1]
+        local current = redis.call('HGET', KEYS[1], field)
+        if not current then
+            put_item(KEYS[1], field, false, guest_value)
+            merged = merged + 1
+        elseif policy ~= 'USER' then
+            local guest_quantity = item_totals(guest_value)
+            put_item(KEYS[1], field, current, with_quantity(current, function(quantity)
+                if policy == 'SUM' then
+                    return quantity + guest_quantity
+                elseif policy == 'MAX' then
+                    return math.max(quantity, guest_quantity)
+                end
+                return guest_quantity
+            end, ARGV[2], tonumber(ARGV[3])))
+            merged = merged + 1
+        end
+    end
+end
+redis.call('DEL', KEYS[2])
+if merged > 0 then
+    redis.call('HDEL', KEYS[1], INDEXED_FLAG)
+    touch(KEYS[1], ARGV[4])
+end
+return cart_reply(KEYS[1], merged)
@@ -0,0 +1,7 @@
+-- 覆寫單一項目（不累加數量）
+-- KEYS[1] 購物車 key  KEYS[2] 商品反向索引 key
+-- ARGV[1] 商品ID  ARGV[2] 項目（已編碼）  ARGV[3] 過期策略  ARGV[4] 用戶ID
+put_item(KEYS[1], ARGV[1], redis.call('HGET', KEYS[1], ARGV[1]), ARGV[2])
+redis.call('SADD', KEYS[2], ARGV[4])
+touch(KEYS[1], ARGV[3])
+return { 1 }
@@ -0,0 +1,8 @@
+-- 移除商品並從商品的反向索引移除；商品不在購物車時回傳 {0}
+-- KEYS[1] 購物車 key  KEYS[2] 商品反向索引 key（訪客購物車不傳）
+-- ARGV[1] 商品ID  ARGV[2] 過期策略  ARGV[3] 用戶ID（訪客購物車不傳）
+if not remove_item(KEYS[1], KEYS[2], ARGV[1], ARGV[3]) then
+    return { 0 }
+end
+touch(KEYS[1], ARGV[2])
+return cart_reply(KEYS[1], 1)
@@ -0,0 +1,12 @@
+-- 比對後覆寫項目（編碼遷移、商品資訊更新）；項目在讀取後已被修改時略過，留待下次處理
+-- KEYS[1] 購物車 key
+-- ARGV 每三個一組：商品ID、讀到的舊值、新值
+local replaced = 0
+for i = 1, #ARGV, 3 do
+    local current = redis.call('HGET', KEYS[1], ARGV[i])
+    if current == ARGV[i + 1] then
+        put_item(KEYS[1], ARGV[i], current, ARGV[i + 2])
+        replaced = replaced + 1
+    end
+end
+return replaced
@@ -0,0 +1,15 @@
+-- 讀取抽樣購物車的項目數與記憶體用量（唯讀，不補寫彙總欄位）
+-- KEYS 抽樣的購物車 key（可重複）
+-- 回傳 {項目數, 記憶體位元組, ...}，每個 key 兩個值；key 已過期時兩者皆為 0
+local reply = {}
+for i = 1, #KEYS do
+    local count, memory = 0, 0
+    if redis.call('EXISTS', KEYS[i]) == 1 then
+        -- 舊購物車沒有彙總欄位時以欄位數估計
+        count = tonumber(redis.call('HGET', KEYS[i], SUMMARY_COUNT)) or redis.call('HLEN', KEYS[i])
+        memory = redis.call('MEMORY', 'USAGE', KEYS[i]) or 0
+    end
+    reply[#reply + 1] = count
+    reply[#reply + 1] = memory
+end
+return reply
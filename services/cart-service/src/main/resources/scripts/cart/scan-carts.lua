@@ -0,0 +1,4 @@
+-- 從指定 cursor 繼續 SCAN（唯讀），cursor 可存入檢查點之後繼續
+-- ARGV[1] cursor  ARGV[2] 比對模式  ARGV[3] COUNT
+-- 回傳 {下一個 cursor, {key...}}
+return redis.call('SCAN', ARGV[1], 'MATCH', ARGV[2], 'COUNT', ARGV[3])
@@ -0,0 +1,8 @@
+-- 設定商品數量；商品不在購物車時回傳 {0}
+-- KEYS[1] 購物車 key
+-- ARGV[1] 商品ID  ARGV[2] 數量  ARGV[3] 更新時間字串  ARGV[4] 更新時間 epoch 秒  ARGV[5] 過期策略
+if not set_item_quantity(KEYS[1], ARGV[1], tonumber(ARGV[2]), ARGV[3], tonumber(ARGV[4])) then
+    return { 0 }
+end
+touch(KEYS[1], ARGV[5])
+return cart_reply(KEYS[1], 1)
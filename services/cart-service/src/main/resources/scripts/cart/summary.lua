@@ -0,0 +1,4 @@
+-- 讀取購物車彙總，不解碼任何項目
+-- KEYS[1] 購物車 key
+local count, quantity, price = load_summary(KEYS[1])
+return { 1, count, quantity, price }
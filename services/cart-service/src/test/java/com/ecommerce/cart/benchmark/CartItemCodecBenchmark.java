@@ -0,0 +1,103 @@
+package com.ecommerce.cart.benchmark;
+
+import com.ecommerce.cart.config.RedisConfig;
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.codec.BinaryCartItemCodec;
+import com.ecommerce.cart.repository.codec.CartItemCodec;
+import com.ecommerce.cart.repository.codec.JsonCartItemCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 購物車項目編碼 JMH 基準測試
+ *
+ * 比較 JSON 與二進位編碼的序列化 / 反序列化吞吐量，main 方法先印出單一項目的編碼大小
+ * 執行方式：mvn test-compile 後以測試 classpath 執行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartItemCodecBenchmark {
+
+    private CartItemCodec json;
+    private CartItemCodec binary;
+    private CartItem item;
+    private byte[] jsonData;
+    private byte[] binaryData;
+
+    @Setup
+    public void setUp() {
+        json = new JsonCartItemCodec(new RedisConfig().objectMapper());
+        binary = new BinaryCartItemCodec();
+        item = sampleItem();
+        jsonData = json.encode(item);
+        binaryData = binary.encode(item);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return json.encode(item);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binary.encode(item);
+    }
+
+    @Benchmark
+    public CartItem jsonDecode() {
+        return json.decode(1L, jsonData);
+    }
+
+    @Benchmark
+    public CartItem binaryDecode() {
+        return binary.decode(1L, binaryData);
+    }
+
+    static CartItem sampleItem() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        return CartItem.builder()
+                .userId(10_001L)
+                .productId(123_456L)
+                .productName("Wireless Noise Cancelling Headphones")
+                .price(new BigDecimal("7990.00"))
+                .imageUrl("https://cdn.example.com/products/123456/main.jpg")
+                .sku("SKU-WH-1000XM5-BLK")
+                .quantity(2)
+                .addedAt(now.minusDays(3))
+                .updatedAt(now)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        CartItemCodecBenchmark sizes = new CartItemCodecBenchmark();
+        sizes.setUp();
+        System.out.printf("json=%d bytes, binary=%d bytes, saved=%.1f%%%n",
+                sizes.jsonData.length, sizes.binaryData.length,
+                100.0 * (sizes.jsonData.length - sizes.binaryData.length) / sizes.jsonData.length);
+
+        Options options = new OptionsBuilder()
+                .include(CartItemCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,157 @@
+package com.ecommerce.cart.benchmark;
+
+import com.ecommerce.cart.config.RedisConfig;
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.CartNearCache;
+import com.ecommerce.cart.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 購物車加入商品吞吐基準
+ *
+ * 比較舊路徑（HGET → HSET → EXPIRE → HVALS）與單次往返的 Lua 腳本，並統計並發加入同一商品時遺失的數量。
+ * 需要 Docker，手動執行：mvn test -Dtest=CartMutationBenchmark
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CartMutationBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 2000;
+    private static final int CARTS = 50;
+    private static final int PRODUCTS_PER_CART = 10;
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+    private static CartRepository cartRepository;
+
+    @BeforeAll
+    static void setUp() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        RedisConfig redisConfig = new RedisConfig();
+        redisTemplate = redisConfig.cartRedisTemplate(connectionFactory);
+        cartRepository = new CartRepository(redisTemplate,
+                redisConfig.cartItemCodecs(redisConfig.objectMapper(), "binary"),
+                new CartNearCache(new RedisProperties(), new SimpleMeterRegistry(), false, 0),
+                redisConfig.cartExpiryPolicy(60, 7, 3, 14, new BigDecimal("3000"), 30), 48);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void addToCart() throws Exception {
+        run("legacy read-modify-write", this::legacyAdd);
+        run("lua script", this::scriptAdd);
+    }
+
+    private void run(String name, AddOperation operation) throws Exception {
+        flush();
+        // 預熱
+        execute(operation, OPS_PER_THREAD / 10);
+        flush();
+
+        long start = System.nanoTime();
+        execute(operation, OPS_PER_THREAD);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long expected = (long) THREADS * OPS_PER_THREAD;
+        long stored = 0;
+        for (long userId = 1; userId <= CARTS; userId++) {
+            stored += cartRepository.findByUserId(userId).stream().mapToInt(CartItem::getQuantity).sum();
+        }
+        System.out.printf("%-26s threads=%d ops=%d elapsed=%.2fs -> %.0f adds/s, lost quantity=%d%n",
+                name, THREADS, expected, seconds, expected / seconds, expected - stored);
+    }
+
+    private void execute(AddOperation operation, int opsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < opsPerThread; i++) {
+                        long userId = (thread * opsPerThread + i) % CARTS + 1;
+                        long productId = i % PRODUCTS_PER_CART + 1;
+                        operation.add(item(userId, productId));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 原本 CartService.addToCart 的寫法
+     */
+    private void legacyAdd(CartItem item) {
+        CartItem existing = cartRepository.findByUserIdAndProductId(item.getUserId(), item.getProductId());
+        if (existing != null) {
+            existing.setQuantity(existing.getQuantity() + item.getQuantity());
+            existing.setUpdatedAt(LocalDateTime.now());
+            cartRepository.saveCartItem(existing);
+        } else {
+            cartRepository.saveCartItem(item);
+        }
+        List<CartItem> items = cartRepository.findByUserId(item.getUserId());
+        items.stream().map(CartItem::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private void scriptAdd(CartItem item) {
+        cartRepository.addItem(item);
+    }
+
+    private static CartItem item(long userId, long productId) {
+        LocalDateTime now = LocalDateTime.now();
+        return CartItem.builder()
+                .userId(userId)
+                .productId(productId)
+                .productName("Benchmark product " + productId)
+                .price(new BigDecimal("199.90"))
+                .imageUrl("https://cdn.example.com/products/" + productId + ".jpg")
+                .sku("SKU-" + productId)
+                .quantity(1)
+                .addedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static void flush() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        }, true);
+    }
+
+    @FunctionalInterface
+    private interface AddOperation {
+        void add(CartItem item);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.config.RedisConfig;
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.CartKeySampler.Sample;
+import com.ecommerce.cart.repository.CartKeySampler.SampledCart;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 以真實 Redis 驗證購物車 key 抽樣：只回報購物車 key，並以 DBSIZE 作為估計的基準
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CartKeySamplerIntegrationTest {
+
+    private static final CartExpiryPolicy EXPIRY_POLICY = new CartExpiryPolicy(Duration.ofMinutes(60),
+            Duration.ofDays(7), 3, Duration.ofDays(14), new BigDecimal("3000"), Duration.ofDays(30));
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+    private static CartItemCodecs codecs;
+
+    private CartRepository cartRepository;
+    private CartKeySampler cartKeySampler;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        RedisConfig redisConfig = new RedisConfig();
+        redisTemplate = redisConfig.cartRedisTemplate(connectionFactory);
+        codecs = redisConfig.cartItemCodecs(redisConfig.objectMapper(), "binary");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+        cartRepository = new CartRepository(redisTemplate, codecs,
+                new CartNearCache(new RedisProperties(), new SimpleMeterRegistry(), false, 0), EXPIRY_POLICY, 48);
+        cartKeySampler = new CartKeySampler(redisTemplate);
+    }
+
+    @Test
+    void sample_MixedKeyspace_ShouldReportOnlyCartKeys() {
+        // Given: 用戶購物車、訪客購物車，以及反向索引與其他不相干的 key
+        cartRepository.addItem(item(7L, 1L));
+        cartRepository.addItem(item(7L, 2L));
+        cartRepository.addGuestItem("session-1", item(null, 3L));
+        redisTemplate.opsForValue().set("cart:not-a-user", bytes("x"));
+        redisTemplate.opsForValue().set("cart-analytics:abandoned", bytes("x"));
+
+        // When: 只有 6 個 key，200 次隨機抽樣幾乎必定抽到每個 key
+        Sample sample = cartKeySampler.sample(200);
+
+        // Then: 反向索引 product-carts:1、product-carts:2 與其他 key 不計入
+        assertEquals(6, sample.keyspaceSize());
+        assertEquals(200, sample.sampleSize());
+        assertTrue(sample.carts().size() < 200);
+        Set<String> kinds = sample.carts().stream()
+                .map(cart -> (cart.guest() ? "guest:" : "user:") + cart.itemCount())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("user:2", "guest:1"), kinds);
+        assertTrue(sample.carts().stream().mapToLong(SampledCart::memoryBytes).allMatch(bytes -> bytes > 0));
+    }
+
+    @Test
+    void sample_EmptyKeyspace_ShouldReturnNoCarts() {
+        // When
+        Sample sample = cartKeySampler.sample(10);
+
+        // Then
+        assertEquals(0, sample.keyspaceSize());
+        assertTrue(sample.carts().isEmpty());
+    }
+
+    private static CartItem item(Long userId, Long productId) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        return CartItem.builder()
+                .userId(userId)
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .addedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
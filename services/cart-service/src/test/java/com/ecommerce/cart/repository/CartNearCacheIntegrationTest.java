@@ -0,0 +1,191 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.config.RedisConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.RedisClientInfo;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 以真實 Redis 驗證近端快取的一致性：其他連線的寫入推送失效、讀取期間的失效不寫入快取，以及斷線後改為直接讀取
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CartNearCacheIntegrationTest {
+
+    private static final String KEY = "cart:7";
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartNearCache cartNearCache;
+    private final AtomicInteger fallbackReads = new AtomicInteger();
+    private final Function<String, Map<Object, Object>> fallback = key -> {
+        fallbackReads.incrementAndGet();
+        return redisTemplate.opsForHash().entries(key);
+    };
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisConfig().cartRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+        redisTemplate.opsForHash().put(KEY, "1", bytes("v1"));
+        meterRegistry = new SimpleMeterRegistry();
+        cartNearCache = new CartNearCache(redisProperties(), meterRegistry, true, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartNearCache.destroy();
+    }
+
+    @Test
+    void entries_WriteFromAnotherConnection_ShouldInvalidateCachedEntry() {
+        // Given
+        Map<Object, Object> loaded = cartNearCache.entries(KEY, fallback);
+        assertSame(loaded, cartNearCache.entries(KEY, fallback));
+
+        // When: 另一個連線（例如其他實例）修改購物車
+        redisTemplate.opsForHash().put(KEY, "1", bytes("v2"));
+
+        // Then
+        await(() -> cartNearCache.size() == 0);
+        assertArrayEquals(bytes("v2"), (byte[]) cartNearCache.entries(KEY, fallback).get("1"));
+        assertEquals(0, fallbackReads.get());
+        assertEquals(1.0, requests("hit"));
+        assertEquals(2.0, requests("miss"));
+    }
+
+    @Test
+    void entries_InvalidationDuringLoad_ShouldNotCacheLoadedResult() {
+        // Given: 讀取完成、寫入快取之前，另一個連線修改購物車且失效訊息已送達
+        CartNearCache racingCache = new CartNearCache(redisProperties(), meterRegistry, true, 100) {
+            @Override
+            Map<Object, Object> read(String key) {
+                Map<Object, Object> entries = super.read(key);
+                double before = invalidations();
+                redisTemplate.opsForHash().put(key, "1", bytes("v2"));
+                await(() -> invalidations() > before);
+                return entries;
+            }
+        };
+
+        try {
+            // When
+            Map<Object, Object> loaded = racingCache.entries(KEY, fallback);
+
+            // Then: 本次回傳讀到的舊值，但不寫入快取
+            assertArrayEquals(bytes("v1"), (byte[]) loaded.get("1"));
+            assertNull(racingCache.getIfPresent(KEY));
+            assertEquals(0, racingCache.size());
+        } finally {
+            racingCache.destroy();
+        }
+    }
+
+    @Test
+    void entries_TrackingConnectionKilled_ShouldClearCacheAndBypass() {
+        // Given
+        cartNearCache.entries(KEY, fallback);
+        assertEquals(1, cartNearCache.size());
+
+        // When: 中斷開啟追蹤的連線
+        killTrackingConnection();
+
+        // Then: 快取清空，重試間隔內直接讀取 Redis
+        await(() -> cartNearCache.size() == 0);
+        redisTemplate.opsForHash().put(KEY, "1", bytes("v2"));
+        Map<Object, Object> entries = cartNearCache.entries(KEY, fallback);
+        assertArrayEquals(bytes("v2"), (byte[]) entries.get("1"));
+        assertEquals(1, fallbackReads.get());
+        assertEquals(1.0, requests("bypass"));
+        assertNull(cartNearCache.getIfPresent(KEY));
+    }
+
+    private void killTrackingConnection() {
+        List<RedisClientInfo> clients = redisTemplate.execute(
+                (RedisCallback<List<RedisClientInfo>>) connection -> connection.serverCommands().getClientList());
+        RedisClientInfo tracking = clients.stream()
+                .filter(client -> client.getFlags() != null && client.getFlags().contains("t"))
+                .findFirst()
+                .orElseThrow();
+        String[] address = tracking.getAddressPort().split(":");
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().killClient(address[0], Integer.parseInt(address[1]));
+            return null;
+        });
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("cart.near-cache.requests").tag("result", result).counter().count();
+    }
+
+    private double invalidations() {
+        return meterRegistry.get("cart.near-cache.invalidations").counter().count();
+    }
+
+    private static RedisProperties redisProperties() {
+        RedisProperties properties = new RedisProperties();
+        properties.setHost(redis.getHost());
+        properties.setPort(redis.getMappedPort(6379));
+        return properties;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within " + TIMEOUT_MILLIS + "ms");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
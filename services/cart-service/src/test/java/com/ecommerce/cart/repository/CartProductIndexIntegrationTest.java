@@ -0,0 +1,237 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.config.RedisConfig;
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
+import com.ecommerce.cart.service.CartProductSyncService;
+import com.ecommerce.events.ProductEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 以真實 Redis 驗證商品反向索引：分批掃描、殘留成員清理、比對後覆寫的重試，以及舊購物車的補登記
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CartProductIndexIntegrationTest {
+
+    private static final Long PRODUCT_ID = 1L;
+    private static final CartExpiryPolicy EXPIRY_POLICY = new CartExpiryPolicy(Duration.ofMinutes(60),
+            Duration.ofDays(7), 3, Duration.ofDays(14), new BigDecimal("3000"), Duration.ofDays(30));
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+    private static CartItemCodecs codecs;
+
+    private CartRepository cartRepository;
+    private CartProductIndex cartProductIndex;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        RedisConfig redisConfig = new RedisConfig();
+        redisTemplate = redisConfig.cartRedisTemplate(connectionFactory);
+        codecs = redisConfig.cartItemCodecs(redisConfig.objectMapper(), "binary");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+        cartRepository = new CartRepository(redisTemplate, codecs,
+                new CartNearCache(new RedisProperties(), new SimpleMeterRegistry(), false, 0), EXPIRY_POLICY, 48);
+        cartProductIndex = new CartProductIndex(redisTemplate, codecs);
+    }
+
+    @Test
+    void forEachBatch_IndexedCarts_ShouldVisitEveryUserInBatches() {
+        // Given
+        for (long userId = 1; userId <= 5; userId++) {
+            cartRepository.addItem(item(userId, PRODUCT_ID, "10.00", 1));
+        }
+
+        // When
+        List<List<Long>> batches = new ArrayList<>();
+        cartProductIndex.forEachBatch(PRODUCT_ID, 2, batch -> batches.add(List.copyOf(batch)));
+
+        // Then: SSCAN 的 COUNT 只是提示，批次大小以 batchSize 為上限
+        Set<Long> visited = new HashSet<>();
+        batches.forEach(batch -> {
+            assertTrue(batch.size() <= 2);
+            visited.addAll(batch);
+        });
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), visited);
+        assertEquals(5, cartProductIndex.countCarts(PRODUCT_ID));
+    }
+
+    @Test
+    void refresh_StaleMember_ShouldRemoveFromIndex() {
+        // Given: 用戶 8 的購物車已過期，索引仍留有成員
+        cartRepository.addItem(item(7L, PRODUCT_ID, "10.00", 2));
+        redisTemplate.opsForSet().add(CartProductIndex.indexKey(PRODUCT_ID.toString()), bytes("8"));
+
+        // When
+        CartProductIndex.RefreshResult result = cartProductIndex.refresh(PRODUCT_ID, List.of(7L, 8L),
+                withPrice("12.00"));
+
+        // Then
+        assertEquals(new CartProductIndex.RefreshResult(1, 0, 1, 0), result);
+        assertEquals(1, cartProductIndex.countCarts(PRODUCT_ID));
+        assertFalse(Boolean.TRUE.equals(redisTemplate.opsForSet()
+                .isMember(CartProductIndex.indexKey(PRODUCT_ID.toString()), bytes("8"))));
+    }
+
+    @Test
+    void refresh_ItemModifiedAfterRead_ShouldRetryWithCurrentItem() {
+        // Given: 第一次改寫前，項目數量被另一個請求修改
+        cartRepository.addItem(item(7L, PRODUCT_ID, "10.00", 2));
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        CartProductIndex.RefreshResult result = cartProductIndex.refresh(PRODUCT_ID, List.of(7L), cartItem -> {
+            if (calls.incrementAndGet() == 1) {
+                cartRepository.updateQuantity(7L, PRODUCT_ID, 5);
+            }
+            return withPrice("12.00").apply(cartItem);
+        });
+
+        // Then: 重試時重新讀取，保留並行寫入的數量
+        assertEquals(new CartProductIndex.RefreshResult(1, 0, 0, 0), result);
+        assertEquals(2, calls.get());
+        CartItem stored = cartRepository.findByUserIdAndProductId(7L, PRODUCT_ID);
+        assertEquals(5, stored.getQuantity());
+        assertEquals(0, new BigDecimal("12.00").compareTo(stored.getPrice()));
+        assertEquals(new CartSummary(1, 5, 6000), cartRepository.getSummary(7L));
+    }
+
+    @Test
+    void refresh_ItemModifiedOnEveryAttempt_ShouldReportConflict() {
+        // Given
+        cartRepository.addItem(item(7L, PRODUCT_ID, "10.00", 1));
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        CartProductIndex.RefreshResult result = cartProductIndex.refresh(PRODUCT_ID, List.of(7L), cartItem -> {
+            cartRepository.updateQuantity(7L, PRODUCT_ID, calls.incrementAndGet() + 1);
+            return withPrice("12.00").apply(cartItem);
+        });
+
+        // Then: 重試用完後放棄，項目維持並行寫入的內容
+        assertEquals(new CartProductIndex.RefreshResult(0, 0, 0, 1), result);
+        assertEquals(3, calls.get());
+        CartItem stored = cartRepository.findByUserIdAndProductId(7L, PRODUCT_ID);
+        assertEquals(0, new BigDecimal("10.00").compareTo(stored.getPrice()));
+        assertEquals(new CartSummary(1, 4, 4000), cartRepository.getSummary(7L));
+    }
+
+    @Test
+    void sync_PriceChange_ShouldRewriteItemsAndKeepTotalsConsistent() {
+        // Given
+        cartRepository.addItem(item(7L, PRODUCT_ID, "10.00", 2));
+        cartRepository.addItem(item(7L, 2L, "3.00", 1));
+        cartRepository.addItem(item(8L, PRODUCT_ID, "10.00", 3));
+        cartRepository.addItem(item(9L, 2L, "3.00", 1));
+        CartProductSyncService syncService = new CartProductSyncService(cartProductIndex,
+                new SimpleMeterRegistry(), 1);
+
+        // When
+        syncService.sync(new ProductEvent("PRODUCT_UPDATED", PRODUCT_ID, "Renamed", new BigDecimal("12.50")));
+
+        // Then: 彙總與重新計算的結果一致，其他商品與購物車不受影響
+        assertEquals(new CartSummary(2, 3, 2500 + 300), cartRepository.getSummary(7L));
+        assertEquals(new CartSummary(1, 3, 3750), cartRepository.getSummary(8L));
+        assertEquals(new CartSummary(1, 1, 300), cartRepository.getSummary(9L));
+        for (Long userId : List.of(7L, 8L)) {
+            CartSnapshot cart = cartRepository.findCart(userId);
+            assertEquals(CartSummary.of(cart.items()), cart.summary());
+            assertEquals("Renamed", cartRepository.findByUserIdAndProductId(userId, PRODUCT_ID).getProductName());
+        }
+    }
+
+    @Test
+    void findCart_CartCreatedBeforeIndex_ShouldBackfillIndex() {
+        // Given: 反向索引建立前寫入的購物車，沒有 #indexed 標記
+        String cartKey = CartRepository.getCartKey(7L);
+        redisTemplate.opsForHash().put(cartKey, "1", codecs.encode(item(7L, 1L, "10.00", 1)));
+        redisTemplate.opsForHash().put(cartKey, "2", codecs.encode(item(7L, 2L, "5.00", 1)));
+
+        // When
+        cartRepository.findCart(7L);
+
+        // Then
+        assertTrue(redisTemplate.opsForHash().hasKey(cartKey, "#indexed"));
+        List<Long> visited = new ArrayList<>();
+        cartProductIndex.forEachBatch(2L, 10, visited::addAll);
+        assertEquals(List.of(7L), visited);
+        assertEquals(1, cartProductIndex.countCarts(1L));
+    }
+
+    @Test
+    void indexCartScript_ExpiredCart_ShouldNotIndex() {
+        // When
+        Long indexed = redisTemplate.execute(CartScripts.INDEX_CART,
+                List.of(CartRepository.getCartKey(7L), CartProductIndex.indexKey("1")), bytes("7"));
+
+        // Then
+        assertEquals(0L, indexed);
+        assertEquals(0, cartProductIndex.countCarts(1L));
+    }
+
+    private static UnaryOperator<CartItem> withPrice(String price) {
+        return cartItem -> {
+            cartItem.setPrice(new BigDecimal(price));
+            return cartItem;
+        };
+    }
+
+    private static CartItem item(Long userId, Long productId, String price, int quantity) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        return CartItem.builder()
+                .userId(userId)
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .addedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,509 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.config.RedisConfig;
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.model.GuestMergePolicy;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
+import com.ecommerce.cart.repository.codec.JsonCartItemCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 以真實 Redis 驗證購物車變更腳本：數量與彙總、反向索引、訪客購物車合併、過期策略，以及 snapshot 解析的回傳格式
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CartRepositoryIntegrationTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String SESSION_ID = "session-1";
+    private static final CartExpiryPolicy EXPIRY_POLICY = new CartExpiryPolicy(Duration.ofMinutes(60),
+            Duration.ofDays(7), 3, Duration.ofDays(14), new BigDecimal("3000"), Duration.ofDays(30));
+    private static final long BASE_TTL = Duration.ofDays(7).toSeconds();
+    private static final long ENGAGED_TTL = Duration.ofDays(14).toSeconds();
+    private static final long HIGH_VALUE_TTL = Duration.ofDays(30).toSeconds();
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+    private static CartItemCodecs codecs;
+    private static JsonCartItemCodec jsonCodec;
+
+    private CartRepository cartRepository;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        RedisConfig redisConfig = new RedisConfig();
+        redisTemplate = redisConfig.cartRedisTemplate(connectionFactory);
+        codecs = redisConfig.cartItemCodecs(redisConfig.objectMapper(), "binary");
+        jsonCodec = new JsonCartItemCodec(redisConfig.objectMapper());
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+        cartRepository = new CartRepository(redisTemplate, codecs,
+                new CartNearCache(new RedisProperties(), new SimpleMeterRegistry(), false, 0), EXPIRY_POLICY, 48);
+    }
+
+    @Test
+    void addItem_ExistingProduct_ShouldAccumulateQuantityAndKeepSnapshot() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 2));
+
+        // When: 第二次加入帶不同價格，保留第一次的商品快照
+        CartSnapshot snapshot = cartRepository.addItem(item(1L, "12.00", 3));
+
+        // Then
+        assertTrue(snapshot.found());
+        assertEquals(1, snapshot.items().size());
+        assertEquals(5, snapshot.items().get(0).getQuantity());
+        assertEquals(0, new BigDecimal("10.00").compareTo(snapshot.items().get(0).getPrice()));
+        assertEquals(new CartSummary(1, 5, 5000), snapshot.summary());
+        assertTrue(isIndexed(1L));
+    }
+
+    @Test
+    void updateQuantity_ExistingAndMissingProduct_ShouldUpdateOrReportNotFound() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 2));
+        cartRepository.addItem(item(2L, "0.99", 1));
+
+        // When
+        CartSnapshot updated = cartRepository.updateQuantity(USER_ID, 2L, 10);
+        CartSnapshot missing = cartRepository.updateQuantity(USER_ID, 3L, 1);
+
+        // Then
+        assertTrue(updated.found());
+        assertEquals(new CartSummary(2, 12, 2000 + 990), updated.summary());
+        assertFalse(missing.found());
+        assertFalse(redisTemplate.opsForHash().hasKey(CartRepository.getCartKey(USER_ID), "3"));
+    }
+
+    @Test
+    void removeItem_ExistingAndMissingProduct_ShouldRemoveFromCartAndIndex() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 2));
+        cartRepository.addItem(item(2L, "5.00", 1));
+
+        // When
+        CartSnapshot removed = cartRepository.removeItem(USER_ID, 1L);
+        CartSnapshot missing = cartRepository.removeItem(USER_ID, 1L);
+
+        // Then
+        assertTrue(removed.found());
+        assertEquals(1, removed.items().size());
+        assertEquals(2L, removed.items().get(0).getProductId());
+        assertEquals(new CartSummary(1, 1, 500), removed.summary());
+        assertFalse(isIndexed(1L));
+        assertTrue(isIndexed(2L));
+        assertFalse(missing.found());
+    }
+
+    @Test
+    void addItem_ConcurrentAddsOfSameProduct_ShouldNotLoseQuantity() throws Exception {
+        // Given
+        int threads = 8;
+        int addsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    cartRepository.addItem(item(1L, "1.00", 1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        CartSnapshot cart = cartRepository.findCart(USER_ID);
+        int expected = threads * addsPerThread;
+        assertEquals(expected, cart.items().get(0).getQuantity());
+        assertEquals(new CartSummary(1, expected, expected * 100L), cart.summary());
+    }
+
+    @Test
+    void addItemScript_Reply_ShouldMatchSnapshotFormat() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 2));
+        CartItem added = item(2L, "3.50", 4);
+
+        // When: 直接執行腳本，檢查 snapshot 解析的 {found, 項目數, 總數量, 總價(分), 項目...}
+        List<?> reply = redisTemplate.execute(CartScripts.ADD_ITEM,
+                List.of(CartRepository.getCartKey(USER_ID), CartProductIndex.indexKey("2")),
+                bytes("2"), bytes("4"), codecs.encode(added), bytes("2024-01-01 00:00:00"), bytes("1704067200"),
+                bytes(EXPIRY_POLICY.toArgument()), bytes(USER_ID.toString()));
+
+        // Then
+        assertEquals(6, reply.size());
+        assertEquals(1L, reply.get(0));
+        assertEquals(2L, reply.get(1));
+        assertEquals(6L, reply.get(2));
+        assertEquals(2000L + 1400L, reply.get(3));
+        for (Object value : reply.subList(4, reply.size())) {
+            assertInstanceOf(byte[].class, value);
+            CartItem decoded = codecs.decode(USER_ID, (byte[]) value);
+            assertTrue(decoded.getProductId() == 1L || decoded.getProductId() == 2L);
+        }
+    }
+
+    @Test
+    void setQuantityScript_MissingProduct_ShouldReplyNotFoundOnly() {
+        // When
+        List<?> reply = redisTemplate.execute(CartScripts.SET_QUANTITY, List.of(CartRepository.getCartKey(USER_ID)),
+                bytes("1"), bytes("3"), bytes("2024-01-01 00:00:00"), bytes("1704067200"),
+                bytes(EXPIRY_POLICY.toArgument()));
+
+        // Then
+        assertEquals(1, reply.size());
+        assertEquals(0L, reply.get(0));
+    }
+
+    @Test
+    void mixedOperations_StoredSummary_ShouldMatchItems() {
+        // When & Then: 每次變更後，彙總欄位都與從項目重新計算的結果一致
+        cartRepository.addItem(item(1L, "10.00", 2));
+        assertStoredSummaryMatchesItems();
+        cartRepository.addItem(item(2L, "0.99", 3));
+        cartRepository.addItem(item(1L, "10.00", 1));
+        assertStoredSummaryMatchesItems();
+        cartRepository.updateQuantity(USER_ID, 2L, 7);
+        assertStoredSummaryMatchesItems();
+        cartRepository.saveCartItem(item(3L, "1234.56", 1));
+        cartRepository.saveCartItem(item(3L, "1000.00", 2));
+        assertStoredSummaryMatchesItems();
+        cartRepository.removeItem(USER_ID, 1L);
+        assertStoredSummaryMatchesItems();
+        cartRepository.applyBatch(USER_ID, List.of(CartOperation.add(item(4L, "2.50", 4)),
+                CartOperation.set(3L, 5), CartOperation.remove(2L), CartOperation.set(99L, 1)));
+        assertStoredSummaryMatchesItems();
+        int refreshed = cartRepository.refreshItems(USER_ID, cartItem -> {
+            cartItem.setPrice(cartItem.getPrice().add(new BigDecimal("0.01")));
+            return cartItem;
+        });
+        assertEquals(2, refreshed);
+        CartSummary summary = assertStoredSummaryMatchesItems();
+        assertEquals(new CartSummary(2, 9, 5 * 100001L + 4 * 251L), summary);
+    }
+
+    @Test
+    void addItem_LegacyJsonCartWithoutSummary_ShouldComputeSummaryFromItems() {
+        // Given: 舊版購物車只有 JSON 項目，沒有任何保留欄位
+        String cartKey = CartRepository.getCartKey(USER_ID);
+        redisTemplate.opsForHash().put(cartKey, "1", jsonCodec.encode(item(1L, "19.99", 2)));
+        redisTemplate.opsForHash().put(cartKey, "2", jsonCodec.encode(item(2L, "0.10", 5)));
+
+        // When
+        CartSnapshot added = cartRepository.addItem(item(3L, "5.00", 1));
+        CartSnapshot updated = cartRepository.updateQuantity(USER_ID, 1L, 3);
+
+        // Then: 舊項目計入彙總，數量更新保留 JSON 編碼
+        assertEquals(new CartSummary(3, 8, 3998 + 50 + 500), added.summary());
+        assertEquals(new CartSummary(3, 9, 5997 + 50 + 500), updated.summary());
+        assertEquals(updated.summary(), assertStoredSummaryMatchesItems());
+        assertEquals((byte) '{', ((byte[]) redisTemplate.opsForHash().get(cartKey, "1"))[0]);
+    }
+
+    @Test
+    void getSummary_LegacyJsonCartWithoutSummary_ShouldWriteSummaryFields() {
+        // Given
+        String cartKey = CartRepository.getCartKey(USER_ID);
+        redisTemplate.opsForHash().put(cartKey, "1", jsonCodec.encode(item(1L, "19.99", 2)));
+
+        // When
+        CartSummary summary = cartRepository.getSummary(USER_ID);
+
+        // Then
+        assertEquals(new CartSummary(1, 2, 3998), summary);
+        assertEquals(summary, assertStoredSummaryMatchesItems());
+    }
+
+    @Test
+    void removeItem_LastItem_ShouldDeleteCartKey() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 2));
+        cartRepository.addItem(item(2L, "5.00", 1));
+
+        // When
+        cartRepository.removeItem(USER_ID, 1L);
+        CartSnapshot snapshot = cartRepository.removeItem(USER_ID, 2L);
+
+        // Then: 保留欄位一併刪除，不會留下只有彙總的空購物車
+        assertTrue(snapshot.found());
+        assertTrue(snapshot.items().isEmpty());
+        assertEquals(CartSummary.EMPTY, snapshot.summary());
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(CartRepository.getCartKey(USER_ID))));
+        assertFalse(isIndexed(2L));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({ "SUM, 5", "MAX, 3", "USER, 2", "GUEST, 3" })
+    void mergeGuestCart_ConflictingProduct_ShouldApplyPolicy(GuestMergePolicy policy, int expectedQuantity) {
+        // Given: 商品 1 兩邊都有，商品 3 只在訪客購物車
+        cartRepository.addItem(item(1L, "10.00", 2));
+        cartRepository.addItem(item(2L, "5.00", 1));
+        cartRepository.addGuestItem(SESSION_ID, item(1L, "12.00", 3));
+        cartRepository.addGuestItem(SESSION_ID, item(3L, "1.00", 4));
+
+        // When
+        CartSnapshot merged = cartRepository.mergeGuestCart(SESSION_ID, USER_ID, policy);
+
+        // Then: 衝突商品保留用戶購物車的商品快照，只依策略決定數量
+        CartItem conflicting = merged.items().stream()
+                .filter(cartItem -> cartItem.getProductId() == 1L)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(expectedQuantity, conflicting.getQuantity());
+        assertEquals(0, new BigDecimal("10.00").compareTo(conflicting.getPrice()));
+        assertEquals(3, merged.items().size());
+        assertEquals(new CartSummary(3, expectedQuantity + 1 + 4, expectedQuantity * 1000L + 500 + 400),
+                merged.summary());
+        assertEquals(merged.summary(), assertStoredSummaryMatchesItems());
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(CartRepository.getGuestCartKey(SESSION_ID))));
+    }
+
+    @Test
+    void mergeGuestCart_NewProducts_ShouldClearIndexedFlagUntilNextRead() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 1));
+        cartRepository.findCart(USER_ID);
+        String cartKey = CartRepository.getCartKey(USER_ID);
+        assertTrue(redisTemplate.opsForHash().hasKey(cartKey, "#indexed"));
+        cartRepository.addGuestItem(SESSION_ID, item(3L, "1.00", 4));
+
+        // When
+        cartRepository.mergeGuestCart(SESSION_ID, USER_ID, GuestMergePolicy.SUM);
+
+        // Then: 合併進來的商品尚未登記，下次讀取時補登記
+        assertFalse(redisTemplate.opsForHash().hasKey(cartKey, "#indexed"));
+        assertFalse(isIndexed(3L));
+        cartRepository.findCart(USER_ID);
+        assertTrue(redisTemplate.opsForHash().hasKey(cartKey, "#indexed"));
+        assertTrue(isIndexed(3L));
+        assertTrue(isIndexed(1L));
+    }
+
+    @Test
+    void mergeGuestCart_EmptyGuestCart_ShouldLeaveUserCartUnchanged() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 2));
+        cartRepository.findCart(USER_ID);
+        Map<Object, Object> before = redisTemplate.opsForHash().entries(CartRepository.getCartKey(USER_ID));
+
+        // When
+        CartSnapshot merged = cartRepository.mergeGuestCart(SESSION_ID, USER_ID, GuestMergePolicy.SUM);
+
+        // Then
+        assertEquals(1, merged.items().size());
+        assertEquals(new CartSummary(1, 2, 2000), merged.summary());
+        Map<Object, Object> after = redisTemplate.opsForHash().entries(CartRepository.getCartKey(USER_ID));
+        assertEquals(before.keySet(), after.keySet());
+        assertTrue(after.containsKey("#indexed"));
+    }
+
+    @Test
+    void mergeGuestCart_BothCartsEmpty_ShouldReturnEmptyCartWithoutCreatingKey() {
+        // When
+        CartSnapshot merged = cartRepository.mergeGuestCart(SESSION_ID, USER_ID, GuestMergePolicy.SUM);
+
+        // Then
+        assertTrue(merged.items().isEmpty());
+        assertEquals(CartSummary.EMPTY, merged.summary());
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(CartRepository.getCartKey(USER_ID))));
+    }
+
+    @Test
+    void touch_WriteWithinInterval_ShouldNotRefreshTtl() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 1));
+        String cartKey = CartRepository.getCartKey(USER_ID);
+        long[] state = expiryState(cartKey);
+        assertEquals(BASE_TTL, state[1]);
+        assertEquals(1, state[2]);
+        assertTrue(ttl(cartKey) > BASE_TTL - 60);
+        redisTemplate.expire(cartKey, Duration.ofSeconds(100));
+
+        // When: 同一個刷新間隔內的寫入，TTL 等級不變
+        cartRepository.addItem(item(2L, "10.00", 1));
+        cartRepository.updateQuantity(USER_ID, 1L, 3);
+
+        // Then: 沒有送出 EXPIRE，過期狀態不變
+        assertTrue(ttl(cartKey) <= 100);
+        assertArrayEquals(state, expiryState(cartKey));
+    }
+
+    @Test
+    void touch_CartBecomesHighValue_ShouldRefreshImmediately() {
+        // Given
+        cartRepository.addItem(item(1L, "10.00", 1));
+        String cartKey = CartRepository.getCartKey(USER_ID);
+        redisTemplate.expire(cartKey, Duration.ofSeconds(100));
+
+        // When: 仍在刷新間隔內，但總價達到高價值門檻
+        cartRepository.addItem(item(2L, "3000.00", 1));
+
+        // Then: 立即套用較長的 TTL，活躍次數不增加
+        assertTrue(ttl(cartKey) > HIGH_VALUE_TTL - 60);
+        long[] state = expiryState(cartKey);
+        assertEquals(HIGH_VALUE_TTL, state[1]);
+        assertEquals(1, state[2]);
+    }
+
+    @Test
+    void touch_WritesInSeparateIntervals_ShouldCountEngagedTouches() {
+        // Given
+        String cartKey = CartRepository.getCartKey(USER_ID);
+        cartRepository.addItem(item(1L, "10.00", 1));
+
+        // When & Then: 每個刷新間隔的第一次寫入增加活躍次數，達門檻後改用活躍 TTL
+        rewindExpiry(cartKey);
+        cartRepository.updateQuantity(USER_ID, 1L, 2);
+        assertEquals(2, expiryState(cartKey)[2]);
+        assertEquals(BASE_TTL, expiryState(cartKey)[1]);
+
+        rewindExpiry(cartKey);
+        cartRepository.addItem(item(2L, "1.00", 1));
+        assertEquals(3, expiryState(cartKey)[2]);
+        assertEquals(ENGAGED_TTL, expiryState(cartKey)[1]);
+        assertTrue(ttl(cartKey) > ENGAGED_TTL - 60);
+
+        rewindExpiry(cartKey);
+        cartRepository.removeItem(USER_ID, 2L);
+        assertEquals(3, expiryState(cartKey)[2]);
+        assertEquals(ENGAGED_TTL, expiryState(cartKey)[1]);
+    }
+
+    @Test
+    void touch_GuestCart_ShouldUseFixedTtlRegardlessOfValue() {
+        // When
+        cartRepository.addGuestItem(SESSION_ID, item(1L, "5000.00", 1));
+
+        // Then
+        String guestKey = CartRepository.getGuestCartKey(SESSION_ID);
+        long guestTtl = Duration.ofHours(48).toSeconds();
+        assertEquals(guestTtl, expiryState(guestKey)[1]);
+        assertTrue(ttl(guestKey) <= guestTtl);
+        assertTrue(ttl(guestKey) > guestTtl - 60);
+    }
+
+    /**
+     * 讀取 #expiry：{上次刷新 TTL 的 epoch 秒, 已套用的 TTL, 活躍次數}
+     */
+    private long[] expiryState(String cartKey) {
+        byte[] value = (byte[]) redisTemplate.opsForHash().get(cartKey, "#expiry");
+        assertNotNull(value, "#expiry missing");
+        String[] parts = new String(value, StandardCharsets.UTF_8).split(",");
+        return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]) };
+    }
+
+    /**
+     * 把上次刷新時間往前移一個刷新間隔，模擬下一個間隔的寫入
+     */
+    private void rewindExpiry(String cartKey) {
+        long[] state = expiryState(cartKey);
+        redisTemplate.opsForHash().put(cartKey, "#expiry",
+                bytes((state[0] - EXPIRY_POLICY.refreshInterval().toSeconds()) + "," + state[1] + "," + state[2]));
+    }
+
+    private long ttl(String cartKey) {
+        Long ttl = redisTemplate.getExpire(cartKey);
+        assertNotNull(ttl);
+        return ttl;
+    }
+
+    /**
+     * 比對購物車 Hash 中的彙總欄位與從項目重新計算的結果，回傳彙總
+     */
+    private CartSummary assertStoredSummaryMatchesItems() {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(CartRepository.getCartKey(USER_ID));
+        List<CartItem> items = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (!entry.getKey().toString().startsWith("#")) {
+                items.add(codecs.decode(USER_ID, (byte[]) entry.getValue()));
+            }
+        }
+        CartSummary stored = new CartSummary((int) stored(entries, "#count"), (int) stored(entries, "#quantity"),
+                stored(entries, "#price"));
+        assertEquals(CartSummary.of(items), stored);
+        return stored;
+    }
+
+    private static long stored(Map<Object, Object> entries, String field) {
+        Object value = entries.get(field);
+        assertNotNull(value, field + " missing");
+        return Long.parseLong(new String((byte[]) value, StandardCharsets.UTF_8));
+    }
+
+    private boolean isIndexed(Long productId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(CartProductIndex.indexKey(productId.toString()),
+                bytes(USER_ID.toString())));
+    }
+
+    private static CartItem item(Long productId, String price, int quantity) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        return CartItem.builder()
+                .userId(USER_ID)
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .addedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
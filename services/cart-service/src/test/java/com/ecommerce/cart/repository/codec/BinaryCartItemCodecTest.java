@@ -0,0 +1,99 @@
+package com.ecommerce.cart.repository.codec;
+
+import com.ecommerce.cart.model.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryCartItemCodecTest {
+
+    private final BinaryCartItemCodec codec = new BinaryCartItemCodec();
+
+    @Test
+    void decode_EncodedItem_ShouldRoundTripMultiByteValuesAndNonAsciiStrings() {
+        // Given: 每個數值欄位都需要多個位元組的 varint
+        CartItem item = CartItem.builder()
+                .userId(7L)
+                .productId(1L << 40)
+                .productName("機械鍵盤 Keychron K2 ⌨️")
+                .price(new BigDecimal("123456.78"))
+                .sku("SKU-éß-42")
+                .imageUrl("https://cdn.example.com/商品/1.png")
+                .quantity(300)
+                .addedAt(LocalDateTime.of(2024, 1, 1, 8, 30, 15))
+                .updatedAt(LocalDateTime.of(2025, 6, 30, 23, 59, 59))
+                .build();
+
+        // When
+        CartItem decoded = codec.decode(7L, codec.encode(item));
+
+        // Then
+        assertEquals(item, decoded);
+    }
+
+    @Test
+    void decode_NullFields_ShouldStayNull() {
+        // Given
+        CartItem item = CartItem.builder().productId(0L).quantity(0).price(BigDecimal.ZERO.setScale(2)).build();
+
+        // When
+        CartItem decoded = codec.decode(null, codec.encode(item));
+
+        // Then
+        assertEquals(item, decoded);
+        assertEquals(0L, decoded.getProductId());
+        assertEquals(null, decoded.getProductName());
+        assertEquals(null, decoded.getUpdatedAt());
+    }
+
+    @Test
+    void decode_TruncatedInput_ShouldThrowIllegalArgument() {
+        // Given
+        byte[] data = codec.encode(CartItem.builder()
+                .productId(123456789L)
+                .productName("無線滑鼠")
+                .price(new BigDecimal("999.99"))
+                .quantity(2)
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build());
+
+        // When & Then: 任何截斷都必須以 IllegalArgumentException 回報，不能是陣列越界
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> codec.decode(1L, truncated),
+                    "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void decode_StringLengthBeyondData_ShouldThrowIllegalArgument() {
+        // Given: 數值欄位皆為 null，商品名稱宣稱 300 bytes 但只有 2 bytes
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryCartItemCodec.VERSION_1);
+        for (int i = 0; i < 5; i++) {
+            BinaryCartItemCodec.writeVarint(out, 0);
+        }
+        BinaryCartItemCodec.writeVarint(out, 301);
+        out.write('a');
+        out.write('b');
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(1L, out.toByteArray()));
+    }
+
+    @Test
+    void decode_UnsupportedVersion_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(1L, new byte[] { 0x02, 0x01 }));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(1L, new byte[0]));
+        assertFalse(codec.canDecode("{}".getBytes()));
+        assertTrue(codec.canDecode(new byte[] { BinaryCartItemCodec.VERSION_1 }));
+    }
+}
@@ -0,0 +1,201 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.event.AbandonedCartReport;
+import com.ecommerce.cart.event.AbandonedCartReport.Bucket;
+import com.ecommerce.cart.event.AbandonedCartReport.ProductStat;
+import com.ecommerce.cart.model.CartItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbandonedCartAggregatorTest {
+
+    private static final Duration ABANDONED_AFTER = Duration.ofHours(24);
+    private static final List<BigDecimal> VALUE_LIMITS = List.of(new BigDecimal("500"), new BigDecimal("1000"),
+            new BigDecimal("3000"), new BigDecimal("10000"));
+    private static final LocalDateTime STARTED_AT = LocalDateTime.of(2024, 1, 10, 0, 0);
+    private static final LocalDateTime NOW = STARTED_AT.plusMinutes(5);
+    private static final LocalDateTime ABANDONED = NOW.minusDays(2);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void add_MoreProductsThanCapacity_ShouldEvictSmallestAndRecordError() {
+        // Given
+        AbandonedCartAggregator aggregator = aggregator(2);
+
+        // When: 商品 3 進來時表已滿，取代計數最小的商品 2
+        aggregator.add(List.of(item(1L, "10.00", 1)), ABANDONED, NOW);
+        aggregator.add(List.of(item(1L, "10.00", 1)), ABANDONED, NOW);
+        aggregator.add(List.of(item(2L, "10.00", 1)), ABANDONED, NOW);
+        aggregator.add(List.of(item(3L, "10.00", 1)), ABANDONED, NOW);
+
+        // Then: 商品 3 實際 1 個購物車，回報 2，誤差上界 1
+        Map<Long, ProductStat> products = products(aggregator.report(0, null));
+        assertEquals(2, products.size());
+        assertFalse(products.containsKey(2L));
+        assertEquals(2, products.get(1L).getCarts());
+        assertEquals(0, products.get(1L).getCartsError());
+        ProductStat evicting = products.get(3L);
+        assertEquals(2, evicting.getCarts());
+        assertEquals(1, evicting.getCartsError());
+        assertTrue(evicting.getCarts() - evicting.getCartsError() <= 1 && 1 <= evicting.getCarts());
+        assertEquals(1, evicting.getQuantity());
+    }
+
+    @Test
+    void report_TopProducts_ShouldListMostFrequentFirst() {
+        // Given
+        AbandonedCartAggregator aggregator = aggregator(10);
+        for (long productId = 1; productId <= 4; productId++) {
+            for (long cart = 0; cart < productId; cart++) {
+                aggregator.add(List.of(item(productId, "1.00", 1)), ABANDONED, NOW);
+            }
+        }
+
+        // When
+        AbandonedCartReport report = aggregator.report(2, NOW);
+
+        // Then
+        assertEquals(List.of(4L, 3L), report.getTopProducts().stream().map(ProductStat::getProductId).toList());
+        assertEquals(NOW, report.getCompletedAt());
+    }
+
+    @Test
+    void add_AbandonedCarts_ShouldFillValueHistogram() {
+        // Given
+        AbandonedCartAggregator aggregator = aggregator(10);
+
+        // When: 下界包含、上界不包含
+        aggregator.add(List.of(item(1L, "50.00", 2)), ABANDONED, NOW);
+        aggregator.add(List.of(item(1L, "250.00", 2)), ABANDONED, NOW);
+        aggregator.add(List.of(item(1L, "2999.99", 1)), ABANDONED, NOW);
+        aggregator.add(List.of(item(1L, "10000.00", 1), item(2L, "0.01", 1)), ABANDONED, NOW);
+        aggregator.add(List.of(item(1L, "99999.00", 1)), NOW.minusHours(1), NOW);
+
+        // Then: 未棄置的購物車不計入價值分布
+        AbandonedCartReport report = aggregator.report(0, null);
+        Map<String, Bucket> histogram = buckets(report.getValueHistogram());
+        assertEquals(List.of("0-500", "500-1000", "1000-3000", "3000-10000", "10000+"),
+                report.getValueHistogram().stream().map(Bucket::getLabel).toList());
+        assertEquals(1, histogram.get("0-500").getCarts());
+        assertEquals(new BigDecimal("100.00"), histogram.get("0-500").getValue());
+        assertEquals(1, histogram.get("500-1000").getCarts());
+        assertEquals(1, histogram.get("1000-3000").getCarts());
+        assertEquals(0, histogram.get("3000-10000").getCarts());
+        assertEquals(1, histogram.get("10000+").getCarts());
+        assertEquals(new BigDecimal("10000.01"), histogram.get("10000+").getValue());
+        assertEquals(5, report.getCartsScanned());
+        assertEquals(4, report.getAbandonedCarts());
+        assertEquals(new BigDecimal("13600.00"), report.getAbandonedValue());
+    }
+
+    @Test
+    void add_Carts_ShouldBucketByIdleTime() {
+        // Given
+        AbandonedCartAggregator aggregator = aggregator(10);
+
+        // When
+        aggregator.add(List.of(item(1L, "1.00", 1)), NOW.minusHours(1), NOW);
+        aggregator.add(List.of(item(1L, "1.00", 1)), NOW.minusHours(24), NOW);
+        aggregator.add(List.of(item(1L, "1.00", 1)), NOW.minusHours(72), NOW);
+        aggregator.add(List.of(item(1L, "1.00", 1)), NOW.minusDays(10), NOW);
+        aggregator.add(List.of(item(1L, "1.00", 1)), NOW.minusDays(45), NOW);
+        aggregator.add(List.of(item(1L, "1.00", 1)), null, NOW);
+        aggregator.add(List.of(), NOW.minusDays(45), NOW);
+
+        // Then: 無法判斷閒置時間的購物車歸入 unknown 且不計入棄置；空購物車不計入
+        AbandonedCartReport report = aggregator.report(0, null);
+        Map<String, Bucket> ages = buckets(report.getAgeBuckets());
+        assertEquals(List.of("<1d", "1-3d", "3-7d", "7-14d", "14-30d", "30d+", "unknown"),
+                report.getAgeBuckets().stream().map(Bucket::getLabel).toList());
+        assertEquals(1, ages.get("<1d").getCarts());
+        assertEquals(1, ages.get("1-3d").getCarts());
+        assertEquals(1, ages.get("3-7d").getCarts());
+        assertEquals(1, ages.get("7-14d").getCarts());
+        assertEquals(0, ages.get("14-30d").getCarts());
+        assertEquals(1, ages.get("30d+").getCarts());
+        assertEquals(1, ages.get("unknown").getCarts());
+        assertEquals(6, report.getCartsScanned());
+        assertEquals(4, report.getAbandonedCarts());
+    }
+
+    @Test
+    void restore_CheckpointReport_ShouldContinueAsIfUninterrupted() throws Exception {
+        // Given: 同一串購物車，一個中途經過檢查點（JSON）接續，一個不中斷
+        AbandonedCartAggregator uninterrupted = aggregator(3);
+        AbandonedCartAggregator first = aggregator(3);
+        List<List<CartItem>> carts = List.of(
+                List.of(item(1L, "10.00", 1), item(2L, "20.00", 2)),
+                List.of(item(3L, "600.00", 1)),
+                List.of(item(4L, "5.00", 3)),
+                List.of(item(1L, "10.00", 2), item(5L, "1.00", 1)),
+                List.of(item(2L, "20.00", 1)));
+        for (int i = 0; i < 2; i++) {
+            uninterrupted.add(carts.get(i), ABANDONED, NOW);
+            first.add(carts.get(i), ABANDONED, NOW);
+        }
+        byte[] checkpoint = objectMapper.writeValueAsBytes(first.report(0, null));
+
+        // When
+        AbandonedCartAggregator restored = AbandonedCartAggregator.restore(
+                objectMapper.readValue(checkpoint, AbandonedCartReport.class), ABANDONED_AFTER, 3, VALUE_LIMITS);
+        assertNotNull(restored);
+        for (int i = 2; i < carts.size(); i++) {
+            uninterrupted.add(carts.get(i), ABANDONED, NOW);
+            restored.add(carts.get(i), ABANDONED, NOW);
+        }
+
+        // Then
+        assertEquals(uninterrupted.report(0, NOW), restored.report(0, NOW));
+        assertEquals(STARTED_AT, restored.report(0, NOW).getStartedAt());
+    }
+
+    @Test
+    void restore_ConfigurationChanged_ShouldReturnNull() {
+        // Given
+        AbandonedCartAggregator aggregator = aggregator(3);
+        aggregator.add(List.of(item(1L, "10.00", 1)), ABANDONED, NOW);
+        AbandonedCartReport state = aggregator.report(0, null);
+
+        // When & Then
+        assertNull(AbandonedCartAggregator.restore(state, Duration.ofHours(48), 3, VALUE_LIMITS));
+        assertNull(AbandonedCartAggregator.restore(state, ABANDONED_AFTER, 3,
+                List.of(new BigDecimal("500"), new BigDecimal("2000"))));
+        assertNotNull(AbandonedCartAggregator.restore(state, ABANDONED_AFTER, 3, VALUE_LIMITS));
+    }
+
+    private static AbandonedCartAggregator aggregator(int capacity) {
+        return new AbandonedCartAggregator(ABANDONED_AFTER, capacity, VALUE_LIMITS, STARTED_AT);
+    }
+
+    private static Map<Long, ProductStat> products(AbandonedCartReport report) {
+        return report.getTopProducts().stream()
+                .collect(Collectors.toMap(ProductStat::getProductId, Function.identity()));
+    }
+
+    private static Map<String, Bucket> buckets(List<Bucket> buckets) {
+        return buckets.stream().collect(Collectors.toMap(Bucket::getLabel, Function.identity()));
+    }
+
+    private static CartItem item(Long productId, String price, int quantity) {
+        return CartItem.builder()
+                .productId(productId)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .build();
+    }
+}
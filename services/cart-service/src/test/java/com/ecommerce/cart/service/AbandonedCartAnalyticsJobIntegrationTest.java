@@ -0,0 +1,197 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.config.RedisConfig;
+import com.ecommerce.cart.event.AbandonedCartReport;
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.CartAnalyticsRepository;
+import com.ecommerce.cart.repository.CartAnalyticsRepository.Checkpoint;
+import com.ecommerce.cart.repository.CartAnalyticsRepository.ScanPage;
+import com.ecommerce.cart.repository.CartExpiryPolicy;
+import com.ecommerce.cart.repository.CartNearCache;
+import com.ecommerce.cart.repository.CartRepository;
+import com.ecommerce.cart.repository.codec.CartItemCodecs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 以真實 Redis 驗證棄置購物車分析的檢查點：從其他實例留下的檢查點接續，以及只有持有執行鎖的實例可以寫入
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AbandonedCartAnalyticsJobIntegrationTest {
+
+    private static final int CARTS = 40;
+    private static final String LOCK_KEY = "cart-analytics:abandoned:lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(2);
+    private static final Duration ABANDONED_AFTER = Duration.ofHours(24);
+    private static final List<BigDecimal> VALUE_LIMITS = List.of(new BigDecimal("500"), new BigDecimal("1000"),
+            new BigDecimal("3000"), new BigDecimal("10000"));
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+    private static CartItemCodecs codecs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private CartAnalyticsRepository cartAnalyticsRepository;
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        RedisConfig redisConfig = new RedisConfig();
+        redisTemplate = redisConfig.cartRedisTemplate(connectionFactory);
+        codecs = redisConfig.cartItemCodecs(redisConfig.objectMapper(), "binary");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+        cartAnalyticsRepository = new CartAnalyticsRepository(redisTemplate, codecs);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        CartRepository cartRepository = new CartRepository(redisTemplate, codecs,
+                new CartNearCache(new RedisProperties(), new SimpleMeterRegistry(), false, 0),
+                new CartExpiryPolicy(Duration.ofMinutes(60), Duration.ofDays(7), 3, Duration.ofDays(14),
+                        new BigDecimal("3000"), Duration.ofDays(30)), 48);
+        for (long userId = 1; userId <= CARTS; userId++) {
+            cartRepository.addItem(item(userId));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_CheckpointLeftByAnotherInstance_ShouldResumeWithoutRecountingCarts() throws Exception {
+        // Given: 另一個實例掃描一段、寫入檢查點後中斷，執行鎖過期
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(5).withNano(0);
+        assertTrue(cartAnalyticsRepository.tryLock("crashed", LOCK_TTL));
+        ScanPage page = cartAnalyticsRepository.scanCarts("0", 5);
+        assertFalse(page.finished());
+        AbandonedCartAggregator partial = new AbandonedCartAggregator(ABANDONED_AFTER, 2000, VALUE_LIMITS, startedAt);
+        for (Long userId : page.userIds()) {
+            CartAnalyticsRepository.CartContents contents = cartAnalyticsRepository.readCart(userId);
+            partial.add(contents.items(), contents.lastActivity(), LocalDateTime.now());
+        }
+        assertTrue(cartAnalyticsRepository.saveCheckpoint("crashed", LOCK_TTL, page.cursor(),
+                objectMapper.writeValueAsBytes(partial.report(0, null))));
+        redisTemplate.delete(LOCK_KEY);
+        when(kafkaTemplate.send(eq(AbandonedCartAnalyticsJob.REPORT_TOPIC), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        job().run();
+
+        // Then: 報告涵蓋所有購物車且沿用原本的開始時間，本實例只讀取檢查點之後的購物車
+        ArgumentCaptor<Object> report = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq(AbandonedCartAnalyticsJob.REPORT_TOPIC), anyString(), report.capture());
+        AbandonedCartReport published = (AbandonedCartReport) report.getValue();
+        assertEquals(CARTS, published.getCartsScanned());
+        assertEquals(startedAt, published.getStartedAt());
+        assertEquals(CARTS - page.userIds().size(),
+                meterRegistry.get("cart.abandoned.analytics.carts").counter().count());
+
+        Checkpoint checkpoint = cartAnalyticsRepository.loadCheckpoint();
+        assertNull(checkpoint.cursor());
+        assertNull(checkpoint.state());
+        assertNotNull(checkpoint.lastCompletedAt());
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(LOCK_KEY)));
+    }
+
+    @Test
+    void saveCheckpoint_LockHeldByAnotherInstance_ShouldNotOverwriteProgress() {
+        // Given: 鎖已過期並被另一個實例取得，對方已寫入自己的進度
+        assertTrue(cartAnalyticsRepository.tryLock("other", LOCK_TTL));
+        assertTrue(cartAnalyticsRepository.saveCheckpoint("other", LOCK_TTL, "42", new byte[] { 1 }));
+
+        // When
+        boolean saved = cartAnalyticsRepository.saveCheckpoint("stale", LOCK_TTL, "7", new byte[] { 2 });
+        boolean completed = cartAnalyticsRepository.completeCheckpoint("stale", LOCK_TTL, Instant.now());
+
+        // Then
+        assertFalse(saved);
+        assertFalse(completed);
+        Checkpoint checkpoint = cartAnalyticsRepository.loadCheckpoint();
+        assertEquals("42", checkpoint.cursor());
+        assertArrayEquals(new byte[] { 1 }, checkpoint.state());
+        assertNull(checkpoint.lastCompletedAt());
+    }
+
+    @Test
+    void saveCheckpoint_LockOwner_ShouldWriteAndExtendLock() {
+        // Given
+        assertTrue(cartAnalyticsRepository.tryLock("owner", Duration.ofSeconds(5)));
+
+        // When
+        boolean saved = cartAnalyticsRepository.saveCheckpoint("owner", LOCK_TTL, "42", new byte[] { 1 });
+
+        // Then
+        assertTrue(saved);
+        assertEquals("42", cartAnalyticsRepository.loadCheckpoint().cursor());
+        Long ttl = redisTemplate.getExpire(LOCK_KEY);
+        assertNotNull(ttl);
+        assertTrue(ttl > 5);
+    }
+
+    private AbandonedCartAnalyticsJob job() {
+        return new AbandonedCartAnalyticsJob(cartAnalyticsRepository, kafkaTemplate, objectMapper, meterRegistry,
+                24, ABANDONED_AFTER.toHours(), 100_000, 5, 2000, 50, "500,1000,3000,10000");
+    }
+
+    private static CartItem item(Long userId) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        return CartItem.builder()
+                .userId(userId)
+                .productId(userId % 5 + 1)
+                .productName("Product")
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .addedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
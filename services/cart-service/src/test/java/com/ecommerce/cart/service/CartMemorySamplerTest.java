@@ -0,0 +1,92 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.repository.CartKeySampler;
+import com.ecommerce.cart.repository.CartKeySampler.Sample;
+import com.ecommerce.cart.repository.CartKeySampler.SampledCart;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartMemorySamplerTest {
+
+    @Mock
+    private CartKeySampler cartKeySampler;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartMemorySampler cartMemorySampler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cartMemorySampler = new CartMemorySampler(cartKeySampler, meterRegistry, 10);
+    }
+
+    @Test
+    void sample_SampledCarts_ShouldScaleByKeyspaceSize() {
+        // Given: 10 個抽樣代表 1000 個 key，每個抽到的購物車代表 100 個
+        when(cartKeySampler.sample(10)).thenReturn(new Sample(1000, 10, List.of(
+                new SampledCart(false, 1, 100),
+                new SampledCart(false, 1, 120),
+                new SampledCart(false, 3, 200),
+                new SampledCart(true, 25, 50))));
+
+        // When
+        cartMemorySampler.sample();
+
+        // Then
+        assertEquals(200, gauge("cart.redis.keys", "user", "1"));
+        assertEquals(22000, gauge("cart.redis.memory", "user", "1"));
+        assertEquals(100, gauge("cart.redis.keys", "user", "2-5"));
+        assertEquals(20000, gauge("cart.redis.memory", "user", "2-5"));
+        assertEquals(100, gauge("cart.redis.keys", "guest", "21+"));
+        assertEquals(5000, gauge("cart.redis.memory", "guest", "21+"));
+        assertEquals(0, gauge("cart.redis.keys", "user", "6-20"));
+        assertEquals(0, gauge("cart.redis.keys", "guest", "1"));
+    }
+
+    @Test
+    void sample_SamplingFails_ShouldKeepPreviousEstimates() {
+        // Given
+        when(cartKeySampler.sample(10))
+                .thenReturn(new Sample(50, 10, List.of(new SampledCart(false, 1, 100))))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        cartMemorySampler.sample();
+
+        // When
+        cartMemorySampler.sample();
+
+        // Then
+        assertEquals(5, gauge("cart.redis.keys", "user", "1"));
+        assertEquals(500, gauge("cart.redis.memory", "user", "1"));
+    }
+
+    @Test
+    void sample_NoCartsSampled_ShouldResetEstimates() {
+        // Given
+        when(cartKeySampler.sample(10))
+                .thenReturn(new Sample(50, 10, List.of(new SampledCart(true, 2, 100))))
+                .thenReturn(new Sample(50, 10, List.of()));
+        cartMemorySampler.sample();
+
+        // When
+        cartMemorySampler.sample();
+
+        // Then
+        assertEquals(0, gauge("cart.redis.keys", "guest", "2-5"));
+        assertEquals(0, gauge("cart.redis.memory", "guest", "2-5"));
+    }
+
+    private double gauge(String name, String type, String size) {
+        return meterRegistry.get(name).tag("type", type).tag("size", size).gauge().value();
+    }
+}
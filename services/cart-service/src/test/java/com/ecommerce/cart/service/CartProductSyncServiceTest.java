@@ -0,0 +1,114 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.model.CartItem;
+import com.ecommerce.cart.repository.CartProductIndex;
+import com.ecommerce.cart.repository.CartProductIndex.RefreshResult;
+import com.ecommerce.events.ProductEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartProductSyncServiceTest {
+
+    @Mock
+    private CartProductIndex cartProductIndex;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartProductSyncService cartProductSyncService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cartProductSyncService = new CartProductSyncService(cartProductIndex, meterRegistry, 2);
+    }
+
+    @Test
+    void sync_ProductDeleted_ShouldSkip() {
+        // When
+        cartProductSyncService.sync(new ProductEvent("PRODUCT_DELETED", 1L, "Product 1", BigDecimal.TEN));
+
+        // Then
+        verify(cartProductIndex, never()).forEachBatch(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void sync_MultipleBatches_ShouldRefreshEachBatchAndCountResults() {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<List<Long>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(7L, 8L));
+            consumer.accept(List.of(9L));
+            return null;
+        }).when(cartProductIndex).forEachBatch(eq(1L), eq(2), any());
+        when(cartProductIndex.refresh(eq(1L), eq(List.of(7L, 8L)), any()))
+                .thenReturn(new RefreshResult(1, 0, 1, 0));
+        when(cartProductIndex.refresh(eq(1L), eq(List.of(9L)), any()))
+                .thenReturn(new RefreshResult(0, 0, 0, 1));
+
+        // When
+        cartProductSyncService.sync(new ProductEvent("PRODUCT_UPDATED", 1L, "Product 1", BigDecimal.TEN));
+
+        // Then
+        assertEquals(1.0, count("updated"));
+        assertEquals(1.0, count("stale"));
+        assertEquals(1.0, count("conflict"));
+        assertEquals(0.0, count("unchanged"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void sync_PriceChanged_ShouldRewriteOnlyChangedItems() {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<List<Long>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(7L));
+            return null;
+        }).when(cartProductIndex).forEachBatch(eq(1L), eq(2), any());
+        ArgumentCaptor<UnaryOperator<CartItem>> refresher = ArgumentCaptor.forClass(UnaryOperator.class);
+        when(cartProductIndex.refresh(eq(1L), eq(List.of(7L)), refresher.capture()))
+                .thenReturn(new RefreshResult(1, 0, 0, 0));
+
+        // When
+        cartProductSyncService.sync(new ProductEvent("PRODUCT_UPDATED", 1L, "Product 1", new BigDecimal("12.50")));
+
+        // Then: 價格不同的項目被改寫，已是最新的項目回傳 null
+        CartItem changed = refresher.getValue().apply(item("10.00"));
+        assertEquals(new BigDecimal("12.50"), changed.getPrice());
+        assertNull(refresher.getValue().apply(item("12.5")));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("cart.product.sync.carts").tag("result", result).counter().count();
+    }
+
+    private static CartItem item(String price) {
+        return CartItem.builder()
+                .userId(7L)
+                .productId(1L)
+                .productName("Product 1")
+                .price(new BigDecimal(price))
+                .quantity(1)
+                .build();
+    }
+}
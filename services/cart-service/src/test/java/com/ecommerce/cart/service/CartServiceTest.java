@@ -0,0 +1,95 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.dto.BatchCartRequest;
+import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.repository.CartOperation;
+import com.ecommerce.cart.repository.CartRepository;
+import com.ecommerce.cart.repository.CartSnapshot;
+import com.ecommerce.cart.repository.CartSummary;
+import com.ecommerce.cart.service.ProductSummaryCache.ProductSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private ProductSummaryCache productSummaryCache;
+
+    @InjectMocks
+    private CartService cartService;
+
+    @Test
+    void applyBatch_UnavailableProduct_ShouldRejectWholeBatch() {
+        // Given
+        when(productSummaryCache.getProducts(List.of(1L, 2L))).thenReturn(Map.of(1L, product(1L, "ACTIVE")));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> cartService.applyBatch(7L, request(false)));
+        verify(cartRepository, never()).applyBatch(any(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyBatch_SkipUnavailable_ShouldApplyRemainingOperations() {
+        // Given: 商品 2 查無，商品 3 已下架
+        when(productSummaryCache.getProducts(List.of(1L, 2L, 3L))).thenReturn(Map.of(
+                1L, product(1L, "ACTIVE"),
+                3L, product(3L, "INACTIVE")));
+        when(cartRepository.applyBatch(eq(7L), anyList()))
+                .thenReturn(new CartSnapshot(true, List.of(), new CartSummary(1, 2, 2000)));
+        BatchCartRequest request = request(true);
+        request.setOperations(List.of(request.getOperations().get(0), request.getOperations().get(1),
+                add(3L)));
+
+        // When
+        CartResponse response = cartService.applyBatch(7L, request);
+
+        // Then
+        ArgumentCaptor<List<CartOperation>> operations = ArgumentCaptor.forClass(List.class);
+        verify(cartRepository).applyBatch(eq(7L), operations.capture());
+        assertEquals(1, operations.getValue().size());
+        assertEquals(1L, operations.getValue().get(0).productId());
+        assertEquals(List.of(2L, 3L), response.getSkippedProductIds());
+        assertEquals(2, response.getTotalItems());
+    }
+
+    private static BatchCartRequest request(boolean skipUnavailable) {
+        return BatchCartRequest.builder()
+                .operations(List.of(add(1L), add(2L)))
+                .skipUnavailable(skipUnavailable)
+                .build();
+    }
+
+    private static BatchCartRequest.Operation add(Long productId) {
+        return BatchCartRequest.Operation.builder()
+                .type(BatchCartRequest.OperationType.ADD)
+                .productId(productId)
+                .quantity(2)
+                .build();
+    }
+
+    private static ProductSummary product(Long productId, String status) {
+        return new ProductSummary(productId, "Product " + productId, new BigDecimal("10.00"), null, null, status);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.client.ProductClient;
+import com.ecommerce.cart.model.Product;
+import com.ecommerce.events.ProductEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSummaryCacheTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private ProductSummaryCache productSummaryCache;
+
+    @BeforeEach
+    void setUp() {
+        productSummaryCache = new ProductSummaryCache(productClient, new SimpleMeterRegistry(), 300, 1000);
+    }
+
+    @Test
+    void getProducts_CachedProducts_ShouldSkipRemoteCall() {
+        // Given
+        when(productClient.getProductsByIds(List.of(1L, 2L))).thenReturn(List.of(product(1L, "10.00"),
+                product(2L, "20.00")));
+
+        // When
+        productSummaryCache.getProducts(List.of(1L, 2L));
+        Map<Long, ProductSummaryCache.ProductSummary> products = productSummaryCache.getProducts(List.of(2L, 1L));
+
+        // Then
+        assertEquals(new BigDecimal("20.00"), products.get(2L).price());
+        verify(productClient, times(1)).getProductsByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void getProducts_EventDuringLoad_ShouldSkipCachingOnlyTouchedProduct() {
+        // Given: 載入期間收到商品 3 的變更與一個無關商品的變更
+        when(productClient.getProductsByIds(List.of(3L, 4L))).thenAnswer(invocation -> {
+            productSummaryCache.evict(new ProductEvent("PRODUCT_UPDATED", 9L, "Product 9", BigDecimal.ONE));
+            productSummaryCache.evict(new ProductEvent("PRODUCT_UPDATED", 3L, "Product 3", BigDecimal.TEN));
+            return List.of(product(3L, "5.00"), product(4L, "6.00"));
+        });
+        when(productClient.getProductsByIds(List.of(3L))).thenReturn(List.of(product(3L, "10.00")));
+
+        // When
+        productSummaryCache.getProducts(List.of(3L, 4L));
+        Map<Long, ProductSummaryCache.ProductSummary> products = productSummaryCache.getProducts(List.of(3L, 4L));
+
+        // Then: 只有商品 3 重新載入
+        assertEquals(new BigDecimal("10.00"), products.get(3L).price());
+        assertEquals(new BigDecimal("6.00"), products.get(4L).price());
+        verify(productClient).getProductsByIds(List.of(3L));
+    }
+
+    @Test
+    void evict_ProductUpdatedEvent_ShouldReloadOnNextRead() {
+        // Given
+        when(productClient.getProductsByIds(List.of(5L))).thenReturn(List.of(product(5L, "1.00")),
+                List.of(product(5L, "2.00")));
+        productSummaryCache.getProduct(5L);
+
+        // When
+        productSummaryCache.evict(new ProductEvent("PRODUCT_UPDATED", 5L, "Product 5", new BigDecimal("2.00")));
+
+        // Then
+        assertEquals(new BigDecimal("2.00"), productSummaryCache.getProduct(5L).price());
+        verify(productClient, times(2)).getProductsByIds(List.of(5L));
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal(price));
+        product.setStatus(ProductSummaryCache.ACTIVE_STATUS);
+        return product;
+    }
+}
@@ -3,11 +3,23 @@ package com.ecommerce.events;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class OrderEvent {
     
+    /**
+     * 事件結構版本，新增欄位時遞增；消費者應忽略未知欄位
+     */
+    public static final int CURRENT_VERSION = 2;
+    
+    @JsonProperty("eventId")
+    private String eventId;
+    
+    @JsonProperty("version")
+    private int version;
+    
     @JsonProperty("eventType")
     private String eventType;
     
@@ -29,17 +41,28 @@ public class OrderEvent {
     @JsonProperty("status")
     private String status;
     
+    @JsonProperty("previousStatus")
+    private String previousStatus;
+    
+    @JsonProperty("reason")
+    private String reason;
+    
     @JsonProperty("items")
     private List<OrderItemEvent> items;
     
     @JsonProperty("shippingAddress")
     private String shippingAddress;
     
+    @JsonProperty("createdAt")
+    private LocalDateTime createdAt;
+    
     @JsonProperty("timestamp")
     private LocalDateTime timestamp;
     
     // Constructors
     public OrderEvent() {
+        this.eventId = UUID.randomUUID().toString();
+        this.version = CURRENT_VERSION;
         this.timestamp = LocalDateTime.now();
     }
     
@@ -53,6 +76,22 @@ public class OrderEvent {
     }
     
     // Getters and Setters
+    public String getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     public String getEventType() {
         return eventType;
     }
@@ -109,6 +148,22 @@ public class OrderEvent {
         this.status = status;
     }
     
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    public void setPreviousStatus(String previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+    
     public List<OrderItemEvent> getItems() {
         return items;
     }
@@ -125,6 +180,14 @@ public class OrderEvent {
         this.shippingAddress = shippingAddress;
     }
     
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -136,13 +199,16 @@ public class OrderEvent {
     @Override
     public String toString() {
         return "OrderEvent{" +
-                "eventType='" + eventType + '\'' +
+                "eventId='" + eventId + '\'' +
+                ", version=" + version +
+                ", eventType='" + eventType + '\'' +
                 ", orderId=" + orderId +
                 ", orderNumber='" + orderNumber + '\'' +
                 ", userId=" + userId +
                 ", userEmail='" + userEmail + '\'' +
                 ", totalAmount=" + totalAmount +
                 ", status='" + status + '\'' +
+                ", previousStatus='" + previousStatus + '\'' +
                 ", timestamp=" + timestamp +
                 '}';
     }
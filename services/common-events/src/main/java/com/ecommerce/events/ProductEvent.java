@@ -0,0 +1,112 @@
+package com.ecommerce.events;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ProductEvent {
+    
+    @JsonProperty("eventType")
+    private String eventType;
+    
+    @JsonProperty("productId")
+    private Long productId;
+    
+    @JsonProperty("name")
+    private String name;
+    
+    @JsonProperty("sku")
+    private String sku;
+    
+    @JsonProperty("price")
+    private BigDecimal price;
+    
+    @JsonProperty("status")
+    private String status;
+    
+    @JsonProperty("timestamp")
+    private LocalDateTime timestamp;
+    
+    // Constructors
+    public ProductEvent() {
+        this.timestamp = LocalDateTime.now();
+    }
+    
+    public ProductEvent(String eventType, Long productId, String name, BigDecimal price) {
+        this();
+        this.eventType = eventType;
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+    }
+    
+    // Getters and Setters
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductEvent{" +
+                "eventType='" + eventType + '\'' +
+                ", productId=" + productId +
+                ", sku='" + sku + '\'' +
+                ", price=" + price +
+                ", status='" + status + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
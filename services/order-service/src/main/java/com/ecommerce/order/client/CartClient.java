@@ -7,6 +7,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import com.ecommerce.order.client.fallback.CartClientFallback;
 
@@ -33,6 +35,13 @@ public interface CartClient {
     @DeleteMapping("/{userId}")
     ResponseEntity<Map<String, String>> clearCart(@PathVariable("userId") Long userId);
 
+    /**
+     * 批量購物車操作：operations 依序套用（type 為 ADD / SET / REMOVE），一次呼叫完成
+     */
+    @PostMapping("/{userId}/items/batch")
+    ResponseEntity<Map<String, Object>> applyBatch(@PathVariable("userId") Long userId,
+                                                   @RequestBody Map<String, Object> batchRequest);
+
     /**
      * 獲取購物車商品數量
      */
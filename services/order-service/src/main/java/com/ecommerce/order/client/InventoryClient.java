@@ -12,6 +12,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import com.ecommerce.order.client.fallback.InventoryClientFallback;
+import com.ecommerce.order.client.http.Hedged;
+import com.ecommerce.order.client.http.Idempotent;
 
 /**
  * Inventory Service Feign Client
@@ -33,6 +35,7 @@ public interface InventoryClient {
     /**
      * 檢查庫存是否充足
      */
+    @Hedged
     @GetMapping("/check/{productId}")
     ResponseEntity<Map<String, Object>> checkStock(
             @PathVariable("productId") Long productId,
@@ -66,6 +69,8 @@ public interface InventoryClient {
     /**
      * 批量查詢庫存
      */
+    @Hedged
+    @Idempotent
     @PostMapping("/batch")
     ResponseEntity<List<Map<String, Object>>> getBatchInventory(@RequestBody List<Long> productIds);
 }
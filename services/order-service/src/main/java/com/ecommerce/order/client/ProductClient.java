@@ -8,8 +8,12 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.ecommerce.order.client.http.Idempotent;
+
 /**
  * Product Service Feign Client
  * 用於調用商品服務的 API
@@ -26,6 +30,13 @@ public interface ProductClient {
     @GetMapping("/{id}")
     ResponseEntity<Map<String, Object>> getProductById(@PathVariable("id") Long id);
 
+    /**
+     * 依多個商品ID批量獲取商品信息（單次最多 200 個）
+     */
+    @Idempotent
+    @PostMapping("/batch")
+    ResponseEntity<List<Map<String, Object>>> getProductsByIds(@RequestBody List<Long> ids);
+
     /**
      * 根據SKU獲取商品信息
      */
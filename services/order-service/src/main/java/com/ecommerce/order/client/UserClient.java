@@ -7,6 +7,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
+import com.ecommerce.order.client.http.Hedged;
+
 /**
  * User Service Feign Client
  * 用於調用用戶服務的 API
@@ -20,6 +22,7 @@ public interface UserClient {
     /**
      * 根據用戶ID獲取用戶信息
      */
+    @Hedged
     @GetMapping("/{userId}")
     ResponseEntity<Map<String, Object>> getUserById(@PathVariable("userId") Long userId);
 
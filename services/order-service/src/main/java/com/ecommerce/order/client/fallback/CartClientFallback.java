@@ -39,6 +39,16 @@ public class CartClientFallback implements CartClient {
         ));
     }
 
+    @Override
+    public ResponseEntity<Map<String, Object>> applyBatch(Long userId, Map<String, Object> batchRequest) {
+        log.warn("Cart service is unavailable, using fallback for batch cart operations: {}", userId);
+        return ResponseEntity.ok(Map.of(
+                "userId", userId,
+                "applied", false,
+                "message", "購物車服務暫時不可用，批量操作失敗"
+        ));
+    }
+
     @Override
     public ResponseEntity<Map<String, Object>> getCartItemCount(Long userId) {
         log.warn("Cart service is unavailable, using fallback for cart count: {}", userId);
@@ -0,0 +1,19 @@
+package com.ecommerce.order.client.http;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 啟用對沖請求的 Feign 方法：第一個呼叫超過觀測到的延遲百分位仍未返回時，
+ * 向另一個實例再發一次，先返回者勝出
+ *
+ * 只對冪等讀取（GET/HEAD 或 @Idempotent）生效
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+}
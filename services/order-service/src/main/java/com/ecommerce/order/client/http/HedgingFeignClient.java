@@ -0,0 +1,289 @@
+package com.ecommerce.order.client.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.ecommerce.order.config.FeignHttpProperties;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 對冪等讀取發送對沖請求的 Feign Client
+ *
+ * 標記 @Hedged 的方法先由負載平衡器選出實例發出第一個呼叫；超過該方法最近延遲的百分位（預設 p95）
+ * 仍未返回時，再向負載平衡器選出的另一個實例發出第二個呼叫，先返回者勝出，另一個被取消、
+ * 回應被丟棄並歸還連線。對沖數受全域預算限制，下游整體變慢時不會把流量放大一倍。
+ *
+ * 其他方法直接交給外層的 FeignBlockingLoadBalancerClient。
+ */
+@Slf4j
+public class HedgingFeignClient implements Client, DisposableBean {
+
+    static final int MAX_INSTANCE_PICKS = 3;
+
+    private final Client loadBalancedClient;
+    private final Client instanceClient;
+    private final LoadBalancerClient loadBalancerClient;
+    private final FeignHttpProperties.Hedge config;
+    private final MeterRegistry meterRegistry;
+    private final RetryBudget hedgeBudget;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    public HedgingFeignClient(Client loadBalancedClient,
+                              Client instanceClient,
+                              LoadBalancerClient loadBalancerClient,
+                              FeignHttpProperties.Hedge config,
+                              MeterRegistry meterRegistry) {
+        this.loadBalancedClient = loadBalancedClient;
+        this.instanceClient = instanceClient;
+        this.loadBalancerClient = loadBalancerClient;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.hedgeBudget = new RetryBudget(config.getBudgetRatio(), config.getMinHedgesPerSecond());
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("feign-hedge-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(0, config.getMaxConcurrency(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!config.isEnabled() || !isHedged(request)) {
+            return loadBalancedClient.execute(request, options);
+        }
+        URI originalUri = URI.create(request.url());
+        String serviceId = originalUri.getHost();
+        ServiceInstance primary = loadBalancerClient.choose(serviceId);
+        if (primary == null) {
+            // 交給負載平衡 Client 回應 503
+            return loadBalancedClient.execute(request, options);
+        }
+
+        String target = PooledFeignClient.targetName(request);
+        String method = PooledFeignClient.methodName(request);
+        LatencyWindow window = latencies.computeIfAbsent(target + "#" + method,
+                key -> new LatencyWindow(config.getWindowSize(), config.getPercentile()));
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        hedgeBudget.recordRequest();
+
+        CompletableFuture<Response> first;
+        try {
+            first = submit(primary, originalUri, request, options, window, attributes);
+        } catch (RejectedExecutionException e) {
+            return loadBalancedClient.execute(request, options);
+        }
+
+        try {
+            return first.get(hedgeDelay(window), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 慢於預期，嘗試對沖
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            first.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + target, e);
+        }
+
+        ServiceInstance secondary = chooseOther(serviceId, primary);
+        if (secondary == null) {
+            count(target, method, "single_instance");
+            return await(first);
+        }
+        if (!hedgeBudget.tryAcquireRetry()) {
+            count(target, method, "budget_exhausted");
+            return await(first);
+        }
+
+        CompletableFuture<Response> second;
+        try {
+            second = submit(secondary, originalUri, request, options, window, attributes);
+        } catch (RejectedExecutionException e) {
+            return await(first);
+        }
+        count(target, method, "sent");
+        log.debug("Hedged {}#{} to {} after {} ms", target, method, secondary.getInstanceId(), hedgeDelay(window));
+
+        CompletableFuture<Response> winner = race(first, second);
+        Response response = await(winner, first, second);
+        if (second.isDone() && !second.isCompletedExceptionally() && second.join() == response) {
+            count(target, method, "won");
+        }
+        return response;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    static boolean isHedged(Request request) {
+        return request.requestTemplate() != null
+                && request.requestTemplate().methodMetadata() != null
+                && request.requestTemplate().methodMetadata().method().isAnnotationPresent(Hedged.class)
+                && IdempotentRetryer.isIdempotent(request);
+    }
+
+    long hedgeDelay(LatencyWindow window) {
+        long minDelay = config.getMinDelay().toMillis();
+        long maxDelay = config.getMaxDelay().toMillis();
+        long percentile = window.percentileMillis();
+        if (percentile < 0) {
+            return maxDelay;
+        }
+        return Math.max(minDelay, Math.min(maxDelay, percentile));
+    }
+
+    private ServiceInstance chooseOther(String serviceId, ServiceInstance primary) {
+        for (int i = 0; i < MAX_INSTANCE_PICKS; i++) {
+            ServiceInstance instance = loadBalancerClient.choose(serviceId);
+            if (instance != null && !sameInstance(instance, primary)) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        return Objects.equals(a.getHost(), b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    private CompletableFuture<Response> submit(ServiceInstance instance, URI originalUri, Request request,
+                                               Request.Options options, LatencyWindow window,
+                                               RequestAttributes attributes) {
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.headers());
+        Request instanceRequest = Request.create(request.httpMethod(),
+                loadBalancerClient.reconstructURI(instance, originalUri).toString(), headers,
+                request.body(), request.charset(), request.requestTemplate());
+
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            RequestContextHolder.setRequestAttributes(attributes);
+            long startTime = System.nanoTime();
+            try {
+                Response response = instanceClient.execute(instanceRequest, options);
+                if (response.status() < 500) {
+                    window.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                }
+                if (!result.complete(response)) {
+                    // 已被取消或另一個呼叫勝出，歸還連線
+                    response.close();
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+        result.whenComplete((response, e) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 先返回的回應勝出並取消另一個；只有兩者都拋出例外時才失敗，並以第一個呼叫的例外結束
+     */
+    private static CompletableFuture<Response> race(CompletableFuture<Response> first,
+                                                    CompletableFuture<Response> second) {
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+        listen(first, second, winner, failures, firstError, true);
+        listen(second, first, winner, failures, firstError, false);
+        return winner;
+    }
+
+    private static void listen(CompletableFuture<Response> attempt, CompletableFuture<Response> other,
+                               CompletableFuture<Response> winner, AtomicInteger failures,
+                               AtomicReference<Throwable> firstError, boolean isFirst) {
+        attempt.whenComplete((response, e) -> {
+            if (e == null) {
+                if (winner.complete(response)) {
+                    other.cancel(true);
+                } else {
+                    response.close();
+                }
+                return;
+            }
+            if (isFirst) {
+                firstError.set(e);
+            }
+            if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(firstError.get());
+            }
+        });
+    }
+
+    private static Response await(CompletableFuture<Response> future, CompletableFuture<?>... attempts)
+            throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            for (CompletableFuture<?> attempt : attempts) {
+                attempt.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for hedged request", e);
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) throws IOException {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new IOException(cause);
+    }
+
+    private void count(String target, String method, String result) {
+        Counter.builder("order.http.client.hedges")
+                .description("Hedged request decisions for downstream HTTP calls")
+                .tag("target", target)
+                .tag("method", method)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.order.client.http;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 標記以 POST 等非冪等 HTTP 方法實作、但語意上是唯讀查詢的 Feign 方法（例如批量查詢），
+ * 使其與 GET 一樣可以被重試
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
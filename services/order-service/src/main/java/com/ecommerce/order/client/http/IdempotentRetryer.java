@@ -0,0 +1,93 @@
+package com.ecommerce.order.client.http;
+
+import java.util.OptionalLong;
+
+import com.ecommerce.order.config.FeignHttpProperties;
+
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 只重試冪等讀取的 Feign Retryer
+ *
+ * GET/HEAD 與標記 @Idempotent 的方法才會重試；預留庫存、確認、清空購物車等寫入操作
+ * 在逾時後可能已經生效，重試會造成重複副作用，因此直接失敗交給呼叫端或 Saga 補償處理。
+ * 重試還需通過目標服務的重試預算，且退避時間不能超過剩餘的端到端預算。
+ */
+@Slf4j
+public class IdempotentRetryer implements Retryer {
+
+    private final FeignHttpProperties.Retry config;
+    private final PooledFeignClient client;
+    private final MeterRegistry meterRegistry;
+    private int attempt = 1;
+    private long backoffMillis;
+
+    public IdempotentRetryer(FeignHttpProperties.Retry config, PooledFeignClient client, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.client = client;
+        this.meterRegistry = meterRegistry;
+        this.backoffMillis = config.getBackoff().toMillis();
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        Request request = e.request();
+        String target = request != null ? PooledFeignClient.targetName(request) : "unknown";
+        if (request == null || !isIdempotent(request)) {
+            throw e;
+        }
+        if (attempt >= config.getMaxAttempts()) {
+            count(target, "exhausted");
+            throw e;
+        }
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (remaining.isPresent() && remaining.getAsLong() <= backoffMillis) {
+            count(target, "deadline");
+            throw e;
+        }
+        if (!client.retryBudget(target).tryAcquireRetry()) {
+            count(target, "budget_exhausted");
+            log.warn("Retry budget exhausted for {}, not retrying {}", target, PooledFeignClient.methodName(request));
+            throw e;
+        }
+
+        count(target, "retried");
+        try {
+            Thread.sleep(backoffMillis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        attempt++;
+        backoffMillis = Math.min(backoffMillis * 2, config.getMaxBackoff().toMillis());
+    }
+
+    @Override
+    public Retryer clone() {
+        return new IdempotentRetryer(config, client, meterRegistry);
+    }
+
+    static boolean isIdempotent(Request request) {
+        Request.HttpMethod method = request.httpMethod();
+        if (method == Request.HttpMethod.GET || method == Request.HttpMethod.HEAD) {
+            return true;
+        }
+        return request.requestTemplate() != null
+                && request.requestTemplate().methodMetadata() != null
+                && request.requestTemplate().methodMetadata().method().isAnnotationPresent(Idempotent.class);
+    }
+
+    private void count(String target, String result) {
+        Counter.builder("order.http.client.retries")
+                .description("Retry decisions for downstream HTTP calls")
+                .tag("target", target)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
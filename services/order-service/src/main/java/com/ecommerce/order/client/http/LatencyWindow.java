@@ -0,0 +1,56 @@
+package com.ecommerce.order.client.http;
+
+import java.util.Arrays;
+
+/**
+ * 最近 N 次成功呼叫的延遲，用來估算對沖延遲的百分位
+ *
+ * 百分位每累積 RECOMPUTE_INTERVAL 筆才重新排序計算一次，熱路徑上只有陣列寫入
+ */
+class LatencyWindow {
+
+    static final int MIN_SAMPLES = 20;
+    static final int RECOMPUTE_INTERVAL = 16;
+
+    private final long[] samples;
+    private final double percentile;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private long cachedMillis = -1;
+
+    LatencyWindow(int size, double percentile) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (++sinceRecompute >= RECOMPUTE_INTERVAL || cachedMillis < 0) {
+            recompute();
+        }
+    }
+
+    /**
+     * 目前的延遲百分位（毫秒）；樣本不足時回傳 -1
+     */
+    synchronized long percentileMillis() {
+        return cachedMillis;
+    }
+
+    private void recompute() {
+        sinceRecompute = 0;
+        if (count < MIN_SAMPLES) {
+            cachedMillis = -1;
+            return;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        cachedMillis = sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -0,0 +1,181 @@
+package com.ecommerce.order.client.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.ecommerce.order.config.FeignHttpProperties;
+import com.ecommerce.order.exception.DeadlineExceededException;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 依目標服務分開連線池的 Feign HTTP 客戶端
+ *
+ * - 每個 @FeignClient 目標一個 keep-alive 連線池，上限可個別設定，某個下游變慢時不會佔滿其他下游的連線
+ * - 讀取逾時取 min(方法逾時, 入站請求剩餘預算)，並以 X-Request-Timeout-Ms 把剩餘預算傳給下游；
+ *   預算已用盡時直接失敗，不再發出呼叫
+ * - 延遲、結果與連線池狀態依目標服務輸出指標
+ *
+ * 負載平衡由外層的 FeignBlockingLoadBalancerClient 處理，這裡收到的 URL 已解析為實例位址。
+ */
+@Slf4j
+public class PooledFeignClient implements Client, DisposableBean {
+
+    private final FeignHttpProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TargetClient> targets = new ConcurrentHashMap<>();
+
+    public PooledFeignClient(FeignHttpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String target = targetName(request);
+        TargetClient client = targets.computeIfAbsent(target, this::createTarget);
+        String method = methodName(request);
+
+        long readTimeout = options.readTimeoutMillis();
+        Duration methodTimeout = properties.methodTimeout(target, method);
+        if (methodTimeout != null) {
+            readTimeout = methodTimeout.toMillis();
+        }
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (remaining.isPresent()) {
+            if (remaining.getAsLong() < properties.getMinCallBudget().toMillis()) {
+                record(target, method, "DEADLINE_EXCEEDED", 0);
+                throw new DeadlineExceededException(target, remaining.getAsLong());
+            }
+            readTimeout = Math.min(readTimeout, remaining.getAsLong());
+        }
+        long connectTimeout = Math.min(options.connectTimeoutMillis(), readTimeout);
+        request.header(RequestDeadline.HEADER, Long.toString(readTimeout));
+
+        Request.Options effective = new Request.Options(connectTimeout, TimeUnit.MILLISECONDS,
+                readTimeout, TimeUnit.MILLISECONDS, options.isFollowRedirects());
+        client.retryBudget().recordRequest();
+        long startTime = System.nanoTime();
+        try {
+            Response response = client.delegate().execute(request, effective);
+            record(target, method, outcome(response.status()), System.nanoTime() - startTime);
+            return response;
+        } catch (IOException e) {
+            record(target, method, "IO_ERROR", System.nanoTime() - startTime);
+            throw e;
+        }
+    }
+
+    /**
+     * 目標服務的重試預算
+     */
+    public RetryBudget retryBudget(String target) {
+        return targets.computeIfAbsent(target, this::createTarget).retryBudget();
+    }
+
+    @Override
+    public void destroy() {
+        targets.values().forEach(target -> target.httpClient().close(CloseMode.GRACEFUL));
+    }
+
+    static String targetName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().feignTarget() != null) {
+            return request.requestTemplate().feignTarget().name();
+        }
+        return "unknown";
+    }
+
+    static String methodName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return request.requestTemplate().methodMetadata().method().getName();
+        }
+        return "unknown";
+    }
+
+    private void record(String target, String method, String outcome, long elapsedNanos) {
+        Timer.builder("order.http.client.requests")
+                .description("Latency of downstream HTTP calls made through Feign")
+                .tag("target", target)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        return status >= 400 ? "CLIENT_ERROR" : "SUCCESS";
+    }
+
+    private TargetClient createTarget(String target) {
+        FeignHttpProperties.Pool pool = properties.getPool();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.maxConnections(target))
+                .setMaxConnPerRoute(properties.maxConnectionsPerRoute(target))
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.ofMilliseconds(pool.getTimeToLive().toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(pool.getConnectionRequestTimeout().toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(pool.getIdleTimeout().toMillis()))
+                .disableAutomaticRetries()
+                .build();
+
+        Gauge.builder("order.http.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connections currently leased from the pool")
+                .tag("target", target)
+                .register(meterRegistry);
+        Gauge.builder("order.http.client.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Idle keep-alive connections in the pool")
+                .tag("target", target)
+                .register(meterRegistry);
+        Gauge.builder("order.http.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requests waiting for a pooled connection")
+                .tag("target", target)
+                .register(meterRegistry);
+        Gauge.builder("order.http.client.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Maximum connections of the pool")
+                .tag("target", target)
+                .register(meterRegistry);
+
+        log.info("Created HTTP connection pool for {} (max {}, per route {})", target,
+                properties.maxConnections(target), properties.maxConnectionsPerRoute(target));
+        FeignHttpProperties.Retry retry = properties.getRetry();
+        return new TargetClient(httpClient, new ApacheHttp5Client(httpClient),
+                new RetryBudget(retry.getBudgetRatio(), retry.getMinRetriesPerSecond()));
+    }
+
+    private record TargetClient(CloseableHttpClient httpClient, Client delegate, RetryBudget retryBudget) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.order.client.http;
+
+import java.util.OptionalLong;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 端到端請求期限
+ *
+ * 入站請求的期限存放在 request attribute 中；Feign 的熔斷器執行緒會複製 RequestContextHolder，
+ * 因此下游呼叫在其他執行緒上也能讀到剩餘預算。跨服務以 X-Request-Timeout-Ms 傳遞剩餘毫秒數，
+ * 使用相對時間避免各主機時鐘偏差。
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+    static final String ATTRIBUTE = RequestDeadline.class.getName();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * 設定目前請求的期限為 budgetMillis 毫秒之後
+     */
+    public static void start(RequestAttributes attributes, long budgetMillis) {
+        attributes.setAttribute(ATTRIBUTE, System.nanoTime() + budgetMillis * 1_000_000L,
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * 目前請求剩餘的毫秒數；不在請求範圍內（例如排程或請求已結束的背景工作）時回傳 empty
+     */
+    public static OptionalLong remainingMillis() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return OptionalLong.empty();
+        }
+        Object deadline;
+        try {
+            deadline = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        } catch (IllegalStateException e) {
+            // 請求已完成，背景工作不再受入站期限限制
+            return OptionalLong.empty();
+        }
+        if (!(deadline instanceof Long deadlineNanos)) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of((deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.order.client.http;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 單一目標服務的重試預算
+ *
+ * 每秒允許的重試次數為 max(minRetriesPerSecond, budgetRatio × 請求數)，請求數取本秒與上一秒的較大值，
+ * 避免新的一秒剛開始時預算歸零。下游整體變慢時重試量被限制在固定比例，不會放大成重試風暴。
+ */
+public class RetryBudget {
+
+    private final double budgetRatio;
+    private final int minRetriesPerSecond;
+    private final LongSupplier clock;
+
+    private long currentSecond;
+    private long requestsThisSecond;
+    private long requestsLastSecond;
+    private long retriesThisSecond;
+
+    public RetryBudget(double budgetRatio, int minRetriesPerSecond) {
+        this(budgetRatio, minRetriesPerSecond, System::currentTimeMillis);
+    }
+
+    RetryBudget(double budgetRatio, int minRetriesPerSecond, LongSupplier clock) {
+        this.budgetRatio = budgetRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.clock = clock;
+        this.currentSecond = clock.getAsLong() / 1000;
+    }
+
+    /**
+     * 記錄一次實際送出的請求（含重試）
+     */
+    public synchronized void recordRequest() {
+        rotate();
+        requestsThisSecond++;
+    }
+
+    /**
+     * 嘗試取得一次重試額度
+     */
+    public synchronized boolean tryAcquireRetry() {
+        rotate();
+        long allowed = Math.max(minRetriesPerSecond,
+                (long) (budgetRatio * Math.max(requestsThisSecond, requestsLastSecond)));
+        if (retriesThisSecond >= allowed) {
+            return false;
+        }
+        retriesThisSecond++;
+        return true;
+    }
+
+    private void rotate() {
+        long second = clock.getAsLong() / 1000;
+        if (second != currentSecond) {
+            requestsLastSecond = second == currentSecond + 1 ? requestsThisSecond : 0;
+            requestsThisSecond = 0;
+            retriesThisSecond = 0;
+            currentSecond = second;
+        }
+    }
+}
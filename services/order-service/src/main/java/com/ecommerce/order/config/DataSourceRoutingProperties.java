@@ -0,0 +1,45 @@
+package com.ecommerce.order.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 讀取副本路由配置（order.datasource.routing）
+ *
+ * 關閉時沿用 spring.datasource 的單一資料源
+ */
+@Data
+@ConfigurationProperties(prefix = "order.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // 副本延遲超過此值時不再路由到該副本，改讀主庫
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    // 用戶寫入後在此期間內的讀取都走主庫（read-your-writes）
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    // 記錄最近寫入的用戶數上限
+    private int stickyMaxUsers = 100_000;
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+        // 副本無法連線時快速失敗，延遲檢查會把它標記為不可用
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+}
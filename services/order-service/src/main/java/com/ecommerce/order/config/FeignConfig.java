@@ -1,19 +1,44 @@
 package com.ecommerce.order.config;
 
+import java.util.List;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
 import org.springframework.cloud.openfeign.FeignClientsConfiguration;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.ecommerce.order.client.http.HedgingFeignClient;
+import com.ecommerce.order.client.http.IdempotentRetryer;
+import com.ecommerce.order.client.http.PooledFeignClient;
+
+import feign.Client;
 import feign.Logger;
 import feign.Request;
 import feign.Retryer;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Feign 客戶端配置
+ *
+ * 各服務的連線/讀取逾時在 spring.cloud.openfeign.client.config 設定，
+ * 連線池、方法逾時與重試預算在 order.http 設定
  */
 @Configuration
+@EnableConfigurationProperties(FeignHttpProperties.class)
 public class FeignConfig extends FeignClientsConfiguration {
 
+    private final FeignHttpProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public FeignConfig(FeignHttpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Feign 日誌級別配置
      */
@@ -23,24 +48,45 @@ public class FeignConfig extends FeignClientsConfiguration {
     }
 
     /**
-     * Feign 請求配置
+     * Feign 請求配置（未在 spring.cloud.openfeign.client.config 設定的客戶端使用）
      */
     @Bean
     public Request.Options requestOptions() {
         return new Request.Options(
-                10000, // connectTimeout 連接超時時間 10 秒
-                60000, // readTimeout 讀取超時時間 60 秒
-                true   // followRedirects
+                1000, // connectTimeout 連接超時時間 1 秒
+                5000, // readTimeout 讀取超時時間 5 秒，實際值還會受端到端期限限制
+                true  // followRedirects
         );
     }
 
     /**
-     * Feign 重試配置
+     * 依目標服務分開的 keep-alive 連線池
+     */
+    @Bean
+    public PooledFeignClient pooledFeignClient() {
+        return new PooledFeignClient(properties, meterRegistry);
+    }
+
+    /**
+     * 經過負載平衡的 Feign Client，取代預設的 HttpURLConnection 實作；標記 @Hedged 的方法會發送對沖請求
+     */
+    @Bean
+    public Client feignClient(PooledFeignClient pooledFeignClient,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              List<LoadBalancerFeignRequestTransformer> transformers) {
+        Client loadBalancedClient = new FeignBlockingLoadBalancerClient(pooledFeignClient, loadBalancerClient,
+                loadBalancerClientFactory, transformers);
+        return new HedgingFeignClient(loadBalancedClient, pooledFeignClient, loadBalancerClient,
+                properties.getHedge(), meterRegistry);
+    }
+
+    /**
+     * Feign 重試配置：只重試冪等讀取，並受重試預算限制
      */
     @Bean
     @Override
     public Retryer feignRetryer() {
-        // 最大重試次數為 3，重試間隔從 100ms 開始，最大間隔 1s
-        return new Retryer.Default(100, 1000, 3);
+        return new IdempotentRetryer(properties.getRetry(), pooledFeignClient(), meterRegistry);
     }
 }
@@ -0,0 +1,93 @@
+package com.ecommerce.order.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Feign HTTP 客戶端配置（order.http）
+ *
+ * 連線池、逾時與重試預算依目標服務名稱（@FeignClient name）分開設定，未設定的項目沿用預設值
+ */
+@Data
+@ConfigurationProperties(prefix = "order.http")
+public class FeignHttpProperties {
+
+    // 入站請求未帶 X-Request-Timeout-Ms 時的端到端預算
+    private Duration defaultDeadline = Duration.ofSeconds(10);
+
+    // 剩餘預算低於此值時不再發出下游呼叫
+    private Duration minCallBudget = Duration.ofMillis(20);
+
+    private Pool pool = new Pool();
+
+    private Retry retry = new Retry();
+
+    private Hedge hedge = new Hedge();
+
+    private Map<String, Client> clients = new HashMap<>();
+
+    @Data
+    public static class Pool {
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 20;
+        // 等待連線池取得連線的最長時間，池滿時快速失敗
+        private Duration connectionRequestTimeout = Duration.ofMillis(200);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        // 低於下游 Tomcat 預設的 20 秒 keep-alive，避免取到已被對端關閉的連線
+        private Duration idleTimeout = Duration.ofSeconds(15);
+    }
+
+    @Data
+    public static class Retry {
+        private int maxAttempts = 3;
+        private Duration backoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        // 重試次數上限為請求數的比例，另保留每秒最少可重試次數供低流量時使用
+        private double budgetRatio = 0.1;
+        private int minRetriesPerSecond = 5;
+    }
+
+    @Data
+    public static class Hedge {
+        private boolean enabled = true;
+        // 對沖延遲取最近成功呼叫延遲的百分位，並限制在 [minDelay, maxDelay]；樣本不足時使用 maxDelay
+        private double percentile = 0.95;
+        private int windowSize = 256;
+        private Duration minDelay = Duration.ofMillis(20);
+        private Duration maxDelay = Duration.ofMillis(500);
+        // 全域對沖預算：每秒對沖數不超過對沖候選請求數的比例
+        private double budgetRatio = 0.05;
+        private int minHedgesPerSecond = 1;
+        // 同時執行中的對沖候選呼叫上限，超過時退回一般呼叫
+        private int maxConcurrency = 64;
+    }
+
+    @Data
+    public static class Client {
+        private Integer maxConnections;
+        private Integer maxConnectionsPerRoute;
+        // 方法名稱 -> 讀取逾時，未列出的方法使用 spring.cloud.openfeign 的 readTimeout
+        private Map<String, Duration> methodTimeouts = new HashMap<>();
+    }
+
+    public int maxConnections(String target) {
+        Client client = clients.get(target);
+        return client != null && client.getMaxConnections() != null ? client.getMaxConnections() : pool.getMaxConnections();
+    }
+
+    public int maxConnectionsPerRoute(String target) {
+        Client client = clients.get(target);
+        return client != null && client.getMaxConnectionsPerRoute() != null
+                ? client.getMaxConnectionsPerRoute() : pool.getMaxConnectionsPerRoute();
+    }
+
+    public Duration methodTimeout(String target, String method) {
+        Client client = clients.get(target);
+        return client != null ? client.getMethodTimeouts().get(method) : null;
+    }
+}
@@ -49,7 +49,7 @@ public class KafkaConfig {
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.ecommerce.order.dto,com.ecommerce.order.event");
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.ecommerce.order.dto,com.ecommerce.order.event,com.ecommerce.events");
         return new DefaultKafkaConsumerFactory<>(props);
     }
     
@@ -0,0 +1,53 @@
+package com.ecommerce.order.config;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.ecommerce.order.client.http.RequestDeadline;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 為每個入站請求建立端到端期限
+ *
+ * 上游帶有 X-Request-Timeout-Ms 時沿用（不超過預設預算），否則使用 order.http.default-deadline
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final FeignHttpProperties properties;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long budget = properties.getDefaultDeadline().toMillis();
+        String header = request.getHeader(RequestDeadline.HEADER);
+        if (header != null) {
+            try {
+                budget = Math.min(budget, Long.parseLong(header.trim()));
+            } catch (NumberFormatException e) {
+                // 格式錯誤時使用預設預算
+            }
+        }
+        RequestDeadline.start(new ServletRequestAttributes(request), budget);
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.order.config;
 
 import com.ecommerce.order.saga.SagaManager;
+import com.ecommerce.order.saga.SagaTracker;
 import com.ecommerce.order.saga.impl.DefaultSagaManager;
+import com.ecommerce.order.service.OrderMetricsService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,7 +18,7 @@ public class SagaConfig {
      * 配置 Saga 管理器
      */
     @Bean
-    public SagaManager<Void> sagaManager() {
-        return new DefaultSagaManager();
+    public SagaManager<Void> sagaManager(OrderMetricsService metricsService, SagaTracker sagaTracker) {
+        return new DefaultSagaManager(metricsService, sagaTracker);
     }
 }
@@ -1,5 +1,8 @@
 package com.ecommerce.order.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -7,21 +10,37 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ecommerce.order.dto.BulkOrderStatusRequest;
+import com.ecommerce.order.dto.BulkOrderStatusResponse;
 import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.dto.OrderImportRequest;
+import com.ecommerce.order.dto.OrderImportResponse;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.UserOrderSummaryResponse;
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.OrderArchiveService;
+import com.ecommerce.order.service.OrderBulkStatusService;
+import com.ecommerce.order.service.OrderIdempotencyService;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.order.service.OrderSummaryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -37,12 +56,34 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Order Management", description = "APIs for managing orders")
 public class OrderController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final LocalDateTime EXPORT_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    
     private final OrderService orderService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderBulkStatusService orderBulkStatusService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
-    @Operation(summary = "Create a new order", description = "Create a new order with the provided details")
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request) {
-        OrderResponse response = orderService.createOrder(request);
+    @Operation(summary = "Create a new order", description = "Create a new order with the provided details. "
+            + "Requests carrying the same Idempotency-Key are executed at most once and replay the first response")
+    public ResponseEntity<OrderResponse> createOrder(
+            @Parameter(description = "Client-generated key used to deduplicate retries")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
+        OrderResponse response = (idempotencyKey == null || idempotencyKey.isBlank())
+                ? orderService.createOrder(request)
+                : orderIdempotencyService.execute(idempotencyKey, request, () -> orderService.createOrder(request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
+    @PostMapping("/import")
+    @Operation(summary = "Bulk import orders", description = "Back-office bulk import. Orders are written with JDBC batching "
+            + "and do not trigger user validation, stock reservation or order events")
+    public ResponseEntity<OrderImportResponse> importOrders(@Valid @RequestBody OrderImportRequest request) {
+        OrderImportResponse response = orderService.importOrders(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
@@ -61,14 +102,72 @@ public class OrderController {
     }
     
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Get orders by user ID", description = "Retrieve all orders for a specific user")
-    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(@PathVariable("userId") Long userId) {
-        List<OrderResponse> response = orderService.getOrdersByUserId(userId);
+    @Operation(summary = "Get orders by user ID", description = "Retrieve orders for a specific user, newest first. "
+            + "Pass the returned nextCursor to fetch the following page")
+    public ResponseEntity<OrderPageResponse> getOrdersByUserId(
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int limit) {
+        OrderPageResponse response = orderService.getOrdersByUserId(userId, cursor, limit);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/user/{userId}/summary")
+    @Operation(summary = "Get order summaries by user ID", description = "Read-only order history served from the "
+            + "denormalized per-user summary read model. Maintained from order events; staleness is bounded by "
+            + "periodic rebuilds from the database")
+    public ResponseEntity<UserOrderSummaryResponse> getOrderSummaries(@PathVariable("userId") Long userId) {
+        UserOrderSummaryResponse response = orderSummaryService.getUserSummary(userId);
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/summaries/rebuild")
+    @Operation(summary = "Rebuild order summaries", description = "Rebuild the summary read model of every user from "
+            + "the database in the background")
+    public ResponseEntity<Map<String, Object>> rebuildOrderSummaries() {
+        boolean started = orderSummaryService.rebuildAll();
+        Map<String, Object> response = Map.of("status", started ? "STARTED" : "ALREADY_RUNNING");
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+    
+    @GetMapping("/archive/number/{orderNumber}")
+    @Operation(summary = "Get archived order by number", description = "Retrieve an order that has been moved to the "
+            + "archive. Snowflake order numbers are resolved to their creation month so only matching partitions are scanned")
+    public ResponseEntity<OrderResponse> getArchivedOrderByNumber(@PathVariable("orderNumber") String orderNumber) {
+        OrderResponse response = orderArchiveService.getArchivedOrderByNumber(orderNumber);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/archive/user/{userId}")
+    @Operation(summary = "Get archived orders by user ID", description = "Retrieve archived orders of a user created in "
+            + "[from, to), newest first. Narrow ranges limit the number of partitions scanned")
+    public ResponseEntity<List<OrderResponse>> getArchivedOrdersByUserId(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<OrderResponse> response = orderArchiveService.getArchivedOrdersByUserId(userId, from, to, limit);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/archive/run")
+    @Operation(summary = "Run order archival", description = "Move finished orders older than the retention period "
+            + "to the archive tables")
+    public ResponseEntity<Map<String, Object>> runArchive() {
+        long archived = orderArchiveService.archiveExpiredOrders();
+        if (archived < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("status", "ALREADY_RUNNING"));
+        }
+        return ResponseEntity.ok(Map.of("status", "COMPLETED", "archived", archived));
+    }
+    
+    /**
+     * @deprecated OFFSET 分頁在深頁時成本線性增長，請改用 GET /user/{userId} 的游標分頁
+     */
+    @Deprecated
     @GetMapping("/user/{userId}/paginated")
-    @Operation(summary = "Get paginated orders by user ID", description = "Retrieve paginated orders for a specific user")
+    @Operation(summary = "Get paginated orders by user ID", description = "Retrieve paginated orders for a specific user. "
+            + "Deprecated: use the cursor based GET /user/{userId}", deprecated = true)
     public ResponseEntity<Page<OrderResponse>> getOrdersByUserIdPaginated(
             @PathVariable("userId") Long userId,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
@@ -85,7 +184,9 @@ public class OrderController {
     }
     
     @PutMapping("/{id}/status")
-    @Operation(summary = "Update order status", description = "Update the status of an order")
+    @Operation(summary = "Update order status", description = "Update the status of an order. The transition must be "
+            + "allowed by the order state machine, otherwise 409 is returned; PROCESSING is an optional step between "
+            + "PAID and SHIPPED")
     public ResponseEntity<OrderResponse> updateOrderStatus(
             @PathVariable("id") Long id,
             @RequestBody Map<String, String> statusUpdate) {
@@ -96,6 +197,16 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/status/batch")
+    @Operation(summary = "Bulk update order status", description = "Transition up to 10000 orders to the same status in "
+            + "one call. Transitions are validated against the order state machine and applied with set-based updates; "
+            + "the response reports the outcome of every order and the call throughput")
+    public ResponseEntity<BulkOrderStatusResponse> bulkUpdateOrderStatus(
+            @Valid @RequestBody BulkOrderStatusRequest request) {
+        BulkOrderStatusResponse response = orderBulkStatusService.updateStatuses(request);
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{id}/cancel")
     @Operation(summary = "Cancel order", description = "Cancel an order")
     public ResponseEntity<OrderResponse> cancelOrder(@PathVariable("id") Long id) {
@@ -114,13 +225,45 @@ public class OrderController {
     }
     
     @GetMapping("/status/{status}")
-    @Operation(summary = "Get orders by status", description = "Retrieve all orders with a specific status")
-    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(@PathVariable("status") String status) {
+    @Operation(summary = "Get orders by status", description = "Retrieve orders with a specific status, newest first. "
+            + "Pass the returned nextCursor to fetch the following page")
+    public ResponseEntity<OrderPageResponse> getOrdersByStatus(
+            @PathVariable("status") String status,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int limit) {
         Order.OrderStatus orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
-        List<OrderResponse> response = orderService.getOrdersByStatus(orderStatus);
+        OrderPageResponse response = orderService.getOrdersByStatus(orderStatus, cursor, limit);
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping(value = "/export", produces = NDJSON)
+    @Operation(summary = "Export orders as NDJSON", description = "Stream orders created in [from, to) as newline-delimited "
+            + "JSON in creation order, optionally filtered by status. Intended for back-office jobs")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Optional status filter") @RequestParam(required = false) String status,
+            @Parameter(description = "Inclusive lower bound of createdAt")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive upper bound of createdAt")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Order.OrderStatus orderStatus = status == null ? null : Order.OrderStatus.valueOf(status.toUpperCase());
+        LocalDateTime lower = from != null ? from : EXPORT_EPOCH;
+        LocalDateTime upper = to != null ? to : LocalDateTime.now();
+        
+        ObjectWriter writer = objectMapper.writer();
+        StreamingResponseBody body = outputStream -> orderService.exportOrders(orderStatus, lower, upper, order -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(order));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
     @GetMapping("/health")
     @Operation(summary = "Health check", description = "Check if the order service is running")
     public ResponseEntity<String> healthCheck() {
@@ -0,0 +1,46 @@
+package com.ecommerce.order.datasource;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 記錄最近有寫入的用戶，黏著期間內該用戶的讀取改走主庫，避免讀到尚未複製到副本的舊資料
+ *
+ * 只保存在本機；同一用戶的請求落到其他實例時，由副本延遲上限（max-lag）限制可能讀到的舊資料範圍
+ */
+public class ReadYourWrites {
+
+    private final long stickyWindowNanos;
+    private final Map<String, Long> lastWrites;
+
+    public ReadYourWrites(Duration stickyWindow, int maxUsers) {
+        this.stickyWindowNanos = stickyWindow.toNanos();
+        this.lastWrites = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public void recordWrite(String userId) {
+        synchronized (lastWrites) {
+            lastWrites.put(userId, System.nanoTime());
+        }
+    }
+
+    public boolean recentlyWrote(String userId) {
+        synchronized (lastWrites) {
+            Long writtenAt = lastWrites.get(userId);
+            if (writtenAt == null) {
+                return false;
+            }
+            if (System.nanoTime() - writtenAt > stickyWindowNanos) {
+                lastWrites.remove(userId);
+                return false;
+            }
+            return true;
+        }
+    }
+}
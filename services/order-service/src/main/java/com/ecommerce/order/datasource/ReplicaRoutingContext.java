@@ -0,0 +1,45 @@
+package com.ecommerce.order.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 目前執行緒的路由提示：需要讀到自己剛寫入的資料時，唯讀交易也改走主庫
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * 在主庫上執行唯讀讀取，結束後還原原本的路由提示
+     *
+     * 用於背景工作等沒有 read-your-writes 上下文、但不能容忍副本延遲的讀取（例如以讀取時間作為快照時間的重建）
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.ecommerce.order.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 依交易屬性路由的資料源
+ *
+ * - 唯讀交易（@Transactional(readOnly = true)）輪流分配到可用的副本，其餘一律走主庫
+ * - 副本延遲定期檢查，超過 max-lag 或無法連線的副本暫停使用；沒有可用副本時讀取退回主庫
+ * - ReplicaRoutingContext 要求主庫時（用戶剛寫入，或不能容忍副本延遲的背景重建），唯讀交易也走主庫
+ *
+ * 必須包在 LazyConnectionDataSourceProxy 內使用：交易開始時尚未設定唯讀旗標，
+ * 要等到第一個 SQL 執行、實際取得連線時才能決定路由。
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    // 副本落後主庫的秒數；沒有待重放的 WAL 時視為無延遲（主庫閒置時 replay 時間戳會一直變舊）
+    static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    Duration lagCheckInterval, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new ReplicaNode(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+        this.lagCheckInterval = lagCheckInterval;
+        this.meterRegistry = meterRegistry;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        for (ReplicaNode replica : this.replicas) {
+            Gauge.builder("order.datasource.replica.lag", replica, node -> node.lagMillis)
+                    .description("Replication lag of the read replica")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("order.datasource.replica.available", replica, node -> node.available ? 1 : 0)
+                    .description("Whether the read replica currently receives read-only transactions")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-lag-");
+        threadFactory.setDaemon(true);
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // 第一次檢查完成前副本視為不可用，讀取先走主庫
+        lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, lagCheckInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (ReplicaRoutingContext.isPrimaryRequired()) {
+            count(PRIMARY, "read_your_writes");
+            return PRIMARY;
+        }
+        ReplicaNode replica = nextAvailableReplica();
+        if (replica == null) {
+            count(PRIMARY, "no_replica");
+            return PRIMARY;
+        }
+        count(replica.name, "read_only");
+        return replica.name;
+    }
+
+    @Override
+    public void destroy() {
+        lagChecker.shutdownNow();
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    void checkReplicas() {
+        for (ReplicaNode replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(Math.max(1, (int) lagCheckInterval.toSeconds()));
+                try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                    resultSet.next();
+                    replica.lagMillis = resultSet.getLong(1);
+                }
+                replica.available = replica.lagMillis <= maxLag.toMillis();
+            } catch (Exception e) {
+                replica.available = false;
+                if (wasAvailable) {
+                    log.warn("Read replica {} unreachable, routing its reads to primary: {}",
+                            replica.name, e.getMessage());
+                }
+                continue;
+            }
+            if (wasAvailable != replica.available) {
+                log.info("Read replica {} is now {} (lag {} ms)", replica.name,
+                        replica.available ? "available" : "lagging", replica.lagMillis);
+            }
+        }
+    }
+
+    private ReplicaNode nextAvailableReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            ReplicaNode replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void count(String target, String reason) {
+        Counter.builder("order.datasource.routing")
+                .description("Read-only transactions by routing target")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class ReplicaNode {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+        private volatile long lagMillis = -1;
+
+        ReplicaNode(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
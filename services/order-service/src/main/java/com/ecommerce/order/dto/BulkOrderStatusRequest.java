@@ -0,0 +1,27 @@
+package com.ecommerce.order.dto;
+
+import java.util.List;
+
+import com.ecommerce.order.entity.Order;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequest {
+    
+    @NotEmpty(message = "Order IDs cannot be empty")
+    @Size(max = 10000, message = "Cannot update more than 10000 orders per request")
+    private List<@NotNull Long> orderIds;
+    
+    @NotNull(message = "Target status is required")
+    private Order.OrderStatus status;
+}
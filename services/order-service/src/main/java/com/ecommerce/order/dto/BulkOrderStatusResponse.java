@@ -0,0 +1,42 @@
+package com.ecommerce.order.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResponse {
+    
+    private String targetStatus;
+    private int requestedCount;
+    private int updatedCount;
+    private int unchangedCount;
+    private int rejectedCount;
+    private long elapsedMillis;
+    private double ordersPerSecond;
+    private List<OrderStatusResult> results;
+    
+    public enum Outcome {
+        UPDATED,             // 已轉換
+        UNCHANGED,           // 已是目標狀態，重試時不重複發事件
+        NOT_FOUND,           // 訂單不存在
+        INVALID_TRANSITION   // 狀態機不允許的轉換
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderStatusResult {
+        private Long orderId;
+        private String orderNumber;
+        private Outcome outcome;
+        private String previousStatus;
+    }
+}
@@ -59,6 +59,7 @@ public class CreateOrderRequest {
         @Size(max = 100, message = "Product SKU cannot exceed 100 characters")
         private String productSku;
         
+        // 客戶端看到的價格；下單時以商品服務的目前價格、名稱與 SKU 覆寫（匯入訂單除外）
         @NotNull(message = "Unit price cannot be null")
         @DecimalMin(value = "0.01", message = "Unit price must be greater than 0")
         @Digits(integer = 8, fraction = 2, message = "Unit price format is invalid")
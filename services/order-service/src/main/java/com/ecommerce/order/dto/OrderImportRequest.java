@@ -0,0 +1,23 @@
+package com.ecommerce.order.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderImportRequest {
+    
+    @NotEmpty(message = "Orders cannot be empty")
+    @Size(max = 10000, message = "Cannot import more than 10000 orders per request")
+    @Valid
+    private List<CreateOrderRequest> orders;
+}
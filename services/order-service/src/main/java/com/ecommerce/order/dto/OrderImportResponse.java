@@ -0,0 +1,20 @@
+package com.ecommerce.order.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderImportResponse {
+    
+    private int importedCount;
+    private int itemCount;
+    private long elapsedMillis;
+    private List<String> orderNumbers;
+}
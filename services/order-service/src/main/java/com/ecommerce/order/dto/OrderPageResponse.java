@@ -0,0 +1,23 @@
+package com.ecommerce.order.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Keyset 分頁結果，nextCursor 為 null 代表沒有下一頁
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageResponse {
+    
+    private List<OrderResponse> orders;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+}
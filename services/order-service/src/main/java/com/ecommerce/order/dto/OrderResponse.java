@@ -4,6 +4,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import com.ecommerce.order.repository.projection.OrderRow;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,6 +30,25 @@ public class OrderResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    /**
+     * 由投影組裝回應，明細由呼叫端以 IN 查詢批次載入
+     */
+    public static OrderResponse of(OrderRow order, List<OrderItemResponse> orderItems) {
+        return OrderResponse.builder()
+                .id(order.id())
+                .orderNumber(order.orderNumber())
+                .userId(order.userId())
+                .totalAmount(order.totalAmount())
+                .status(order.status().name())
+                .shippingAddress(order.shippingAddress())
+                .paymentMethod(order.paymentMethod())
+                .notes(order.notes())
+                .orderItems(orderItems)
+                .createdAt(order.createdAt())
+                .updatedAt(order.updatedAt())
+                .build();
+    }
+    
     @Data
     @Builder
     @NoArgsConstructor
@@ -39,5 +61,17 @@ public class OrderResponse {
         private BigDecimal unitPrice;
         private Integer quantity;
         private BigDecimal subtotal;
+        
+        public static OrderItemResponse of(OrderItemRow item) {
+            return OrderItemResponse.builder()
+                    .id(item.id())
+                    .productId(item.productId())
+                    .productName(item.productName())
+                    .productSku(item.productSku())
+                    .unitPrice(item.unitPrice())
+                    .quantity(item.quantity())
+                    .subtotal(item.subtotal())
+                    .build();
+        }
     }
 }
@@ -0,0 +1,28 @@
+package com.ecommerce.order.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 訂單摘要（讀模型文件），由訂單生命週期事件維護
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    
+    private Long orderId;
+    private String orderNumber;
+    private String status;
+    private BigDecimal totalAmount;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+    // 最後套用事件（或重建時資料列）的時間，用來丟棄亂序到達的舊事件
+    private long lastEventAt;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.order.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderSummaryResponse {
+    
+    private Long userId;
+    private List<OrderSummary> orders;
+    private int orderCount;
+    // 最後一次由資料庫完整重建的時間，兩次重建之間由事件增量維護
+    private LocalDateTime refreshedAt;
+}
@@ -11,7 +11,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders")
@@ -22,7 +26,8 @@ import java.util.List;
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "order_number", unique = true, nullable = false)
@@ -67,6 +72,38 @@ public class Order {
         DELIVERED,     // 已送達
         COMPLETED,     // 已完成
         CANCELLED,     // 已取消
-        REFUNDED       // 已退款
+        REFUNDED;      // 已退款
+        
+        // 訂單狀態機：每個狀態允許轉換到的下一個狀態，CANCELLED 與 REFUNDED 為終止狀態
+        // PROCESSING（揀貨中）由倉儲以狀態 API 設定，為可選步驟；直接出貨的倉儲可以由 PAID 轉為 SHIPPED
+        private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+        
+        static {
+            TRANSITIONS.put(PENDING, EnumSet.of(PAID, CANCELLED));
+            TRANSITIONS.put(PAID, EnumSet.of(PROCESSING, SHIPPED, CANCELLED, REFUNDED));
+            TRANSITIONS.put(PROCESSING, EnumSet.of(SHIPPED, CANCELLED, REFUNDED));
+            TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED));
+            TRANSITIONS.put(DELIVERED, EnumSet.of(COMPLETED, REFUNDED));
+            TRANSITIONS.put(COMPLETED, EnumSet.of(REFUNDED));
+            TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+            TRANSITIONS.put(REFUNDED, EnumSet.noneOf(OrderStatus.class));
+        }
+        
+        public boolean canTransitionTo(OrderStatus target) {
+            return TRANSITIONS.get(this).contains(target);
+        }
+        
+        /**
+         * 可以轉換到 target 的所有來源狀態
+         */
+        public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+            Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+            TRANSITIONS.forEach((source, targets) -> {
+                if (targets.contains(target)) {
+                    sources.add(source);
+                }
+            });
+            return sources;
+        }
     }
 }
@@ -0,0 +1,48 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox 中待發布的訂單事件
+ *
+ * ID 使用 IDENTITY 逐筆取號，確保同一訂單的事件 id 順序與寫入順序一致
+ */
+@Entity
+@Table(name = "order_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderOutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "event_id", unique = true, nullable = false, length = 36)
+    private String eventId;
+    
+    // Kafka 訊息 key（訂單號），同一 key 的事件必須依序發布
+    @Column(name = "aggregate_key", nullable = false, length = 50)
+    private String aggregateKey;
+    
+    @Column(name = "topic", nullable = false, length = 100)
+    private String topic;
+    
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+    
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,184 @@
+package com.ecommerce.order.event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.order.entity.OrderOutboxEvent;
+import com.ecommerce.order.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbox relay：批次讀取 outbox 並發布到 Kafka
+ *
+ * - 以 PostgreSQL advisory lock 保證同一時間只有一個實例發布，批次依 id 順序送出，
+ *   配合冪等 producer 保持每個訂單 key 的事件順序
+ * - 同一批中某個 key 發布失敗時，該 key 後續的事件也保留到下一輪與失敗事件一起依序重送，
+ *   消費者最後看到的順序仍然正確
+ * - 至少一次語意，消費者可用 eventId 去重
+ */
+@Component
+@Slf4j
+public class OrderOutboxRelay {
+
+    // advisory lock 的固定鍵值（"order_ob" 的 ASCII）
+    static final long RELAY_LOCK_KEY = 0x6F726465725F6F62L;
+    private static final TypeReference<LinkedHashMap<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final Timer publishLagTimer;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong outboxDepth = new AtomicLong();
+
+    public OrderOutboxRelay(OrderOutboxRepository orderOutboxRepository,
+                            KafkaTemplate<String, Object> kafkaTemplate,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.outbox.batch-size:200}") int batchSize,
+                            @Value("${order.outbox.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = Duration.ofMillis(sendTimeoutMs);
+
+        this.publishLagTimer = Timer.builder("order.outbox.publish.lag")
+                .description("Time from outbox insert to Kafka acknowledgement")
+                .tag("service", "order")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("order.outbox.published.count")
+                .description("Number of outbox events published")
+                .tag("service", "order")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("order.outbox.failed.count")
+                .description("Number of outbox events that failed to publish")
+                .tag("service", "order")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.depth", outboxDepth, AtomicLong::get)
+                .description("Number of events waiting in the outbox")
+                .tag("service", "order")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            // 一次排程內連續處理滿批，直到 outbox 清空或遇到失敗
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> publishBatch()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Order outbox relay failed", e);
+        }
+    }
+
+    /**
+     * 發布一批事件，回傳是否應該立即處理下一批
+     */
+    Boolean publishBatch() {
+        if (!orderOutboxRepository.tryAcquireRelayLock(RELAY_LOCK_KEY)) {
+            return false;
+        }
+
+        List<OrderOutboxEvent> batch = orderOutboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            outboxDepth.set(0);
+            return false;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(batch.size());
+        for (OrderOutboxEvent event : batch) {
+            futures.add(send(event));
+        }
+        kafkaTemplate.flush();
+
+        List<Long> published = new ArrayList<>(batch.size());
+        Set<String> blockedKeys = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OrderOutboxEvent event = batch.get(i);
+            if (blockedKeys.contains(event.getAggregateKey()) || !awaitSend(event, futures.get(i))) {
+                // 保留失敗事件及同 key 的後續事件，下一輪依序重送
+                blockedKeys.add(event.getAggregateKey());
+                continue;
+            }
+            published.add(event.getId());
+            if (event.getCreatedAt() != null) {
+                publishLagTimer.record(Duration.between(event.getCreatedAt(), now));
+            }
+        }
+
+        if (!published.isEmpty()) {
+            orderOutboxRepository.deleteAllByIdInBatch(published);
+            publishedCounter.increment(published.size());
+        }
+        outboxDepth.set(orderOutboxRepository.count());
+
+        log.debug("Relayed {} of {} outbox events", published.size(), batch.size());
+        return blockedKeys.isEmpty() && batch.size() == batchSize;
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OrderOutboxEvent event) {
+        try {
+            // 以 Map 發布，線上格式與既有消費者相容（型別標頭為 java.util 類別）
+            Map<String, Object> payload = objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE);
+            return kafkaTemplate.send(event.getTopic(), event.getAggregateKey(), payload);
+        } catch (JsonProcessingException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean awaitSend(OrderOutboxEvent event, CompletableFuture<SendResult<String, Object>> future) {
+        try {
+            future.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            failedCounter.increment();
+            log.warn("Failed to publish outbox event {} ({}) for order {}",
+                    event.getEventId(), event.getEventType(), event.getAggregateKey(), e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedCounter.increment();
+            return false;
+        }
+    }
+}
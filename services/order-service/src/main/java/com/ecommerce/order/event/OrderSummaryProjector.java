@@ -0,0 +1,57 @@
+package com.ecommerce.order.event;
+
+import java.time.ZoneId;
+import java.util.Map;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.events.OrderEvent;
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.service.OrderSummaryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 訂單摘要投影器
+ *
+ * 以獨立的消費者群組訂閱訂單生命週期事件，非同步更新讀模型，不影響下單寫入路徑
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryProjector {
+    
+    private final OrderSummaryService orderSummaryService;
+    private final ObjectMapper objectMapper;
+    
+    @KafkaListener(topics = {"order.created", "order.status.updated", "payment.processed", "order.cancelled"},
+                   groupId = "order-summary-projector")
+    public void handleOrderEvent(Map<String, Object> payload) {
+        try {
+            OrderEvent event = objectMapper.convertValue(payload, OrderEvent.class);
+            if (event.getOrderId() == null || event.getUserId() == null) {
+                log.warn("Ignoring order event without orderId/userId: {}", payload);
+                return;
+            }
+            
+            OrderSummary summary = OrderSummary.builder()
+                    .orderId(event.getOrderId())
+                    .orderNumber(event.getOrderNumber())
+                    .status(event.getStatus())
+                    .totalAmount(event.getTotalAmount())
+                    .itemCount(event.getItems() != null ? event.getItems().size() : null)
+                    .createdAt(event.getCreatedAt())
+                    .lastEventAt(event.getTimestamp() != null
+                            ? event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                            : System.currentTimeMillis())
+                    .build();
+            
+            orderSummaryService.apply(event.getUserId(), summary);
+        } catch (Exception e) {
+            log.error("Failed to project order event: {}", payload, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.order.event;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.events.ProductEvent;
+import com.ecommerce.order.service.ProductPriceCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 依商品變更事件更新本機的商品價格快取
+ *
+ * 與用戶快取相同，每個實例使用獨立的消費者群組並只處理啟動後的新事件
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductPriceCacheUpdater {
+    
+    private final ProductPriceCache productPriceCache;
+    
+    @KafkaListener(topics = "product.updated",
+                   groupId = "order-product-cache-#{T(java.util.UUID).randomUUID()}",
+                   properties = "auto.offset.reset=latest")
+    public void handleProductEvent(ProductEvent event) {
+        if (event.getProductId() == null) {
+            log.warn("Ignoring product event without productId: {}", event);
+            return;
+        }
+        
+        productPriceCache.apply(event);
+        log.debug("Applied {} to product cache for product {}", event.getEventType(), event.getProductId());
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.order.event;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.events.UserEvent;
+import com.ecommerce.order.service.UserExistenceCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 依用戶事件失效本機的用戶存在快取
+ *
+ * 快取在每個實例本機，因此每個實例使用獨立的消費者群組（廣播），並且只處理啟動後的新事件
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+    
+    private final UserExistenceCache userExistenceCache;
+    
+    @KafkaListener(topics = {"user.registered", "user.profile-updated", "user.deactivated"},
+                   groupId = "order-user-cache-#{T(java.util.UUID).randomUUID()}",
+                   properties = "auto.offset.reset=latest")
+    public void handleUserEvent(UserEvent event) {
+        if (event.getUserId() == null) {
+            log.warn("Ignoring user event without userId: {}", event);
+            return;
+        }
+        
+        if ("USER_DEACTIVATED".equals(event.getEventType())) {
+            userExistenceCache.markInactive(event.getUserId());
+        } else {
+            userExistenceCache.invalidate(event.getUserId());
+        }
+        log.debug("Applied {} to user cache for user {}", event.getEventType(), event.getUserId());
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.order.exception;
+
+/**
+ * 端到端期限已用盡，不再發出下游呼叫
+ */
+public class DeadlineExceededException extends RuntimeException {
+    private final String target;
+    private final long remainingMillis;
+
+    public DeadlineExceededException(String target, long remainingMillis) {
+        super("Request deadline exceeded before calling " + target + " (remaining " + remainingMillis + " ms)");
+        this.target = target;
+        this.remainingMillis = remainingMillis;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public long getRemainingMillis() {
+        return remainingMillis;
+    }
+}
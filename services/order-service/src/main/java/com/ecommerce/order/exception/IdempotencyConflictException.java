@@ -0,0 +1,17 @@
+package com.ecommerce.order.exception;
+
+/**
+ * 相同 Idempotency-Key 的請求仍在執行中，且在等待時間內未完成
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotencyConflictException(String idempotencyKey) {
+        super("Request with Idempotency-Key '" + idempotencyKey + "' is still being processed");
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
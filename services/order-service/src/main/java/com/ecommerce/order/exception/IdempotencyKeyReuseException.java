@@ -0,0 +1,17 @@
+package com.ecommerce.order.exception;
+
+/**
+ * 同一個 Idempotency-Key 被用於內容不同的請求
+ */
+public class IdempotencyKeyReuseException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotencyKeyReuseException(String idempotencyKey) {
+        super("Idempotency-Key '" + idempotencyKey + "' was already used with a different request payload");
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
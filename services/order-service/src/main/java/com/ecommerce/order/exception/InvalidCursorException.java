@@ -0,0 +1,17 @@
+package com.ecommerce.order.exception;
+
+/**
+ * 分頁游標無法解析（被竄改或來自不相容的版本）
+ */
+public class InvalidCursorException extends RuntimeException {
+    private final String cursor;
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid pagination cursor: " + cursor);
+        this.cursor = cursor;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+}
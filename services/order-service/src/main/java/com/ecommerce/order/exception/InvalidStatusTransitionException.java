@@ -0,0 +1,25 @@
+package com.ecommerce.order.exception;
+
+import com.ecommerce.order.entity.Order;
+
+/**
+ * 訂單狀態機不允許的狀態轉換
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+    private final Order.OrderStatus from;
+    private final Order.OrderStatus to;
+
+    public InvalidStatusTransitionException(String orderNumber, Order.OrderStatus from, Order.OrderStatus to) {
+        super("Order " + orderNumber + " cannot transition from " + from + " to " + to);
+        this.from = from;
+        this.to = to;
+    }
+
+    public Order.OrderStatus getFrom() {
+        return from;
+    }
+
+    public Order.OrderStatus getTo() {
+        return to;
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import com.ecommerce.order.repository.projection.OrderRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 訂單封存表存取
+ *
+ * 封存表是依 created_at 分區的原生表，不對應 JPA 實體，以 JDBC 直接操作。
+ * 讀取時盡量帶上 created_at 範圍，讓 PostgreSQL 只掃描相關的月份分區。
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    private static final String ORDER_COLUMNS =
+            "id, order_number, user_id, total_amount, status, shipping_address, payment_method, notes, created_at, updated_at";
+    private static final String ITEM_COLUMNS =
+            "id, order_id, product_id, product_name, product_sku, unit_price, quantity, subtotal";
+
+    private static final RowMapper<OrderRow> ORDER_ROW_MAPPER = (rs, rowNum) -> new OrderRow(
+            rs.getLong("id"),
+            rs.getString("order_number"),
+            rs.getLong("user_id"),
+            rs.getBigDecimal("total_amount"),
+            Order.OrderStatus.valueOf(rs.getString("status")),
+            rs.getString("shipping_address"),
+            rs.getString("payment_method"),
+            rs.getString("notes"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")));
+
+    private static final RowMapper<OrderItemRow> ITEM_ROW_MAPPER = (rs, rowNum) -> new OrderItemRow(
+            rs.getLong("order_id"),
+            rs.getLong("id"),
+            rs.getLong("product_id"),
+            rs.getString("product_name"),
+            rs.getString("product_sku"),
+            rs.getBigDecimal("unit_price"),
+            rs.getInt("quantity"),
+            rs.getBigDecimal("subtotal"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // ---- 封存寫入，呼叫端需在同一個交易內依序呼叫 ----
+
+    /**
+     * 鎖定一批可封存的訂單；SKIP LOCKED 讓多個實例可以同時執行封存而不互相阻塞
+     */
+    public List<Long> lockArchivableOrderIds(Collection<String> statuses, LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE status IN (:statuses) AND created_at < :cutoff "
+                        + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource()
+                        .addValue("statuses", statuses)
+                        .addValue("cutoff", Timestamp.valueOf(cutoff))
+                        .addValue("limit", limit),
+                Long.class);
+    }
+
+    public void ensurePartitions(Collection<Long> orderIds) {
+        jdbcTemplate.query(
+                "SELECT ensure_order_archive_partition(month_start) FROM ("
+                        + "SELECT DISTINCT date_trunc('month', created_at)::date AS month_start "
+                        + "FROM orders WHERE id IN (:ids)) months",
+                new MapSqlParameterSource("ids", orderIds),
+                rs -> { });
+    }
+
+    public int copyToArchive(Collection<Long> orderIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", orderIds);
+        jdbcTemplate.update(
+                "INSERT INTO order_items_archive (" + ITEM_COLUMNS + ", order_created_at) "
+                        + "SELECT i.id, i.order_id, i.product_id, i.product_name, i.product_sku, i.unit_price, "
+                        + "i.quantity, i.subtotal, o.created_at "
+                        + "FROM order_items i JOIN orders o ON o.id = i.order_id WHERE o.id IN (:ids)",
+                params);
+        return jdbcTemplate.update(
+                "INSERT INTO orders_archive (" + ORDER_COLUMNS + ") "
+                        + "SELECT " + ORDER_COLUMNS + " FROM orders WHERE id IN (:ids)",
+                params);
+    }
+
+    /**
+     * 從熱表刪除；order_items 由外鍵 ON DELETE CASCADE 一併刪除
+     */
+    public int deleteFromHot(Collection<Long> orderIds) {
+        return jdbcTemplate.update("DELETE FROM orders WHERE id IN (:ids)", new MapSqlParameterSource("ids", orderIds));
+    }
+
+    // ---- 封存讀取 ----
+
+    /**
+     * 依訂單號查詢；提供時間範圍時只掃描對應分區，否則掃描所有分區
+     */
+    public Optional<OrderRow> findByOrderNumber(String orderNumber, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource("orderNumber", orderNumber);
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders_archive WHERE order_number = :orderNumber"
+                + createdAtRange("created_at", from, to, params);
+        return jdbcTemplate.query(sql, params, ORDER_ROW_MAPPER).stream().findFirst();
+    }
+
+    public List<OrderRow> findByUserId(Long userId, LocalDateTime from, LocalDateTime to, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("limit", limit);
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders_archive WHERE user_id = :userId"
+                + createdAtRange("created_at", from, to, params)
+                + " ORDER BY created_at DESC, id DESC LIMIT :limit";
+        return jdbcTemplate.query(sql, params, ORDER_ROW_MAPPER);
+    }
+
+    public List<OrderItemRow> findItems(Collection<Long> orderIds, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", orderIds);
+        String sql = "SELECT " + ITEM_COLUMNS + " FROM order_items_archive WHERE order_id IN (:ids)"
+                + createdAtRange("order_created_at", from, to, params)
+                + " ORDER BY order_id, id";
+        return jdbcTemplate.query(sql, params, ITEM_ROW_MAPPER);
+    }
+
+    private static String createdAtRange(String column, LocalDateTime from, LocalDateTime to,
+                                         MapSqlParameterSource params) {
+        StringBuilder clause = new StringBuilder();
+        if (from != null) {
+            clause.append(" AND ").append(column).append(" >= :from");
+            params.addValue("from", Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            clause.append(" AND ").append(column).append(" < :to");
+            params.addValue("to", Timestamp.valueOf(to));
+        }
+        return clause.toString();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
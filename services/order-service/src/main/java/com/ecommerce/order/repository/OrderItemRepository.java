@@ -0,0 +1,28 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.repository.projection.OrderItemCount;
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    
+    /**
+     * 一次載入多筆訂單的明細投影，避免逐筆觸發 LAZY 載入
+     */
+    @Query("SELECT new com.ecommerce.order.repository.projection.OrderItemRow("
+            + "oi.order.id, oi.id, oi.productId, oi.productName, oi.productSku, oi.unitPrice, oi.quantity, oi.subtotal) "
+            + "FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.order.id, oi.id")
+    List<OrderItemRow> findRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Query("SELECT new com.ecommerce.order.repository.projection.OrderItemCount(oi.order.id, COUNT(oi)) "
+            + "FROM OrderItem oi WHERE oi.order.id IN :orderIds GROUP BY oi.order.id")
+    List<OrderItemCount> countByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
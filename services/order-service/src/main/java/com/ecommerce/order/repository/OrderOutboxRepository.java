@@ -0,0 +1,22 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long>, OrderOutboxRepositoryCustom {
+    
+    List<OrderOutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+    
+    /**
+     * 交易級 advisory lock，同一時間只有一個實例發布，維持每個訂單 key 的事件順序
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    boolean tryAcquireRelayLock(@Param("lockKey") long lockKey);
+}
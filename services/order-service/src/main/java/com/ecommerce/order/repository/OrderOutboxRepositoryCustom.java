@@ -0,0 +1,13 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderOutboxEvent;
+
+import java.util.List;
+
+public interface OrderOutboxRepositoryCustom {
+    
+    /**
+     * 以 JDBC 批次寫入多個事件；IDENTITY 主鍵無法使用 Hibernate 的批次插入
+     */
+    void insertAll(List<OrderOutboxEvent> events);
+}
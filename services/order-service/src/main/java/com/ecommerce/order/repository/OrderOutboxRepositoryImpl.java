@@ -0,0 +1,33 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderOutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+class OrderOutboxRepositoryImpl implements OrderOutboxRepositoryCustom {
+    
+    private static final String INSERT_SQL = "INSERT INTO order_outbox "
+            + "(event_id, aggregate_key, topic, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void insertAll(List<OrderOutboxEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // 依列表順序寫入，id 順序與事件順序一致
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, BATCH_SIZE, (ps, event) -> {
+            ps.setString(1, event.getEventId());
+            ps.setString(2, event.getAggregateKey());
+            ps.setString(3, event.getTopic());
+            ps.setString(4, event.getEventType());
+            ps.setString(5, event.getPayload());
+            ps.setTimestamp(6, now);
+        });
+    }
+}
@@ -1,19 +1,31 @@
 package com.ecommerce.order.repository;
 
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.projection.OrderRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
+    String ORDER_ROW_SELECT = "SELECT new com.ecommerce.order.repository.projection.OrderRow("
+            + "o.id, o.orderNumber, o.userId, o.totalAmount, o.status, o.shippingAddress, o.paymentMethod, "
+            + "o.notes, o.createdAt, o.updatedAt) FROM Order o ";
+    
     Optional<Order> findByOrderNumber(String orderNumber);
     
     List<Order> findByUserId(Long userId);
@@ -27,4 +39,70 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT COUNT(o) FROM Order o WHERE o.userId = :userId")
     Long countByUserId(@Param("userId") Long userId);
+    
+    // 讀取路徑專用投影查詢，明細由 OrderItemRepository 以 IN 查詢批次載入
+    @Query(ORDER_ROW_SELECT + "WHERE o.id = :id")
+    Optional<OrderRow> findRowById(@Param("id") Long id);
+    
+    @Query(ORDER_ROW_SELECT + "WHERE o.orderNumber = :orderNumber")
+    Optional<OrderRow> findRowByOrderNumber(@Param("orderNumber") String orderNumber);
+    
+    @Query(ORDER_ROW_SELECT + "WHERE o.id IN :ids")
+    List<OrderRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(value = ORDER_ROW_SELECT + "WHERE o.userId = :userId",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.userId = :userId")
+    Page<OrderRow> findRowsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Keyset 分頁：依 (createdAt, id) 由新到舊，游標為上一頁最後一筆；筆數由 Pageable 限制
+    @Query(ORDER_ROW_SELECT + "WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findFirstRowsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(ORDER_ROW_SELECT + "WHERE o.userId = :userId "
+            + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findRowsByUserIdBefore(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+    
+    @Query(ORDER_ROW_SELECT + "WHERE o.status = :status ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findFirstRowsByStatus(@Param("status") Order.OrderStatus status, Pageable pageable);
+    
+    @Query(ORDER_ROW_SELECT + "WHERE o.status = :status "
+            + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findRowsByStatusBefore(@Param("status") Order.OrderStatus status,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+    
+    // 匯出用串流查詢：以 fetch size 分批從伺服器端游標讀取，呼叫端需在交易內並關閉 Stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ORDER_ROW_SELECT + "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.createdAt, o.id")
+    Stream<OrderRow> streamRowsByCreatedAtBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ORDER_ROW_SELECT + "WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to "
+            + "ORDER BY o.createdAt, o.id")
+    Stream<OrderRow> streamRowsByStatusAndCreatedAtBetween(@Param("status") Order.OrderStatus status,
+                                                           @Param("from") LocalDateTime from,
+                                                           @Param("to") LocalDateTime to);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT DISTINCT o.userId FROM Order o")
+    Stream<Long> streamDistinctUserIds();
+    
+    // 批次狀態轉換：依 id 順序加鎖，同時執行的批次請求不會互相死鎖
+    @Query(value = "SELECT id FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // 集合式更新；status 條件讓狀態機在資料庫端再檢查一次
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt "
+            + "WHERE o.id IN :ids AND o.status IN :sources")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("sources") Collection<Order.OrderStatus> sources,
+                           @Param("status") Order.OrderStatus status,
+                           @Param("updatedAt") LocalDateTime updatedAt);
 }
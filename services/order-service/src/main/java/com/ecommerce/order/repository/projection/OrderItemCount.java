@@ -0,0 +1,7 @@
+package com.ecommerce.order.repository.projection;
+
+/**
+ * 每筆訂單的明細數量
+ */
+public record OrderItemCount(Long orderId, Long itemCount) {
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.order.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * 訂單明細讀取投影，帶上所屬訂單 ID 以便批次載入後分組
+ */
+public record OrderItemRow(
+        Long orderId,
+        Long id,
+        Long productId,
+        String productName,
+        String productSku,
+        BigDecimal unitPrice,
+        Integer quantity,
+        BigDecimal subtotal) {
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.order.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.ecommerce.order.entity.Order;
+
+/**
+ * 訂單讀取投影：只取回應需要的欄位，不經過受管實體
+ */
+public record OrderRow(
+        Long id,
+        String orderNumber,
+        Long userId,
+        BigDecimal totalAmount,
+        Order.OrderStatus status,
+        String shippingAddress,
+        String paymentMethod,
+        String notes,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
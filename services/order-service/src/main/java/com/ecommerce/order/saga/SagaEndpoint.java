@@ -0,0 +1,31 @@
+package com.ecommerce.order.saga;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * /actuator/sagas：列出執行中的 Saga 交易、目前步驟與已執行時間
+ */
+@Component
+@Endpoint(id = "sagas")
+@RequiredArgsConstructor
+public class SagaEndpoint {
+
+    private final SagaTracker sagaTracker;
+
+    @ReadOperation
+    public Map<String, Object> inFlightSagas() {
+        List<SagaTracker.SagaSnapshot> sagas = sagaTracker.snapshot();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inFlight", sagas.size());
+        result.put("sagas", sagas);
+        return result;
+    }
+}
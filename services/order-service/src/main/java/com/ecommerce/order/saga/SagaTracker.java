@@ -0,0 +1,107 @@
+package com.ecommerce.order.saga;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 追蹤執行中的 Saga 交易及其目前步驟，供 actuator 端點查詢卡住或變慢的交易
+ */
+@Component
+public class SagaTracker {
+
+    private final Map<String, InFlightSaga> inFlight = new ConcurrentHashMap<>();
+
+    public SagaTracker(MeterRegistry meterRegistry) {
+        Gauge.builder("order.saga.inflight", inFlight, Map::size)
+                .description("Number of sagas currently executing or compensating")
+                .tag("service", "order")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 交易開始
+     */
+    public void started(SagaContext context, int totalSteps) {
+        inFlight.put(context.getTransactionId(), new InFlightSaga(context, totalSteps));
+    }
+
+    /**
+     * 進入下一個步驟（執行或補償）
+     */
+    public void stepStarted(SagaContext context, String stepName, int stepIndex) {
+        InFlightSaga saga = inFlight.get(context.getTransactionId());
+        if (saga != null) {
+            saga.step(stepName, stepIndex);
+        }
+    }
+
+    /**
+     * 交易結束（完成、已補償或失敗）
+     */
+    public void finished(SagaContext context) {
+        inFlight.remove(context.getTransactionId());
+    }
+
+    /**
+     * 執行中的交易，依已執行時間由長到短排序
+     */
+    public List<SagaSnapshot> snapshot() {
+        long now = System.nanoTime();
+        return inFlight.values().stream()
+                .map(saga -> saga.snapshot(now))
+                .sorted(Comparator.comparingLong(SagaSnapshot::elapsedMs).reversed())
+                .toList();
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * 執行中交易的快照
+     */
+    public record SagaSnapshot(String transactionId, Long userId, Long orderId, String status,
+                               String currentStep, int stepIndex, int totalSteps,
+                               Instant startedAt, long elapsedMs, long stepElapsedMs) {
+    }
+
+    private static final class InFlightSaga {
+
+        private final SagaContext context;
+        private final int totalSteps;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+
+        private volatile String currentStep;
+        private volatile int stepIndex = -1;
+        private volatile long stepStartNanos = startNanos;
+
+        InFlightSaga(SagaContext context, int totalSteps) {
+            this.context = context;
+            this.totalSteps = totalSteps;
+        }
+
+        void step(String stepName, int index) {
+            this.stepStartNanos = System.nanoTime();
+            this.stepIndex = index;
+            this.currentStep = stepName;
+        }
+
+        SagaSnapshot snapshot(long now) {
+            return new SagaSnapshot(context.getTransactionId(), context.getUserId(), context.getOrderId(),
+                    context.getStatus() != null ? context.getStatus().name() : null,
+                    currentStep, stepIndex + 1, totalSteps, startedAt,
+                    TimeUnit.NANOSECONDS.toMillis(now - startNanos),
+                    TimeUnit.NANOSECONDS.toMillis(now - stepStartNanos));
+        }
+    }
+}
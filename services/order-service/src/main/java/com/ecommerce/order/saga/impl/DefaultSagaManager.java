@@ -4,23 +4,32 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.stereotype.Component;
 
 import com.ecommerce.order.saga.SagaContext;
 import com.ecommerce.order.saga.SagaManager;
 import com.ecommerce.order.saga.SagaStep;
+import com.ecommerce.order.saga.SagaTracker;
+import com.ecommerce.order.service.OrderMetricsService;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Saga 交易管理器實現
- * 實現分散式交易的編排和補償邏輯
+ * 實現分散式交易的編排和補償邏輯，並記錄每個步驟的執行/補償時間
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class DefaultSagaManager implements SagaManager<Void> {
     
+    private final OrderMetricsService metricsService;
+    private final SagaTracker sagaTracker;
+    
     private final List<SagaStep> steps = new ArrayList<>();
     
     @Override
@@ -33,7 +42,9 @@ public class DefaultSagaManager implements SagaManager<Void> {
                 .sorted(Comparator.comparingInt(SagaStep::getOrder))
                 .toList();
         
-        return executeSteps(context, sortedSteps, 0);
+        sagaTracker.started(context, sortedSteps.size());
+        return executeSteps(context, sortedSteps, 0)
+                .whenComplete((result, throwable) -> sagaTracker.finished(context));
     }
     
     /**
@@ -49,21 +60,30 @@ public class DefaultSagaManager implements SagaManager<Void> {
         
         SagaStep currentStep = steps.get(currentIndex);
         log.info("執行步驟 {}: {}", currentIndex + 1, currentStep.getStepName());
+        sagaTracker.stepStarted(context, currentStep.getStepName(), currentIndex);
+        long startTime = System.nanoTime();
         
         return currentStep.execute(context)
+                .whenComplete((result, throwable) -> metricsService.recordSagaStep(currentStep.getStepName(),
+                        "execute", throwable == null, System.nanoTime() - startTime))
                 .thenCompose(result -> {
                     // 當前步驟成功，執行下一步
                     return executeSteps(context, steps, currentIndex + 1);
                 })
                 .exceptionally(throwable -> {
+                    if (context.getStatus() != SagaContext.SagaStatus.EXECUTING) {
+                        // 後續步驟的失敗已由該層補償，不再重複補償
+                        throw throwable instanceof CompletionException completionException
+                                ? completionException : new CompletionException(throwable);
+                    }
+                    
                     // 當前步驟失敗，開始補償
                     log.error("步驟 {} 執行失敗: {}", currentStep.getStepName(), throwable.getMessage());
                     context.setStatus(SagaContext.SagaStatus.COMPENSATING);
                     
-                    // 執行補償操作
+                    // 執行補償操作；全部補償成功為 COMPENSATED，否則為 FAILED
                     compensate(context, currentIndex).join();
                     
-                    context.setStatus(SagaContext.SagaStatus.FAILED);
                     throw new RuntimeException("Saga 交易執行失敗", throwable);
                 });
     }
@@ -85,15 +105,21 @@ public class DefaultSagaManager implements SagaManager<Void> {
         
         // 反向執行補償操作（從失敗步驟的前一步開始）
         List<CompletableFuture<Void>> compensationFutures = new ArrayList<>();
+        AtomicBoolean compensationFailed = new AtomicBoolean();
         
         for (int i = failedStepIndex - 1; i >= 0; i--) {
             SagaStep step = steps.get(i);
             if (step.needsCompensation(context)) {
                 log.info("執行補償: {}", step.getStepName());
+                sagaTracker.stepStarted(context, step.getStepName(), i);
+                long startTime = System.nanoTime();
                 CompletableFuture<Void> compensationFuture = step.compensate(context)
+                        .whenComplete((result, throwable) -> metricsService.recordSagaStep(step.getStepName(),
+                                "compensate", throwable == null, System.nanoTime() - startTime))
                         .exceptionally(throwable -> {
                             log.error("補償操作失敗: {}, 錯誤: {}", 
                                     step.getStepName(), throwable.getMessage());
+                            compensationFailed.set(true);
                             return null;
                         });
                 compensationFutures.add(compensationFuture);
@@ -102,8 +128,13 @@ public class DefaultSagaManager implements SagaManager<Void> {
         
         return CompletableFuture.allOf(compensationFutures.toArray(CompletableFuture[]::new))
                 .thenRun(() -> {
-                    context.setStatus(SagaContext.SagaStatus.COMPENSATED);
-                    log.info("補償操作完成: {}", context.getTransactionId());
+                    if (compensationFailed.get()) {
+                        context.setStatus(SagaContext.SagaStatus.FAILED);
+                        log.error("補償操作未全部成功: {}", context.getTransactionId());
+                    } else {
+                        context.setStatus(SagaContext.SagaStatus.COMPENSATED);
+                        log.info("補償操作完成: {}", context.getTransactionId());
+                    }
                 });
     }
 }
@@ -14,6 +14,9 @@ import com.ecommerce.order.saga.steps.ClearCartStep;
 import com.ecommerce.order.saga.steps.CreateOrderStep;
 import com.ecommerce.order.saga.steps.ReserveInventoryStep;
 import com.ecommerce.order.saga.steps.SendOrderEventStep;
+import com.ecommerce.order.service.OrderMetricsService;
+
+import io.micrometer.core.instrument.Timer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +35,7 @@ public class OrderSagaService {
     private final CreateOrderStep createOrderStep;
     private final ClearCartStep clearCartStep;
     private final SendOrderEventStep sendOrderEventStep;
+    private final OrderMetricsService metricsService;
     
     /**
      * 使用 Saga 模式創建訂單
@@ -50,12 +54,16 @@ public class OrderSagaService {
         setupSagaSteps();
         
         // 執行 Saga 交易
+        Timer.Sample sample = metricsService.startOrderProcessingTimer();
         return sagaManager.execute(context)
+                .whenComplete((result, throwable) ->
+                        metricsService.recordOrderCreation(sample, "saga", outcomeOf(context)))
                 .thenApply(result -> {
                     // 從上下文獲取創建的訂單
                     Order order = context.getData("order");
                     if (order != null) {
                         log.info("Saga 訂單創建成功: 訂單號={}", order.getOrderNumber());
+                        metricsService.recordOrderCreated();
                         return convertToOrderResponse(order);
                     } else {
                         throw new RuntimeException("訂單創建失敗：無法獲取訂單資料");
@@ -68,6 +76,17 @@ public class OrderSagaService {
                 });
     }
     
+    /**
+     * 依交易最終狀態決定下單結果標籤
+     */
+    private static String outcomeOf(SagaContext context) {
+        return switch (context.getStatus()) {
+            case COMPLETED -> OrderMetricsService.OUTCOME_SUCCESS;
+            case COMPENSATED -> OrderMetricsService.OUTCOME_COMPENSATED;
+            default -> OrderMetricsService.OUTCOME_FAILED;
+        };
+    }
+    
     /**
      * 設定 Saga 步驟
      */
@@ -1,5 +1,6 @@
 package com.ecommerce.order.saga.steps;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -23,6 +24,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ClearCartStep implements SagaStep {
     
+    // 購物車服務批量操作的單次上限（BatchCartRequest 的 @Size(max = 100)）
+    private static final int MAX_BATCH_OPERATIONS = 100;
+    
     private final CartClient cartClient;
     
     @Override
@@ -79,23 +83,29 @@ public class ClearCartStep implements SagaStep {
                     return null;
                 }
                 
-                // 重新添加商品到購物車
-                // TODO: 需要在 CartClient 中添加 addToCart 方法
-                orderRequest.getOrderItems().forEach(item -> {
-                    try {
-                        log.info("恢復購物車商品: 使用者ID={}, 商品ID={}, 數量={}", 
-                                orderRequest.getUserId(), item.getProductId(), item.getQuantity());
-                        
-                        // cartClient.addToCart(orderRequest.getUserId(), item.getProductId(), item.getQuantity());
-                        log.warn("購物車恢復功能待實現");
-                        
-                    } catch (Exception e) {
-                        log.error("恢復購物車商品失敗: 商品ID={}, 錯誤={}", 
-                                item.getProductId(), e.getMessage());
+                // 依購物車服務的單次上限分批加回訂單商品；已下架或無法購買的商品略過，不拒絕整批
+                List<Map<String, Object>> operations = orderRequest.getOrderItems().stream()
+                        .map(item -> Map.<String, Object>of(
+                                "type", "ADD",
+                                "productId", item.getProductId(),
+                                "quantity", item.getQuantity()))
+                        .toList();
+                int restored = 0;
+                for (int from = 0; from < operations.size(); from += MAX_BATCH_OPERATIONS) {
+                    List<Map<String, Object>> batch = operations.subList(from,
+                            Math.min(from + MAX_BATCH_OPERATIONS, operations.size()));
+                    if (restore(orderRequest.getUserId(), batch)) {
+                        restored += batch.size();
                     }
-                });
+                }
                 
-                log.info("清空購物車補償完成，交易ID: {}", context.getTransactionId());
+                if (restored < operations.size()) {
+                    log.error("恢復購物車未完成: 使用者ID={}, 商品數={}, 已恢復={}",
+                            orderRequest.getUserId(), operations.size(), restored);
+                } else {
+                    log.info("清空購物車補償完成，交易ID: {}, 恢復商品數: {}", 
+                            context.getTransactionId(), operations.size());
+                }
                 return null;
                 
             } catch (Exception e) {
@@ -105,6 +115,30 @@ public class ClearCartStep implements SagaStep {
         });
     }
     
+    /**
+     * 以一次批量呼叫恢復一批商品，回傳是否成功；單批失敗不影響其他批次
+     */
+    private boolean restore(Long userId, List<Map<String, Object>> operations) {
+        try {
+            ResponseEntity<Map<String, Object>> response = cartClient.applyBatch(userId, Map.of(
+                    "operations", List.copyOf(operations),
+                    "skipUnavailable", true));
+            if (response == null || !response.getStatusCode().is2xxSuccessful()
+                    || (response.getBody() != null && Boolean.FALSE.equals(response.getBody().get("applied")))) {
+                log.error("恢復購物車失敗: 使用者ID={}, 商品數={}", userId, operations.size());
+                return false;
+            }
+            Object skipped = response.getBody() != null ? response.getBody().get("skippedProductIds") : null;
+            if (skipped instanceof List<?> productIds && !productIds.isEmpty()) {
+                log.warn("商品已無法購買，未恢復到購物車: 使用者ID={}, 商品ID={}", userId, productIds);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("恢復購物車失敗: 使用者ID={}, 商品數={}, 錯誤={}", userId, operations.size(), e.getMessage());
+            return false;
+        }
+    }
+    
     @Override
     public boolean needsCompensation(SagaContext context) {
         CreateOrderRequest orderRequest = context.getData("orderRequest");
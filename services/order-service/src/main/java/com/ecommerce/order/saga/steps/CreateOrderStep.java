@@ -6,13 +6,12 @@ import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.repository.OrderRepository;
 import com.ecommerce.order.saga.SagaContext;
 import com.ecommerce.order.saga.SagaStep;
+import com.ecommerce.order.service.OrderNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -27,6 +26,7 @@ import java.util.stream.Collectors;
 public class CreateOrderStep implements SagaStep {
     
     private final OrderRepository orderRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
     
     @Override
     public String getStepName() {
@@ -50,7 +50,7 @@ public class CreateOrderStep implements SagaStep {
                 }
                 
                 // 生成訂單號
-                String orderNumber = generateOrderNumber();
+                String orderNumber = orderNumberGenerator.nextOrderNumber();
                 
                 // 計算總金額
                 BigDecimal totalAmount = calculateTotalAmount(orderRequest);
@@ -117,14 +117,6 @@ public class CreateOrderStep implements SagaStep {
         });
     }
     
-    /**
-     * 生成訂單號
-     */
-    private String generateOrderNumber() {
-        return "ORD" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) 
-                + String.format("%03d", (int) (Math.random() * 1000));
-    }
-    
     /**
      * 計算訂單總金額
      */
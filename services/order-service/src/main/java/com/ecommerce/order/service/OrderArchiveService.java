@@ -0,0 +1,186 @@
+package com.ecommerce.order.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.order.datasource.ReplicaRoutingContext;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderArchiveRepository;
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import com.ecommerce.order.repository.projection.OrderRow;
+import com.ecommerce.order.service.impl.SnowflakeOrderNumberGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 訂單冷熱分離
+ *
+ * - 排程把已結束且超過保留天數的訂單，從熱表搬到依月份分區的封存表；每批一個交易，
+ *   複製與刪除同時提交，中途失敗不會留下重複或遺失的資料
+ * - 封存讀取一律帶上 created_at 範圍：依訂單號查詢時由 Snowflake 訂單號解出建立時間，只掃描一到兩個分區
+ */
+@Service
+@Slf4j
+public class OrderArchiveService {
+
+    static final Set<String> ARCHIVABLE_STATUSES = Set.of(
+            Order.OrderStatus.COMPLETED.name(),
+            Order.OrderStatus.CANCELLED.name(),
+            Order.OrderStatus.REFUNDED.name());
+
+    // 訂單號時間戳與 created_at 之間的容許誤差（時鐘偏差、時區設定）
+    static final Duration ORDER_NUMBER_WINDOW = Duration.ofDays(1);
+    static final int MAX_READ_LIMIT = 100;
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+
+    private final AtomicBoolean archiveRunning = new AtomicBoolean(false);
+
+    public OrderArchiveService(OrderArchiveRepository orderArchiveRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${order.archive.enabled:true}") boolean enabled,
+                               @Value("${order.archive.retention-days:180}") long retentionDays,
+                               @Value("${order.archive.batch-size:500}") int batchSize) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${order.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveExpiredOrders();
+        } catch (RuntimeException e) {
+            log.error("Order archive job failed", e);
+        }
+    }
+
+    /**
+     * 封存所有超過保留天數的已結束訂單，回傳封存筆數；已有封存在執行時回傳 -1
+     */
+    public long archiveExpiredOrders() {
+        if (!archiveRunning.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            long startTime = System.currentTimeMillis();
+            long archived = 0;
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                archived += moved;
+            } while (moved == batchSize);
+
+            if (archived > 0) {
+                log.info("Archived {} orders created before {} in {} ms",
+                        archived, cutoff, System.currentTimeMillis() - startTime);
+            }
+            return archived;
+        } finally {
+            archiveRunning.set(false);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> orderIds = orderArchiveRepository.lockArchivableOrderIds(ARCHIVABLE_STATUSES, cutoff, batchSize);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        orderArchiveRepository.ensurePartitions(orderIds);
+        int copied = orderArchiveRepository.copyToArchive(orderIds);
+        int deleted = orderArchiveRepository.deleteFromHot(orderIds);
+        if (copied != deleted) {
+            // 回滾本批，避免熱表與封存表不一致
+            throw new IllegalStateException("Archived " + copied + " orders but deleted " + deleted);
+        }
+        return orderIds.size();
+    }
+
+    /**
+     * 依訂單號讀取封存訂單
+     */
+    public OrderResponse getArchivedOrderByNumber(String orderNumber) {
+        OptionalLong timestamp = SnowflakeOrderNumberGenerator.timestampOf(orderNumber);
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        if (timestamp.isPresent()) {
+            LocalDateTime createdAt = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(timestamp.getAsLong()), ZoneId.systemDefault());
+            from = createdAt.minus(ORDER_NUMBER_WINDOW);
+            to = createdAt.plus(ORDER_NUMBER_WINDOW);
+        }
+
+        LocalDateTime rangeFrom = from;
+        LocalDateTime rangeTo = to;
+        return readOnPrimary(status -> {
+            OrderRow order = orderArchiveRepository.findByOrderNumber(orderNumber, rangeFrom, rangeTo)
+                    .orElseThrow(() -> new RuntimeException("Archived order not found with number: " + orderNumber));
+            return toResponses(List.of(order), rangeFrom, rangeTo).get(0);
+        });
+    }
+
+    /**
+     * 讀取用戶在 [from, to) 區間內的封存訂單，新到舊排序
+     */
+    public List<OrderResponse> getArchivedOrdersByUserId(Long userId, LocalDateTime from, LocalDateTime to, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_READ_LIMIT));
+        return readOnPrimary(status ->
+                toResponses(orderArchiveRepository.findByUserId(userId, from, to, pageSize), from, to));
+    }
+
+    /**
+     * 封存讀取一律走主庫：訂單在同一筆交易中由熱表搬到封存表，查詢熱表未命中後改查封存表時，
+     * 若落在延遲的副本上，剛搬走的訂單可能在兩邊都查不到
+     */
+    private <T> T readOnPrimary(TransactionCallback<T> callback) {
+        return ReplicaRoutingContext.onPrimary(() -> readOnlyTransaction.execute(callback));
+    }
+
+    private List<OrderResponse> toResponses(List<OrderRow> orders, LocalDateTime from, LocalDateTime to) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> orderIds = orders.stream().map(OrderRow::id).collect(Collectors.toList());
+        Map<Long, List<OrderResponse.OrderItemResponse>> itemsByOrderId = new HashMap<>();
+        for (OrderItemRow item : orderArchiveRepository.findItems(orderIds, from, to)) {
+            itemsByOrderId.computeIfAbsent(item.orderId(), id -> new ArrayList<>())
+                    .add(OrderResponse.OrderItemResponse.of(item));
+        }
+
+        return orders.stream()
+                .map(order -> OrderResponse.of(order, itemsByOrderId.getOrDefault(order.id(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,174 @@
+package com.ecommerce.order.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.order.dto.BulkOrderStatusRequest;
+import com.ecommerce.order.dto.BulkOrderStatusResponse;
+import com.ecommerce.order.dto.BulkOrderStatusResponse.OrderStatusResult;
+import com.ecommerce.order.dto.BulkOrderStatusResponse.Outcome;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import com.ecommerce.order.repository.projection.OrderRow;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 批次訂單狀態轉換
+ *
+ * 每 CHUNK_SIZE 筆訂單：依 id 順序鎖定、以投影載入並依狀態機驗證，合法的訂單以一條 UPDATE 轉換，
+ * 事件以一次 JDBC 批次寫入 outbox。整個請求在同一個交易內，已是目標狀態的訂單回報 UNCHANGED，重試是安全的。
+ */
+@Service
+@Slf4j
+public class OrderBulkStatusService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderEventService orderEventService;
+
+    private final Timer durationTimer;
+    private final DistributionSummary throughputSummary;
+
+    public OrderBulkStatusService(OrderRepository orderRepository,
+                                  OrderItemRepository orderItemRepository,
+                                  OrderEventService orderEventService,
+                                  MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderEventService = orderEventService;
+
+        this.durationTimer = Timer.builder("order.status.bulk.duration")
+                .description("Time spent on a bulk order status transition call")
+                .tag("service", "order")
+                .register(meterRegistry);
+        this.throughputSummary = DistributionSummary.builder("order.status.bulk.throughput")
+                .description("Orders processed per second by a bulk order status transition call")
+                .baseUnit("orders/s")
+                .tag("service", "order")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public BulkOrderStatusResponse updateStatuses(BulkOrderStatusRequest request) {
+        long startTime = System.nanoTime();
+        Order.OrderStatus target = request.getStatus();
+        Set<Order.OrderStatus> sources = Order.OrderStatus.sourcesOf(target);
+        List<Long> orderIds = new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
+
+        List<OrderStatusResult> results = new ArrayList<>(orderIds.size());
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (int from = 0; from < orderIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + CHUNK_SIZE, orderIds.size()));
+            for (OrderStatusResult result : transitionChunk(chunk, target, sources)) {
+                results.add(result);
+                counts.merge(result.getOutcome(), 1, Integer::sum);
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        double ordersPerSecond = elapsedNanos > 0 ? orderIds.size() * 1_000_000_000.0 / elapsedNanos : 0;
+        durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        throughputSummary.record(ordersPerSecond);
+
+        int updated = counts.getOrDefault(Outcome.UPDATED, 0);
+        int unchanged = counts.getOrDefault(Outcome.UNCHANGED, 0);
+        log.info("Bulk status transition to {}: {} requested, {} updated, {} unchanged in {} ms ({} orders/s)",
+                target, orderIds.size(), updated, unchanged, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(ordersPerSecond));
+
+        return BulkOrderStatusResponse.builder()
+                .targetStatus(target.name())
+                .requestedCount(orderIds.size())
+                .updatedCount(updated)
+                .unchangedCount(unchanged)
+                .rejectedCount(orderIds.size() - updated - unchanged)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .ordersPerSecond(ordersPerSecond)
+                .results(results)
+                .build();
+    }
+
+    private List<OrderStatusResult> transitionChunk(List<Long> orderIds, Order.OrderStatus target,
+                                                    Set<Order.OrderStatus> sources) {
+        orderRepository.lockByIdIn(orderIds);
+        Map<Long, OrderRow> rows = orderRepository.findRowsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(OrderRow::id, Function.identity()));
+
+        List<OrderStatusResult> results = new ArrayList<>(orderIds.size());
+        List<OrderRow> transitions = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            OrderRow row = rows.get(orderId);
+            Outcome outcome;
+            if (row == null) {
+                outcome = Outcome.NOT_FOUND;
+            } else if (row.status() == target) {
+                outcome = Outcome.UNCHANGED;
+            } else if (!row.status().canTransitionTo(target)) {
+                outcome = Outcome.INVALID_TRANSITION;
+            } else {
+                outcome = Outcome.UPDATED;
+                transitions.add(row);
+            }
+            results.add(OrderStatusResult.builder()
+                    .orderId(orderId)
+                    .orderNumber(row != null ? row.orderNumber() : null)
+                    .outcome(outcome)
+                    .previousStatus(row != null ? row.status().name() : null)
+                    .build());
+        }
+
+        if (!transitions.isEmpty()) {
+            applyTransitions(transitions, target, sources);
+        }
+        return results;
+    }
+
+    private void applyTransitions(List<OrderRow> transitions, Order.OrderStatus target,
+                                  Set<Order.OrderStatus> sources) {
+        List<Long> orderIds = transitions.stream().map(OrderRow::id).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        int updated = orderRepository.updateStatusByIdIn(orderIds, sources, target, now);
+        if (updated != orderIds.size()) {
+            // 列已鎖定，數量不符代表資料在驗證後被改動，整個請求回滾
+            throw new IllegalStateException("Expected to update " + orderIds.size() + " orders but updated " + updated);
+        }
+
+        Map<Long, List<OrderResponse.OrderItemResponse>> itemsByOrderId = new HashMap<>();
+        for (OrderItemRow item : orderItemRepository.findRowsByOrderIdIn(orderIds)) {
+            itemsByOrderId.computeIfAbsent(item.orderId(), id -> new ArrayList<>())
+                    .add(OrderResponse.OrderItemResponse.of(item));
+        }
+
+        List<OrderResponse> orders = new ArrayList<>(transitions.size());
+        Map<Long, Order.OrderStatus> previousStatuses = new HashMap<>();
+        for (OrderRow row : transitions) {
+            OrderResponse order = OrderResponse.of(row, itemsByOrderId.getOrDefault(row.id(), new ArrayList<>()));
+            order.setStatus(target.name());
+            order.setUpdatedAt(now);
+            orders.add(order);
+            previousStatuses.put(row.id(), row.status());
+        }
+        orderEventService.sendOrderStatusUpdatedEvents(orders, previousStatuses);
+    }
+}
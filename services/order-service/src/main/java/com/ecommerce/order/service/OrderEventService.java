@@ -1,5 +1,9 @@
 package com.ecommerce.order.service;
 
+import java.util.List;
+import java.util.Map;
+
+import com.ecommerce.order.dto.OrderResponse;
 import com.ecommerce.order.entity.Order;
 
 public interface OrderEventService {
@@ -8,6 +12,11 @@ public interface OrderEventService {
     
     void sendOrderStatusUpdatedEvent(Order order, Order.OrderStatus oldStatus, Order.OrderStatus newStatus);
     
+    /**
+     * 批次狀態轉換的事件，一次批次寫入 outbox；orders 為轉換後的訂單，previousStatuses 以訂單 ID 對應原狀態
+     */
+    void sendOrderStatusUpdatedEvents(List<OrderResponse> orders, Map<Long, Order.OrderStatus> previousStatuses);
+    
     void sendPaymentProcessedEvent(Order order);
     
     void sendOrderCancelledEvent(Order order, String reason);
@@ -0,0 +1,256 @@
+package com.ecommerce.order.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.exception.IdempotencyConflictException;
+import com.ecommerce.order.exception.IdempotencyKeyReuseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 訂單創建冪等服務
+ *
+ * 以 Idempotency-Key 為單位去重：
+ * - 同一實例內的並發重複請求直接掛在執行中的 future 上，共用同一個結果
+ * - 跨實例以 Redis SET NX 搶佔執行權，其他實例輪詢等待結果
+ * - 成功結果在保留窗口內重放；失敗則刪除標記，允許客戶端重試
+ */
+@Service
+@Slf4j
+public class OrderIdempotencyService {
+
+    private static final String KEY_PREFIX = "order:idempotency:";
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration inFlightTtl;
+    private final Duration waitTimeout;
+
+    // 本實例內執行中的請求
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public OrderIdempotencyService(StringRedisTemplate redisTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${order.idempotency.retention-hours:24}") long retentionHours,
+                                   @Value("${order.idempotency.in-flight-ttl-seconds:120}") long inFlightTtlSeconds,
+                                   @Value("${order.idempotency.wait-timeout-seconds:30}") long waitTimeoutSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = Duration.ofHours(retentionHours);
+        this.inFlightTtl = Duration.ofSeconds(inFlightTtlSeconds);
+        this.waitTimeout = Duration.ofSeconds(waitTimeoutSeconds);
+    }
+
+    /**
+     * 以冪等方式執行訂單創建
+     */
+    public OrderResponse execute(String idempotencyKey, CreateOrderRequest request, Supplier<OrderResponse> action) {
+        String redisKey = KEY_PREFIX + request.getUserId() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        InFlight current = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(redisKey, current);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReuseException(idempotencyKey);
+            }
+            log.info("Duplicate request collapsed onto in-flight execution: key={}", idempotencyKey);
+            return awaitLocal(idempotencyKey, existing.future());
+        }
+
+        try {
+            OrderResponse response = executeOnce(redisKey, idempotencyKey, fingerprint, action);
+            current.future().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            current.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(redisKey, current);
+        }
+    }
+
+    /**
+     * 搶佔跨實例執行權；搶不到時等待持有者的結果
+     */
+    private OrderResponse executeOnce(String redisKey, String idempotencyKey, String fingerprint,
+                                      Supplier<OrderResponse> action) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            Boolean acquired;
+            try {
+                acquired = redisTemplate.opsForValue().setIfAbsent(
+                        redisKey, write(IdempotencyRecord.inProgress(fingerprint)), inFlightTtl);
+            } catch (DataAccessException e) {
+                // Redis 不可用時不阻斷下單，僅保留本實例內的去重
+                log.warn("Idempotency store unavailable, executing without cross-instance dedupe: key={}",
+                        idempotencyKey, e);
+                return action.get();
+            }
+
+            if (Boolean.TRUE.equals(acquired)) {
+                return runAndStore(redisKey, idempotencyKey, fingerprint, action);
+            }
+
+            IdempotencyRecord record;
+            try {
+                record = read(redisKey);
+            } catch (DataAccessException e) {
+                // 讀取暫時失敗時繼續等待，下一輪重新搶佔或讀取
+                log.warn("Failed to read idempotency record, retrying: key={}", idempotencyKey, e);
+                record = null;
+            }
+            if (record != null) {
+                if (!fingerprint.equals(record.getFingerprint())) {
+                    throw new IdempotencyKeyReuseException(idempotencyKey);
+                }
+                if (IdempotencyRecord.COMPLETED.equals(record.getStatus())) {
+                    log.info("Replaying stored response for Idempotency-Key: {}", idempotencyKey);
+                    return record.getResponse();
+                }
+            }
+            // record 為 null 代表持有者已失敗並釋放標記（或讀取失敗），下一輪重新搶佔
+
+            if (System.nanoTime() >= deadline) {
+                throw new IdempotencyConflictException(idempotencyKey);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException(idempotencyKey);
+            }
+        }
+    }
+
+    private OrderResponse runAndStore(String redisKey, String idempotencyKey, String fingerprint,
+                                      Supplier<OrderResponse> action) {
+        OrderResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // 失敗不保留結果，讓客戶端可以用同一個 key 重試
+            deleteQuietly(redisKey);
+            throw e;
+        }
+
+        try {
+            redisTemplate.opsForValue().set(
+                    redisKey, write(IdempotencyRecord.completed(fingerprint, response)), retention);
+        } catch (RuntimeException e) {
+            log.error("Failed to store idempotent response: key={}", idempotencyKey, e);
+        }
+        return response;
+    }
+
+    private OrderResponse awaitLocal(String idempotencyKey, CompletableFuture<OrderResponse> future) {
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(idempotencyKey);
+        }
+    }
+
+    private IdempotencyRecord read(String redisKey) {
+        String json = redisTemplate.opsForValue().get(redisKey);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            log.error("Corrupted idempotency record, discarding: {}", redisKey, e);
+            deleteQuietly(redisKey);
+            return null;
+        }
+    }
+
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize idempotency record", e);
+        }
+    }
+
+    private void deleteQuietly(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release idempotency marker: {}", redisKey, e);
+        }
+    }
+
+    /**
+     * 請求內容指紋，用來偵測同一個 key 被用在不同的請求上
+     */
+    private String fingerprint(CreateOrderRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new RuntimeException("Failed to fingerprint order request", e);
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<OrderResponse> future) {
+    }
+
+    /**
+     * 存放在 Redis 中的冪等記錄
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class IdempotencyRecord {
+        static final String IN_PROGRESS = "IN_PROGRESS";
+        static final String COMPLETED = "COMPLETED";
+
+        private String status;
+        private String fingerprint;
+        private OrderResponse response;
+
+        static IdempotencyRecord inProgress(String fingerprint) {
+            return new IdempotencyRecord(IN_PROGRESS, fingerprint, null);
+        }
+
+        static IdempotencyRecord completed(String fingerprint, OrderResponse response) {
+            return new IdempotencyRecord(COMPLETED, fingerprint, response);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ecommerce.order.service;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.stereotype.Service;
@@ -11,10 +13,22 @@ import io.micrometer.core.instrument.Timer;
 
 /**
  * 訂單服務監控指標服務
+ *
+ * 下單與 Saga 步驟的計時器輸出百分位直方圖與 SLO 桶，啟用追蹤時 Prometheus 會在桶上附帶 trace ID exemplar
  */
 @Service
 public class OrderMetricsService {
 
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_COMPENSATED = "compensated";
+    public static final String OUTCOME_FAILED = "failed";
+
+    // 下單延遲的 SLO 邊界
+    private static final Duration[] ORDER_CREATION_SLOS = {
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5)
+    };
+
     private final Counter orderCreatedCounter;
     private final Counter orderConfirmedCounter;
     private final Counter orderCancelledCounter;
@@ -130,6 +144,42 @@ public class OrderMetricsService {
         sample.stop(paymentProcessingTimer);
     }
 
+    /**
+     * 記錄一次下單的端到端延遲
+     * @param mode sync 或 saga
+     * @param outcome success / compensated / failed
+     */
+    public void recordOrderCreation(Timer.Sample sample, String mode, String outcome) {
+        sample.stop(Timer.builder("order.create.latency")
+                .description("End-to-end order creation latency by outcome")
+                .tag("service", "order")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(ORDER_CREATION_SLOS)
+                .minimumExpectedValue(Duration.ofMillis(5))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+
+    /**
+     * 記錄 Saga 步驟的執行或補償時間
+     * @param action execute 或 compensate
+     */
+    public void recordSagaStep(String step, String action, boolean success, long elapsedNanos) {
+        Timer.builder("order.saga.step")
+                .description("Latency of saga step executions and compensations")
+                .tag("service", "order")
+                .tag("step", step)
+                .tag("action", action)
+                .tag("outcome", success ? OUTCOME_SUCCESS : OUTCOME_FAILED)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
     // Getter for current metrics
     public long getActiveOrdersCount() {
         return activeOrders.get();
@@ -0,0 +1,13 @@
+package com.ecommerce.order.service;
+
+/**
+ * 訂單號生成器
+ * 生成的訂單號必須在所有實例間全域唯一
+ */
+public interface OrderNumberGenerator {
+
+    /**
+     * 生成下一個訂單號
+     */
+    String nextOrderNumber();
+}
@@ -1,12 +1,16 @@
 package com.ecommerce.order.service;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.dto.OrderImportRequest;
+import com.ecommerce.order.dto.OrderImportResponse;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderResponse;
 import com.ecommerce.order.entity.Order;
 
@@ -20,7 +24,7 @@ public interface OrderService {
     
     OrderResponse getOrderByNumber(String orderNumber);
     
-    List<OrderResponse> getOrdersByUserId(Long userId);
+    OrderPageResponse getOrdersByUserId(Long userId, String cursor, int limit);
     
     Page<OrderResponse> getOrdersByUserId(Long userId, Pageable pageable);
     
@@ -30,5 +34,9 @@ public interface OrderService {
     
     void processPayment(Long orderId, String paymentDetails);
     
-    List<OrderResponse> getOrdersByStatus(Order.OrderStatus status);
+    OrderPageResponse getOrdersByStatus(Order.OrderStatus status, String cursor, int limit);
+    
+    OrderImportResponse importOrders(OrderImportRequest request);
+    
+    long exportOrders(Order.OrderStatus status, LocalDateTime from, LocalDateTime to, Consumer<OrderResponse> sink);
 }
@@ -0,0 +1,344 @@
+package com.ecommerce.order.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.order.datasource.ReplicaRoutingContext;
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.dto.UserOrderSummaryResponse;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.projection.OrderItemCount;
+import com.ecommerce.order.repository.projection.OrderRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 用戶訂單摘要讀模型（CQRS）
+ *
+ * 每個用戶一個 Redis Hash：field 為訂單 ID、value 為 OrderSummary JSON，另有一個 meta 欄位記錄最後重建時間。
+ * - 讀取只做一次 HGETALL；尚未建立時同步由資料庫重建，超過 max-staleness 時先回傳現有內容並在背景重建，
+ *   藉此限制事件遺失造成的漂移
+ * - 事件只更新已經存在的文件，冷用戶不佔用記憶體；以 Lua 腳本比較 lastEventAt 後寫入，亂序的舊事件不會覆蓋新狀態
+ * - 重建寫入臨時 key 後以腳本 RENAME，讀取端不會看到半成品；重建期間套用的事件在 RENAME 前併入，不會遺失
+ */
+@Service
+@Slf4j
+public class OrderSummaryService {
+
+    private static final String KEY_PREFIX = "order:summary:";
+    private static final String REBUILD_SUFFIX = ":rebuild";
+    static final String META_FIELD = "_refreshedAt";
+    private static final int MAX_APPLY_ATTEMPTS = 3;
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
+    private static final DefaultRedisScript<Long> APPLY_EVENT = script("apply-event.lua");
+    private static final DefaultRedisScript<Long> REBUILD = script("rebuild.lua");
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration maxStaleness;
+    private final Duration retention;
+    private final int maxOrders;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-summary-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean(false);
+
+    // 過期摘要的背景重建，同一用戶同時只排入一次；佇列滿時略過，下次讀取再排入
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "order-summary-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    public OrderSummaryService(StringRedisTemplate redisTemplate,
+                               ObjectMapper objectMapper,
+                               OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${order.summary.max-staleness-seconds:300}") long maxStalenessSeconds,
+                               @Value("${order.summary.retention-days:7}") long retentionDays,
+                               @Value("${order.summary.max-orders:200}") int maxOrders) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxStaleness = Duration.ofSeconds(maxStalenessSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+        this.maxOrders = maxOrders;
+    }
+
+    /**
+     * 讀取用戶訂單摘要，新到舊排序
+     */
+    public UserOrderSummaryResponse getUserSummary(Long userId) {
+        String key = KEY_PREFIX + userId;
+        Map<Object, Object> entries;
+        try {
+            entries = redisTemplate.opsForHash().entries(key);
+        } catch (DataAccessException e) {
+            log.warn("Order summary store unavailable, serving user {} from database", userId, e);
+            return toResponse(userId, loadFromDatabase(userId), System.currentTimeMillis());
+        }
+
+        Object refreshedAt = entries.remove(META_FIELD);
+        if (refreshedAt == null) {
+            return rebuildUser(userId);
+        }
+        if (System.currentTimeMillis() - Long.parseLong(refreshedAt.toString()) > maxStaleness.toMillis()) {
+            refreshAsync(userId);
+        }
+
+        List<OrderSummary> summaries = new ArrayList<>(entries.size());
+        for (Object value : entries.values()) {
+            OrderSummary summary = read(value.toString());
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+        return toResponse(userId, summaries, Long.parseLong(refreshedAt.toString()));
+    }
+
+    /**
+     * 套用一個生命週期事件；partial 中為 null 的欄位沿用既有文件
+     *
+     * 讀模型尚未建立或事件比現有文件舊時略過；合併期間文件被其他寫入更新時重新讀取再合併
+     */
+    public void apply(Long userId, OrderSummary partial) {
+        String key = KEY_PREFIX + userId;
+        String field = partial.getOrderId().toString();
+        try {
+            for (int attempt = 0; attempt < MAX_APPLY_ATTEMPTS; attempt++) {
+                Object existingJson = redisTemplate.opsForHash().get(key, field);
+                OrderSummary existing = existingJson == null ? null : read(existingJson.toString());
+                if (existing != null && existing.getLastEventAt() > partial.getLastEventAt()) {
+                    log.debug("Skipping stale event for order {}: {} < {}",
+                            partial.getOrderNumber(), partial.getLastEventAt(), existing.getLastEventAt());
+                    return;
+                }
+                Long result = redisTemplate.execute(APPLY_EVENT, List.of(key), field, write(merge(existing, partial)),
+                        Long.toString(partial.getLastEventAt()), existingJson == null ? "" : existingJson.toString(),
+                        Long.toString(retention.toMillis()));
+                if (result == null || result >= 0) {
+                    return;
+                }
+            }
+            // 下一次超過 max-staleness 的讀取會以資料庫重建修正
+            log.warn("Gave up applying order summary event after {} conflicting writes for order {}",
+                    MAX_APPLY_ATTEMPTS, partial.getOrderNumber());
+        } catch (DataAccessException e) {
+            log.warn("Failed to apply order summary event for order {}", partial.getOrderNumber(), e);
+        }
+    }
+
+    /**
+     * 由資料庫重建單一用戶的摘要
+     */
+    public UserOrderSummaryResponse rebuildUser(Long userId) {
+        long snapshotAt = System.currentTimeMillis();
+        // 快照時間之後才寫入的訂單由 rebuild.lua 保留，讀取必須看得到快照時間之前的所有寫入，不能走有延遲的副本
+        List<OrderSummary> summaries = ReplicaRoutingContext.onPrimary(
+                () -> readOnlyTransaction.execute(status -> loadFromDatabase(userId)));
+        long refreshedAt = System.currentTimeMillis();
+
+        String key = KEY_PREFIX + userId;
+        String tempKey = key + REBUILD_SUFFIX;
+        Map<String, String> hash = new HashMap<>();
+        for (OrderSummary summary : summaries) {
+            hash.put(summary.getOrderId().toString(), write(summary));
+        }
+        hash.put(META_FIELD, Long.toString(refreshedAt));
+
+        try {
+            redisTemplate.delete(tempKey);
+            redisTemplate.opsForHash().putAll(tempKey, hash);
+            redisTemplate.execute(REBUILD, List.of(key, tempKey), Long.toString(snapshotAt),
+                    Long.toString(retention.toMillis()), META_FIELD);
+        } catch (DataAccessException e) {
+            log.warn("Failed to store rebuilt order summary for user {}", userId, e);
+        }
+        return toResponse(userId, summaries, refreshedAt);
+    }
+
+    /**
+     * 在背景重建所有用戶的摘要；已有重建在執行時回傳 false
+     */
+    public boolean rebuildAll() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.execute(() -> {
+            long startTime = System.currentTimeMillis();
+            try {
+                long users = ReplicaRoutingContext.onPrimary(() -> readOnlyTransaction.execute(status -> {
+                    long count = 0;
+                    try (Stream<Long> userIds = orderRepository.streamDistinctUserIds()) {
+                        for (Long userId : (Iterable<Long>) userIds::iterator) {
+                            rebuildUser(userId);
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+                log.info("Rebuilt order summaries for {} users in {} ms", users, System.currentTimeMillis() - startTime);
+            } catch (RuntimeException e) {
+                log.error("Order summary rebuild failed", e);
+            } finally {
+                rebuildRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
+
+    private void refreshAsync(Long userId) {
+        if (!refreshing.add(userId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    rebuildUser(userId);
+                } catch (RuntimeException e) {
+                    log.warn("Background order summary rebuild failed for user {}", userId, e);
+                } finally {
+                    refreshing.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(userId);
+            log.debug("Order summary refresh queue full, skipping user {}", userId);
+        }
+    }
+
+    private List<OrderSummary> loadFromDatabase(Long userId) {
+        List<OrderRow> rows = orderRepository.findFirstRowsByUserId(userId, PageRequest.of(0, maxOrders));
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Long> itemCounts = orderItemRepository.countByOrderIdIn(
+                        rows.stream().map(OrderRow::id).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(OrderItemCount::orderId, OrderItemCount::itemCount));
+
+        return rows.stream()
+                .map(row -> OrderSummary.builder()
+                        .orderId(row.id())
+                        .orderNumber(row.orderNumber())
+                        .status(row.status().name())
+                        .totalAmount(row.totalAmount())
+                        .itemCount(itemCounts.getOrDefault(row.id(), 0L).intValue())
+                        .createdAt(row.createdAt())
+                        .lastEventAt(toEpochMillis(row.updatedAt() != null ? row.updatedAt() : row.createdAt()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private OrderSummary merge(OrderSummary existing, OrderSummary partial) {
+        if (existing == null) {
+            return partial;
+        }
+        return OrderSummary.builder()
+                .orderId(partial.getOrderId())
+                .orderNumber(pick(partial, existing, OrderSummary::getOrderNumber))
+                .status(pick(partial, existing, OrderSummary::getStatus))
+                .totalAmount(pick(partial, existing, OrderSummary::getTotalAmount))
+                .itemCount(pick(partial, existing, OrderSummary::getItemCount))
+                .createdAt(pick(partial, existing, OrderSummary::getCreatedAt))
+                .lastEventAt(partial.getLastEventAt())
+                .build();
+    }
+
+    private static <T> T pick(OrderSummary preferred, OrderSummary fallback, Function<OrderSummary, T> getter) {
+        T value = getter.apply(preferred);
+        return value != null ? value : getter.apply(fallback);
+    }
+
+    private UserOrderSummaryResponse toResponse(Long userId, List<OrderSummary> summaries, long refreshedAt) {
+        List<OrderSummary> sorted = new ArrayList<>(summaries);
+        sorted.sort(Comparator.comparing(OrderSummary::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(OrderSummary::getOrderId, Comparator.reverseOrder()));
+        return UserOrderSummaryResponse.builder()
+                .userId(userId)
+                .orders(sorted)
+                .orderCount(sorted.size())
+                .refreshedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(refreshedAt), ZoneId.systemDefault()))
+                .build();
+    }
+
+    private static DefaultRedisScript<Long> script(String name) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("scripts/order-summary/" + name));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private OrderSummary read(String json) {
+        try {
+            return objectMapper.readValue(json, OrderSummary.class);
+        } catch (JsonProcessingException e) {
+            log.error("Corrupted order summary document, ignoring: {}", json, e);
+            return null;
+        }
+    }
+
+    private String write(OrderSummary summary) {
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize order summary", e);
+        }
+    }
+}
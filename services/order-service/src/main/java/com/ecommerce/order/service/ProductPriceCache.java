@@ -0,0 +1,245 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.ecommerce.events.ProductEvent;
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.CreateOrderRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品價格與摘要的本機快取，下單時以此計算權威價格
+ *
+ * - 未命中的商品以 product-service 的批量查詢一次載入（每批 LOAD_CHUNK_SIZE 個），不會每個明細一次往返
+ * - product.updated 事件直接以事件內容更新或移除項目；TTL 只是漏接事件時的保底
+ * - 載入進行中若收到某商品的事件，該商品的載入結果不寫入快取，避免舊價格覆蓋事件；其他商品照常快取
+ */
+@Service
+@Slf4j
+public class ProductPriceCache {
+
+    static final int LOAD_CHUNK_SIZE = 200;
+    static final String ACTIVE_STATUS = "ACTIVE";
+
+    private final ProductClient productClient;
+    private final Duration ttl;
+    private final Map<Long, CachedProduct> cache;
+
+    // 進行中的批量載入，用於記錄載入期間收到事件的商品；以 cache 為鎖
+    private final Set<PendingLoad> pendingLoads = new HashSet<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer loadTimer;
+
+    public ProductPriceCache(ProductClient productClient,
+                             MeterRegistry meterRegistry,
+                             @Value("${order.product-cache.ttl-seconds:600}") long ttlSeconds,
+                             @Value("${order.product-cache.max-size:50000}") int maxSize) {
+        this.productClient = productClient;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedProduct> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        this.hitCounter = requests(meterRegistry, "hit");
+        this.missCounter = requests(meterRegistry, "miss");
+        this.loadTimer = Timer.builder("order.product.cache.load")
+                .description("Latency of bulk product loads on cache misses")
+                .tag("service", "order")
+                .register(meterRegistry);
+        Gauge.builder("order.product.cache.size", this, ProductPriceCache::size)
+                .description("Number of cached products")
+                .tag("service", "order")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 以目前的商品價格、名稱與 SKU 覆寫訂單明細；商品不存在或已下架時拒絕下單
+     */
+    public void applyCurrentPrices(List<CreateOrderRequest.OrderItemRequest> items) {
+        Map<Long, ProductPrice> products = getProducts(items.stream()
+                .map(CreateOrderRequest.OrderItemRequest::getProductId)
+                .toList());
+
+        for (CreateOrderRequest.OrderItemRequest item : items) {
+            ProductPrice product = products.get(item.getProductId());
+            if (product == null || !product.isPurchasable()) {
+                throw new RuntimeException("Product not available: " + item.getProductId());
+            }
+            if (item.getUnitPrice() != null && item.getUnitPrice().compareTo(product.price()) != 0) {
+                log.info("Client price {} for product {} differs from current price {}, using current price",
+                        item.getUnitPrice(), item.getProductId(), product.price());
+            }
+            item.setUnitPrice(product.price());
+            item.setProductName(product.name());
+            if (product.sku() != null) {
+                item.setProductSku(product.sku());
+            }
+        }
+    }
+
+    /**
+     * 取得商品資訊，未命中的部分以批量查詢載入；查無的商品不會出現在結果中
+     */
+    public Map<Long, ProductPrice> getProducts(Collection<Long> productIds) {
+        Map<Long, ProductPrice> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        synchronized (cache) {
+            long now = System.nanoTime();
+            for (Long productId : new LinkedHashSet<>(productIds)) {
+                CachedProduct cached = cache.get(productId);
+                if (cached != null && cached.expiresAtNanos() - now > 0) {
+                    result.put(productId, cached.product());
+                } else {
+                    misses.add(productId);
+                }
+            }
+        }
+        hitCounter.increment(result.size());
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        missCounter.increment(misses.size());
+        PendingLoad pending = new PendingLoad(new HashSet<>(misses));
+        synchronized (cache) {
+            pendingLoads.add(pending);
+        }
+        List<ProductPrice> loaded;
+        try {
+            loaded = load(misses);
+        } finally {
+            synchronized (cache) {
+                pendingLoads.remove(pending);
+            }
+        }
+        synchronized (cache) {
+            long expiresAt = System.nanoTime() + ttl.toNanos();
+            for (ProductPrice product : loaded) {
+                result.put(product.productId(), product);
+                if (!pending.touched.contains(product.productId())) {
+                    cache.put(product.productId(), new CachedProduct(product, expiresAt));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 套用商品變更事件
+     */
+    public void apply(ProductEvent event) {
+        synchronized (cache) {
+            for (PendingLoad pending : pendingLoads) {
+                if (pending.productIds.contains(event.getProductId())) {
+                    pending.touched.add(event.getProductId());
+                }
+            }
+            if ("PRODUCT_DELETED".equals(event.getEventType()) || event.getPrice() == null) {
+                cache.remove(event.getProductId());
+                return;
+            }
+            ProductPrice product = new ProductPrice(event.getProductId(), event.getName(), event.getSku(),
+                    event.getPrice(), event.getStatus());
+            cache.put(event.getProductId(), new CachedProduct(product, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private List<ProductPrice> load(List<Long> productIds) {
+        long startTime = System.nanoTime();
+        try {
+            List<ProductPrice> products = new ArrayList<>(productIds.size());
+            for (int from = 0; from < productIds.size(); from += LOAD_CHUNK_SIZE) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + LOAD_CHUNK_SIZE, productIds.size()));
+                ResponseEntity<List<Map<String, Object>>> response = productClient.getProductsByIds(chunk);
+                if (response == null || !response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                    throw new RuntimeException("Failed to load products: " + chunk);
+                }
+                for (Map<String, Object> body : response.getBody()) {
+                    ProductPrice product = ProductPrice.of(body);
+                    if (product != null) {
+                        products.add(product);
+                    }
+                }
+            }
+            return products;
+        } finally {
+            loadTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.product.cache.requests")
+                .description("Product price cache lookups per order item")
+                .tag("service", "order")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 下單所需的商品資訊
+     */
+    public record ProductPrice(Long productId, String name, String sku, BigDecimal price, String status) {
+
+        public boolean isPurchasable() {
+            return price != null && (status == null || ACTIVE_STATUS.equals(status));
+        }
+
+        static ProductPrice of(Map<String, Object> body) {
+            if (body.get("id") == null || body.get("price") == null) {
+                return null;
+            }
+            return new ProductPrice(
+                    Long.valueOf(body.get("id").toString()),
+                    body.get("name") != null ? body.get("name").toString() : null,
+                    body.get("sku") != null ? body.get("sku").toString() : null,
+                    new BigDecimal(body.get("price").toString()),
+                    body.get("status") != null ? body.get("status").toString() : null);
+        }
+    }
+
+    private record CachedProduct(ProductPrice product, long expiresAtNanos) {
+    }
+
+    /**
+     * 一次批量載入；touched 為載入期間收到事件的商品
+     */
+    private static final class PendingLoad {
+        private final Set<Long> productIds;
+        private final Set<Long> touched = new HashSet<>();
+
+        private PendingLoad(Set<Long> productIds) {
+            this.productIds = productIds;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.ecommerce.order.service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.ecommerce.order.client.UserClient;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 下單用的用戶存在/狀態快取
+ *
+ * - 只快取「用戶是否可下單」，未命中時才呼叫 user-service；404 以較短的 TTL 做負向快取
+ * - user.profile-updated / user.registered 事件清除對應項目，user.deactivated 直接標記為不可下單
+ * - 查詢進行中若收到同一用戶的失效事件，查詢結果不寫入快取，避免舊資料覆蓋失效
+ * - 查詢失敗（逾時、5xx）不快取，沿用原本的錯誤處理
+ */
+@Service
+public class UserExistenceCache {
+
+    static final String ACTIVE_STATUS = "ACTIVE";
+
+    private final UserClient userClient;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Map<Long, CachedUser> cache;
+
+    // 進行中的未命中查詢，用於記錄查詢期間收到失效事件的用戶；以 cache 為鎖
+    private final Set<PendingLookup> pendingLookups = new HashSet<>();
+
+    private final Counter hitCounter;
+    private final Counter negativeHitCounter;
+    private final Counter missCounter;
+    private final Timer lookupTimer;
+    private final Counter savedLatencyCounter;
+
+    public UserExistenceCache(UserClient userClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${order.user-cache.enabled:true}") boolean enabled,
+                              @Value("${order.user-cache.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${order.user-cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                              @Value("${order.user-cache.max-size:100000}") int maxSize) {
+        this.userClient = userClient;
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedUser> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        this.hitCounter = requests(meterRegistry, "hit");
+        this.negativeHitCounter = requests(meterRegistry, "negative_hit");
+        this.missCounter = requests(meterRegistry, "miss");
+        this.lookupTimer = Timer.builder("order.user.cache.lookup")
+                .description("Latency of user-service lookups on cache misses")
+                .tag("service", "order")
+                .register(meterRegistry);
+        this.savedLatencyCounter = Counter.builder("order.user.cache.saved.latency")
+                .description("Estimated user-service latency saved by cache hits")
+                .baseUnit("milliseconds")
+                .tag("service", "order")
+                .register(meterRegistry);
+        Gauge.builder("order.user.cache.size", this, UserExistenceCache::size)
+                .description("Number of cached user entries")
+                .tag("service", "order")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 用戶是否存在且為可下單狀態
+     */
+    public boolean isActiveUser(Long userId) {
+        if (!enabled) {
+            return lookup(userId) == UserState.ACTIVE;
+        }
+
+        CachedUser cached = get(userId);
+        if (cached != null) {
+            (cached.state() == UserState.ACTIVE ? hitCounter : negativeHitCounter).increment();
+            savedLatencyCounter.increment(lookupTimer.mean(TimeUnit.MILLISECONDS));
+            return cached.state() == UserState.ACTIVE;
+        }
+
+        missCounter.increment();
+        PendingLookup pending = new PendingLookup(userId);
+        synchronized (cache) {
+            pendingLookups.add(pending);
+        }
+        UserState state;
+        try {
+            state = lookup(userId);
+        } finally {
+            synchronized (cache) {
+                pendingLookups.remove(pending);
+            }
+        }
+        Duration entryTtl = state == UserState.NOT_FOUND ? negativeTtl : ttl;
+        synchronized (cache) {
+            if (!pending.invalidated) {
+                cache.put(userId, new CachedUser(state, System.nanoTime() + entryTtl.toNanos()));
+            }
+        }
+        return state == UserState.ACTIVE;
+    }
+
+    /**
+     * 用戶資料變更，下次下單重新查詢
+     */
+    public void invalidate(Long userId) {
+        synchronized (cache) {
+            markPendingInvalidated(userId);
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * 用戶已停用，直接記為不可下單
+     */
+    public void markInactive(Long userId) {
+        synchronized (cache) {
+            markPendingInvalidated(userId);
+            cache.put(userId, new CachedUser(UserState.INACTIVE, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    // 呼叫端需持有 cache 鎖
+    private void markPendingInvalidated(Long userId) {
+        for (PendingLookup pending : pendingLookups) {
+            if (pending.userId.equals(userId)) {
+                pending.invalidated = true;
+            }
+        }
+    }
+
+    private CachedUser get(Long userId) {
+        synchronized (cache) {
+            CachedUser cached = cache.get(userId);
+            if (cached != null && cached.expiresAtNanos() - System.nanoTime() <= 0) {
+                cache.remove(userId);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private UserState lookup(Long userId) {
+        long startTime = System.nanoTime();
+        try {
+            ResponseEntity<Map<String, Object>> response = userClient.getUserById(userId);
+            if (response == null || !response.getStatusCode().is2xxSuccessful()) {
+                return UserState.NOT_FOUND;
+            }
+            // 回應沒有狀態欄位時沿用原本只檢查 2xx 的行為
+            String status = statusOf(response.getBody());
+            return status == null || ACTIVE_STATUS.equals(status) ? UserState.ACTIVE : UserState.INACTIVE;
+        } catch (RuntimeException e) {
+            if (isNotFound(e)) {
+                return UserState.NOT_FOUND;
+            }
+            throw e;
+        } finally {
+            lookupTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String statusOf(Map<String, Object> body) {
+        if (body == null) {
+            return null;
+        }
+        Object user = body.getOrDefault("data", body);
+        if (user instanceof Map<?, ?> fields && fields.get("status") != null) {
+            return fields.get("status").toString();
+        }
+        return null;
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        // 熔斷器沒有 fallback 時會把 FeignException 包一層
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FeignException feignException) {
+                return feignException.status() == 404;
+            }
+        }
+        return false;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.user.cache.requests")
+                .description("User existence cache lookups during order validation")
+                .tag("service", "order")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    enum UserState {
+        ACTIVE, INACTIVE, NOT_FOUND
+    }
+
+    private record CachedUser(UserState state, long expiresAtNanos) {
+    }
+
+    /**
+     * 一次未命中查詢；invalidated 表示查詢期間收到該用戶的失效事件
+     */
+    private static final class PendingLookup {
+        private final Long userId;
+        private boolean invalidated;
+
+        private PendingLookup(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
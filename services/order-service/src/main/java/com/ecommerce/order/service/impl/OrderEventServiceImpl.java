@@ -1,93 +1,135 @@
 package com.ecommerce.order.service.impl;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ecommerce.events.OrderEvent;
+import com.ecommerce.order.dto.OrderResponse;
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderOutboxEvent;
+import com.ecommerce.order.repository.OrderOutboxRepository;
 import com.ecommerce.order.service.OrderEventService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * 訂單事件寫入 outbox，與訂單變更在同一個交易內提交；實際發布由 OrderOutboxRelay 負責
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventServiceImpl implements OrderEventService {
-    
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    
-    private static final String ORDER_CREATED_TOPIC = "order.created";
-    private static final String ORDER_STATUS_UPDATED_TOPIC = "order.status.updated";
-    private static final String PAYMENT_PROCESSED_TOPIC = "payment.processed";
-    private static final String ORDER_CANCELLED_TOPIC = "order.cancelled";
-    
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    static final String ORDER_CREATED_TOPIC = "order.created";
+    static final String ORDER_STATUS_UPDATED_TOPIC = "order.status.updated";
+    static final String PAYMENT_PROCESSED_TOPIC = "payment.processed";
+    static final String ORDER_CANCELLED_TOPIC = "order.cancelled";
+
     @Override
+    @Transactional
     public void sendOrderCreatedEvent(Order order) {
-        try {
-            Map<String, Object> event = createOrderEvent(order);
-            event.put("eventType", "ORDER_CREATED");
-            
-            kafkaTemplate.send(ORDER_CREATED_TOPIC, order.getOrderNumber(), event);
-            log.info("Order created event sent for order: {}", order.getOrderNumber());
-        } catch (Exception e) {
-            log.error("Failed to send order created event for order: {}", order.getOrderNumber(), e);
-        }
+        OrderEvent event = createOrderEvent("ORDER_CREATED", order);
+        enqueue(ORDER_CREATED_TOPIC, event);
+        log.info("Order created event queued for order: {}", order.getOrderNumber());
     }
-    
+
     @Override
+    @Transactional
     public void sendOrderStatusUpdatedEvent(Order order, Order.OrderStatus oldStatus, Order.OrderStatus newStatus) {
-        try {
-            Map<String, Object> event = createOrderEvent(order);
-            event.put("eventType", "ORDER_STATUS_UPDATED");
-            event.put("oldStatus", oldStatus.name());
-            event.put("newStatus", newStatus.name());
-            
-            kafkaTemplate.send(ORDER_STATUS_UPDATED_TOPIC, order.getOrderNumber(), event);
-            log.info("Order status updated event sent for order: {} from {} to {}", 
-                    order.getOrderNumber(), oldStatus, newStatus);
-        } catch (Exception e) {
-            log.error("Failed to send order status updated event for order: {}", order.getOrderNumber(), e);
+        OrderEvent event = createOrderEvent("ORDER_STATUS_UPDATED", order);
+        event.setPreviousStatus(oldStatus.name());
+        event.setStatus(newStatus.name());
+        enqueue(ORDER_STATUS_UPDATED_TOPIC, event);
+        log.info("Order status updated event queued for order: {} from {} to {}",
+                order.getOrderNumber(), oldStatus, newStatus);
+    }
+
+    @Override
+    @Transactional
+    public void sendOrderStatusUpdatedEvents(List<OrderResponse> orders, Map<Long, Order.OrderStatus> previousStatuses) {
+        List<OrderOutboxEvent> outboxEvents = new ArrayList<>(orders.size());
+        for (OrderResponse order : orders) {
+            OrderEvent event = createOrderEvent("ORDER_STATUS_UPDATED", order);
+            event.setPreviousStatus(previousStatuses.get(order.getId()).name());
+            outboxEvents.add(toOutboxEvent(ORDER_STATUS_UPDATED_TOPIC, event));
         }
+        orderOutboxRepository.insertAll(outboxEvents);
+        log.info("Queued {} order status updated events", outboxEvents.size());
     }
-    
+
     @Override
+    @Transactional
     public void sendPaymentProcessedEvent(Order order) {
-        try {
-            Map<String, Object> event = createOrderEvent(order);
-            event.put("eventType", "PAYMENT_PROCESSED");
-            
-            kafkaTemplate.send(PAYMENT_PROCESSED_TOPIC, order.getOrderNumber(), event);
-            log.info("Payment processed event sent for order: {}", order.getOrderNumber());
-        } catch (Exception e) {
-            log.error("Failed to send payment processed event for order: {}", order.getOrderNumber(), e);
-        }
+        OrderEvent event = createOrderEvent("PAYMENT_PROCESSED", order);
+        enqueue(PAYMENT_PROCESSED_TOPIC, event);
+        log.info("Payment processed event queued for order: {}", order.getOrderNumber());
     }
-    
+
     @Override
+    @Transactional
     public void sendOrderCancelledEvent(Order order, String reason) {
+        OrderEvent event = createOrderEvent("ORDER_CANCELLED", order);
+        event.setStatus(Order.OrderStatus.CANCELLED.name());
+        event.setReason(reason);
+        enqueue(ORDER_CANCELLED_TOPIC, event);
+        log.info("Order cancelled event queued for order: {} with reason: {}", order.getOrderNumber(), reason);
+    }
+
+    private void enqueue(String topic, OrderEvent event) {
+        orderOutboxRepository.save(toOutboxEvent(topic, event));
+    }
+
+    private OrderOutboxEvent toOutboxEvent(String topic, OrderEvent event) {
+        String payload;
         try {
-            Map<String, Object> event = createOrderEvent(order);
-            event.put("eventType", "ORDER_CANCELLED");
-            event.put("reason", reason);
-            
-            kafkaTemplate.send(ORDER_CANCELLED_TOPIC, order.getOrderNumber(), event);
-            log.info("Order cancelled event sent for order: {} with reason: {}", order.getOrderNumber(), reason);
-        } catch (Exception e) {
-            log.error("Failed to send order cancelled event for order: {}", order.getOrderNumber(), e);
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize order event " + event.getEventType(), e);
         }
+
+        return OrderOutboxEvent.builder()
+                .eventId(event.getEventId())
+                .aggregateKey(event.getOrderNumber())
+                .topic(topic)
+                .eventType(event.getEventType())
+                .payload(payload)
+                .build();
     }
-    
-    private Map<String, Object> createOrderEvent(Order order) {
-        Map<String, Object> event = new HashMap<>();
-        event.put("orderId", order.getId());
-        event.put("orderNumber", order.getOrderNumber());
-        event.put("userId", order.getUserId());
-        event.put("totalAmount", order.getTotalAmount());
-        event.put("status", order.getStatus().name());
-        event.put("createdAt", order.getCreatedAt());
+
+    private OrderEvent createOrderEvent(String eventType, Order order) {
+        OrderEvent event = new OrderEvent(eventType, order.getId(), order.getOrderNumber(), order.getUserId(), null);
+        event.setTotalAmount(order.getTotalAmount());
+        event.setStatus(order.getStatus().name());
+        event.setShippingAddress(order.getShippingAddress());
+        event.setCreatedAt(order.getCreatedAt());
+        event.setItems(order.getOrderItems().stream()
+                .map(item -> new OrderEvent.OrderItemEvent(
+                        item.getProductId(), item.getProductName(), item.getQuantity(), item.getUnitPrice()))
+                .collect(Collectors.toList()));
+        return event;
+    }
+
+    private OrderEvent createOrderEvent(String eventType, OrderResponse order) {
+        OrderEvent event = new OrderEvent(eventType, order.getId(), order.getOrderNumber(), order.getUserId(), null);
+        event.setTotalAmount(order.getTotalAmount());
+        event.setStatus(order.getStatus());
+        event.setShippingAddress(order.getShippingAddress());
+        event.setCreatedAt(order.getCreatedAt());
+        event.setItems(order.getOrderItems().stream()
+                .map(item -> new OrderEvent.OrderItemEvent(
+                        item.getProductId(), item.getProductName(), item.getQuantity(), item.getUnitPrice()))
+                .collect(Collectors.toList()));
         return event;
     }
 }
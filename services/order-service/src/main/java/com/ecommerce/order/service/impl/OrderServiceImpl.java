@@ -2,31 +2,50 @@ package com.ecommerce.order.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ecommerce.order.client.CartClient;
 import com.ecommerce.order.client.InventoryClient;
-import com.ecommerce.order.client.ProductClient;
-import com.ecommerce.order.client.UserClient;
 import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.dto.OrderCursor;
+import com.ecommerce.order.dto.OrderImportRequest;
+import com.ecommerce.order.dto.OrderImportResponse;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderResponse;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.exception.InvalidStatusTransitionException;
+import com.ecommerce.order.repository.OrderItemRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import com.ecommerce.order.repository.projection.OrderRow;
 import com.ecommerce.order.saga.service.OrderSagaService;
 import com.ecommerce.order.service.OrderEventService;
+import com.ecommerce.order.service.OrderMetricsService;
+import com.ecommerce.order.service.OrderNumberGenerator;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.order.service.ProductPriceCache;
+import com.ecommerce.order.service.UserExistenceCache;
 
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,53 +54,57 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class OrderServiceImpl implements OrderService {
     
+    // 明細 IN 查詢每批的訂單 ID 數量上限
+    private static final int ITEM_FETCH_CHUNK_SIZE = 500;
+    // Keyset 分頁單頁上限
+    private static final int MAX_PAGE_SIZE = 100;
+    // 匯出時每次補載明細的訂單數
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final OrderEventService orderEventService;
     private final OrderSagaService orderSagaService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderMetricsService metricsService;
     
     // Feign clients for inter-service communication
     private final InventoryClient inventoryClient;
     private final CartClient cartClient;
-    private final UserClient userClient;
-    private final ProductClient productClient;
+    private final UserExistenceCache userExistenceCache;
+    private final ProductPriceCache productPriceCache;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
     
     @Override
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
         log.info("Creating order for user: {}", request.getUserId());
+        Timer.Sample sample = metricsService.startOrderProcessingTimer();
+        boolean inventoryTouched = false;
         
         try {
             // 1. 驗證用戶是否存在
             validateUser(request.getUserId());
             
+            // 1-1. 以商品服務的目前價格覆寫明細價格，不信任客戶端送來的單價
+            productPriceCache.applyCurrentPrices(request.getOrderItems());
+            
             // 2. 檢查並預留庫存
+            inventoryTouched = true;
             reserveInventoryForOrder(request);
             
             // 3. 生成訂單號
-            String orderNumber = generateOrderNumber();
-            
-            // 4. 計算總金額
-            BigDecimal totalAmount = calculateTotalAmount(request.getOrderItems());
-            
-            // 5. 創建訂單實體
-            Order order = Order.builder()
-                    .orderNumber(orderNumber)
-                    .userId(request.getUserId())
-                    .totalAmount(totalAmount)
-                    .status(Order.OrderStatus.PENDING)
-                    .shippingAddress(request.getShippingAddress())
-                    .paymentMethod(request.getPaymentMethod())
-                    .notes(request.getNotes())
-                    .build();
-            
-            // 6. 創建訂單明細
-            List<OrderItem> orderItems = request.getOrderItems().stream()
-                    .map(item -> createOrderItem(item, order))
-                    .collect(Collectors.toList());
+            String orderNumber = orderNumberGenerator.nextOrderNumber();
             
-            order.setOrderItems(orderItems);
+            // 4-6. 計算總金額並創建訂單及明細
+            Order order = buildOrder(request, orderNumber);
             
-            // 7. 保存訂單
+            // 7. 保存訂單（訂單與明細以 JDBC batch 寫入）
             Order savedOrder = orderRepository.save(order);
             
             // 8. 清空購物車（如果訂單來自購物車）
@@ -93,12 +116,17 @@ public class OrderServiceImpl implements OrderService {
             orderEventService.sendOrderCreatedEvent(savedOrder);
             
             log.info("Order created successfully: {}", orderNumber);
+            metricsService.recordOrderCreated();
+            metricsService.updateTotalOrderValue(savedOrder.getTotalAmount().longValue());
+            metricsService.recordOrderCreation(sample, "sync", OrderMetricsService.OUTCOME_SUCCESS);
             return convertToResponse(savedOrder);
             
         } catch (Exception e) {
             log.error("Failed to create order for user: {}", request.getUserId(), e);
-            // 釋放已預留的庫存
-            releaseInventoryForOrder(request);
+            // 釋放已預留的庫存；已動到庫存且全部釋放成功才算已補償
+            boolean released = releaseInventoryForOrder(request);
+            metricsService.recordOrderCreation(sample, "sync", inventoryTouched && released
+                    ? OrderMetricsService.OUTCOME_COMPENSATED : OrderMetricsService.OUTCOME_FAILED);
             throw new RuntimeException("Failed to create order: " + e.getMessage(), e);
         }
     }
@@ -108,8 +136,7 @@ public class OrderServiceImpl implements OrderService {
      */
     private void validateUser(Long userId) {
         try {
-            var response = userClient.getUserById(userId);
-            if (response == null || !response.getStatusCode().is2xxSuccessful()) {
+            if (!userExistenceCache.isActiveUser(userId)) {
                 throw new RuntimeException("User not found or invalid: " + userId);
             }
             log.info("User validation successful for user: {}", userId);
@@ -153,16 +180,20 @@ public class OrderServiceImpl implements OrderService {
     
     /**
      * 釋放訂單的預留庫存
+     * @return 全部釋放成功時返回 true
      */
-    private void releaseInventoryForOrder(CreateOrderRequest request) {
+    private boolean releaseInventoryForOrder(CreateOrderRequest request) {
+        boolean released = true;
         for (var item : request.getOrderItems()) {
             try {
                 inventoryClient.releaseReservedStock(item.getProductId(), item.getQuantity());
                 log.info("Released stock for product: {}, quantity: {}", item.getProductId(), item.getQuantity());
             } catch (Exception e) {
                 log.error("Failed to release stock for product: {}", item.getProductId(), e);
+                released = false;
             }
         }
+        return released;
     }
     
     /**
@@ -183,31 +214,42 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        OrderRow order = orderRepository.findRowById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
-        return convertToResponse(order);
+        return toResponses(List.of(order)).get(0);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse getOrderByNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        OrderRow order = orderRepository.findRowByOrderNumber(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found with number: " + orderNumber));
-        return convertToResponse(order);
+        return toResponses(List.of(order)).get(0);
     }
     
     @Override
-    public List<OrderResponse> getOrdersByUserId(Long userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public OrderPageResponse getOrdersByUserId(Long userId, String cursor, int limit) {
+        int pageSize = clampLimit(limit);
+        // 多取一筆用來判斷是否還有下一頁
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<OrderRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findFirstRowsByUserId(userId, pageable);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findRowsByUserIdBefore(userId, after.createdAt(), after.id(), pageable);
+        }
+        return toPage(rows, pageSize);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getOrdersByUserId(Long userId, Pageable pageable) {
-        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
-        return orders.map(this::convertToResponse);
+        Page<OrderRow> orders = orderRepository.findRowsByUserId(userId, pageable);
+        return new PageImpl<>(toResponses(orders.getContent()), orders.getPageable(), orders.getTotalElements());
     }
     
     @Override
@@ -217,6 +259,13 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         
         Order.OrderStatus oldStatus = order.getStatus();
+        if (oldStatus == status) {
+            // 重送同一個狀態不產生事件
+            return convertToResponse(order);
+        }
+        if (!oldStatus.canTransitionTo(status)) {
+            throw new InvalidStatusTransitionException(order.getOrderNumber(), oldStatus, status);
+        }
         order.setStatus(status);
         Order savedOrder = orderRepository.save(order);
         
@@ -230,7 +279,9 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public OrderResponse cancelOrder(Long id) {
-        return updateOrderStatus(id, Order.OrderStatus.CANCELLED);
+        OrderResponse response = updateOrderStatus(id, Order.OrderStatus.CANCELLED);
+        metricsService.recordOrderCancelled();
+        return response;
     }
     
     @Override
@@ -246,33 +297,118 @@ public class OrderServiceImpl implements OrderService {
         // Here you would integrate with actual payment gateway
         // For now, we'll simulate successful payment
         log.info("Processing payment for order: {} with details: {}", order.getOrderNumber(), paymentDetails);
+        Timer.Sample sample = metricsService.startPaymentProcessingTimer();
         
         order.setStatus(Order.OrderStatus.PAID);
         orderRepository.save(order);
         
         // Send payment processed event
         orderEventService.sendPaymentProcessedEvent(order);
+        metricsService.stopPaymentProcessingTimer(sample);
+        metricsService.recordPaymentSuccess();
         
         log.info("Payment processed successfully for order: {}", order.getOrderNumber());
     }
     
     @Override
-    public List<OrderResponse> getOrdersByStatus(Order.OrderStatus status) {
-        List<Order> orders = orderRepository.findByStatus(status);
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public OrderPageResponse getOrdersByStatus(Order.OrderStatus status, String cursor, int limit) {
+        int pageSize = clampLimit(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<OrderRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findFirstRowsByStatus(status, pageable);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findRowsByStatusBefore(status, after.createdAt(), after.id(), pageable);
+        }
+        return toPage(rows, pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(Order.OrderStatus status, LocalDateTime from, LocalDateTime to,
+                             Consumer<OrderResponse> sink) {
+        long exported = 0;
+        List<OrderRow> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        // 串流讀取並按塊補上明細，記憶體用量只與塊大小有關
+        try (Stream<OrderRow> rows = status == null
+                ? orderRepository.streamRowsByCreatedAtBetween(from, to)
+                : orderRepository.streamRowsByStatusAndCreatedAtBetween(status, from, to)) {
+            Iterator<OrderRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+                    toResponses(chunk).forEach(sink);
+                    exported += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Exported {} orders (status={}, from={}, to={})", exported, status, from, to);
+        return exported;
     }
     
     @Override
     public CompletableFuture<OrderResponse> createOrderWithSaga(CreateOrderRequest request) {
         log.info("使用 Saga 模式創建訂單: 使用者ID={}", request.getUserId());
+        productPriceCache.applyCurrentPrices(request.getOrderItems());
         return orderSagaService.createOrderWithSaga(request);
     }
     
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        return "ORDER-" + timestamp + "-" + System.nanoTime() % 10000;
+    @Override
+    @Transactional
+    public OrderImportResponse importOrders(OrderImportRequest request) {
+        long startTime = System.currentTimeMillis();
+        List<String> orderNumbers = new ArrayList<>(request.getOrders().size());
+        int itemCount = 0;
+        int pendingRows = 0;
+        
+        // 後台匯入：不驗證用戶、不預留庫存、不發送事件，只做批次寫入
+        for (CreateOrderRequest orderRequest : request.getOrders()) {
+            Order order = buildOrder(orderRequest, orderNumberGenerator.nextOrderNumber());
+            entityManager.persist(order);
+            orderNumbers.add(order.getOrderNumber());
+            
+            itemCount += order.getOrderItems().size();
+            pendingRows += 1 + order.getOrderItems().size();
+            if (pendingRows >= jdbcBatchSize) {
+                // 定期 flush 並清空持久化上下文，避免大量匯入時上下文無限增長
+                entityManager.flush();
+                entityManager.clear();
+                pendingRows = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        long elapsed = System.currentTimeMillis() - startTime;
+        log.info("Imported {} orders with {} items in {} ms", orderNumbers.size(), itemCount, elapsed);
+        
+        return OrderImportResponse.builder()
+                .importedCount(orderNumbers.size())
+                .itemCount(itemCount)
+                .elapsedMillis(elapsed)
+                .orderNumbers(orderNumbers)
+                .build();
+    }
+    
+    private Order buildOrder(CreateOrderRequest request, String orderNumber) {
+        Order order = Order.builder()
+                .orderNumber(orderNumber)
+                .userId(request.getUserId())
+                .totalAmount(calculateTotalAmount(request.getOrderItems()))
+                .status(Order.OrderStatus.PENDING)
+                .shippingAddress(request.getShippingAddress())
+                .paymentMethod(request.getPaymentMethod())
+                .notes(request.getNotes())
+                .build();
+        
+        List<OrderItem> orderItems = request.getOrderItems().stream()
+                .map(item -> createOrderItem(item, order))
+                .collect(Collectors.toList());
+        order.setOrderItems(orderItems);
+        return order;
     }
     
     private BigDecimal calculateTotalAmount(List<CreateOrderRequest.OrderItemRequest> orderItems) {
@@ -315,6 +451,50 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
     
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
+    private OrderPageResponse toPage(List<OrderRow> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderRow last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.createdAt(), last.id()).encode();
+        }
+        
+        return OrderPageResponse.builder()
+                .orders(toResponses(page))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .build();
+    }
+    
+    /**
+     * 投影轉回應：明細以 IN 查詢分批載入，查詢次數與訂單數量無關
+     */
+    private List<OrderResponse> toResponses(List<OrderRow> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> orderIds = orders.stream().map(OrderRow::id).collect(Collectors.toList());
+        Map<Long, List<OrderResponse.OrderItemResponse>> itemsByOrderId = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += ITEM_FETCH_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + ITEM_FETCH_CHUNK_SIZE, orderIds.size()));
+            for (OrderItemRow item : orderItemRepository.findRowsByOrderIdIn(chunk)) {
+                itemsByOrderId.computeIfAbsent(item.orderId(), id -> new ArrayList<>())
+                        .add(OrderResponse.OrderItemResponse.of(item));
+            }
+        }
+        
+        return orders.stream()
+                .map(order -> OrderResponse.of(order, itemsByOrderId.getOrDefault(order.id(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+    
     private OrderResponse.OrderItemResponse convertToItemResponse(OrderItem item) {
         return OrderResponse.OrderItemResponse.builder()
                 .id(item.getId())
@@ -0,0 +1,154 @@
+package com.ecommerce.order.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.order.service.OrderNumberGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Snowflake 風格訂單號生成器
+ *
+ * 64 位 ID 佈局：1 位保留 | 41 位毫秒時間戳（自 2024-01-01 起） | 10 位節點 ID | 12 位序號
+ *
+ * - 時間戳與序號打包在同一個 AtomicLong 中，以 CAS 推進，不需要鎖
+ * - 同一毫秒內序號用盡或系統時鐘回撥時，借用後續毫秒繼續發號；超前真實時鐘最多 MAX_BORROW_MS，
+ *   超過則自旋等待時鐘追上，避免重啟後與已發出的 ID 重疊
+ * - 節點 ID 由部署配置指定（order.number.node-id），實例之間不需要任何協調；未配置時啟動失敗，
+ *   不以主機名等方式推導，避免兩個實例碰撞到同一個節點 ID 而發出重複的訂單號
+ */
+@Component
+@Slf4j
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    static final int NODE_ID_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_ID_BITS + SEQUENCE_BITS;
+    static final long MAX_BORROW_MS = 50;
+
+    private static final String PREFIX = "ORD";
+
+    // 舊格式訂單號："ORD" + yyyyMMddHHmmss + 3 位隨機數，與 Snowflake 訂單號共用前綴
+    private static final int LEGACY_DIGITS = 17;
+    private static final DateTimeFormatter LEGACY_TIMESTAMP = DateTimeFormatter.ofPattern("uuuuMMddHHmmss")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    // 解出的時間超前本機時鐘超過此值時視為無法解析
+    static final long MAX_CLOCK_SKEW_MS = 60_000;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    // 高位為相對 EPOCH 的毫秒數，低 12 位為該毫秒內已發出的序號
+    private final AtomicLong state;
+
+    @Autowired
+    public SnowflakeOrderNumberGenerator(@Value("${order.number.node-id:-1}") long nodeId) {
+        this(requireConfigured(nodeId), System::currentTimeMillis);
+    }
+
+    SnowflakeOrderNumberGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order number node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        this.state = new AtomicLong((clock.getAsLong() - EPOCH) << SEQUENCE_BITS);
+        log.info("Order number generator initialized with node id: {}", nodeId);
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        return PREFIX + nextId();
+    }
+
+    /**
+     * 生成下一個 64 位唯一 ID
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = current + 1;
+            } else if (lastTimestamp - now < MAX_BORROW_MS) {
+                // 序號用盡：借用下一毫秒
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            } else {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * 由訂單號解出生成時間（epoch 毫秒）；舊格式或無法解析的訂單號回傳 empty
+     *
+     * 舊格式 "ORD" + yyyyMMddHHmmss + 3 位數字同樣能解析為正整數，解碼後會落在 2024 年初的錯誤日期，
+     * 因此依長度與日期格式排除；解出的時間不在 [EPOCH, 現在 + MAX_CLOCK_SKEW_MS] 內時同樣回傳 empty
+     */
+    public static OptionalLong timestampOf(String orderNumber) {
+        if (orderNumber == null || !orderNumber.startsWith(PREFIX) || orderNumber.length() == PREFIX.length()
+                || isLegacy(orderNumber)) {
+            return OptionalLong.empty();
+        }
+        long id;
+        try {
+            id = Long.parseLong(orderNumber.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+        if (id <= 0) {
+            return OptionalLong.empty();
+        }
+        long timestamp = (id >>> TIMESTAMP_SHIFT) + EPOCH;
+        if (timestamp > System.currentTimeMillis() + MAX_CLOCK_SKEW_MS) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(timestamp);
+    }
+
+    private static boolean isLegacy(String orderNumber) {
+        String digits = orderNumber.substring(PREFIX.length());
+        if (digits.length() != LEGACY_DIGITS) {
+            return false;
+        }
+        try {
+            LocalDateTime.parse(digits.substring(0, LEGACY_DIGITS - 3), LEGACY_TIMESTAMP);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static long requireConfigured(long nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalStateException("order.number.node-id (ORDER_NODE_ID) is not configured; "
+                    + "assign a unique node id between 0 and " + MAX_NODE_ID + " to each instance");
+        }
+        return nodeId;
+    }
+}
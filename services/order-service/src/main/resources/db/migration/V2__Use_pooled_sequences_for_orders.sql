@@ -0,0 +1,5 @@
+-- Switch order id generation to pooled sequences so Hibernate can batch inserts.
+-- Each nextval reserves a block of 50 ids; the BIGSERIAL column defaults keep working
+-- for inserts made outside the application.
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
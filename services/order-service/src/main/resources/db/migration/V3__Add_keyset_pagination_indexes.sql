@@ -0,0 +1,11 @@
+-- Keyset 分頁：列表查詢以 (created_at, id) 排序並以游標續讀，需要包含排序鍵的複合索引
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_id ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_id ON orders(status, created_at DESC, id DESC);
+
+-- 後台匯出依建立時間順序掃描
+CREATE INDEX IF NOT EXISTS idx_orders_created_id ON orders(created_at, id);
+
+-- 以上複合索引已涵蓋原本的單欄索引
+DROP INDEX IF EXISTS idx_orders_user_id;
+DROP INDEX IF EXISTS idx_orders_status;
+DROP INDEX IF EXISTS idx_orders_created_at;
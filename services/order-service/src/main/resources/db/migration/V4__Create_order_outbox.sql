@@ -0,0 +1,10 @@
+-- Transactional outbox：訂單事件與業務資料在同一交易寫入，由 relay 依 id 順序發布到 Kafka
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(36) UNIQUE NOT NULL,
+    aggregate_key VARCHAR(50) NOT NULL,
+    topic VARCHAR(100) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
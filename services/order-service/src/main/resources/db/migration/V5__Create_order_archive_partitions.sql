@@ -0,0 +1,54 @@
+-- 冷資料封存：已結束（COMPLETED / CANCELLED / REFUNDED）且超過保留天數的訂單由封存工作從熱表搬移到這裡
+-- 封存表依 created_at 每月分區，查詢帶上時間範圍即可裁剪分區；熱表只保留進行中與近期訂單，索引維持小而快
+
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id BIGINT NOT NULL,
+    order_number VARCHAR(50) NOT NULL,
+    user_id BIGINT NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    shipping_address TEXT,
+    payment_method VARCHAR(50),
+    notes TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- 明細帶上所屬訂單的 created_at 作為分區鍵，與訂單落在同一個月份分區
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    order_created_at TIMESTAMP NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_sku VARCHAR(100),
+    unit_price DECIMAL(10,2) NOT NULL,
+    quantity INTEGER NOT NULL,
+    subtotal DECIMAL(10,2) NOT NULL,
+    PRIMARY KEY (id, order_created_at)
+) PARTITION BY RANGE (order_created_at);
+
+-- 預設分區只作為保險，正常情況下封存前會先建立對應月份的分區
+CREATE TABLE IF NOT EXISTS orders_archive_default PARTITION OF orders_archive DEFAULT;
+CREATE TABLE IF NOT EXISTS order_items_archive_default PARTITION OF order_items_archive DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_created ON orders_archive(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_order_number ON orders_archive(order_number);
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order ON order_items_archive(order_id);
+
+-- 建立指定月份的封存分區（已存在則略過）
+CREATE OR REPLACE FUNCTION ensure_order_archive_partition(month_start DATE)
+RETURNS VOID AS $$
+DECLARE
+    from_ts TIMESTAMP := date_trunc('month', month_start);
+    to_ts TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    suffix TEXT := to_char(month_start, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF orders_archive FOR VALUES FROM (%L) TO (%L)',
+                   'orders_archive_' || suffix, from_ts, to_ts);
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF order_items_archive FOR VALUES FROM (%L) TO (%L)',
+                   'order_items_archive_' || suffix, from_ts, to_ts);
+END;
+$$ language 'plpgsql';
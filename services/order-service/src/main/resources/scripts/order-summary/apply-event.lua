@@ -0,0 +1,26 @@
+-- 以 lastEventAt 比較後寫入一份訂單摘要（compare-and-set），與重建的 RENAME 互斥
+-- KEYS[1] 用戶摘要 key
+-- ARGV[1] 訂單 ID  ARGV[2] 合併後的文件  ARGV[3] 事件的 lastEventAt
+-- ARGV[4] 合併時讀到的文件，沒有時為空字串  ARGV[5] 保留的毫秒數
+-- 回傳 1 已寫入；0 讀模型尚未建立或事件比現有文件舊；-1 文件已被其他寫入更新，需重新合併
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+
+local current = redis.call('HGET', KEYS[1], ARGV[1])
+if current then
+    local ok, document = pcall(cjson.decode, current)
+    if ok and type(document) == 'table' and tonumber(document['lastEventAt'])
+            and tonumber(document['lastEventAt']) > tonumber(ARGV[3]) then
+        return 0
+    end
+    if current ~= ARGV[4] then
+        return -1
+    end
+elseif ARGV[4] ~= '' then
+    return -1
+end
+
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+redis.call('PEXPIRE', KEYS[1], ARGV[5])
+return 1
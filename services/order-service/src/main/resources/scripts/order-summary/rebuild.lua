@@ -0,0 +1,28 @@
+-- 以重建結果取代用戶摘要；重建讀取資料庫之後才套用到現有文件的事件保留下來，不被 RENAME 覆蓋
+-- KEYS[1] 用戶摘要 key  KEYS[2] 已寫入重建結果的臨時 key
+-- ARGV[1] 讀取資料庫前的 epoch 毫秒  ARGV[2] 保留的毫秒數  ARGV[3] meta 欄位名稱
+local function last_event_at(json)
+    local ok, document = pcall(cjson.decode, json)
+    if ok and type(document) == 'table' then
+        return tonumber(document['lastEventAt'])
+    end
+    return nil
+end
+
+local snapshot_at = tonumber(ARGV[1])
+local live = redis.call('HGETALL', KEYS[1])
+for i = 1, #live, 2 do
+    local field, value = live[i], live[i + 1]
+    local live_at = field ~= ARGV[3] and last_event_at(value)
+    if live_at then
+        local rebuilt = redis.call('HGET', KEYS[2], field)
+        local rebuilt_at = rebuilt and last_event_at(rebuilt)
+        if (rebuilt_at and live_at > rebuilt_at) or (not rebuilt and live_at >= snapshot_at) then
+            redis.call('HSET', KEYS[2], field, value)
+        end
+    end
+end
+
+redis.call('RENAME', KEYS[2], KEYS[1])
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return 1
@@ -0,0 +1,114 @@
+package com.ecommerce.order.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * 訂單寫入吞吐基準
+ *
+ * 以真實 PostgreSQL 量測 1 / 10 / 100 筆明細的訂單寫入速度，驗證 pooled sequence + JDBC batch 的效果。
+ * 需要 Docker，手動執行：mvn test -Dtest=OrderInsertBenchmark
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class OrderInsertBenchmark {
+
+    private static final int WARMUP_ORDERS = 200;
+    private static final int MEASURED_ORDERS = 2000;
+    private static final int ORDERS_PER_TRANSACTION = 100;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @ParameterizedTest(name = "{0} items per order")
+    @ValueSource(ints = {1, 10, 100})
+    void insertOrders(int itemsPerOrder) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        insert(transactionTemplate, WARMUP_ORDERS, itemsPerOrder);
+
+        long start = System.nanoTime();
+        insert(transactionTemplate, MEASURED_ORDERS, itemsPerOrder);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long rows = (long) MEASURED_ORDERS * (1 + itemsPerOrder);
+        System.out.printf("items/order=%d orders=%d rows=%d elapsed=%.2fs -> %.0f orders/s, %.0f rows/s%n",
+                itemsPerOrder, MEASURED_ORDERS, rows, seconds, MEASURED_ORDERS / seconds, rows / seconds);
+    }
+
+    private void insert(TransactionTemplate transactionTemplate, int orderCount, int itemsPerOrder) {
+        for (int offset = 0; offset < orderCount; offset += ORDERS_PER_TRANSACTION) {
+            int batchStart = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = batchStart; i < batchStart + ORDERS_PER_TRANSACTION; i++) {
+                    entityManager.persist(buildOrder(i, itemsPerOrder));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    private Order buildOrder(int index, int itemsPerOrder) {
+        Order order = Order.builder()
+                .orderNumber("BENCH-" + itemsPerOrder + "-" + System.nanoTime() + "-" + index)
+                .userId(1L)
+                .totalAmount(BigDecimal.valueOf(itemsPerOrder * 10L))
+                .status(Order.OrderStatus.PENDING)
+                .shippingAddress("Taipei")
+                .build();
+
+        List<OrderItem> items = new ArrayList<>(itemsPerOrder);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .productId((long) i + 1)
+                    .productName("Product " + i)
+                    .unitPrice(BigDecimal.TEN)
+                    .quantity(1)
+                    .subtotal(BigDecimal.TEN)
+                    .build());
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
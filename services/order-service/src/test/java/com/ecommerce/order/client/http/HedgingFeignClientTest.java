@@ -0,0 +1,220 @@
+package com.ecommerce.order.client.http;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.ecommerce.order.client.InventoryClient;
+import com.ecommerce.order.config.FeignHttpProperties;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingFeignClientTest {
+
+    private static final ServiceInstance INSTANCE_A =
+            new DefaultServiceInstance("a", "inventory-service", "10.0.0.1", 8083, false);
+    private static final ServiceInstance INSTANCE_B =
+            new DefaultServiceInstance("b", "inventory-service", "10.0.0.2", 8083, false);
+    private static final Request.Options OPTIONS = new Request.Options();
+
+    @Mock
+    private LoadBalancerClient loadBalancerClient;
+
+    @Mock
+    private Client loadBalancedClient;
+
+    private FeignHttpProperties.Hedge config;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger calls;
+    private HedgingFeignClient hedgingClient;
+
+    @BeforeEach
+    void setUp() {
+        config = new FeignHttpProperties.Hedge();
+        config.setMaxDelay(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+        calls = new AtomicInteger();
+        // 10.0.0.1 很慢，10.0.0.2 立即返回
+        Client instanceClient = (request, options) -> {
+            calls.incrementAndGet();
+            if (request.url().contains("10.0.0.1")) {
+                sleep(500);
+            }
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Map.of())
+                    .body(request.url(), StandardCharsets.UTF_8)
+                    .build();
+        };
+        hedgingClient = new HedgingFeignClient(loadBalancedClient, instanceClient, loadBalancerClient, config,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedgingClient.destroy();
+    }
+
+    @Test
+    void execute_SlowPrimary_ShouldHedgeToOtherInstanceAndReturnFasterResponse() throws Exception {
+        // Given
+        when(loadBalancerClient.choose("inventory-service")).thenReturn(INSTANCE_A, INSTANCE_B);
+        stubReconstructUri();
+
+        // When
+        long startTime = System.currentTimeMillis();
+        Response response = hedgingClient.execute(request("checkStock"), OPTIONS);
+
+        // Then
+        assertTrue(response.request().url().startsWith("http://10.0.0.2:8083/"));
+        assertTrue(System.currentTimeMillis() - startTime < 400);
+        assertEquals(1, meterRegistry.get("order.http.client.hedges").tag("result", "sent").counter().count());
+        assertEquals(1, meterRegistry.get("order.http.client.hedges").tag("result", "won").counter().count());
+    }
+
+    @Test
+    void execute_FastPrimary_ShouldNotHedge() throws Exception {
+        // Given
+        when(loadBalancerClient.choose("inventory-service")).thenReturn(INSTANCE_B);
+        stubReconstructUri();
+
+        // When
+        Response response = hedgingClient.execute(request("getBatchInventory"), OPTIONS);
+
+        // Then
+        assertTrue(response.request().url().startsWith("http://10.0.0.2:8083/"));
+        assertEquals(1, calls.get());
+        assertTrue(meterRegistry.find("order.http.client.hedges").counters().isEmpty());
+    }
+
+    @Test
+    void execute_SingleInstance_ShouldWaitForPrimary() throws Exception {
+        // Given
+        when(loadBalancerClient.choose("inventory-service")).thenReturn(INSTANCE_A);
+        stubReconstructUri();
+
+        // When
+        Response response = hedgingClient.execute(request("checkStock"), OPTIONS);
+
+        // Then
+        assertTrue(response.request().url().startsWith("http://10.0.0.1:8083/"));
+        assertEquals(1, calls.get());
+        assertEquals(1, meterRegistry.get("order.http.client.hedges")
+                .tag("result", "single_instance").counter().count());
+    }
+
+    @Test
+    void execute_HedgeBudgetExhausted_ShouldNotHedge() throws Exception {
+        // Given
+        config.setBudgetRatio(0);
+        config.setMinHedgesPerSecond(0);
+        hedgingClient.destroy();
+        hedgingClient = new HedgingFeignClient(loadBalancedClient, (request, options) -> {
+            calls.incrementAndGet();
+            sleep(100);
+            return Response.builder().status(200).request(request).headers(Map.of()).build();
+        }, loadBalancerClient, config, meterRegistry);
+        when(loadBalancerClient.choose("inventory-service")).thenReturn(INSTANCE_A, INSTANCE_B);
+        stubReconstructUri();
+
+        // When
+        hedgingClient.execute(request("checkStock"), OPTIONS);
+
+        // Then
+        assertEquals(1, calls.get());
+        assertEquals(1, meterRegistry.get("order.http.client.hedges")
+                .tag("result", "budget_exhausted").counter().count());
+    }
+
+    @Test
+    void execute_NotHedgedMethod_ShouldUseLoadBalancedClient() throws Exception {
+        // Given
+        Request request = request("reserveStock");
+        Response expected = Response.builder().status(200).request(request).headers(Map.of()).build();
+        when(loadBalancedClient.execute(request, OPTIONS)).thenReturn(expected);
+
+        // When
+        Response response = hedgingClient.execute(request, OPTIONS);
+
+        // Then
+        assertSame(expected, response);
+        verify(loadBalancerClient, never()).choose(any());
+    }
+
+    @Test
+    void latencyWindow_ShouldReportPercentileAfterWarmUp() {
+        // Given
+        LatencyWindow window = new LatencyWindow(100, 0.95);
+        for (int i = 1; i < LatencyWindow.MIN_SAMPLES; i++) {
+            window.record(i);
+        }
+        assertEquals(-1, window.percentileMillis());
+
+        // When
+        for (int i = LatencyWindow.MIN_SAMPLES; i <= 100; i++) {
+            window.record(i);
+        }
+
+        // Then
+        assertEquals(95, window.percentileMillis());
+    }
+
+    private void stubReconstructUri() {
+        when(loadBalancerClient.reconstructURI(any(), any())).thenAnswer(invocation ->
+                LoadBalancerUriTools.reconstructURI(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    private static Request request(String methodName) {
+        List<MethodMetadata> metadata = new SpringMvcContract().parseAndValidateMetadata(InventoryClient.class);
+        MethodMetadata method = metadata.stream()
+                .filter(m -> m.method().getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = new RequestTemplate()
+                .feignTarget(new Target.HardCodedTarget<>(InventoryClient.class, "inventory-service",
+                        "http://inventory-service"))
+                .methodMetadata(method);
+        Request.HttpMethod httpMethod = Request.HttpMethod.valueOf(method.template().method());
+        return Request.create(httpMethod, URI.create("http://inventory-service/api/v1/inventory/check/1").toString(),
+                new HashMap<>(), null, StandardCharsets.UTF_8, template);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.order.client.http;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.ecommerce.order.client.InventoryClient;
+import com.ecommerce.order.config.FeignHttpProperties;
+
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.RetryableException;
+import feign.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotentRetryerTest {
+
+    private FeignHttpProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private PooledFeignClient client;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FeignHttpProperties();
+        properties.getRetry().setBackoff(Duration.ofMillis(1));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(2));
+        meterRegistry = new SimpleMeterRegistry();
+        client = new PooledFeignClient(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        client.destroy();
+    }
+
+    @Test
+    void continueOrPropagate_NonIdempotentPost_ShouldNotRetry() {
+        // Given
+        RetryableException e = failure(Request.HttpMethod.POST, "reserveStock");
+
+        // When & Then
+        assertThrows(RetryableException.class, () -> retryer().continueOrPropagate(e));
+    }
+
+    @Test
+    void continueOrPropagate_IdempotentReads_ShouldRetryUntilMaxAttempts() {
+        // Given
+        IdempotentRetryer retryer = retryer();
+        RetryableException get = failure(Request.HttpMethod.GET, "checkStock");
+        RetryableException batch = failure(Request.HttpMethod.POST, "getBatchInventory");
+
+        // When & Then: maxAttempts = 3，第三次失敗時放棄
+        assertDoesNotThrow(() -> retryer.continueOrPropagate(get));
+        assertDoesNotThrow(() -> retryer.continueOrPropagate(batch));
+        assertThrows(RetryableException.class, () -> retryer.continueOrPropagate(get));
+        assertEquals(2, meterRegistry.get("order.http.client.retries").tag("result", "retried").counter().count());
+    }
+
+    @Test
+    void continueOrPropagate_BudgetExhausted_ShouldNotRetry() {
+        // Given
+        properties.getRetry().setMinRetriesPerSecond(1);
+        RetryableException e = failure(Request.HttpMethod.GET, "checkStock");
+        assertDoesNotThrow(() -> retryer().continueOrPropagate(e));
+
+        // When & Then
+        assertThrows(RetryableException.class, () -> retryer().continueOrPropagate(e));
+        assertEquals(1, meterRegistry.get("order.http.client.retries")
+                .tag("result", "budget_exhausted").counter().count());
+    }
+
+    @Test
+    void continueOrPropagate_DeadlineShorterThanBackoff_ShouldNotRetry() {
+        // Given
+        properties.getRetry().setBackoff(Duration.ofMillis(500));
+        ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        RequestDeadline.start(attributes, 100);
+
+        // When & Then
+        assertThrows(RetryableException.class,
+                () -> retryer().continueOrPropagate(failure(Request.HttpMethod.GET, "checkStock")));
+        assertEquals(1, meterRegistry.get("order.http.client.retries").tag("result", "deadline").counter().count());
+    }
+
+    @Test
+    void retryBudget_ShouldScaleWithRequestRate() {
+        // Given
+        AtomicLong now = new AtomicLong(10_000);
+        RetryBudget budget = new RetryBudget(0.1, 2, now::get);
+        for (int i = 0; i < 50; i++) {
+            budget.recordRequest();
+        }
+
+        // When
+        int granted = 0;
+        while (budget.tryAcquireRetry()) {
+            granted++;
+        }
+
+        // Then: 50 個請求的 10% = 5 次；下一秒仍以上一秒的請求量計算
+        assertEquals(5, granted);
+        now.addAndGet(1000);
+        assertTrue(budget.tryAcquireRetry());
+        now.addAndGet(5000);
+        budget.tryAcquireRetry();
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+    }
+
+    private IdempotentRetryer retryer() {
+        return new IdempotentRetryer(properties.getRetry(), client, meterRegistry);
+    }
+
+    private static RetryableException failure(Request.HttpMethod httpMethod, String methodName) {
+        List<MethodMetadata> metadata = new SpringMvcContract().parseAndValidateMetadata(InventoryClient.class);
+        MethodMetadata method = metadata.stream()
+                .filter(m -> m.method().getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = new RequestTemplate()
+                .feignTarget(new Target.HardCodedTarget<>(InventoryClient.class, "inventory-service",
+                        "http://inventory-service"))
+                .methodMetadata(method);
+        Request request = Request.create(httpMethod, "http://inventory-service/api/v1/inventory", new HashMap<>(),
+                null, StandardCharsets.UTF_8, template);
+        return new RetryableException(-1, "Read timed out", httpMethod, (Long) null, request);
+    }
+}
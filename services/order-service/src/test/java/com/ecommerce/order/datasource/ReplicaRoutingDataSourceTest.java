@@ -0,0 +1,170 @@
+package com.ecommerce.order.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5),
+                Duration.ofSeconds(2), meterRegistry);
+
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    void determineCurrentLookupKey_ReadOnlyWithHealthyReplica_ShouldRouteToReplica() throws SQLException {
+        // Given
+        when(resultSet.getLong(1)).thenReturn(100L);
+        routingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Object key = routingDataSource.determineCurrentLookupKey();
+
+        // Then
+        assertEquals("replica-1", key);
+        assertEquals(1, meterRegistry.get("order.datasource.routing").tag("target", "replica-1").counter().count());
+    }
+
+    @Test
+    void determineCurrentLookupKey_ReadWriteTransaction_ShouldRouteToPrimary() throws SQLException {
+        // Given
+        when(resultSet.getLong(1)).thenReturn(0L);
+        routingDataSource.checkReplicas();
+
+        // When & Then
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void determineCurrentLookupKey_ReplicaLagging_ShouldFallBackToPrimary() throws SQLException {
+        // Given
+        when(resultSet.getLong(1)).thenReturn(Duration.ofSeconds(30).toMillis());
+        routingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When & Then
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertEquals(30_000, meterRegistry.get("order.datasource.replica.lag").gauge().value());
+    }
+
+    @Test
+    void determineCurrentLookupKey_ReplicaUnreachable_ShouldFallBackToPrimary() throws SQLException {
+        // Given
+        when(resultSet.getLong(1)).thenReturn(0L);
+        routingDataSource.checkReplicas();
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        routingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When & Then
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertEquals(0, meterRegistry.get("order.datasource.replica.available").gauge().value());
+    }
+
+    @Test
+    void onPrimary_ReadOnlyWithHealthyReplica_ShouldRouteToPrimaryAndRestoreContext() throws SQLException {
+        // Given: 背景重建等沒有 read-your-writes 上下文的讀取
+        when(resultSet.getLong(1)).thenReturn(0L);
+        routingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Object key = ReplicaRoutingContext.onPrimary(routingDataSource::determineCurrentLookupKey);
+
+        // Then: 結束後恢復原本的路由
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, key);
+        assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void onPrimary_PrimaryAlreadyRequired_ShouldKeepRequirementAfterwards() {
+        // Given: 請求本身已因 read-your-writes 走主庫
+        ReplicaRoutingContext.requirePrimary();
+
+        // When
+        ReplicaRoutingContext.onPrimary(() -> null);
+
+        // Then
+        assertTrue(ReplicaRoutingContext.isPrimaryRequired());
+    }
+
+    @Test
+    void determineCurrentLookupKey_RecentWrite_ShouldStickToPrimary() throws SQLException {
+        // Given
+        when(resultSet.getLong(1)).thenReturn(0L);
+        routingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
+        readYourWrites.recordWrite("7");
+
+        // When
+        if (readYourWrites.recentlyWrote("7")) {
+            ReplicaRoutingContext.requirePrimary();
+        }
+
+        // Then
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertTrue(readYourWrites.recentlyWrote("7"));
+        assertFalse(readYourWrites.recentlyWrote("8"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.order.dto;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.ecommerce.order.exception.InvalidCursorException;
+
+class OrderCursorTest {
+
+    @Test
+    void decode_EncodedCursor_ShouldRoundTrip() {
+        // Given
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456000), 42L);
+
+        // When
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_TamperedCursor_ShouldThrow() {
+        // When & Then
+        assertThrows(InvalidCursorException.class, () -> OrderCursor.decode("not-a-cursor"));
+        assertThrows(InvalidCursorException.class, () -> OrderCursor.decode("%%%"));
+    }
+}
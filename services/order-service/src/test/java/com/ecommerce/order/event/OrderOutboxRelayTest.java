@@ -0,0 +1,128 @@
+package com.ecommerce.order.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ecommerce.order.entity.OrderOutboxEvent;
+import com.ecommerce.order.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class OrderOutboxRelayTest {
+
+    @Mock
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OrderOutboxRelay(orderOutboxRepository, kafkaTemplate, new ObjectMapper(),
+                transactionManager, meterRegistry, 3, 1000);
+    }
+
+    @Test
+    void publishBatch_ShouldSendInIdOrderAndDeletePublished() {
+        // Given
+        when(orderOutboxRepository.tryAcquireRelayLock(OrderOutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        when(orderOutboxRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(
+                event(1L, "ORD1"), event(2L, "ORD2"), event(3L, "ORD1")));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(success());
+        when(orderOutboxRepository.count()).thenReturn(0L);
+
+        // When
+        boolean more = relay.publishBatch();
+
+        // Then
+        InOrder order = inOrder(kafkaTemplate);
+        order.verify(kafkaTemplate).send(eq("order.created"), eq("ORD1"), anyMap());
+        order.verify(kafkaTemplate).send(eq("order.created"), eq("ORD2"), anyMap());
+        order.verify(kafkaTemplate).send(eq("order.created"), eq("ORD1"), anyMap());
+        verify(orderOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        assertTrue(more);
+        assertEquals(3.0, meterRegistry.get("order.outbox.published.count").counter().count());
+    }
+
+    @Test
+    void publishBatch_FailedEvent_ShouldKeepLaterEventsOfSameKey() {
+        // Given
+        when(orderOutboxRepository.tryAcquireRelayLock(OrderOutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        when(orderOutboxRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(
+                event(1L, "ORD1"), event(2L, "ORD2"), event(3L, "ORD1")));
+        when(kafkaTemplate.send(anyString(), eq("ORD1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")))
+                .thenReturn(success());
+        when(kafkaTemplate.send(anyString(), eq("ORD2"), any())).thenReturn(success());
+        when(orderOutboxRepository.count()).thenReturn(2L);
+
+        // When
+        boolean more = relay.publishBatch();
+
+        // Then
+        verify(orderOutboxRepository).deleteAllByIdInBatch(List.of(2L));
+        assertFalse(more);
+        assertEquals(2.0, meterRegistry.get("order.outbox.depth").gauge().value());
+    }
+
+    @Test
+    void publishBatch_LockHeldByOtherInstance_ShouldSkip() {
+        // Given
+        when(orderOutboxRepository.tryAcquireRelayLock(OrderOutboxRelay.RELAY_LOCK_KEY)).thenReturn(false);
+
+        // When
+        boolean more = relay.publishBatch();
+
+        // Then
+        assertFalse(more);
+        verify(orderOutboxRepository, never()).findAllByOrderByIdAsc(any(Pageable.class));
+    }
+
+    private OrderOutboxEvent event(Long id, String orderNumber) {
+        return OrderOutboxEvent.builder()
+                .id(id)
+                .eventId("evt-" + id)
+                .aggregateKey(orderNumber)
+                .topic("order.created")
+                .eventType("ORDER_CREATED")
+                .payload("{\"eventId\":\"evt-" + id + "\",\"orderNumber\":\"" + orderNumber + "\"}")
+                .createdAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    private static CompletableFuture<SendResult<String, Object>> success() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.order.saga.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ecommerce.order.saga.SagaContext;
+import com.ecommerce.order.saga.SagaStep;
+import com.ecommerce.order.saga.SagaTracker;
+import com.ecommerce.order.service.OrderMetricsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DefaultSagaManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SagaTracker sagaTracker;
+    private DefaultSagaManager sagaManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sagaTracker = new SagaTracker(meterRegistry);
+        sagaManager = new DefaultSagaManager(new OrderMetricsService(meterRegistry), sagaTracker);
+    }
+
+    @Test
+    void execute_AllStepsSucceed_ShouldRecordStepTimersAndFinishTracking() {
+        // Given
+        sagaManager.addStep(new TestStep("reserve", 1, false, false));
+        sagaManager.addStep(new TestStep("create", 2, false, false));
+        SagaContext context = new SagaContext("tx-1", 7L);
+
+        // When
+        sagaManager.execute(context).join();
+
+        // Then
+        assertEquals(SagaContext.SagaStatus.COMPLETED, context.getStatus());
+        assertEquals(1, meterRegistry.get("order.saga.step").tags("step", "reserve", "action", "execute",
+                "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("order.saga.step").tags("step", "create", "action", "execute",
+                "outcome", "success").timer().count());
+        assertEquals(0, sagaTracker.size());
+    }
+
+    @Test
+    void execute_LaterStepFails_ShouldCompensateEachPriorStepOnce() {
+        // Given
+        TestStep reserve = new TestStep("reserve", 1, false, false);
+        TestStep create = new TestStep("create", 2, false, false);
+        sagaManager.addStep(reserve);
+        sagaManager.addStep(create);
+        sagaManager.addStep(new TestStep("event", 3, true, false));
+        SagaContext context = new SagaContext("tx-2", 7L);
+
+        // When & Then
+        assertThrows(CompletionException.class, () -> sagaManager.execute(context).join());
+        assertEquals(SagaContext.SagaStatus.COMPENSATED, context.getStatus());
+        assertEquals(1, reserve.compensations);
+        assertEquals(1, create.compensations);
+        assertEquals(1, meterRegistry.get("order.saga.step").tags("step", "event", "action", "execute",
+                "outcome", "failed").timer().count());
+        assertEquals(1, meterRegistry.get("order.saga.step").tags("step", "reserve", "action", "compensate",
+                "outcome", "success").timer().count());
+        assertEquals(0, sagaTracker.size());
+    }
+
+    @Test
+    void execute_CompensationFails_ShouldEndAsFailed() {
+        // Given
+        sagaManager.addStep(new TestStep("reserve", 1, false, true));
+        sagaManager.addStep(new TestStep("create", 2, true, false));
+        SagaContext context = new SagaContext("tx-3", 7L);
+
+        // When & Then
+        assertThrows(CompletionException.class, () -> sagaManager.execute(context).join());
+        assertEquals(SagaContext.SagaStatus.FAILED, context.getStatus());
+        assertEquals(1, meterRegistry.get("order.saga.step").tags("step", "reserve", "action", "compensate",
+                "outcome", "failed").timer().count());
+    }
+
+    @Test
+    void snapshot_SagaWaitingOnStep_ShouldReportCurrentStep() {
+        // Given
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        sagaManager.addStep(new TestStep("reserve", 1, false, false));
+        sagaManager.addStep(new SagaStep() {
+            @Override
+            public String getStepName() {
+                return "create";
+            }
+
+            @Override
+            public CompletableFuture<Void> execute(SagaContext context) {
+                return pending;
+            }
+
+            @Override
+            public CompletableFuture<Void> compensate(SagaContext context) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public int getOrder() {
+                return 2;
+            }
+        });
+        SagaContext context = new SagaContext("tx-4", 7L);
+
+        // When
+        CompletableFuture<Void> result = sagaManager.execute(context);
+
+        // Then
+        SagaTracker.SagaSnapshot snapshot = sagaTracker.snapshot().get(0);
+        assertEquals("tx-4", snapshot.transactionId());
+        assertEquals("create", snapshot.currentStep());
+        assertEquals(2, snapshot.stepIndex());
+        assertEquals(2, snapshot.totalSteps());
+        assertEquals(1.0, meterRegistry.get("order.saga.inflight").gauge().value());
+
+        pending.complete(null);
+        result.join();
+        assertEquals(0, sagaTracker.size());
+    }
+
+    private static final class TestStep implements SagaStep {
+
+        private final String name;
+        private final int order;
+        private final boolean failExecute;
+        private final boolean failCompensate;
+        private int compensations;
+
+        TestStep(String name, int order, boolean failExecute, boolean failCompensate) {
+            this.name = name;
+            this.order = order;
+            this.failExecute = failExecute;
+            this.failCompensate = failCompensate;
+        }
+
+        @Override
+        public String getStepName() {
+            return name;
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(SagaContext context) {
+            return failExecute
+                    ? CompletableFuture.failedFuture(new RuntimeException(name + " failed"))
+                    : CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> compensate(SagaContext context) {
+            compensations++;
+            return failCompensate
+                    ? CompletableFuture.failedFuture(new RuntimeException(name + " compensation failed"))
+                    : CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.order.saga.steps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import com.ecommerce.order.client.CartClient;
+import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.saga.SagaContext;
+
+@ExtendWith(MockitoExtension.class)
+class ClearCartStepTest {
+
+    @Mock
+    private CartClient cartClient;
+
+    private ClearCartStep step;
+
+    @BeforeEach
+    void setUp() {
+        step = new ClearCartStep(cartClient);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compensate_ClearCartRequested_ShouldRestoreAllItemsInOneBatchCall() {
+        // Given
+        SagaContext context = context(true);
+        when(cartClient.applyBatch(eq(7L), anyMap())).thenReturn(ResponseEntity.ok(Map.of("userId", 7L)));
+
+        // When
+        step.compensate(context).join();
+
+        // Then
+        ArgumentCaptor<Map<String, Object>> request = ArgumentCaptor.forClass(Map.class);
+        verify(cartClient, times(1)).applyBatch(eq(7L), request.capture());
+        List<Map<String, Object>> operations = (List<Map<String, Object>>) request.getValue().get("operations");
+        assertEquals(2, operations.size());
+        assertEquals(Map.of("type", "ADD", "productId", 1L, "quantity", 2), operations.get(0));
+        assertEquals(Map.of("type", "ADD", "productId", 3L, "quantity", 1), operations.get(1));
+        assertEquals(true, request.getValue().get("skipUnavailable"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compensate_MoreItemsThanBatchLimit_ShouldSplitIntoBatchesOf100() {
+        // Given
+        SagaContext context = context(250);
+        when(cartClient.applyBatch(eq(7L), anyMap())).thenReturn(ResponseEntity.ok(Map.of("userId", 7L)));
+
+        // When
+        step.compensate(context).join();
+
+        // Then: 依序分成 100、100、50，每個商品只送一次
+        ArgumentCaptor<Map<String, Object>> request = ArgumentCaptor.forClass(Map.class);
+        verify(cartClient, times(3)).applyBatch(eq(7L), request.capture());
+        List<Integer> sizes = new ArrayList<>();
+        List<Object> productIds = new ArrayList<>();
+        for (Map<String, Object> batch : request.getAllValues()) {
+            List<Map<String, Object>> operations = (List<Map<String, Object>>) batch.get("operations");
+            sizes.add(operations.size());
+            operations.forEach(operation -> productIds.add(operation.get("productId")));
+        }
+        assertEquals(List.of(100, 100, 50), sizes);
+        assertEquals(LongStream.rangeClosed(1, 250).boxed().toList(), productIds);
+    }
+
+    @Test
+    void compensate_BatchFails_ShouldStillRestoreRemainingBatches() {
+        // Given: 第一批遇到購物車服務降級，第二批呼叫失敗，第三批成功並略過已下架商品
+        SagaContext context = context(250);
+        when(cartClient.applyBatch(eq(7L), anyMap()))
+                .thenReturn(ResponseEntity.ok(Map.of("userId", 7L, "applied", false)))
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenReturn(ResponseEntity.ok(Map.of("userId", 7L, "skippedProductIds", List.of(249L))));
+
+        // When
+        step.compensate(context).join();
+
+        // Then
+        verify(cartClient, times(3)).applyBatch(eq(7L), anyMap());
+    }
+
+    @Test
+    void compensate_ClearCartNotRequested_ShouldNotCallCartService() {
+        // Given
+        SagaContext context = context(false);
+
+        // When
+        step.compensate(context).join();
+
+        // Then
+        verify(cartClient, never()).applyBatch(anyLong(), anyMap());
+    }
+
+    private static SagaContext context(int items) {
+        SagaContext context = new SagaContext("tx-1", 7L);
+        context.addData("orderRequest", CreateOrderRequest.builder()
+                .userId(7L)
+                .clearCart(true)
+                .orderItems(LongStream.rangeClosed(1, items)
+                        .mapToObj(productId -> CreateOrderRequest.OrderItemRequest.builder()
+                                .productId(productId)
+                                .quantity(1)
+                                .build())
+                        .toList())
+                .build());
+        return context;
+    }
+
+    private static SagaContext context(boolean clearCart) {
+        SagaContext context = new SagaContext("tx-1", 7L);
+        context.addData("orderRequest", CreateOrderRequest.builder()
+                .userId(7L)
+                .clearCart(clearCart)
+                .orderItems(List.of(
+                        CreateOrderRequest.OrderItemRequest.builder().productId(1L).quantity(2).build(),
+                        CreateOrderRequest.OrderItemRequest.builder().productId(3L).quantity(1).build()))
+                .build());
+        return context;
+    }
+}
@@ -0,0 +1,183 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ecommerce.order.datasource.ReplicaRoutingContext;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderArchiveRepository;
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import com.ecommerce.order.repository.projection.OrderRow;
+import com.ecommerce.order.service.impl.SnowflakeOrderNumberGenerator;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiveServiceTest {
+
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderArchiveService orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        orderArchiveService = new OrderArchiveService(orderArchiveRepository, transactionManager, true, 180, 3);
+    }
+
+    @Test
+    void archiveExpiredOrders_FullBatches_ShouldLoopUntilPartialBatch() {
+        // Given: 兩個滿批加一個不滿的批次
+        when(orderArchiveRepository.lockArchivableOrderIds(eq(OrderArchiveService.ARCHIVABLE_STATUSES),
+                any(LocalDateTime.class), eq(3)))
+                .thenReturn(ids(1, 3), ids(4, 6), ids(7, 7));
+        when(orderArchiveRepository.copyToArchive(any())).thenReturn(3, 3, 1);
+        when(orderArchiveRepository.deleteFromHot(any())).thenReturn(3, 3, 1);
+
+        // When
+        long archived = orderArchiveService.archiveExpiredOrders();
+
+        // Then
+        assertEquals(7, archived);
+        verify(orderArchiveRepository, times(3)).ensurePartitions(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void archiveExpiredOrders_ShouldOnlyTakeOrdersOlderThanRetention() {
+        // Given
+        when(orderArchiveRepository.lockArchivableOrderIds(any(), any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of());
+
+        // When
+        long archived = orderArchiveService.archiveExpiredOrders();
+
+        // Then
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderArchiveRepository).lockArchivableOrderIds(any(), cutoff.capture(), anyInt());
+        assertEquals(0, archived);
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusDays(179)));
+        verify(orderArchiveRepository, never()).copyToArchive(any());
+    }
+
+    @Test
+    void archiveExpiredOrders_CopyAndDeleteMismatch_ShouldRollBackBatch() {
+        // Given
+        when(orderArchiveRepository.lockArchivableOrderIds(any(), any(LocalDateTime.class), anyInt()))
+                .thenReturn(ids(1, 3));
+        when(orderArchiveRepository.copyToArchive(any())).thenReturn(3);
+        when(orderArchiveRepository.deleteFromHot(any())).thenReturn(2);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> orderArchiveService.archiveExpiredOrders());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void getArchivedOrderByNumber_SnowflakeNumber_ShouldQueryOnlyAroundCreationTime() {
+        // Given
+        String orderNumber = new SnowflakeOrderNumberGenerator(1).nextOrderNumber();
+        LocalDateTime createdAt = LocalDateTime.now();
+        when(orderArchiveRepository.findByOrderNumber(eq(orderNumber), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(row(9L, orderNumber, createdAt)));
+        when(orderArchiveRepository.findItems(eq(List.of(9L)), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new OrderItemRow(9L, 90L, 5L, "Item", "SKU", BigDecimal.ONE, 2, BigDecimal.TWO)));
+
+        // When
+        OrderResponse response = orderArchiveService.getArchivedOrderByNumber(orderNumber);
+
+        // Then
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderArchiveRepository).findByOrderNumber(eq(orderNumber), from.capture(), to.capture());
+        assertTrue(from.getValue().isBefore(createdAt) && to.getValue().isAfter(createdAt));
+        assertTrue(to.getValue().isBefore(createdAt.plusDays(2)));
+        assertEquals(1, response.getOrderItems().size());
+        assertEquals("COMPLETED", response.getStatus());
+    }
+
+    @Test
+    void getArchivedOrderByNumber_LegacyNumber_ShouldQueryWithoutRange() {
+        // Given
+        String orderNumber = "ORDER-20240101120000-0001";
+        when(orderArchiveRepository.findByOrderNumber(orderNumber, null, null)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> orderArchiveService.getArchivedOrderByNumber(orderNumber));
+        verify(orderArchiveRepository).findByOrderNumber(eq(orderNumber), isNull(), isNull());
+    }
+
+    @Test
+    void getArchivedOrderByNumber_LegacySagaNumber_ShouldQueryWithoutRange() {
+        // Given: 舊版 saga 產生的訂單號同樣以 ORD 開頭，不能當成 Snowflake 訂單號推算日期範圍
+        String orderNumber = "ORD20240101120000123";
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(orderArchiveRepository.findByOrderNumber(orderNumber, null, null))
+                .thenReturn(Optional.of(row(9L, orderNumber, createdAt)));
+        when(orderArchiveRepository.findItems(List.of(9L), null, null)).thenReturn(List.of());
+
+        // When
+        OrderResponse response = orderArchiveService.getArchivedOrderByNumber(orderNumber);
+
+        // Then
+        verify(orderArchiveRepository).findByOrderNumber(eq(orderNumber), isNull(), isNull());
+        assertEquals(orderNumber, response.getOrderNumber());
+    }
+
+    @Test
+    void getArchivedOrdersByUserId_ShouldReadFromPrimary() {
+        // Given: 訂單剛由熱表搬到封存表時，延遲的副本上兩邊都查不到
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(30);
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+        when(orderArchiveRepository.findByUserId(7L, from, to, 10)).thenAnswer(invocation -> {
+            primaryRequired.set(ReplicaRoutingContext.isPrimaryRequired());
+            return List.of();
+        });
+
+        // When
+        List<OrderResponse> orders = orderArchiveService.getArchivedOrdersByUserId(7L, from, to, 10);
+
+        // Then
+        assertTrue(orders.isEmpty());
+        assertTrue(primaryRequired.get());
+        assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static OrderRow row(Long id, String orderNumber, LocalDateTime createdAt) {
+        return new OrderRow(id, orderNumber, 7L, BigDecimal.TEN, Order.OrderStatus.COMPLETED, null, null, null,
+                createdAt, createdAt);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.ecommerce.order.dto.BulkOrderStatusRequest;
+import com.ecommerce.order.dto.BulkOrderStatusResponse;
+import com.ecommerce.order.dto.BulkOrderStatusResponse.Outcome;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.projection.OrderItemRow;
+import com.ecommerce.order.repository.projection.OrderRow;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBulkStatusServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderEventService orderEventService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderBulkStatusService orderBulkStatusService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderBulkStatusService = new OrderBulkStatusService(orderRepository, orderItemRepository, orderEventService,
+                meterRegistry);
+    }
+
+    @Test
+    void updateStatuses_MixedOrders_ShouldReportOutcomePerOrder() {
+        // Given
+        List<Long> ids = List.of(1L, 2L, 3L, 4L);
+        when(orderRepository.findRowsByIdIn(ids)).thenReturn(List.of(
+                row(1L, Order.OrderStatus.PROCESSING),
+                row(2L, Order.OrderStatus.SHIPPED),
+                row(3L, Order.OrderStatus.CANCELLED)));
+        when(orderRepository.updateStatusByIdIn(eq(List.of(1L)), eq(Order.OrderStatus.sourcesOf(Order.OrderStatus.SHIPPED)),
+                eq(Order.OrderStatus.SHIPPED), any(LocalDateTime.class))).thenReturn(1);
+        when(orderItemRepository.findRowsByOrderIdIn(List.of(1L))).thenReturn(List.of(
+                new OrderItemRow(1L, 10L, 100L, "Item", "SKU", BigDecimal.ONE, 2, BigDecimal.TWO)));
+
+        // When
+        BulkOrderStatusResponse response = orderBulkStatusService.updateStatuses(
+                new BulkOrderStatusRequest(ids, Order.OrderStatus.SHIPPED));
+
+        // Then
+        assertEquals(List.of(Outcome.UPDATED, Outcome.UNCHANGED, Outcome.INVALID_TRANSITION, Outcome.NOT_FOUND),
+                response.getResults().stream().map(BulkOrderStatusResponse.OrderStatusResult::getOutcome).toList());
+        assertEquals(1, response.getUpdatedCount());
+        assertEquals(1, response.getUnchangedCount());
+        assertEquals(2, response.getRejectedCount());
+        verify(orderRepository).lockByIdIn(ids);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderResponse>> events = ArgumentCaptor.forClass(List.class);
+        verify(orderEventService).sendOrderStatusUpdatedEvents(events.capture(),
+                eq(Map.of(1L, Order.OrderStatus.PROCESSING)));
+        assertEquals("SHIPPED", events.getValue().get(0).getStatus());
+        assertEquals(1, events.getValue().get(0).getOrderItems().size());
+        assertEquals(1, meterRegistry.get("order.status.bulk.throughput").summary().count());
+    }
+
+    @Test
+    void updateStatuses_LargeRequest_ShouldProcessInChunks() {
+        // Given
+        int total = OrderBulkStatusService.CHUNK_SIZE + 5;
+        List<Long> ids = LongStream.rangeClosed(1, total).boxed().toList();
+        when(orderRepository.findRowsByIdIn(anyList())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            return chunk.stream().map(id -> row(id, Order.OrderStatus.PAID)).toList();
+        });
+        when(orderRepository.updateStatusByIdIn(anyList(), any(), eq(Order.OrderStatus.PROCESSING), any()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // When
+        BulkOrderStatusResponse response = orderBulkStatusService.updateStatuses(
+                new BulkOrderStatusRequest(ids, Order.OrderStatus.PROCESSING));
+
+        // Then
+        assertEquals(total, response.getUpdatedCount());
+        verify(orderRepository, times(2)).lockByIdIn(anyList());
+        verify(orderRepository, times(2)).updateStatusByIdIn(anyList(), any(), any(), any());
+        verify(orderEventService, times(2)).sendOrderStatusUpdatedEvents(anyList(), anyMap());
+    }
+
+    @Test
+    void updateStatuses_AllUnchanged_ShouldNotUpdateOrEmitEvents() {
+        // Given
+        when(orderRepository.findRowsByIdIn(List.of(1L))).thenReturn(List.of(row(1L, Order.OrderStatus.SHIPPED)));
+
+        // When
+        BulkOrderStatusResponse response = orderBulkStatusService.updateStatuses(
+                new BulkOrderStatusRequest(List.of(1L, 1L), Order.OrderStatus.SHIPPED));
+
+        // Then
+        assertEquals(1, response.getRequestedCount());
+        assertEquals(1, response.getUnchangedCount());
+        verify(orderRepository, never()).updateStatusByIdIn(any(), any(), any(), any());
+        verify(orderEventService, never()).sendOrderStatusUpdatedEvents(anyList(), anyMap());
+    }
+
+    @Test
+    void updateStatuses_UpdateCountMismatch_ShouldFail() {
+        // Given
+        when(orderRepository.findRowsByIdIn(List.of(1L))).thenReturn(List.of(row(1L, Order.OrderStatus.PENDING)));
+        when(orderRepository.updateStatusByIdIn(any(), any(), any(), any())).thenReturn(0);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> orderBulkStatusService.updateStatuses(
+                new BulkOrderStatusRequest(List.of(1L), Order.OrderStatus.PAID)));
+        verify(orderEventService, never()).sendOrderStatusUpdatedEvents(anyList(), anyMap());
+    }
+
+    @Test
+    void orderStatus_StateMachine_ShouldOnlyAllowForwardTransitions() {
+        assertTrue(Order.OrderStatus.PROCESSING.canTransitionTo(Order.OrderStatus.SHIPPED));
+        assertFalse(Order.OrderStatus.SHIPPED.canTransitionTo(Order.OrderStatus.PENDING));
+        assertFalse(Order.OrderStatus.CANCELLED.canTransitionTo(Order.OrderStatus.PAID));
+        assertTrue(Order.OrderStatus.PAID.canTransitionTo(Order.OrderStatus.SHIPPED));
+        assertEquals(Set.of(Order.OrderStatus.PAID, Order.OrderStatus.PROCESSING),
+                Order.OrderStatus.sourcesOf(Order.OrderStatus.SHIPPED));
+    }
+
+    private static OrderRow row(Long id, Order.OrderStatus status) {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        return new OrderRow(id, "ORD" + id, 7L, BigDecimal.TEN, status, null, null, null, createdAt, createdAt);
+    }
+}
@@ -0,0 +1,191 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.exception.IdempotencyKeyReuseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIdempotencyServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ObjectMapper objectMapper;
+    private OrderIdempotencyService idempotencyService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        idempotencyService = new OrderIdempotencyService(redisTemplate, objectMapper, 24, 120, 5);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_ShouldRunActionOnce() throws Exception {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        CreateOrderRequest request = buildRequest(BigDecimal.TEN);
+
+        // When
+        List<Future<OrderResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> idempotencyService.execute("key-1", request, () -> {
+                executions.incrementAndGet();
+                await(release);
+                return OrderResponse.builder().id(1L).orderNumber("ORD-1").build();
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        // Then
+        for (Future<OrderResponse> future : futures) {
+            assertEquals("ORD-1", future.get(5, TimeUnit.SECONDS).getOrderNumber());
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_CompletedRecordInStore_ShouldReplayWithoutRunning() throws Exception {
+        // Given
+        CreateOrderRequest request = buildRequest(BigDecimal.TEN);
+        OrderIdempotencyService.IdempotencyRecord stored = OrderIdempotencyService.IdempotencyRecord.completed(
+                fingerprintOf(request), OrderResponse.builder().id(7L).orderNumber("ORD-7").build());
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("order:idempotency:1:key-2")).thenReturn(objectMapper.writeValueAsString(stored));
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        OrderResponse response = idempotencyService.execute("key-2", request, () -> {
+            executions.incrementAndGet();
+            return OrderResponse.builder().build();
+        });
+
+        // Then
+        assertEquals("ORD-7", response.getOrderNumber());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_SameKeyDifferentPayload_ShouldThrow() throws Exception {
+        // Given
+        OrderIdempotencyService.IdempotencyRecord stored = OrderIdempotencyService.IdempotencyRecord.inProgress(
+                fingerprintOf(buildRequest(BigDecimal.ONE)));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("order:idempotency:1:key-3")).thenReturn(objectMapper.writeValueAsString(stored));
+
+        // When & Then
+        assertThrows(IdempotencyKeyReuseException.class, () ->
+                idempotencyService.execute("key-3", buildRequest(BigDecimal.TEN), () -> OrderResponse.builder().build()));
+    }
+
+    @Test
+    void execute_ActionFails_ShouldReleaseMarker() {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        // When & Then
+        assertThrows(RuntimeException.class, () ->
+                idempotencyService.execute("key-4", buildRequest(BigDecimal.TEN), () -> {
+                    throw new RuntimeException("Inventory reservation failed");
+                }));
+        verify(redisTemplate).delete("order:idempotency:1:key-4");
+        verify(valueOperations, never()).set(eq("order:idempotency:1:key-4"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void execute_ReadFailsWhileWaiting_ShouldRetryAndReplay() throws Exception {
+        // Given
+        CreateOrderRequest request = buildRequest(BigDecimal.TEN);
+        OrderIdempotencyService.IdempotencyRecord stored = OrderIdempotencyService.IdempotencyRecord.completed(
+                fingerprintOf(request), OrderResponse.builder().id(8L).orderNumber("ORD-8").build());
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("order:idempotency:1:key-5"))
+                .thenThrow(new RedisConnectionFailureException("Connection reset"))
+                .thenReturn(objectMapper.writeValueAsString(stored));
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        OrderResponse response = idempotencyService.execute("key-5", request, () -> {
+            executions.incrementAndGet();
+            return OrderResponse.builder().build();
+        });
+
+        // Then
+        assertEquals("ORD-8", response.getOrderNumber());
+        assertEquals(0, executions.get());
+    }
+
+    private CreateOrderRequest buildRequest(BigDecimal unitPrice) {
+        return CreateOrderRequest.builder()
+                .userId(1L)
+                .shippingAddress("Taipei")
+                .orderItems(List.of(CreateOrderRequest.OrderItemRequest.builder()
+                        .productId(100L)
+                        .productName("Keyboard")
+                        .unitPrice(unitPrice)
+                        .quantity(1)
+                        .build()))
+                .build();
+    }
+
+    private String fingerprintOf(CreateOrderRequest request) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.projection.OrderRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 以真實 Redis 驗證讀模型腳本：事件的 lastEventAt 比較，以及重建期間套用的事件不被 RENAME 覆蓋
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderSummaryRedisIntegrationTest {
+
+    private static final String KEY = "order:summary:7";
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private OrderRepository orderRepository;
+    private OrderSummaryService orderSummaryService;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(KEY);
+        orderRepository = mock(OrderRepository.class);
+        OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+        when(orderItemRepository.countByOrderIdIn(anyList())).thenReturn(List.of());
+        orderSummaryService = new OrderSummaryService(redisTemplate, objectMapper, orderRepository,
+                orderItemRepository, mock(PlatformTransactionManager.class), 300, 7, 200);
+    }
+
+    @Test
+    void apply_OutOfOrderEvents_ShouldKeepNewestStatus() throws Exception {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.now().minusHours(1);
+        when(orderRepository.findFirstRowsByUserId(eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(row(Order.OrderStatus.PENDING, updatedAt)));
+        orderSummaryService.rebuildUser(7L);
+
+        // When
+        orderSummaryService.apply(7L, event("SHIPPED", epochMillis(updatedAt) + 2_000));
+        orderSummaryService.apply(7L, event("PAID", epochMillis(updatedAt) + 1_000));
+
+        // Then
+        OrderSummary stored = stored();
+        assertEquals("SHIPPED", stored.getStatus());
+        assertEquals(0, BigDecimal.TEN.compareTo(stored.getTotalAmount()));
+    }
+
+    @Test
+    void apply_ReadModelNotBuilt_ShouldNotCreateKey() {
+        // When
+        orderSummaryService.apply(7L, event("PAID", System.currentTimeMillis()));
+
+        // Then
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(KEY)));
+    }
+
+    @Test
+    void rebuildUser_EventAppliedDuringRebuild_ShouldNotBeLost() throws Exception {
+        // Given: 讀模型已建立，重建讀取資料庫時另一個事件已寫入現有文件
+        LocalDateTime updatedAt = LocalDateTime.now().minusHours(1);
+        when(orderRepository.findFirstRowsByUserId(eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(row(Order.OrderStatus.PENDING, updatedAt)));
+        orderSummaryService.rebuildUser(7L);
+        when(orderRepository.findFirstRowsByUserId(eq(7L), any(Pageable.class))).thenAnswer(invocation -> {
+            orderSummaryService.apply(7L, event("PAID", System.currentTimeMillis()));
+            return List.of(row(Order.OrderStatus.PENDING, updatedAt));
+        });
+
+        // When
+        orderSummaryService.rebuildUser(7L);
+
+        // Then
+        assertEquals("PAID", stored().getStatus());
+    }
+
+    private OrderSummary stored() throws Exception {
+        Object json = redisTemplate.opsForHash().get(KEY, "5");
+        return objectMapper.readValue(json.toString(), OrderSummary.class);
+    }
+
+    private static OrderRow row(Order.OrderStatus status, LocalDateTime updatedAt) {
+        return new OrderRow(5L, "ORD5", 7L, BigDecimal.TEN, status, null, null, null,
+                updatedAt.minusHours(1), updatedAt);
+    }
+
+    private static OrderSummary event(String status, long lastEventAt) {
+        return OrderSummary.builder().orderId(5L).orderNumber("ORD5").status(status).lastEventAt(lastEventAt).build();
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,246 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ecommerce.order.datasource.ReplicaRoutingContext;
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.dto.UserOrderSummaryResponse;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.projection.OrderItemCount;
+import com.ecommerce.order.repository.projection.OrderRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSummaryServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ObjectMapper objectMapper;
+    private OrderSummaryService orderSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        orderSummaryService = new OrderSummaryService(redisTemplate, objectMapper, orderRepository,
+                orderItemRepository, transactionManager, 300, 7, 200);
+    }
+
+    @Test
+    void getUserSummary_FreshReadModel_ShouldServeFromRedisOnly() throws Exception {
+        // Given
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put(OrderSummaryService.META_FIELD, Long.toString(System.currentTimeMillis()));
+        entries.put("1", objectMapper.writeValueAsString(summary(1L, LocalDateTime.now().minusDays(2), 10)));
+        entries.put("2", objectMapper.writeValueAsString(summary(2L, LocalDateTime.now().minusDays(1), 20)));
+        when(hashOperations.entries("order:summary:7")).thenReturn(entries);
+
+        // When
+        UserOrderSummaryResponse response = orderSummaryService.getUserSummary(7L);
+
+        // Then
+        assertEquals(2, response.getOrderCount());
+        assertEquals(2L, response.getOrders().get(0).getOrderId());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getUserSummary_StaleReadModel_ShouldServeStoredAndRebuildInBackground() throws Exception {
+        // Given
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put(OrderSummaryService.META_FIELD, Long.toString(System.currentTimeMillis() - 301_000));
+        entries.put("1", objectMapper.writeValueAsString(summary(1L, LocalDateTime.now().minusDays(2), 10)));
+        when(hashOperations.entries("order:summary:7")).thenReturn(entries);
+        when(orderRepository.findFirstRowsByUserId(eq(7L), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        UserOrderSummaryResponse response = orderSummaryService.getUserSummary(7L);
+
+        // Then
+        assertEquals(1, response.getOrderCount());
+        assertEquals("PENDING", response.getOrders().get(0).getStatus());
+        verify(redisTemplate, timeout(2000)).execute(any(RedisScript.class),
+                eq(List.of("order:summary:7", "order:summary:7:rebuild")), any(Object[].class));
+    }
+
+    @Test
+    void getUserSummary_StaleReadModel_ShouldRebuildFromPrimary() {
+        // Given: 背景重建沒有 read-your-writes 上下文，仍需讀主庫，避免漏掉快照前剛寫入、尚未複製到副本的訂單
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put(OrderSummaryService.META_FIELD, Long.toString(System.currentTimeMillis() - 301_000));
+        when(hashOperations.entries("order:summary:7")).thenReturn(entries);
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+        when(orderRepository.findFirstRowsByUserId(eq(7L), any(Pageable.class))).thenAnswer(invocation -> {
+            primaryRequired.set(ReplicaRoutingContext.isPrimaryRequired());
+            return List.of();
+        });
+
+        // When
+        orderSummaryService.getUserSummary(7L);
+
+        // Then
+        verify(redisTemplate, timeout(2000)).execute(any(RedisScript.class),
+                eq(List.of("order:summary:7", "order:summary:7:rebuild")), any(Object[].class));
+        assertTrue(primaryRequired.get());
+        assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+    }
+
+    @Test
+    void getUserSummary_MissingReadModel_ShouldRebuildFromDatabase() {
+        // Given
+        when(hashOperations.entries("order:summary:7")).thenReturn(new HashMap<>());
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        when(orderRepository.findFirstRowsByUserId(eq(7L), any(Pageable.class))).thenReturn(List.of(
+                new OrderRow(5L, "ORD5", 7L, BigDecimal.TEN, Order.OrderStatus.PAID, null, null, null,
+                        createdAt, createdAt)));
+        when(orderItemRepository.countByOrderIdIn(List.of(5L))).thenReturn(List.of(new OrderItemCount(5L, 3L)));
+
+        // When
+        UserOrderSummaryResponse response = orderSummaryService.getUserSummary(7L);
+
+        // Then
+        assertEquals(1, response.getOrderCount());
+        assertEquals("PAID", response.getOrders().get(0).getStatus());
+        assertEquals(3, response.getOrders().get(0).getItemCount());
+        verify(hashOperations).putAll(eq("order:summary:7:rebuild"), anyMap());
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("order:summary:7", "order:summary:7:rebuild")), any(Object[].class));
+    }
+
+    @Test
+    void apply_StatusEvent_ShouldMergeIntoExistingDocument() throws Exception {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        OrderSummary existing = summary(1L, createdAt, 10);
+        existing.setLastEventAt(1_000);
+        String existingJson = objectMapper.writeValueAsString(existing);
+        when(hashOperations.get("order:summary:7", "1")).thenReturn(existingJson);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("order:summary:7")), any(Object[].class)))
+                .thenReturn(1L);
+
+        // When
+        orderSummaryService.apply(7L, OrderSummary.builder().orderId(1L).status("SHIPPED").lastEventAt(2_000).build());
+
+        // Then
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("order:summary:7")), args.capture());
+        OrderSummary merged = objectMapper.readValue(args.getValue()[1].toString(), OrderSummary.class);
+        assertEquals("SHIPPED", merged.getStatus());
+        assertEquals(3, merged.getItemCount());
+        assertEquals(createdAt, merged.getCreatedAt());
+        assertEquals("2000", args.getValue()[2]);
+        assertEquals(existingJson, args.getValue()[3]);
+    }
+
+    @Test
+    void apply_ConcurrentWrite_ShouldRemergeOntoLatestDocument() throws Exception {
+        // Given: 第一次寫入時文件已被另一個事件更新
+        OrderSummary first = summary(1L, LocalDateTime.now(), 10);
+        first.setLastEventAt(1_000);
+        OrderSummary second = summary(1L, LocalDateTime.now(), 10);
+        second.setStatus("PAID");
+        second.setTotalAmount(BigDecimal.valueOf(12));
+        second.setLastEventAt(1_500);
+        when(hashOperations.get("order:summary:7", "1")).thenReturn(
+                objectMapper.writeValueAsString(first), objectMapper.writeValueAsString(second));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("order:summary:7")), any(Object[].class)))
+                .thenReturn(-1L, 1L);
+
+        // When
+        orderSummaryService.apply(7L, OrderSummary.builder().orderId(1L).status("SHIPPED").lastEventAt(2_000).build());
+
+        // Then
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(List.of("order:summary:7")),
+                args.capture());
+        OrderSummary merged = objectMapper.readValue(args.getAllValues().get(1)[1].toString(), OrderSummary.class);
+        assertEquals("SHIPPED", merged.getStatus());
+        assertEquals(0, BigDecimal.valueOf(12).compareTo(merged.getTotalAmount()));
+    }
+
+    @Test
+    void apply_OutOfOrderEvent_ShouldBeIgnored() throws Exception {
+        // Given
+        OrderSummary existing = summary(1L, LocalDateTime.now(), 10);
+        existing.setLastEventAt(5_000);
+        when(hashOperations.get("order:summary:7", "1")).thenReturn(objectMapper.writeValueAsString(existing));
+
+        // When
+        orderSummaryService.apply(7L, OrderSummary.builder().orderId(1L).status("PAID").lastEventAt(4_000).build());
+
+        // Then
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void apply_ReadModelNotBuilt_ShouldSkipWithoutRetry() {
+        // Given: 腳本在讀模型不存在時回傳 0
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("order:summary:7")), any(Object[].class)))
+                .thenReturn(0L);
+
+        // When
+        orderSummaryService.apply(7L, OrderSummary.builder().orderId(1L).status("PAID").lastEventAt(1).build());
+
+        // Then
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(hashOperations, never()).put(anyString(), any(), any());
+    }
+
+    private OrderSummary summary(Long orderId, LocalDateTime createdAt, int amount) {
+        return OrderSummary.builder()
+                .orderId(orderId)
+                .orderNumber("ORD" + orderId)
+                .status("PENDING")
+                .totalAmount(BigDecimal.valueOf(amount))
+                .itemCount(3)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyList;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import com.ecommerce.events.ProductEvent;
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.CreateOrderRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceCacheTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductPriceCache productPriceCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productPriceCache = new ProductPriceCache(productClient, meterRegistry, 600, 1000);
+    }
+
+    @Test
+    void applyCurrentPrices_ShouldUseServerPricesLoadedInOneCall() {
+        // Given
+        when(productClient.getProductsByIds(List.of(1L, 2L))).thenReturn(ResponseEntity.ok(List.of(
+                product(1L, "99.90", "ACTIVE"),
+                product(2L, "10.00", "ACTIVE"))));
+        List<CreateOrderRequest.OrderItemRequest> items = List.of(item(1L, "0.01"), item(2L, "10.00"), item(1L, "1"));
+
+        // When
+        productPriceCache.applyCurrentPrices(items);
+
+        // Then
+        assertEquals(new BigDecimal("99.90"), items.get(0).getUnitPrice());
+        assertEquals("Product 1", items.get(0).getProductName());
+        assertEquals("SKU-1", items.get(0).getProductSku());
+        assertEquals(new BigDecimal("99.90"), items.get(2).getUnitPrice());
+        verify(productClient, times(1)).getProductsByIds(anyList());
+    }
+
+    @Test
+    void applyCurrentPrices_CachedProducts_ShouldSkipRemoteCall() {
+        // Given
+        when(productClient.getProductsByIds(List.of(1L))).thenReturn(ResponseEntity.ok(List.of(
+                product(1L, "99.90", "ACTIVE"))));
+        productPriceCache.applyCurrentPrices(List.of(item(1L, "99.90")));
+
+        // When
+        productPriceCache.applyCurrentPrices(List.of(item(1L, "99.90")));
+
+        // Then
+        verify(productClient, times(1)).getProductsByIds(anyList());
+        assertEquals(1, meterRegistry.get("order.product.cache.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void apply_ProductUpdatedEvent_ShouldRefreshPriceWithoutRemoteCall() {
+        // Given
+        ProductEvent event = new ProductEvent("PRODUCT_UPDATED", 3L, "Product 3", new BigDecimal("5.50"));
+        event.setStatus("ACTIVE");
+        productPriceCache.apply(event);
+        CreateOrderRequest.OrderItemRequest item = item(3L, "4.00");
+
+        // When
+        productPriceCache.applyCurrentPrices(List.of(item));
+
+        // Then
+        assertEquals(new BigDecimal("5.50"), item.getUnitPrice());
+        verify(productClient, never()).getProductsByIds(anyList());
+    }
+
+    @Test
+    void apply_ProductDeletedEvent_ShouldEvictAndReload() {
+        // Given
+        ProductEvent updated = new ProductEvent("PRODUCT_UPDATED", 4L, "Product 4", BigDecimal.ONE);
+        productPriceCache.apply(updated);
+        productPriceCache.apply(new ProductEvent("PRODUCT_DELETED", 4L, null, null));
+        when(productClient.getProductsByIds(List.of(4L))).thenReturn(ResponseEntity.ok(List.of()));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> productPriceCache.applyCurrentPrices(List.of(item(4L, "1"))));
+        verify(productClient).getProductsByIds(List.of(4L));
+    }
+
+    @Test
+    void getProducts_EventDuringLoad_ShouldSkipCachingOnlyTouchedProduct() {
+        // Given: 載入期間收到商品 6 的價格變更
+        when(productClient.getProductsByIds(List.of(6L, 7L))).thenAnswer(invocation -> {
+            productPriceCache.apply(new ProductEvent("PRODUCT_UPDATED", 8L, "Product 8", BigDecimal.ONE));
+            productPriceCache.apply(new ProductEvent("PRODUCT_DELETED", 6L, null, null));
+            return ResponseEntity.ok(List.of(product(6L, "10.00", "ACTIVE"), product(7L, "20.00", "ACTIVE")));
+        });
+        when(productClient.getProductsByIds(List.of(6L))).thenReturn(ResponseEntity.ok(List.of(
+                product(6L, "12.00", "ACTIVE"))));
+
+        // When
+        productPriceCache.getProducts(List.of(6L, 7L));
+        Map<Long, ProductPriceCache.ProductPrice> products = productPriceCache.getProducts(List.of(6L, 7L, 8L));
+
+        // Then: 只有商品 6 需要重新載入
+        assertEquals(new BigDecimal("12.00"), products.get(6L).price());
+        assertEquals(new BigDecimal("20.00"), products.get(7L).price());
+        assertEquals(BigDecimal.ONE, products.get(8L).price());
+        verify(productClient).getProductsByIds(List.of(6L));
+    }
+
+    @Test
+    void applyCurrentPrices_InactiveProduct_ShouldReject() {
+        // Given
+        when(productClient.getProductsByIds(List.of(5L))).thenReturn(ResponseEntity.ok(List.of(
+                product(5L, "20.00", "DISCONTINUED"))));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> productPriceCache.applyCurrentPrices(List.of(item(5L, "20.00"))));
+    }
+
+    private static Map<String, Object> product(Long id, String price, String status) {
+        return Map.of("id", id, "name", "Product " + id, "sku", "SKU-" + id, "price", price, "status", status);
+    }
+
+    private static CreateOrderRequest.OrderItemRequest item(Long productId, String unitPrice) {
+        return CreateOrderRequest.OrderItemRequest.builder()
+                .productId(productId)
+                .productName("client name")
+                .unitPrice(new BigDecimal(unitPrice))
+                .quantity(1)
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.ecommerce.order.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import com.ecommerce.order.client.UserClient;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceCacheTest {
+
+    @Mock
+    private UserClient userClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserExistenceCache userExistenceCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userExistenceCache = new UserExistenceCache(userClient, meterRegistry, true, 300, 30, 1000);
+    }
+
+    @Test
+    void isActiveUser_RepeatCustomer_ShouldSkipRemoteCall() {
+        // Given
+        when(userClient.getUserById(1L)).thenReturn(user("ACTIVE"));
+
+        // When
+        boolean first = userExistenceCache.isActiveUser(1L);
+        boolean second = userExistenceCache.isActiveUser(1L);
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        verify(userClient, times(1)).getUserById(1L);
+        assertEquals(1, meterRegistry.get("order.user.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("order.user.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void isActiveUser_UnknownUser_ShouldCacheNegativeResult() {
+        // Given
+        when(userClient.getUserById(2L)).thenThrow(notFound());
+
+        // When
+        boolean first = userExistenceCache.isActiveUser(2L);
+        boolean second = userExistenceCache.isActiveUser(2L);
+
+        // Then
+        assertFalse(first);
+        assertFalse(second);
+        verify(userClient, times(1)).getUserById(2L);
+        assertEquals(1, meterRegistry.get("order.user.cache.requests")
+                .tag("result", "negative_hit").counter().count());
+    }
+
+    @Test
+    void isActiveUser_ExpiredNegativeEntry_ShouldLookUpAgain() {
+        // Given
+        userExistenceCache = new UserExistenceCache(userClient, meterRegistry, true, 300, 0, 1000);
+        when(userClient.getUserById(2L)).thenThrow(notFound()).thenReturn(user("ACTIVE"));
+
+        // When
+        boolean first = userExistenceCache.isActiveUser(2L);
+        boolean second = userExistenceCache.isActiveUser(2L);
+
+        // Then
+        assertFalse(first);
+        assertTrue(second);
+        verify(userClient, times(2)).getUserById(2L);
+    }
+
+    @Test
+    void invalidate_ProfileUpdated_ShouldLookUpAgain() {
+        // Given
+        when(userClient.getUserById(3L)).thenReturn(user("ACTIVE"), user("SUSPENDED"));
+        userExistenceCache.isActiveUser(3L);
+
+        // When
+        userExistenceCache.invalidate(3L);
+
+        // Then
+        assertFalse(userExistenceCache.isActiveUser(3L));
+        verify(userClient, times(2)).getUserById(3L);
+    }
+
+    @Test
+    void markInactive_Deactivated_ShouldRejectWithoutRemoteCall() {
+        // When
+        userExistenceCache.markInactive(4L);
+
+        // Then
+        assertFalse(userExistenceCache.isActiveUser(4L));
+        verify(userClient, never()).getUserById(4L);
+    }
+
+    @Test
+    void isActiveUser_RemoteFailure_ShouldPropagateAndNotCache() {
+        // Given
+        when(userClient.getUserById(5L)).thenThrow(new RuntimeException("user-service unavailable"))
+                .thenReturn(user("ACTIVE"));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> userExistenceCache.isActiveUser(5L));
+        assertTrue(userExistenceCache.isActiveUser(5L));
+        assertEquals(1, userExistenceCache.size());
+    }
+
+    @Test
+    void isActiveUser_OtherUserInvalidatedDuringLookup_ShouldStillCache() {
+        // Given: 查詢用戶 6 期間收到用戶 7 的失效事件
+        when(userClient.getUserById(6L)).thenAnswer(invocation -> {
+            userExistenceCache.invalidate(7L);
+            return user("ACTIVE");
+        });
+
+        // When
+        userExistenceCache.isActiveUser(6L);
+        boolean cached = userExistenceCache.isActiveUser(6L);
+
+        // Then
+        assertTrue(cached);
+        verify(userClient, times(1)).getUserById(6L);
+        assertEquals(1, userExistenceCache.size());
+    }
+
+    @Test
+    void isActiveUser_SameUserInvalidatedDuringLookup_ShouldNotCache() {
+        // Given: 查詢用戶 8 期間收到同一用戶的失效事件，查到的可能是舊狀態
+        when(userClient.getUserById(8L)).thenAnswer(invocation -> {
+            userExistenceCache.invalidate(8L);
+            return user("ACTIVE");
+        }).thenReturn(user("SUSPENDED"));
+
+        // When
+        boolean first = userExistenceCache.isActiveUser(8L);
+        boolean second = userExistenceCache.isActiveUser(8L);
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        verify(userClient, times(2)).getUserById(8L);
+    }
+
+    private static ResponseEntity<Map<String, Object>> user(String status) {
+        return ResponseEntity.ok(Map.of("success", true, "data", Map.of("id", 1, "status", status)));
+    }
+
+    private static FeignException notFound() {
+        Request request = Request.create(Request.HttpMethod.GET, "http://user-service/api/v1/users/2", Map.of(),
+                null, StandardCharsets.UTF_8, null);
+        return new FeignException.NotFound("User not found", request, null, null);
+    }
+}
@@ -0,0 +1,239 @@
+package com.ecommerce.order.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ecommerce.order.client.CartClient;
+import com.ecommerce.order.client.InventoryClient;
+import com.ecommerce.order.dto.OrderPageResponse;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.saga.service.OrderSagaService;
+import com.ecommerce.order.service.OrderEventService;
+import com.ecommerce.order.service.OrderMetricsService;
+import com.ecommerce.order.service.OrderNumberGenerator;
+import com.ecommerce.order.service.ProductPriceCache;
+import com.ecommerce.order.service.UserExistenceCache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 讀取路徑查詢次數測試：訂單數量增加時，每個讀取端點的 SQL 次數必須保持不變
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderServiceImpl.class)
+@Testcontainers(disabledWithoutDocker = true)
+class OrderReadQueryCountTest {
+
+    private static final int ORDER_COUNT = 6;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @MockBean
+    private OrderEventService orderEventService;
+
+    @MockBean
+    private OrderSagaService orderSagaService;
+
+    @MockBean
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @MockBean
+    private OrderMetricsService orderMetricsService;
+
+    @MockBean
+    private InventoryClient inventoryClient;
+
+    @MockBean
+    private CartClient cartClient;
+
+    @MockBean
+    private UserExistenceCache userExistenceCache;
+
+    @MockBean
+    private ProductPriceCache productPriceCache;
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Order> orders;
+
+    @BeforeEach
+    void setUp() {
+        orders = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Order order = buildOrder(i);
+            entityManager.persist(order);
+            orders.add(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getOrderById_ShouldUseTwoQueries() {
+        // When
+        OrderResponse response = orderService.getOrderById(orders.get(0).getId());
+
+        // Then
+        assertEquals(ITEMS_PER_ORDER, response.getOrderItems().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrderByNumber_ShouldUseTwoQueries() {
+        // When
+        OrderResponse response = orderService.getOrderByNumber(orders.get(0).getOrderNumber());
+
+        // Then
+        assertEquals(ITEMS_PER_ORDER, response.getOrderItems().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrdersByUserId_ShouldNotIssueQueryPerOrder() {
+        // When
+        OrderPageResponse page = orderService.getOrdersByUserId(1L, null, ORDER_COUNT);
+
+        // Then
+        assertEquals(ORDER_COUNT, page.getOrders().size());
+        assertFalse(page.isHasMore());
+        page.getOrders().forEach(response -> assertEquals(ITEMS_PER_ORDER, response.getOrderItems().size()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrdersByUserId_WithCursor_ShouldContinueAfterLastRow() {
+        // Given
+        OrderPageResponse first = orderService.getOrdersByUserId(1L, null, ORDER_COUNT / 2);
+        statistics.clear();
+
+        // When
+        OrderPageResponse second = orderService.getOrdersByUserId(1L, first.getNextCursor(), ORDER_COUNT / 2);
+
+        // Then
+        assertTrue(first.isHasMore());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+        Set<Long> ids = new HashSet<>();
+        first.getOrders().forEach(order -> ids.add(order.getId()));
+        second.getOrders().forEach(order -> ids.add(order.getId()));
+        assertEquals(ORDER_COUNT, ids.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrdersByUserIdPaged_ShouldNotIssueQueryPerOrder() {
+        // When
+        Page<OrderResponse> page = orderService.getOrdersByUserId(1L,
+                PageRequest.of(0, ORDER_COUNT / 2, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        // Then
+        assertEquals(ORDER_COUNT / 2, page.getContent().size());
+        assertEquals(ORDER_COUNT, page.getTotalElements());
+        page.getContent().forEach(response -> assertEquals(ITEMS_PER_ORDER, response.getOrderItems().size()));
+        // 頁面資料 + COUNT + 明細
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrdersByStatus_ShouldNotIssueQueryPerOrder() {
+        // When
+        OrderPageResponse page = orderService.getOrdersByStatus(Order.OrderStatus.PENDING, null, ORDER_COUNT);
+
+        // Then
+        assertEquals(ORDER_COUNT, page.getOrders().size());
+        page.getOrders().forEach(response -> assertEquals(ITEMS_PER_ORDER, response.getOrderItems().size()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exportOrders_ShouldStreamInCreationOrder() {
+        // Given
+        List<OrderResponse> exported = new ArrayList<>();
+
+        // When
+        long count = orderService.exportOrders(null, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1),
+                exported::add);
+
+        // Then
+        assertEquals(ORDER_COUNT, count);
+        assertEquals(orders.get(0).getId(), exported.get(0).getId());
+        exported.forEach(response -> assertEquals(ITEMS_PER_ORDER, response.getOrderItems().size()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private Order buildOrder(int index) {
+        Order order = Order.builder()
+                .orderNumber("ORD-QC-" + index)
+                .userId(1L)
+                .totalAmount(BigDecimal.valueOf(30))
+                .status(Order.OrderStatus.PENDING)
+                .shippingAddress("Taipei")
+                .build();
+
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            order.getOrderItems().add(OrderItem.builder()
+                    .order(order)
+                    .productId((long) i + 1)
+                    .productName("Product " + i)
+                    .unitPrice(BigDecimal.TEN)
+                    .quantity(1)
+                    .subtotal(BigDecimal.TEN)
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.order.service.impl;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.ecommerce.order.client.CartClient;
+import com.ecommerce.order.client.InventoryClient;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.exception.InvalidStatusTransitionException;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.saga.service.OrderSagaService;
+import com.ecommerce.order.service.OrderEventService;
+import com.ecommerce.order.service.OrderMetricsService;
+import com.ecommerce.order.service.OrderNumberGenerator;
+import com.ecommerce.order.service.ProductPriceCache;
+import com.ecommerce.order.service.UserExistenceCache;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderEventService orderEventService;
+
+    @Mock
+    private OrderSagaService orderSagaService;
+
+    @Mock
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Mock
+    private OrderMetricsService metricsService;
+
+    @Mock
+    private InventoryClient inventoryClient;
+
+    @Mock
+    private CartClient cartClient;
+
+    @Mock
+    private UserExistenceCache userExistenceCache;
+
+    @Mock
+    private ProductPriceCache productPriceCache;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void updateOrderStatus_AllowedTransition_ShouldSaveAndSendEvent() {
+        // Given
+        Order order = order(Order.OrderStatus.PAID);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        // When
+        OrderResponse response = orderService.updateOrderStatus(1L, Order.OrderStatus.SHIPPED);
+
+        // Then
+        assertEquals("SHIPPED", response.getStatus());
+        verify(orderEventService).sendOrderStatusUpdatedEvent(order, Order.OrderStatus.PAID, Order.OrderStatus.SHIPPED);
+    }
+
+    @Test
+    void updateOrderStatus_TransitionNotAllowed_ShouldThrowWithoutSaving() {
+        // Given
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order(Order.OrderStatus.SHIPPED)));
+
+        // When & Then
+        assertThrows(InvalidStatusTransitionException.class,
+                () -> orderService.updateOrderStatus(1L, Order.OrderStatus.PENDING));
+        verify(orderRepository, never()).save(any());
+        verify(orderEventService, never()).sendOrderStatusUpdatedEvent(any(), any(), any());
+    }
+
+    @Test
+    void cancelOrder_TerminalOrder_ShouldThrow() {
+        // Given
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order(Order.OrderStatus.REFUNDED)));
+
+        // When & Then
+        assertThrows(InvalidStatusTransitionException.class, () -> orderService.cancelOrder(1L));
+        verify(metricsService, never()).recordOrderCancelled();
+    }
+
+    @Test
+    void updateOrderStatus_SameStatus_ShouldNotSendEvent() {
+        // Given
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order(Order.OrderStatus.PAID)));
+
+        // When
+        OrderResponse response = orderService.updateOrderStatus(1L, Order.OrderStatus.PAID);
+
+        // Then
+        assertEquals("PAID", response.getStatus());
+        verify(orderRepository, never()).save(any());
+        verify(orderEventService, never()).sendOrderStatusUpdatedEvent(any(), any(), any());
+    }
+
+    private static Order order(Order.OrderStatus status) {
+        return Order.builder()
+                .id(1L)
+                .orderNumber("ORD1")
+                .userId(7L)
+                .totalAmount(BigDecimal.TEN)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.ecommerce.order.service.impl;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    private static final int THREADS = 4;
+    private static final int IDS_PER_THREAD = 500_000;
+
+    @Test
+    void nextId_MillionsOfIdsAcrossThreadsAndNodes_ShouldNeverCollide() throws Exception {
+        // Given: 兩個節點同時以多執行緒發號，總計 2M 個 ID
+        SnowflakeOrderNumberGenerator nodeA = new SnowflakeOrderNumberGenerator(1, System::currentTimeMillis);
+        SnowflakeOrderNumberGenerator nodeB = new SnowflakeOrderNumberGenerator(2, System::currentTimeMillis);
+        long[] ids = new long[THREADS * IDS_PER_THREAD];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        // When
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * IDS_PER_THREAD;
+            SnowflakeOrderNumberGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids[offset + i] = generator.nextId();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Then
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] != ids[i - 1], "Duplicate id generated: " + ids[i]);
+        }
+    }
+
+    @Test
+    void nextId_SequenceExhaustedOrClockBackwards_ShouldStayUniqueAndIncreasing() {
+        // Given: 凍結的時鐘，之後再回撥
+        AtomicLong now = new AtomicLong(SnowflakeOrderNumberGenerator.EPOCH + 1_000);
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(5, now::get);
+
+        // When
+        long previous = generator.nextId();
+        for (int i = 0; i < 3 * (SnowflakeOrderNumberGenerator.SEQUENCE_MASK + 1); i++) {
+            if (i == 5_000) {
+                now.addAndGet(-20);
+            }
+            long id = generator.nextId();
+
+            // Then
+            assertTrue(id > previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_BorrowedTooFarAhead_ShouldWaitForClock() throws Exception {
+        // Given: 凍結的時鐘，序號用盡後最多借用 MAX_BORROW_MS 毫秒
+        AtomicLong now = new AtomicLong(SnowflakeOrderNumberGenerator.EPOCH + 1_000);
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(5, now::get);
+        long capacity = (SnowflakeOrderNumberGenerator.MAX_BORROW_MS + 1) * (SnowflakeOrderNumberGenerator.SEQUENCE_MASK + 1);
+        for (long i = 0; i < capacity - 1; i++) {
+            generator.nextId();
+        }
+
+        // When: 下一個 ID 必須等待時鐘前進
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        var pending = executor.submit(generator::nextId);
+        Thread.sleep(100);
+        assertTrue(!pending.isDone());
+        now.addAndGet(10);
+
+        // Then
+        assertTrue(pending.get(5, TimeUnit.SECONDS) > 0);
+        executor.shutdown();
+    }
+
+    @Test
+    void nextId_ShouldEncodeNodeId() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(1023, System::currentTimeMillis);
+
+        long id = generator.nextId();
+
+        assertEquals(1023, (id >>> SnowflakeOrderNumberGenerator.SEQUENCE_BITS) & SnowflakeOrderNumberGenerator.MAX_NODE_ID);
+        assertTrue(generator.nextOrderNumber().startsWith("ORD"));
+    }
+
+    @Test
+    void timestampOf_GeneratedOrderNumber_ShouldDecodeCreationTime() {
+        // Given
+        AtomicLong now = new AtomicLong(SnowflakeOrderNumberGenerator.EPOCH + 86_400_000L);
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7, now::get);
+
+        // When
+        OptionalLong timestamp = SnowflakeOrderNumberGenerator.timestampOf(generator.nextOrderNumber());
+
+        // Then
+        assertEquals(now.get(), timestamp.getAsLong());
+        assertFalse(SnowflakeOrderNumberGenerator.timestampOf("ORDER-20240101120000-0001").isPresent());
+        assertFalse(SnowflakeOrderNumberGenerator.timestampOf("ORD").isPresent());
+    }
+
+    @Test
+    void timestampOf_LegacySagaOrderNumber_ShouldReturnEmpty() {
+        // Given: 舊版 CreateOrderStep 產生的 "ORD" + yyyyMMddHHmmss + 3 位數字，會被誤解為 2024-02-25
+        String orderNumber = "ORD20240101120000123";
+
+        // When & Then
+        assertFalse(SnowflakeOrderNumberGenerator.timestampOf(orderNumber).isPresent());
+        assertFalse(SnowflakeOrderNumberGenerator.timestampOf("ORD20251231235959000").isPresent());
+    }
+
+    @Test
+    void timestampOf_DecodedTimeInFuture_ShouldReturnEmpty() {
+        // Given: 解出的時間超前本機時鐘
+        long future = System.currentTimeMillis() + 10 * SnowflakeOrderNumberGenerator.MAX_CLOCK_SKEW_MS;
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7, () -> future);
+
+        // When & Then
+        assertFalse(SnowflakeOrderNumberGenerator.timestampOf(generator.nextOrderNumber()).isPresent());
+    }
+
+    @Test
+    void constructor_InvalidNodeId_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeOrderNumberGenerator(1024, System::currentTimeMillis));
+    }
+
+    @Test
+    void constructor_NodeIdNotConfigured_ShouldFailFast() {
+        assertThrows(IllegalStateException.class, () -> new SnowflakeOrderNumberGenerator(-1));
+    }
+}
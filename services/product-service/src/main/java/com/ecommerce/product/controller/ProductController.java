@@ -23,6 +23,9 @@ import java.util.List;
 @Tag(name = "Product Management", description = "APIs for managing products")
 public class ProductController {
 
+    // 批量查詢單次最多的商品 ID 數
+    private static final int MAX_BATCH_SIZE = 200;
+
     private final ProductService productService;
 
     @GetMapping
@@ -50,6 +53,15 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Get products by IDs", description = "Retrieve multiple products by their IDs in one call")
+    public ResponseEntity<List<ProductDTO>> getProductsByIds(@RequestBody List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
     @GetMapping("/sku/{sku}")
     @Operation(summary = "Get product by SKU", description = "Retrieve a product by its SKU")
     public ResponseEntity<ProductDTO> getProductBySku(
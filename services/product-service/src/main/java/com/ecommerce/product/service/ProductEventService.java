@@ -0,0 +1,67 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.events.ProductEvent;
+import com.ecommerce.product.entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 商品變更事件
+ *
+ * 建立、更新、刪除都發佈到 product.updated（以商品 ID 為 key，同一商品的事件有序），
+ * 供其他服務更新本機的商品價格快取。事件在交易提交後才送出，避免下游讀到未提交的價格。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventService {
+
+    static final String PRODUCT_UPDATED_TOPIC = "product.updated";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    public void publishProductCreatedEvent(Product product) {
+        publishAfterCommit(toEvent("PRODUCT_CREATED", product));
+    }
+
+    public void publishProductUpdatedEvent(Product product) {
+        publishAfterCommit(toEvent("PRODUCT_UPDATED", product));
+    }
+
+    public void publishProductDeletedEvent(Long productId) {
+        publishAfterCommit(new ProductEvent("PRODUCT_DELETED", productId, null, null));
+    }
+
+    private ProductEvent toEvent(String eventType, Product product) {
+        ProductEvent event = new ProductEvent(eventType, product.getId(), product.getName(), product.getPrice());
+        event.setSku(product.getSku());
+        event.setStatus(product.getStatus() != null ? product.getStatus().name() : null);
+        return event;
+    }
+
+    private void publishAfterCommit(ProductEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(event);
+            }
+        });
+    }
+
+    private void send(ProductEvent event) {
+        try {
+            kafkaTemplate.send(PRODUCT_UPDATED_TOPIC, event.getProductId().toString(), event);
+            log.info("Published {} event for product: {}", event.getEventType(), event.getProductId());
+        } catch (Exception e) {
+            log.error("Failed to publish {} event for product: {}", event.getEventType(), event.getProductId(), e);
+        }
+    }
+}
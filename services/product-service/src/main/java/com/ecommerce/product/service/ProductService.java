@@ -17,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -29,6 +30,7 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductEventService productEventService;
 
     @Cacheable(value = "products", key = "#id")
     @Transactional(readOnly = true)
@@ -44,6 +46,17 @@ public class ProductService {
         return product.map(this::convertToDTO);
     }
 
+    /**
+     * 依多個 ID 批量查詢商品（一次查詢，不增加瀏覽數），不存在的 ID 不會出現在結果中
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getProductsByIds(List<Long> ids) {
+        log.debug("Fetching {} products by ids", ids.size());
+        return productRepository.findAllWithCategoryByIdIn(new LinkedHashSet<>(ids)).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public Optional<ProductDTO> getProductBySku(String sku) {
         log.debug("Fetching product by sku: {}", sku);
@@ -122,6 +135,7 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
         log.info("Product created successfully with id: {}", savedProduct.getId());
+        productEventService.publishProductCreatedEvent(savedProduct);
         
         return convertToDTO(savedProduct);
     }
@@ -155,6 +169,7 @@ public class ProductService {
 
         Product updatedProduct = productRepository.save(product);
         log.info("Product updated successfully with id: {}", updatedProduct.getId());
+        productEventService.publishProductUpdatedEvent(updatedProduct);
         
         return convertToDTO(updatedProduct);
     }
@@ -169,6 +184,7 @@ public class ProductService {
 
         productRepository.deleteById(id);
         log.info("Product deleted successfully with id: {}", id);
+        productEventService.publishProductDeletedEvent(id);
     }
 
     private void incrementViewCount(Long productId) {
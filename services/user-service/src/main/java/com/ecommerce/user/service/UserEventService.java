@@ -9,4 +9,6 @@ public interface UserEventService {
     void publishUserProfileUpdatedEvent(User user);
     
     void publishPasswordResetEvent(User user);
+    
+    void publishUserDeactivatedEvent(User user);
 }
@@ -134,6 +134,9 @@ public class UserService {
         user.setStatus(User.UserStatus.INACTIVE);
         userRepository.save(user);
         log.info("User deactivated successfully with ID: {}", userId);
+
+        // Publish user deactivated event
+        userEventService.publishUserDeactivatedEvent(user);
     }
 
     private UserResponse mapToUserResponse(User user) {
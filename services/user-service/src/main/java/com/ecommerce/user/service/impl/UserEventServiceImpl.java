@@ -20,6 +20,7 @@ public class UserEventServiceImpl implements UserEventService {
     private static final String USER_REGISTERED_TOPIC = "user.registered";
     private static final String USER_PROFILE_UPDATED_TOPIC = "user.profile-updated";
     private static final String USER_PASSWORD_RESET_TOPIC = "user.password-reset";
+    private static final String USER_DEACTIVATED_TOPIC = "user.deactivated";
     
     @Override
     public void publishUserRegisteredEvent(User user) {
@@ -64,4 +65,16 @@ public class UserEventServiceImpl implements UserEventService {
             log.error("Failed to publish USER_PASSWORD_RESET event for user: {}", user.getUsername(), e);
         }
     }
+    
+    @Override
+    public void publishUserDeactivatedEvent(User user) {
+        try {
+            UserEvent event = new UserEvent("USER_DEACTIVATED", user.getId(), user.getUsername(), user.getEmail());
+            
+            kafkaTemplate.send(USER_DEACTIVATED_TOPIC, user.getId().toString(), event);
+            log.info("Published USER_DEACTIVATED event for user: {}", user.getUsername());
+        } catch (Exception e) {
+            log.error("Failed to publish USER_DEACTIVATED event for user: {}", user.getUsername(), e);
+        }
+    }
 }